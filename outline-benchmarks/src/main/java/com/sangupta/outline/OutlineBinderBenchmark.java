@@ -0,0 +1,81 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sangupta.outline.benchmarks.BenchmarkCommands;
+import com.sangupta.outline.benchmarks.BenchmarkCommands.RemoteAddCommand;
+import com.sangupta.outline.parser.OutlineArgumentParser;
+import com.sangupta.outline.parser.OutlineParseResult;
+
+/**
+ * Measure the time taken to bind an already parsed command line to a new
+ * command instance, when the same command is bound repeatedly.
+ * 
+ * Lives in the <code>com.sangupta.outline</code> package, as the
+ * {@link OutlineBinder} is not public.
+ * 
+ * @author sangupta
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutlineBinderBenchmark {
+	
+	private OutlineConverters converters;
+	
+	private OutlineMetadata metadata;
+	
+	private OutlineParseResult result;
+	
+	@Setup
+	public void setup() {
+		CompiledOutline compiled = BenchmarkCommands.getGitOutline().compile();
+		this.converters = compiled.converters();
+		this.metadata = compiled.getMetadata();
+		this.result = OutlineArgumentParser.parse(BenchmarkCommands.REMOTE_ADD_ARGS, this.metadata);
+	}
+	
+	@Benchmark
+	public Object bind() {
+		RemoteAddCommand command = new RemoteAddCommand();
+		OutlineBinder.bindInstanceToProperties(this.converters, this.metadata, RemoteAddCommand.class, command, this.result);
+		return command;
+	}
+	
+}
@@ -0,0 +1,136 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sangupta.outline.benchmarks.BenchmarkCommands;
+import com.sangupta.outline.help.OutlineHelp;
+import com.sangupta.outline.help.OutlineHelpBuilder;
+import com.sangupta.outline.parser.OutlineArgumentParser;
+import com.sangupta.outline.parser.OutlineParseResult;
+
+/**
+ * Measure each phase of parsing on its own - reading the metadata, tokenizing
+ * the arguments, binding them to the command and rendering the top-level help
+ * - as well as the end-to-end parse, for tools from the small git-like one to a
+ * {@link SyntheticCommands} with a thousand commands of a hundred options each.
+ * 
+ * Command models are cached per class, and thus reading the metadata measures
+ * building the lookup tables from the models, not the reflection over the
+ * command classes.
+ * 
+ * @author sangupta
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutlinePhasesBenchmark {
+	
+	/**
+	 * <code>git</code> for the tool of {@link BenchmarkCommands}, or
+	 * <code>COMMANDSxOPTIONS</code> for a {@link SyntheticCommands}
+	 */
+	@Param({ "git", "100x10", "1000x100" })
+	public String fixture;
+	
+	private Outline outline;
+	
+	private String[] args;
+	
+	private CompiledOutline compiled;
+	
+	private OutlineConverters converters;
+	
+	private OutlineMetadata metadata;
+	
+	private OutlineParseResult result;
+	
+	private Class<?> commandClass;
+	
+	private OutlineParseResult helpResult;
+	
+	@Setup
+	public void setup() {
+		if("git".equals(this.fixture)) {
+			this.outline = BenchmarkCommands.getGitOutline();
+			this.args = BenchmarkCommands.REMOTE_ADD_ARGS;
+		} else {
+			SyntheticCommands synthetic = SyntheticCommands.forFixture(this.fixture);
+			this.outline = synthetic.outline;
+			this.args = synthetic.commandLine(synthetic.commandClasses.length / 2);
+		}
+		
+		this.compiled = this.outline.compile();
+		this.converters = this.compiled.converters();
+		this.metadata = this.compiled.getMetadata();
+		this.result = OutlineArgumentParser.parse(this.args, this.metadata);
+		this.commandClass = this.metadata.commandClasses.get(this.result.command);
+		
+		OutlineHelp help = this.compiled.newParseContext().parse(new String[] { this.metadata.helpKeyword });
+		this.helpResult = help.getResult();
+	}
+	
+	@Benchmark
+	public Object metadata() {
+		return OutlineMetadataReader.getMetadata(this.outline);
+	}
+	
+	@Benchmark
+	public Object tokenize() {
+		return OutlineArgumentParser.parse(this.args, this.metadata);
+	}
+	
+	@Benchmark
+	public Object bind() throws ReflectiveOperationException {
+		Object command = this.commandClass.newInstance();
+		OutlineBinder.bindInstanceToProperties(this.converters, this.metadata, this.commandClass, command, this.result);
+		return command;
+	}
+	
+	@Benchmark
+	public Object parse() {
+		return this.compiled.parse(this.args);
+	}
+	
+	@Benchmark
+	public String help() {
+		return new OutlineHelpBuilder(this.metadata, this.helpResult).getHelpText();
+	}
+	
+}
@@ -0,0 +1,123 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+ 
+package com.sangupta.outline.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sangupta.outline.Outline;
+import com.sangupta.outline.OutlineParseContext;
+import com.sangupta.outline.annotations.Arguments;
+import com.sangupta.outline.annotations.Command;
+
+/**
+ * Compare binding a large list of numeric ids to a <code>long[]</code> field,
+ * which parses each token straight into the array, against binding them to a
+ * <code>String[]</code> field via the built-in converter and parsing them in
+ * the command. Meant to be run with the GC profiler:
+ * 
+ * <code>java -jar target/benchmarks.jar ArrayBindingBenchmark -prof gc</code>
+ * 
+ * @author sangupta
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrayBindingBenchmark {
+	
+	@Command(name = "purge")
+	public static class PurgeCommand {
+		
+		@Arguments
+		public long[] ids;
+		
+	}
+	
+	@Command(name = "purge-strings")
+	public static class PurgeStringsCommand {
+		
+		@Arguments
+		public String[] ids;
+		
+		public long[] getIds() {
+			long[] values = new long[this.ids.length];
+			for(int index = 0; index < values.length; index++) {
+				values[index] = Long.parseLong(this.ids[index]);
+			}
+			
+			return values;
+		}
+		
+	}
+	
+	@Param({ "1000", "50000" })
+	public int count;
+	
+	private OutlineParseContext context;
+	
+	private String[] args;
+	
+	private String[] stringArgs;
+	
+	@Setup
+	public void setup() {
+		this.context = new Outline("db").withCommands(PurgeCommand.class, PurgeStringsCommand.class).compile().newParseContext();
+		
+		this.args = new String[this.count + 1];
+		this.args[0] = "purge";
+		for(int index = 1; index <= this.count; index++) {
+			this.args[index] = String.valueOf(1000000L + index);
+		}
+		
+		this.stringArgs = this.args.clone();
+		this.stringArgs[0] = "purge-strings";
+	}
+	
+	@Benchmark
+	public long[] bindLongArray() {
+		PurgeCommand command = this.context.parse(this.args);
+		return command.ids;
+	}
+	
+	@Benchmark
+	public long[] bindStringArray() {
+		PurgeStringsCommand command = this.context.parse(this.stringArgs);
+		return command.getIds();
+	}
+	
+}
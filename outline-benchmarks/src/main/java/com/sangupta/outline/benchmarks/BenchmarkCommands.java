@@ -0,0 +1,153 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.benchmarks;
+
+import com.sangupta.outline.Outline;
+import com.sangupta.outline.annotations.Argument;
+import com.sangupta.outline.annotations.Arguments;
+import com.sangupta.outline.annotations.Command;
+import com.sangupta.outline.annotations.Option;
+import com.sangupta.outline.annotations.OptionType;
+
+/**
+ * Command fixtures that are used across benchmarks. These mirror a small
+ * git-like command line tool.
+ * 
+ * @author sangupta
+ *
+ */
+public class BenchmarkCommands {
+	
+	/**
+	 * A typical command line for the {@link RemoteAddCommand}
+	 */
+	public static final String[] REMOTE_ADD_ARGS = "-g1 op1 -g2 op2 op3 remote -gr1 op4 -gr2 op5 op6 remote-add -c1 op7 -c2 op8 op9 arg1 arg2 arg3 arg4".split(" ");
+	
+	/**
+	 * A typical command line for the {@link AddCommand}
+	 */
+	public static final String[] ADD_ARGS = "-g1 op1 add".split(" ");
+	
+	/**
+	 * A typical command line for the {@link PushCommand}
+	 */
+	public static final String[] PUSH_ARGS = "push --repo origin --timeout 30 --retries 3 --force true --depth 1024 master".split(" ");
+	
+	/**
+	 * The {@link #PUSH_ARGS} as a single command line
+	 */
+	public static final String PUSH_LINE = "push --repo 'origin' --timeout 30 --retries 3 --force true --depth 1024 master";
+	
+	public static Outline getGitOutline() {
+		Outline outline = new Outline("git")
+									.withDescription("the powerful SCM tool")
+									.withHelpKeyword("help")
+									.withCommands(AddCommand.class, ResetCommand.class)
+									.withCommands(RemoteAddCommand.class, RemoteRemoveCommand.class)
+									.withCommands(PushCommand.class)
+									.withHelpOnIncorrectArguments(true);
+		
+		return outline;
+	}
+	
+	public static abstract class GlobalCommand {
+		
+		@Option(name = { "-g1", "--global1" }, description = "This is some description for the global1 flag", type = OptionType.GLOBAL)
+		public String g1;
+		
+		@Option(name = { "-g2", "--global2" }, description = "This is some description for the global2 flag", type = OptionType.GLOBAL, arity = 2)
+		public String[] g2;
+		
+	}
+	
+	@Command(name = "add", description = "add command")
+	public static class AddCommand extends GlobalCommand {
+		
+	}
+	
+	@Command(name = "reset", description = "reset command")
+	public static class ResetCommand extends GlobalCommand {
+		
+	}
+	
+	public static class RemoteCommand extends GlobalCommand {
+		
+		@Option(name = "-gr1", type = OptionType.GROUP)
+		public String gr1;
+		
+		@Option(name = "-gr2", type = OptionType.GROUP, arity = 2)
+		public String[] gr2;
+		
+	}
+	
+	@Command(group = "remote", name = "remote-add", description = "remote add global command")
+	public static class RemoteAddCommand extends RemoteCommand {
+		
+		@Option(name = "-c1", description = "command specific option 1")
+		public String c1;
+		
+		@Option(name = "-c2", arity = 2, description = "command specific option 2")
+		public String[] c2;
+		
+		@Argument(order = 0, description = "the first argument", required = true, title = "file")
+		public String a1;
+		
+		@Argument(order = 1, description = "the second argument")
+		public String a2;
+		
+		@Arguments(description = "all other arguments")
+		public String[] a3;
+		
+	}
+	
+	@Command(group = "remote", name = "remote-remove", description = "remote remove global command")
+	public static class RemoteRemoveCommand extends RemoteCommand {
+		
+	}
+	
+	/**
+	 * A command with only primitive and {@link String} fields
+	 */
+	@Command(name = "push", description = "push command")
+	public static class PushCommand {
+		
+		@Option(name = "--repo", description = "the repository to push to")
+		public String repo;
+		
+		@Option(name = "--timeout", description = "timeout in seconds")
+		public int timeout;
+		
+		@Option(name = "--retries", description = "number of retries")
+		public int retries;
+		
+		@Option(name = "--force", description = "force the push")
+		public boolean force;
+		
+		@Option(name = "--depth", description = "depth of history")
+		public long depth;
+		
+		@Argument(order = 0, description = "the branch to push", title = "branch")
+		public String branch;
+		
+	}
+	
+}
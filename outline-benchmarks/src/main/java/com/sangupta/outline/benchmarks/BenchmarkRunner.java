@@ -0,0 +1,228 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.benchmarks;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so that the allocation rate and
+ * the bytes allocated per operation are reported next to every score. All
+ * options of the JMH command line are accepted, along with:
+ * 
+ * <ul>
+ * <li><code>-save FILE</code> to save the scores as a baseline</li>
+ * <li><code>-baseline FILE</code> to compare the scores with a saved baseline,
+ * and to exit with status <code>1</code> if any of them has regressed</li>
+ * <li><code>-threshold PERCENT</code> for the regression allowed before
+ * failing, <code>10</code> by default</li>
+ * </ul>
+ * 
+ * A score regresses when the throughput drops, or the time per operation
+ * grows, by more than the threshold. Each score is saved with its mode and
+ * unit, and a score that was measured in another mode or unit than its
+ * baseline is reported as a mismatch and fails the comparison. Benchmarks
+ * that are not in the baseline are reported but never fail.
+ * 
+ * @author sangupta
+ *
+ */
+public final class BenchmarkRunner {
+	
+	private BenchmarkRunner() {
+		// not to be instantiated
+	}
+	
+	public static void main(String[] args) throws Exception {
+		String save = null;
+		String baseline = null;
+		double threshold = 10;
+		
+		List<String> jmhArgs = new ArrayList<>();
+		for(int index = 0; index < args.length; index++) {
+			final String arg = args[index];
+			if(index + 1 < args.length) {
+				if("-save".equals(arg)) {
+					save = args[++index];
+					continue;
+				}
+				
+				if("-baseline".equals(arg)) {
+					baseline = args[++index];
+					continue;
+				}
+				
+				if("-threshold".equals(arg)) {
+					threshold = Double.parseDouble(args[++index]);
+					continue;
+				}
+			}
+			
+			jmhArgs.add(arg);
+		}
+		
+		final CommandLineOptions commandLine = new CommandLineOptions(jmhArgs.toArray(new String[jmhArgs.size()]));
+		if(commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+			Main.main(jmhArgs.toArray(new String[jmhArgs.size()]));
+			return;
+		}
+		
+		final Options options = new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class).build();
+		final Collection<RunResult> results = new Runner(options).run();
+		
+		if(save != null) {
+			save(results, save);
+		}
+		
+		if(baseline != null && !compare(results, load(baseline), threshold)) {
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * Return the key of the given result: the benchmark along with its
+	 * parameters.
+	 * 
+	 * @param params
+	 * @return
+	 */
+	private static String key(BenchmarkParams params) {
+		StringBuilder builder = new StringBuilder(params.getBenchmark());
+		for(String param : params.getParamsKeys()) {
+			builder.append(':').append(param).append('=').append(params.getParam(param));
+		}
+		
+		return builder.toString();
+	}
+	
+	/**
+	 * Return how the given result was measured: the short label of its mode
+	 * and the unit of its score, such as <code>avgt us/op</code>.
+	 * 
+	 * @param result
+	 * @return
+	 */
+	private static String measure(RunResult result) {
+		return result.getParams().getMode().shortLabel() + " " + result.getPrimaryResult().getScoreUnit();
+	}
+	
+	/**
+	 * Save the scores, each as its value followed by how it was measured.
+	 * 
+	 * @param results
+	 * @param file
+	 * @throws IOException
+	 */
+	private static void save(Collection<RunResult> results, String file) throws IOException {
+		Properties scores = new Properties();
+		for(RunResult result : results) {
+			scores.setProperty(key(result.getParams()), result.getPrimaryResult().getScore() + " " + measure(result));
+		}
+		
+		try(OutputStream stream = new FileOutputStream(file)) {
+			scores.store(stream, "outline benchmark baseline");
+		}
+		
+		System.out.println("Baseline saved to " + file);
+	}
+	
+	private static Properties load(String file) throws IOException {
+		Properties scores = new Properties();
+		try(InputStream stream = new FileInputStream(file)) {
+			scores.load(stream);
+		}
+		
+		return scores;
+	}
+	
+	/**
+	 * Compare the given results with the baseline, and report every
+	 * regression.
+	 * 
+	 * @param results
+	 * @param baseline
+	 * @param threshold
+	 *            the regression allowed, in percent
+	 * 
+	 * @return <code>true</code> if no score has regressed beyond the threshold
+	 */
+	private static boolean compare(Collection<RunResult> results, Properties baseline, double threshold) {
+		System.out.println();
+		System.out.println("Comparison with baseline, allowing a regression of " + threshold + "%:");
+		
+		boolean passed = true;
+		for(RunResult result : results) {
+			final String key = key(result.getParams());
+			final String saved = baseline.getProperty(key);
+			final double score = result.getPrimaryResult().getScore();
+			if(saved == null) {
+				System.out.println("  NEW        " + key + ": " + format(score));
+				continue;
+			}
+			
+			// baselines saved before the measure was recorded hold the score alone
+			final int space = saved.indexOf(' ');
+			final String savedMeasure = space < 0 ? "unknown" : saved.substring(space + 1);
+			if(!savedMeasure.equals(measure(result))) {
+				passed = false;
+				System.out.println("  MISMATCH   " + key + ": baseline in " + savedMeasure + ", run in " + measure(result));
+				continue;
+			}
+			
+			final double expected = Double.parseDouble(saved.substring(0, space));
+			
+			// throughput is better when higher, all other modes measure time
+			final double change = result.getParams().getMode() == Mode.Throughput ? (expected - score) / expected : (score - expected) / expected;
+			final boolean regressed = change * 100 > threshold;
+			if(regressed) {
+				passed = false;
+			}
+			
+			System.out.println((regressed ? "  REGRESSED  " : "  OK         ") + key + ": " + format(expected) + " -> " + format(score) + " (" + format(-change * 100) + "%)");
+		}
+		
+		return passed;
+	}
+	
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.3f", value);
+	}
+	
+}
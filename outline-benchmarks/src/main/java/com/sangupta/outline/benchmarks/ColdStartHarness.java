@@ -0,0 +1,323 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import com.sangupta.outline.SyntheticCommands;
+
+/**
+ * Measures the time from launching <code>java</code> until the first command
+ * line has been parsed, which is what matters most for short-lived tools.
+ * Each fixture is run in many fresh JVMs via the {@link ColdStartProbe}, and the
+ * harness reports, in milliseconds:
+ * 
+ * <ul>
+ * <li><code>wall</code> - from launch until the parse returns</li>
+ * <li><code>launch</code> - the part of it before the probe starts building the
+ * tool, spent in starting the JVM</li>
+ * <li><code>build</code> - loading the command classes and building the
+ * {@link com.sangupta.outline.Outline}</li>
+ * <li><code>metadata</code> - compiling the outline, which reads all metadata
+ * via the <code>OutlineMetadataReader</code></li>
+ * <li><code>parse</code> - parsing and binding the command line</li>
+ * </ul>
+ * 
+ * along with the number of classes loaded by the time the parse returns, in all
+ * and from outline itself, counted in one more run with
+ * <code>-verbose:class</code> so that the timed runs are not slowed down. The
+ * report can be saved, and compared with a report saved earlier:
+ * 
+ * <code>java -cp target/benchmarks.jar com.sangupta.outline.benchmarks.ColdStartHarness [-runs 20] [-warmup 2] [-fixtures git,100x10,1000x100] [-jvmArgs "-Xshare:auto"] [-save FILE] [-baseline FILE]</code>
+ * 
+ * The JVM options make it possible to prove startup improvements such as an
+ * AppCDS archive or a different JIT configuration with numbers.
+ * 
+ * @author sangupta
+ *
+ */
+public final class ColdStartHarness {
+	
+	/**
+	 * The timings of a single run, in nanoseconds
+	 */
+	private static final class Run {
+		
+		long wall;
+		
+		long build;
+		
+		long metadata;
+		
+		long parse;
+		
+	}
+	
+	private ColdStartHarness() {
+		// not to be instantiated
+	}
+	
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int runs = 20;
+		int warmup = 2;
+		String[] fixtures = { "git", "100x10", "1000x100" };
+		List<String> jvmArgs = new ArrayList<>();
+		String save = null;
+		String baseline = null;
+		
+		for(int index = 0; index + 1 < args.length; index += 2) {
+			final String value = args[index + 1];
+			switch(args[index]) {
+				case "-runs":
+					runs = Integer.parseInt(value);
+					break;
+				
+				case "-warmup":
+					warmup = Integer.parseInt(value);
+					break;
+				
+				case "-fixtures":
+					fixtures = value.split(",");
+					break;
+				
+				case "-jvmArgs":
+					jvmArgs.addAll(Arrays.asList(value.trim().split("\\s+")));
+					break;
+				
+				case "-save":
+					save = value;
+					break;
+				
+				case "-baseline":
+					baseline = value;
+					break;
+				
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[index]);
+			}
+		}
+		
+		if(runs < 1 || warmup < 0) {
+			throw new IllegalArgumentException("Need at least one run and no negative warmup");
+		}
+		
+		final Properties report = new Properties();
+		for(String fixture : fixtures) {
+			if(!"git".equals(fixture)) {
+				// write the synthetic class files once, outside of the timed runs
+				SyntheticCommands.forFixture(fixture);
+			}
+			
+			long[] wall = new long[runs];
+			long[] launch = new long[runs];
+			long[] build = new long[runs];
+			long[] metadata = new long[runs];
+			long[] parse = new long[runs];
+			for(int index = -warmup; index < runs; index++) {
+				final Run run = fork(fixture, jvmArgs, null);
+				if(index < 0) {
+					continue;
+				}
+				
+				wall[index] = run.wall;
+				launch[index] = run.wall - run.build - run.metadata - run.parse;
+				build[index] = run.build;
+				metadata[index] = run.metadata;
+				parse[index] = run.parse;
+			}
+			
+			summarize(report, fixture + ".wall", wall);
+			summarize(report, fixture + ".launch", launch);
+			summarize(report, fixture + ".build", build);
+			summarize(report, fixture + ".metadata", metadata);
+			summarize(report, fixture + ".parse", parse);
+			
+			int[] classes = new int[2];
+			fork(fixture, jvmArgs, classes);
+			report.setProperty(fixture + ".classes", String.valueOf(classes[0]));
+			report.setProperty(fixture + ".classes.outline", String.valueOf(classes[1]));
+		}
+		
+		print(report, baseline != null ? load(baseline) : null);
+		
+		if(save != null) {
+			try(OutputStream stream = new FileOutputStream(save)) {
+				report.store(stream, "outline cold start, " + runs + " runs, JVM options: " + jvmArgs);
+			}
+			
+			System.out.println("Report saved to " + save);
+		}
+	}
+	
+	/**
+	 * Launch the probe for the given fixture, and wait for it to exit.
+	 * 
+	 * @param fixture
+	 *            the fixture to probe
+	 * 
+	 * @param jvmArgs
+	 *            the options of the JVM
+	 * 
+	 * @param classes
+	 *            <code>null</code> for a timed run, or where to count all
+	 *            classes loaded and those of outline
+	 * 
+	 * @return the timings of the run
+	 */
+	private static Run fork(String fixture, List<String> jvmArgs, int[] classes) throws IOException, InterruptedException {
+		List<String> command = new ArrayList<>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.addAll(jvmArgs);
+		if(classes != null) {
+			command.add("-verbose:class");
+		}
+		
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(ColdStartProbe.class.getName());
+		command.add(fixture);
+		
+		final ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true);
+		final long start = System.nanoTime();
+		final Process process = builder.start();
+		
+		Run run = null;
+		final List<String> output = new ArrayList<>();
+		try(BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), Charset.defaultCharset()))) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				if(run == null && line.startsWith(ColdStartProbe.MARKER)) {
+					run = new Run();
+					run.wall = System.nanoTime() - start;
+					
+					String[] timings = line.split(" ");
+					run.build = Long.parseLong(timings[1]);
+					run.metadata = Long.parseLong(timings[2]);
+					run.parse = Long.parseLong(timings[3]);
+					continue;
+				}
+				
+				if(run == null && classes != null && countClass(line, classes)) {
+					continue;
+				}
+				
+				output.add(line);
+			}
+		}
+		
+		final int status = process.waitFor();
+		if(run == null || status != 0) {
+			throw new IllegalStateException("Probe for " + fixture + " failed with status " + status + ": " + output);
+		}
+		
+		return run;
+	}
+	
+	/**
+	 * Count the class loaded on the given line of <code>-verbose:class</code>
+	 * output, which reads <code>[Loaded NAME from ...]</code> up to Java 8 and
+	 * <code>[...][class,load] NAME source: ...</code> later.
+	 * 
+	 * @param line
+	 * @param classes
+	 * @return <code>true</code> if the line reports a loaded class
+	 */
+	private static boolean countClass(String line, int[] classes) {
+		int start = line.indexOf("[Loaded ");
+		if(start >= 0) {
+			start += "[Loaded ".length();
+		} else {
+			start = line.indexOf("[class,load] ");
+			if(start < 0) {
+				return false;
+			}
+			
+			start += "[class,load] ".length();
+		}
+		
+		classes[0]++;
+		if(line.startsWith("com.sangupta.outline.", start) && !line.startsWith("com.sangupta.outline.benchmarks.", start)) {
+			classes[1]++;
+		}
+		
+		return true;
+	}
+	
+	private static void summarize(Properties report, String key, long[] nanos) {
+		long[] sorted = nanos.clone();
+		Arrays.sort(sorted);
+		
+		report.setProperty(key + ".min", millis(sorted[0]));
+		report.setProperty(key + ".median", millis(sorted[sorted.length / 2]));
+		report.setProperty(key + ".p90", millis(sorted[Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * 0.9) - 1)]));
+	}
+	
+	private static String millis(long nanos) {
+		return String.format(Locale.ROOT, "%.2f", nanos / 1e6);
+	}
+	
+	private static Properties load(String file) throws IOException {
+		Properties report = new Properties();
+		try(InputStream stream = new FileInputStream(file)) {
+			report.load(stream);
+		}
+		
+		return report;
+	}
+	
+	/**
+	 * Print the report, sorted by key, next to the baseline if there is one.
+	 * 
+	 * @param report
+	 * @param baseline
+	 */
+	private static void print(Properties report, Properties baseline) {
+		System.out.println();
+		for(String key : new TreeSet<>(report.stringPropertyNames())) {
+			final String value = report.getProperty(key);
+			final String expected = baseline != null ? baseline.getProperty(key) : null;
+			if(expected == null) {
+				System.out.println(String.format(Locale.ROOT, "%-32s %10s", key, value));
+				continue;
+			}
+			
+			final double before = Double.parseDouble(expected);
+			final double change = before == 0 ? 0 : (Double.parseDouble(value) - before) * 100 / before;
+			System.out.println(String.format(Locale.ROOT, "%-32s %10s %10s %+8.1f%%", key, expected, value, change));
+		}
+	}
+	
+}
@@ -0,0 +1,86 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.benchmarks;
+
+import com.sangupta.outline.CompiledOutline;
+import com.sangupta.outline.Outline;
+import com.sangupta.outline.SyntheticCommands;
+
+/**
+ * The process forked by the {@link ColdStartHarness}: builds the tool of the
+ * given fixture, parses its typical command line once, and prints how long each
+ * step took as soon as the parse returns. The steps are timed with nothing but
+ * {@link System#nanoTime()}, so that the probe loads no classes beyond those
+ * needed to parse.
+ * 
+ * @author sangupta
+ *
+ */
+public final class ColdStartProbe {
+	
+	/**
+	 * Starts the line that reports the timings
+	 */
+	static final String MARKER = "outline-cold-start";
+	
+	private ColdStartProbe() {
+		// not to be instantiated
+	}
+	
+	/**
+	 * @param args
+	 *            the name of the fixture: <code>git</code>, or
+	 *            <code>COMMANDSxOPTIONS</code> for a {@link SyntheticCommands}
+	 *            that has been created before
+	 */
+	public static void main(String[] args) {
+		final long start = System.nanoTime();
+		
+		final Outline outline;
+		final String[] commandLine;
+		if("git".equals(args[0])) {
+			outline = BenchmarkCommands.getGitOutline();
+			commandLine = BenchmarkCommands.REMOTE_ADD_ARGS;
+		} else {
+			SyntheticCommands synthetic = SyntheticCommands.forFixture(args[0]);
+			outline = synthetic.outline;
+			commandLine = synthetic.commandLine(synthetic.commandClasses.length / 2);
+		}
+		
+		final long built = System.nanoTime();
+		
+		// compiling reads all metadata via the OutlineMetadataReader
+		final CompiledOutline compiled = outline.compile();
+		final long read = System.nanoTime();
+		
+		final Object command = compiled.parse(commandLine);
+		final long parsed = System.nanoTime();
+		
+		if(command == null) {
+			System.exit(2);
+		}
+		
+		System.out.println(MARKER + " " + (built - start) + " " + (read - built) + " " + (parsed - read));
+		System.out.flush();
+	}
+	
+}
@@ -0,0 +1,88 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sangupta.outline.CompiledOutline;
+import com.sangupta.outline.Outline;
+
+/**
+ * Compare parsing a command line via {@link Outline#parse(String[])}, that
+ * reads all metadata on every call, against parsing via a
+ * {@link CompiledOutline} that is compiled once and then reused.
+ * 
+ * Run as: <code>java -jar target/benchmarks.jar CompiledOutlineBenchmark</code>
+ * 
+ * @author sangupta
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledOutlineBenchmark {
+	
+	private Outline outline;
+	
+	private CompiledOutline compiled;
+	
+	@Setup
+	public void setup() {
+		this.outline = BenchmarkCommands.getGitOutline();
+		this.compiled = this.outline.compile();
+	}
+	
+	@Benchmark
+	public Object parseUncompiled() {
+		return this.outline.parse(BenchmarkCommands.REMOTE_ADD_ARGS);
+	}
+	
+	@Benchmark
+	public Object parseCompiled() {
+		return this.compiled.parse(BenchmarkCommands.REMOTE_ADD_ARGS);
+	}
+	
+	@Benchmark
+	public Object parseUncompiledShort() {
+		return this.outline.parse(BenchmarkCommands.ADD_ARGS);
+	}
+	
+	@Benchmark
+	public Object parseCompiledShort() {
+		return this.compiled.parse(BenchmarkCommands.ADD_ARGS);
+	}
+	
+}
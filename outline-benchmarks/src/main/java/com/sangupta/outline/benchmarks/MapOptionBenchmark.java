@@ -0,0 +1,130 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sangupta.outline.Outline;
+import com.sangupta.outline.OutlineParseContext;
+import com.sangupta.outline.annotations.Command;
+import com.sangupta.outline.annotations.Option;
+
+/**
+ * Compare binding repeated <code>-Dkey=value</code> settings to a
+ * <code>Map</code> field, which splits each token straight into a compact map,
+ * against collecting them as a <code>String[]</code> and splitting them again
+ * in the command. Meant to be run with the GC profiler:
+ * 
+ * <code>java -jar target/benchmarks.jar MapOptionBenchmark -prof gc</code>
+ * 
+ * @author sangupta
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapOptionBenchmark {
+	
+	@Command(name = "run")
+	public static class RunCommand {
+		
+		@Option(name = "-D")
+		public Map<String, String> properties;
+		
+	}
+	
+	@Command(name = "run-strings")
+	public static class RunStringsCommand {
+		
+		@Option(name = "-D")
+		public String[] properties;
+		
+		public Map<String, String> getProperties() {
+			Map<String, String> map = new HashMap<>();
+			for(String property : this.properties) {
+				int separator = property.indexOf('=');
+				map.put(property.substring(0, separator), property.substring(separator + 1));
+			}
+			
+			return map;
+		}
+		
+	}
+	
+	@Param({ "10", "50" })
+	public int count;
+	
+	private OutlineParseContext context;
+	
+	private String[] args;
+	
+	private String[] stringArgs;
+	
+	@Setup
+	public void setup() {
+		this.context = new Outline("service").withCommands(RunCommand.class, RunStringsCommand.class).compile().newParseContext();
+		
+		this.args = new String[this.count + 1];
+		this.args[0] = "run";
+		for(int index = 1; index <= this.count; index++) {
+			this.args[index] = "-Dservice.setting" + index + "=value" + index;
+		}
+		
+		// the same settings given as -D key=value, as String[] options do not take attached values
+		this.stringArgs = new String[this.count * 2 + 1];
+		this.stringArgs[0] = "run-strings";
+		for(int index = 1; index <= this.count; index++) {
+			this.stringArgs[index * 2 - 1] = "-D";
+			this.stringArgs[index * 2] = this.args[index].substring(2);
+		}
+	}
+	
+	@Benchmark
+	public Map<String, String> bindMap() {
+		RunCommand command = this.context.parse(this.args);
+		return command.properties;
+	}
+	
+	@Benchmark
+	public Map<String, String> bindStringArray() {
+		RunStringsCommand command = this.context.parse(this.stringArgs);
+		return command.getProperties();
+	}
+	
+}
@@ -0,0 +1,97 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sangupta.outline.CompiledOutline;
+import com.sangupta.outline.Outline;
+import com.sangupta.outline.SyntheticCommands;
+
+/**
+ * Measure how compiling an outline and parsing a command line grow with the
+ * number of commands, on two {@link SyntheticCommands}s of which the second has
+ * eight times as many commands and groups. Compiling should take about eight
+ * times as long on the larger tool, and parsing about as long on both - a path
+ * that is quadratic in the number of commands or groups shows as a ratio far
+ * above eight.
+ * 
+ * Command models are cached per class, and thus compiling measures building
+ * the lookup tables and indexing the groups, not the reflection over the
+ * command classes.
+ * 
+ * Run as: <code>java -jar target/benchmarks.jar OutlineScaleBenchmark</code>
+ * 
+ * @author sangupta
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutlineScaleBenchmark {
+	
+	/**
+	 * The <code>COMMANDSxOPTIONS</code> of the {@link SyntheticCommands}
+	 */
+	@Param({ "1000x4", "8000x4" })
+	public String fixture;
+	
+	private Outline outline;
+	
+	private String[] args;
+	
+	private CompiledOutline compiled;
+	
+	@Setup
+	public void setup() {
+		SyntheticCommands synthetic = SyntheticCommands.forFixture(this.fixture);
+		this.outline = synthetic.outline;
+		this.args = synthetic.commandLine(synthetic.commandClasses.length / 2);
+		this.compiled = this.outline.compile();
+	}
+	
+	@Benchmark
+	public Object compile() {
+		return this.outline.compile();
+	}
+	
+	@Benchmark
+	public Object parse() {
+		return this.compiled.parse(this.args);
+	}
+	
+}
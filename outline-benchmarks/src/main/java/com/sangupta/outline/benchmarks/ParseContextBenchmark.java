@@ -0,0 +1,97 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+ 
+package com.sangupta.outline.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sangupta.outline.CompiledOutline;
+import com.sangupta.outline.OutlineParseContext;
+
+/**
+ * Compare parsing a command line with a reusable {@link OutlineParseContext}
+ * against parsing with a new context on every call. Meant to be run with the
+ * GC profiler to see the bytes allocated per operation:
+ * 
+ * <code>java -jar target/benchmarks.jar ParseContextBenchmark -prof gc</code>
+ * 
+ * @author sangupta
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseContextBenchmark {
+	
+	private CompiledOutline compiled;
+	
+	private OutlineParseContext context;
+	
+	private ByteBuffer pushBytes;
+	
+	@Setup
+	public void setup() {
+		this.compiled = BenchmarkCommands.getGitOutline().compile();
+		this.context = this.compiled.newParseContext();
+		
+		byte[] bytes = BenchmarkCommands.PUSH_LINE.getBytes(StandardCharsets.UTF_8);
+		this.pushBytes = ByteBuffer.allocateDirect(bytes.length);
+		this.pushBytes.put(bytes).flip();
+	}
+	
+	@Benchmark
+	public Object parse() {
+		return this.compiled.parse(BenchmarkCommands.PUSH_ARGS);
+	}
+	
+	@Benchmark
+	public Object parseWithContext() {
+		return this.context.parse(BenchmarkCommands.PUSH_ARGS);
+	}
+	
+	@Benchmark
+	public Object parseLineWithContext() {
+		return this.context.parseLine(BenchmarkCommands.PUSH_LINE);
+	}
+	
+	@Benchmark
+	public Object parseBytesWithContext() {
+		return this.context.parse(this.pushBytes);
+	}
+	
+}
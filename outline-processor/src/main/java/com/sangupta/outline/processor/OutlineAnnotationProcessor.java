@@ -0,0 +1,279 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+import com.sangupta.outline.annotations.Argument;
+import com.sangupta.outline.annotations.Arguments;
+import com.sangupta.outline.annotations.Command;
+import com.sangupta.outline.annotations.Constraint;
+import com.sangupta.outline.annotations.Option;
+import com.sangupta.outline.model.OutlineCommandModel;
+
+/**
+ * Annotation processor that generates an {@link OutlineCommandModel} for every
+ * class annotated with <code>@Command</code>. The generated model describes
+ * the command and sets the field values directly, so that no annotations are
+ * read and no reflection is used at runtime.
+ * 
+ * Commands whose fields cannot be set directly from generated code, like
+ * <code>private</code> or <code>final</code> fields, are skipped and are read
+ * using reflection at runtime.
+ * 
+ * @author sangupta
+ *
+ */
+@SupportedAnnotationTypes("com.sangupta.outline.annotations.Command")
+public class OutlineAnnotationProcessor extends AbstractProcessor {
+	
+	/**
+	 * Fully qualified name of the <code>@Inject</code> annotation
+	 */
+	private static final String INJECT_ANNOTATION = "javax.inject.Inject";
+	
+	/**
+	 * Fully qualified name of the help command class
+	 */
+	private static final String HELP_CLASS = "com.sangupta.outline.help.OutlineHelp";
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+	
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for(Element element : roundEnv.getElementsAnnotatedWith(Command.class)) {
+			if(element.getKind() != ElementKind.CLASS) {
+				continue;
+			}
+			
+			processCommand((TypeElement) element);
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Generate the model for the given command class, if possible.
+	 * 
+	 * @param type
+	 *            the command class
+	 */
+	private void processCommand(TypeElement type) {
+		final String packageName = this.processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+		
+		String reason = checkTypeAccess(type);
+		if(reason != null) {
+			skip(type, reason);
+			return;
+		}
+		
+		// collect all fields including the inherited ones
+		List<OutlineModelWriter.FieldInfo> fields = new ArrayList<>();
+		TypeElement current = type;
+		while(current != null) {
+			for(VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+				OutlineModelWriter.FieldInfo info = readField(current, field);
+				if(info == null) {
+					continue;
+				}
+				
+				reason = checkFieldAccess(packageName, current, field);
+				if(reason != null) {
+					skip(type, reason);
+					return;
+				}
+				
+				fields.add(info);
+			}
+			
+			current = getSuperclass(current);
+		}
+		
+		// write the model
+		OutlineModelWriter writer = new OutlineModelWriter(this.processingEnv, type, packageName, fields);
+		try {
+			JavaFileObject file = this.processingEnv.getFiler().createSourceFile(writer.getQualifiedName(), type);
+			try (Writer out = file.openWriter()) {
+				out.write(writer.write());
+			}
+		} catch (IOException e) {
+			this.processingEnv.getMessager().printMessage(Kind.ERROR, "Unable to write outline model: " + e.getMessage(), type);
+		}
+	}
+	
+	/**
+	 * Read the details of the given field. Returns <code>null</code> if the
+	 * field needs no binding.
+	 * 
+	 * @param declaringType
+	 * @param field
+	 * @return
+	 */
+	private OutlineModelWriter.FieldInfo readField(TypeElement declaringType, VariableElement field) {
+		Option option = field.getAnnotation(Option.class);
+		Argument argument = field.getAnnotation(Argument.class);
+		Arguments arguments = field.getAnnotation(Arguments.class);
+		boolean helpInjection = hasAnnotation(field, INJECT_ANNOTATION) && isHelpType(field.asType());
+		
+		if(option == null && argument == null && arguments == null && !helpInjection) {
+			return null;
+		}
+		
+		return new OutlineModelWriter.FieldInfo(declaringType, field, option, argument, arguments, helpInjection, field.getAnnotation(Constraint.class));
+	}
+	
+	/**
+	 * Check that the command class can be referred to from generated code.
+	 * 
+	 * @param type
+	 * @return the reason if not accessible, <code>null</code> otherwise
+	 */
+	private String checkTypeAccess(TypeElement type) {
+		Element element = type;
+		while(element != null && !(element instanceof PackageElement)) {
+			if(element.getModifiers().contains(Modifier.PRIVATE)) {
+				return "class " + element.getSimpleName() + " is private";
+			}
+			
+			element = element.getEnclosingElement();
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Check that the given field can be set from generated code placed in the
+	 * given package.
+	 * 
+	 * @param packageName
+	 * @param declaringType
+	 * @param field
+	 * @return the reason if not accessible, <code>null</code> otherwise
+	 */
+	private String checkFieldAccess(String packageName, TypeElement declaringType, VariableElement field) {
+		Set<Modifier> modifiers = field.getModifiers();
+		if(modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.STATIC)) {
+			return "field " + field.getSimpleName() + " is private, final or static";
+		}
+		
+		if(containsTypeVariable(field.asType())) {
+			return "field " + field.getSimpleName() + " has a type variable in its type";
+		}
+		
+		String declaringPackage = this.processingEnv.getElementUtils().getPackageOf(declaringType).getQualifiedName().toString();
+		if(declaringPackage.equals(packageName)) {
+			return checkTypeAccess(declaringType);
+		}
+		
+		if(!modifiers.contains(Modifier.PUBLIC)) {
+			return "field " + field.getSimpleName() + " is not public and is declared in another package";
+		}
+		
+		Element element = declaringType;
+		while(element != null && !(element instanceof PackageElement)) {
+			if(!element.getModifiers().contains(Modifier.PUBLIC)) {
+				return "class " + element.getSimpleName() + " is not public and is declared in another package";
+			}
+			
+			element = element.getEnclosingElement();
+		}
+		
+		return null;
+	}
+	
+	private boolean containsTypeVariable(TypeMirror type) {
+		if(type.getKind() == TypeKind.TYPEVAR) {
+			return true;
+		}
+		
+		if(type.getKind() == TypeKind.ARRAY) {
+			return containsTypeVariable(((ArrayType) type).getComponentType());
+		}
+		
+		return false;
+	}
+	
+	private boolean isHelpType(TypeMirror type) {
+		TypeElement help = this.processingEnv.getElementUtils().getTypeElement(HELP_CLASS);
+		if(help == null) {
+			return false;
+		}
+		
+		return this.processingEnv.getTypeUtils().isAssignable(type, help.asType());
+	}
+	
+	private static boolean hasAnnotation(Element element, String annotationName) {
+		for(AnnotationMirror mirror : element.getAnnotationMirrors()) {
+			TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+			if(annotationType.getQualifiedName().contentEquals(annotationName)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private static TypeElement getSuperclass(TypeElement type) {
+		TypeMirror superclass = type.getSuperclass();
+		if(superclass.getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+		
+		TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+		if(element.getQualifiedName().contentEquals(Object.class.getName())) {
+			return null;
+		}
+		
+		return element;
+	}
+	
+	private void skip(TypeElement type, String reason) {
+		this.processingEnv.getMessager().printMessage(Kind.NOTE, "Outline model not generated, command will be read using reflection: " + reason, type);
+	}
+	
+}
@@ -0,0 +1,359 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.processor;
+
+import java.util.List;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+
+import com.sangupta.outline.annotations.Argument;
+import com.sangupta.outline.annotations.Arguments;
+import com.sangupta.outline.annotations.Command;
+import com.sangupta.outline.annotations.Constraint;
+import com.sangupta.outline.annotations.Option;
+import com.sangupta.outline.model.OutlineCommandModel;
+
+/**
+ * Writes the source code of the {@link OutlineCommandModel} for a single
+ * command class.
+ * 
+ * @author sangupta
+ *
+ */
+class OutlineModelWriter {
+	
+	/**
+	 * Details of a single field that needs binding
+	 */
+	static class FieldInfo {
+		
+		final TypeElement declaringType;
+		
+		final VariableElement field;
+		
+		final Option option;
+		
+		final Argument argument;
+		
+		final Arguments arguments;
+		
+		final boolean helpInjection;
+		
+		final Constraint constraint;
+		
+		FieldInfo(TypeElement declaringType, VariableElement field, Option option, Argument argument, Arguments arguments, boolean helpInjection, Constraint constraint) {
+			this.declaringType = declaringType;
+			this.field = field;
+			this.option = option;
+			this.argument = argument;
+			this.arguments = arguments;
+			this.helpInjection = helpInjection;
+			this.constraint = constraint;
+		}
+		
+	}
+	
+	private final ProcessingEnvironment env;
+	
+	private final TypeElement type;
+	
+	private final String packageName;
+	
+	private final String simpleName;
+	
+	private final List<FieldInfo> fields;
+	
+	private final StringBuilder builder = new StringBuilder();
+	
+	OutlineModelWriter(ProcessingEnvironment env, TypeElement type, String packageName, List<FieldInfo> fields) {
+		this.env = env;
+		this.type = type;
+		this.packageName = packageName;
+		this.fields = fields;
+		
+		String binaryName = env.getElementUtils().getBinaryName(type).toString();
+		if(!packageName.isEmpty()) {
+			binaryName = binaryName.substring(packageName.length() + 1);
+		}
+		
+		this.simpleName = binaryName + OutlineCommandModel.GENERATED_SUFFIX;
+	}
+	
+	/**
+	 * Return the fully qualified name of the generated class.
+	 * 
+	 * @return
+	 */
+	String getQualifiedName() {
+		if(this.packageName.isEmpty()) {
+			return this.simpleName;
+		}
+		
+		return this.packageName + "." + this.simpleName;
+	}
+	
+	/**
+	 * Generate the source code.
+	 * 
+	 * @return
+	 */
+	String write() {
+		final String commandType = typeName(this.type.asType());
+		final Command command = this.type.getAnnotation(Command.class);
+		
+		if(!this.packageName.isEmpty()) {
+			line(0, "package " + this.packageName + ";");
+			line(0, "");
+		}
+		
+		line(0, "import com.sangupta.outline.annotations.OptionType;");
+		line(0, "import com.sangupta.outline.annotations.ValueMatch;");
+		line(0, "import com.sangupta.outline.model.ArgumentDescriptor;");
+		line(0, "import com.sangupta.outline.model.CommandDescriptor;");
+		line(0, "import com.sangupta.outline.model.ConstraintDescriptor;");
+		line(0, "import com.sangupta.outline.model.OptionDescriptor;");
+		line(0, "import com.sangupta.outline.model.OutlineCommandModel;");
+		line(0, "import com.sangupta.outline.model.OutlineFieldModel;");
+		line(0, "");
+		line(0, "/**");
+		line(0, " * Outline command model for {@link " + commandType + "}.");
+		line(0, " * Generated by the outline-processor - do not edit.");
+		line(0, " */");
+		line(0, "public final class " + this.simpleName + " extends OutlineCommandModel {");
+		line(0, "");
+		
+		// constructor
+		line(1, "public " + this.simpleName + "() {");
+		line(2, "super(" + commandType + ".class,");
+		line(3, "new CommandDescriptor(" + literal(command.name()) + ", " + literal(command.description()) + ", " + literal(command.group()) + ", " + command.hidden() + "),");
+		line(3, "new OutlineFieldModel[] {");
+		for(int index = 0; index < this.fields.size(); index++) {
+			FieldInfo info = this.fields.get(index);
+			
+			StringBuilder field = new StringBuilder();
+			field.append("new OutlineFieldModel(").append(index).append(", ");
+			field.append(typeName(info.declaringType.asType())).append(".class, ");
+			field.append(literal(info.field.getSimpleName().toString())).append(", ");
+			
+			final String fieldType = typeName(info.field.asType()) + ".class";
+			field.append(fieldType).append(", ");
+			field.append(option(info.option, fieldType)).append(", ");
+			field.append(argument(info.argument, fieldType)).append(", ");
+			field.append(arguments(info.arguments, fieldType)).append(", ");
+			field.append(info.helpInjection).append(", ");
+			field.append(constraint(info.constraint)).append(")");
+			if(index < this.fields.size() - 1) {
+				field.append(',');
+			}
+			
+			line(4, field.toString());
+		}
+		line(3, "});");
+		line(1, "}");
+		line(0, "");
+		
+		// the setter
+		line(1, "@Override");
+		line(1, "@SuppressWarnings({ \"unchecked\", \"rawtypes\" })");
+		line(1, "public void setValue(int index, Object instance, Object value) {");
+		line(2, "switch(index) {");
+		for(int index = 0; index < this.fields.size(); index++) {
+			FieldInfo info = this.fields.get(index);
+			TypeMirror fieldType = info.field.asType();
+			
+			String target = "((" + typeName(info.declaringType.asType()) + ") instance)." + info.field.getSimpleName();
+			
+			line(3, "case " + index + ":");
+			if(fieldType.getKind().isPrimitive()) {
+				String boxed = typeName(this.env.getTypeUtils().boxedClass(this.env.getTypeUtils().getPrimitiveType(fieldType.getKind())).asType());
+				line(4, "if(value != null) {");
+				line(5, target + " = (" + boxed + ") value;");
+				line(4, "}");
+			} else {
+				line(4, target + " = (" + typeName(fieldType) + ") value;");
+			}
+			line(4, "return;");
+			line(0, "");
+		}
+		line(3, "default:");
+		line(4, "throw new IllegalArgumentException(\"No field at index: \" + index);");
+		line(2, "}");
+		line(1, "}");
+		line(0, "");
+		
+		// setters that do not box primitive values
+		primitiveSetter(TypeKind.INT, "setInt", "int");
+		primitiveSetter(TypeKind.LONG, "setLong", "long");
+		primitiveSetter(TypeKind.DOUBLE, "setDouble", "double");
+		primitiveSetter(TypeKind.BOOLEAN, "setBoolean", "boolean");
+		
+		line(0, "}");
+		
+		return this.builder.toString();
+	}
+	
+	/**
+	 * Write the override of the given primitive setter of
+	 * {@link OutlineCommandModel}, if any field is of the given kind.
+	 * 
+	 * @param kind
+	 * @param method
+	 * @param type
+	 */
+	private void primitiveSetter(TypeKind kind, String method, String type) {
+		boolean found = false;
+		for(int index = 0; index < this.fields.size(); index++) {
+			FieldInfo info = this.fields.get(index);
+			if(info.field.asType().getKind() != kind) {
+				continue;
+			}
+			
+			if(!found) {
+				found = true;
+				line(1, "@Override");
+				line(1, "public void " + method + "(int index, Object instance, " + type + " value) throws IllegalAccessException {");
+				line(2, "switch(index) {");
+			}
+			
+			line(3, "case " + index + ":");
+			line(4, "((" + typeName(info.declaringType.asType()) + ") instance)." + info.field.getSimpleName() + " = value;");
+			line(4, "return;");
+			line(0, "");
+		}
+		
+		if(!found) {
+			return;
+		}
+		
+		line(3, "default:");
+		line(4, "super." + method + "(index, instance, value);");
+		line(2, "}");
+		line(1, "}");
+		line(0, "");
+	}
+	
+	private String option(Option option, String fieldType) {
+		if(option == null) {
+			return "null";
+		}
+		
+		return "new OptionDescriptor(OptionType." + option.type().name() + ", "
+				+ literal(option.title()) + ", "
+				+ literal(option.name()) + ", "
+				+ literal(option.description()) + ", "
+				+ option.showTypeInfo() + ", "
+				+ option.required() + ", "
+				+ option.arity() + ", "
+				+ option.hidden() + ", "
+				+ literal(option.allowedValues()) + ", "
+				+ "ValueMatch." + option.valueMatch().name() + ", "
+				+ fieldType + ")";
+	}
+	
+	private String argument(Argument argument, String fieldType) {
+		if(argument == null) {
+			return "null";
+		}
+		
+		return "new ArgumentDescriptor(" + argument.order() + ", false, "
+				+ literal(argument.title()) + ", "
+				+ literal(argument.description()) + ", \"\", "
+				+ argument.required() + ", false, "
+				+ fieldType + ")";
+	}
+	
+	private String arguments(Arguments arguments, String fieldType) {
+		if(arguments == null) {
+			return "null";
+		}
+		
+		return "new ArgumentDescriptor(-1, true, " 
+				+ literal(arguments.title()) + ", "
+				+ literal(arguments.description()) + ", "
+				+ literal(arguments.usage()) + ", "
+				+ arguments.required() + ", "
+				+ arguments.stdin() + ", "
+				+ fieldType + ")";
+	}
+	
+	private String constraint(Constraint constraint) {
+		if(constraint == null) {
+			return "null";
+		}
+		
+		return "new ConstraintDescriptor("
+				+ literal(constraint.min()) + ", "
+				+ literal(constraint.max()) + ", "
+				+ literal(constraint.pattern()) + ", "
+				+ constraint.maxLength() + ")";
+	}
+	
+	/**
+	 * Return the name of the erasure of the given type, usable in source code.
+	 * 
+	 * @param type
+	 * @return
+	 */
+	private String typeName(TypeMirror type) {
+		if(type.getKind() == TypeKind.DECLARED || type.getKind() == TypeKind.ARRAY) {
+			return this.env.getTypeUtils().erasure(type).toString();
+		}
+		
+		return type.toString();
+	}
+	
+	private String literal(String value) {
+		Elements elements = this.env.getElementUtils();
+		return elements.getConstantExpression(value);
+	}
+	
+	private String literal(String[] values) {
+		if(values.length == 0) {
+			return "new String[] { }";
+		}
+		
+		StringBuilder literal = new StringBuilder("new String[] { ");
+		for(int index = 0; index < values.length; index++) {
+			if(index > 0) {
+				literal.append(", ");
+			}
+			
+			literal.append(literal(values[index]));
+		}
+		
+		return literal.append(" }").toString();
+	}
+	
+	private void line(int indent, String text) {
+		for(int index = 0; index < indent; index++) {
+			this.builder.append('\t');
+		}
+		
+		this.builder.append(text).append('\n');
+	}
+
+}
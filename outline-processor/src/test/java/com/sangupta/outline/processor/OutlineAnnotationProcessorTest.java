@@ -0,0 +1,117 @@
+package com.sangupta.outline.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sangupta.outline.Outline;
+import com.sangupta.outline.help.OutlineHelp;
+import com.sangupta.outline.model.OutlineCommandModel;
+import com.sangupta.outline.model.OutlineFieldModel;
+
+/**
+ * Tests for {@link OutlineAnnotationProcessor} that compile sample commands
+ * with the processor enabled.
+ * 
+ * @author sangupta
+ *
+ */
+public class OutlineAnnotationProcessorTest {
+	
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+	
+	private static final String SAMPLE = "package sample;\n"
+			+ "import com.sangupta.outline.annotations.*;\n"
+			+ "import com.sangupta.outline.help.OutlineHelp;\n"
+			+ "import javax.inject.Inject;\n"
+			+ "public class Commands {\n"
+			+ "  public static abstract class Base {\n"
+			+ "    @Option(name = { \"-v\", \"--verbose\" }, type = OptionType.GLOBAL)\n"
+			+ "    public boolean verbose;\n"
+			+ "  }\n"
+			+ "  @Command(name = \"push\", description = \"push \\\"changes\\\"\")\n"
+			+ "  public static class Push extends Base {\n"
+			+ "    @Inject public OutlineHelp help;\n"
+			+ "    @Option(name = \"-n\") @Constraint(min = \"1\", max = \"9\") int count;\n"
+			+ "    @Option(name = \"-r\", arity = 2) String[] refs;\n"
+			+ "    @Argument(order = 0, required = true) String remote;\n"
+			+ "    @Arguments String[] rest;\n"
+			+ "  }\n"
+			+ "  @Command(name = \"pull\")\n"
+			+ "  public static class Pull {\n"
+			+ "    @Option(name = \"-n\") private int count;\n"
+			+ "  }\n"
+			+ "}\n";
+	
+	@Test
+	public void testGeneratedModel() throws Exception {
+		File dir = compile(SAMPLE);
+		
+		// the model is generated for push, but not for pull as it has a private field
+		Assert.assertTrue(new File(dir, "sample/Commands$Push$$OutlineModel.class").exists());
+		Assert.assertFalse(new File(dir, "sample/Commands$Pull$$OutlineModel.class").exists());
+		
+		try (URLClassLoader loader = new URLClassLoader(new URL[] { dir.toURI().toURL() }, getClass().getClassLoader())) {
+			Class<?> push = loader.loadClass("sample.Commands$Push");
+			Class<?> pull = loader.loadClass("sample.Commands$Pull");
+			
+			OutlineCommandModel model = OutlineCommandModel.forClass(push);
+			Assert.assertTrue(model.isGenerated());
+			Assert.assertEquals("push", model.command.name);
+			Assert.assertEquals("push \"changes\"", model.command.description);
+			Assert.assertEquals(6, model.fields.length);
+			for(OutlineFieldModel field : model.fields) {
+				Assert.assertEquals(field.name.equals("count"), field.constraint != null);
+			}
+			
+			Assert.assertFalse(OutlineCommandModel.forClass(pull).isGenerated());
+			
+			// parse using the generated model
+			Object instance = new Outline("git").withCommands(push, pull).parse("-v true push -n 3 -r a b origin x y".split(" "));
+			Assert.assertEquals(push, instance.getClass());
+			Assert.assertEquals(true, push.getSuperclass().getField("verbose").get(instance));
+			Assert.assertEquals(3, getField(push, "count", instance));
+			Assert.assertArrayEquals(new String[] { "a", "b" }, (String[]) getField(push, "refs", instance));
+			Assert.assertEquals("origin", getField(push, "remote", instance));
+			Assert.assertArrayEquals(new String[] { "x", "y" }, (String[]) getField(push, "rest", instance));
+			Assert.assertTrue(push.getField("help").get(instance) instanceof OutlineHelp);
+		}
+	}
+	
+	private static Object getField(Class<?> clazz, String name, Object instance) throws Exception {
+		java.lang.reflect.Field field = clazz.getDeclaredField(name);
+		field.setAccessible(true);
+		return field.get(instance);
+	}
+	
+	private File compile(String source) throws IOException {
+		File dir = this.temporaryFolder.newFolder("outline-processor");
+		File sourceFile = new File(dir, "sample/Commands.java");
+		sourceFile.getParentFile().mkdirs();
+		Files.write(sourceFile.toPath(), source.getBytes(StandardCharsets.UTF_8));
+		
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		int result = compiler.run(null, null, null, Arrays.asList("-classpath", System.getProperty("java.class.path"), 
+				"-processor", OutlineAnnotationProcessor.class.getName(), 
+				"-d", dir.getAbsolutePath(), 
+				"-s", dir.getAbsolutePath(),
+				sourceFile.getAbsolutePath()).toArray(new String[0]));
+		
+		Assert.assertEquals(0, result);
+		return dir;
+	}
+
+}
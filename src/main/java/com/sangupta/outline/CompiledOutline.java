@@ -0,0 +1,414 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.sangupta.outline.cmdfactory.OutlineCommandFactory;
+import com.sangupta.outline.exceptions.OutlineInvalidArgumentException;
+import com.sangupta.outline.help.OutlineHelpCache;
+import com.sangupta.outline.parser.OutlineArrayTokens;
+import com.sangupta.outline.parser.OutlineByteBufferTokens;
+import com.sangupta.outline.parser.OutlineCommandLineTokens;
+import com.sangupta.outline.parser.OutlineDiagnostic;
+import com.sangupta.outline.parser.OutlineParseResult;
+import com.sangupta.outline.parser.OutlineTokens;
+
+/**
+ * The compiled, frozen form of an {@link Outline}. All commands, groups,
+ * options and arguments are read once when the {@link Outline} is compiled and
+ * are then reused for every call to {@link #parse(String[])}.
+ * 
+ * Instances are immutable and are safe to be shared across threads. Any change
+ * made to the {@link Outline} after it has been compiled is not reflected in
+ * this instance - {@link Outline#compile()} must be invoked again.
+ * 
+ * @author sangupta
+ *
+ */
+public final class CompiledOutline {
+	
+	/**
+	 * The metadata that was read from the {@link Outline} - must be treated as
+	 * read-only
+	 */
+	final OutlineMetadata metadata;
+	
+	/**
+	 * The command factory to use to create instances of commands
+	 */
+	final OutlineCommandFactory commandFactory;
+	
+	/**
+	 * The default command, if any
+	 */
+	final Class<?> defaultCommand;
+	
+	/**
+	 * The help rendered for this outline
+	 */
+	final OutlineHelpCache helpCache;
+	
+	/**
+	 * The type converters registered on the {@link Outline}
+	 */
+	private final Map<Class<?>, OutlineTypeConverter<?>> localConverters;
+	
+	/**
+	 * The converters to bind with, rebuilt only when a global converter is
+	 * registered after compilation
+	 */
+	private volatile OutlineConverters converters;
+	
+	/**
+	 * Compile the given {@link Outline}.
+	 * 
+	 * @param outline
+	 *            the {@link Outline} to compile
+	 */
+	CompiledOutline(Outline outline) {
+		this.metadata = OutlineMetadataReader.getMetadata(outline);
+		this.commandFactory = outline.commandFactory;
+		this.defaultCommand = outline.defaultCommand;
+		this.helpCache = new OutlineHelpCache(this.metadata);
+		this.localConverters = new HashMap<>(outline.converters);
+		this.converters = OutlineConverters.of(this.localConverters);
+	}
+	
+	/**
+	 * Return the converters to bind the commands of this outline with.
+	 * 
+	 * @return the converters
+	 */
+	OutlineConverters converters() {
+		OutlineConverters converters = this.converters;
+		if(!converters.isCurrent()) {
+			converters = OutlineConverters.of(this.localConverters);
+			this.converters = converters;
+		}
+		
+		return converters;
+	}
+	
+	/**
+	 * Parse the given command line arguments and return the command instance
+	 * that was requested, bound to all its option and argument values.
+	 * 
+	 * @param args
+	 *            the command line arguments
+	 * 
+	 * @return the command instance, or the help command
+	 */
+	public <T> T parse(String[] args) {
+		return this.parse(new OutlineArrayTokens(args));
+	}
+	
+	/**
+	 * Parse the given command line, as typed in a shell, and return the command
+	 * instance that was requested, bound to all its option and argument values.
+	 * The line is split into tokens following the POSIX shell rules for quotes
+	 * and escapes, see {@link OutlineCommandLineTokens}.
+	 * 
+	 * @param line
+	 *            the command line, without the program name
+	 * 
+	 * @return the command instance, or the help command
+	 */
+	public <T> T parseLine(CharSequence line) {
+		return this.parse(new OutlineCommandLineTokens(line));
+	}
+	
+	/**
+	 * Parse the UTF-8 encoded command line between the position and the limit
+	 * of the given buffer, and return the command instance that was requested,
+	 * bound to all its option and argument values. The line is split with the
+	 * same rules as {@link #parseLine(CharSequence)}, and only the values bound
+	 * to non-integral fields are decoded to {@link String}s. The position and
+	 * limit of the buffer are not changed.
+	 * 
+	 * @param bytes
+	 *            the buffer holding the command line, may be direct or
+	 *            memory-mapped
+	 * 
+	 * @return the command instance, or the help command
+	 */
+	public <T> T parse(ByteBuffer bytes) {
+		return this.parse(new OutlineByteBufferTokens(bytes));
+	}
+	
+	/**
+	 * Parse the given command line tokens and return the command instance that
+	 * was requested, bound to all its option and argument values.
+	 * 
+	 * @param tokens
+	 *            the command line tokens
+	 * 
+	 * @return the command instance, or the help command
+	 */
+	public <T> T parse(OutlineTokens tokens) {
+		return this.parse(new OutlineParseContext(this), tokens);
+	}
+	
+	/**
+	 * Create a new reusable {@link OutlineParseContext} to parse command lines
+	 * against this outline without allocating on every parse.
+	 * 
+	 * @return a new context, to be used by a single thread at a time
+	 */
+	public OutlineParseContext newParseContext() {
+		return new OutlineParseContext(this);
+	}
+	
+	/**
+	 * Parse the given command line arguments reusing the given context, and
+	 * return the command instance that was requested, bound to all its option
+	 * and argument values.
+	 * 
+	 * @param context
+	 *            the context obtained from {@link #newParseContext()}
+	 * 
+	 * @param args
+	 *            the command line arguments
+	 * 
+	 * @return the command instance, or the help command
+	 */
+	public <T> T parse(OutlineParseContext context, String[] args) {
+		this.checkContext(context);
+		
+		return this.parse(context, context.arrayTokens(args));
+	}
+	
+	/**
+	 * Parse the given command line, as typed in a shell, reusing the given
+	 * context, and return the command instance that was requested, bound to all
+	 * its option and argument values.
+	 * 
+	 * @param context
+	 *            the context obtained from {@link #newParseContext()}
+	 * 
+	 * @param line
+	 *            the command line, without the program name
+	 * 
+	 * @return the command instance, or the help command
+	 */
+	public <T> T parseLine(OutlineParseContext context, CharSequence line) {
+		this.checkContext(context);
+		
+		return this.parse(context, context.lineTokens(line));
+	}
+	
+	/**
+	 * Parse the UTF-8 encoded command line between the position and the limit
+	 * of the given buffer reusing the given context, and return the command
+	 * instance that was requested, bound to all its option and argument values.
+	 * 
+	 * @param context
+	 *            the context obtained from {@link #newParseContext()}
+	 * 
+	 * @param bytes
+	 *            the buffer holding the command line
+	 * 
+	 * @return the command instance, or the help command
+	 */
+	public <T> T parse(OutlineParseContext context, ByteBuffer bytes) {
+		this.checkContext(context);
+		
+		return this.parse(context, context.byteTokens(bytes));
+	}
+	
+	/**
+	 * Parse the given command line tokens reusing the given context, and return
+	 * the command instance that was requested, bound to all its option and
+	 * argument values.
+	 * 
+	 * @param context
+	 *            the context obtained from {@link #newParseContext()}
+	 * 
+	 * @param tokens
+	 *            the command line tokens
+	 * 
+	 * @return the command instance, or the help command
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T parse(OutlineParseContext context, OutlineTokens tokens) {
+		this.checkContext(context);
+		
+		Object instance = OutlineParser.parse(this, tokens, context, false);
+		if(this.metadata.singleCommandMode) {
+			return (T) this.defaultCommand.cast(instance);
+		}
+		
+		return (T) instance;
+	}
+	
+	/**
+	 * Parse the given command line arguments reusing the given context, and
+	 * return the result that holds the command instance along with every
+	 * problem found with the arguments. See
+	 * {@link #tryParse(OutlineParseContext, OutlineTokens)}.
+	 * 
+	 * @param context
+	 *            the context obtained from {@link #newParseContext()}
+	 * 
+	 * @param args
+	 *            the command line arguments
+	 * 
+	 * @return the result of the context
+	 */
+	public OutlineParseResult tryParse(OutlineParseContext context, String[] args) {
+		this.checkContext(context);
+		
+		return this.tryParse(context, context.arrayTokens(args));
+	}
+	
+	/**
+	 * Parse the given command line, as typed in a shell, reusing the given
+	 * context, and return the result that holds the command instance along
+	 * with every problem found with the command line. See
+	 * {@link #tryParse(OutlineParseContext, OutlineTokens)}.
+	 * 
+	 * @param context
+	 *            the context obtained from {@link #newParseContext()}
+	 * 
+	 * @param line
+	 *            the command line, without the program name
+	 * 
+	 * @return the result of the context
+	 */
+	public OutlineParseResult tryParseLine(OutlineParseContext context, CharSequence line) {
+		this.checkContext(context);
+		
+		final OutlineTokens tokens;
+		try {
+			tokens = context.lineTokens(line);
+		} catch(OutlineInvalidArgumentException e) {
+			return invalid(context, e);
+		}
+		
+		return this.tryParse(context, tokens);
+	}
+	
+	/**
+	 * Parse the UTF-8 encoded command line between the position and the limit
+	 * of the given buffer reusing the given context, and return the result
+	 * that holds the command instance along with every problem found with the
+	 * command line. See {@link #tryParse(OutlineParseContext, OutlineTokens)}.
+	 * 
+	 * @param context
+	 *            the context obtained from {@link #newParseContext()}
+	 * 
+	 * @param bytes
+	 *            the buffer holding the command line
+	 * 
+	 * @return the result of the context
+	 */
+	public OutlineParseResult tryParse(OutlineParseContext context, ByteBuffer bytes) {
+		this.checkContext(context);
+		
+		final OutlineTokens tokens;
+		try {
+			tokens = context.byteTokens(bytes);
+		} catch(OutlineInvalidArgumentException e) {
+			return invalid(context, e);
+		}
+		
+		return this.tryParse(context, tokens);
+	}
+	
+	/**
+	 * Parse the given command line tokens reusing the given context, and
+	 * return the result that holds the command instance along with every
+	 * problem found with the tokens. Nothing is thrown for a malformed command
+	 * line: unknown commands and arguments, missing options, arguments and
+	 * values, and invalid values are all recorded in a single pass as
+	 * {@link OutlineDiagnostic}s of the result.
+	 * 
+	 * The command instance, via {@link OutlineParseResult#getInstance()}, is
+	 * bound to all values that are valid, and is <code>null</code> if no
+	 * command could be found. The result is only valid until the context is
+	 * used again.
+	 * 
+	 * @param context
+	 *            the context obtained from {@link #newParseContext()}
+	 * 
+	 * @param tokens
+	 *            the command line tokens
+	 * 
+	 * @return the result of the context
+	 */
+	public OutlineParseResult tryParse(OutlineParseContext context, OutlineTokens tokens) {
+		this.checkContext(context);
+		
+		OutlineParser.parse(this, tokens, context, true);
+		return context.result;
+	}
+	
+	/**
+	 * Check that the context was created by this outline. This is done before
+	 * the command line is tokenized, as that overwrites the tokens held by the
+	 * context.
+	 * 
+	 * @param context
+	 */
+	private void checkContext(OutlineParseContext context) {
+		if(context.outline != this) {
+			throw new IllegalArgumentException("Parse context was created for a different outline");
+		}
+	}
+	
+	/**
+	 * Record the tokenizing failure as the only problem of the result.
+	 * 
+	 * @param context
+	 * @param e
+	 * @return the result of the context
+	 */
+	private static OutlineParseResult invalid(OutlineParseContext context, OutlineInvalidArgumentException e) {
+		context.reset();
+		context.result.setCollecting(true);
+		context.result.addDiagnostic(new OutlineDiagnostic(OutlineDiagnostic.Kind.INVALID_ARGUMENT, null, e.argument, e.positionIndex, null));
+		return context.result;
+	}
+	
+	/**
+	 * Return the metadata that was compiled. The metadata must be treated as
+	 * read-only as it is shared between all parse invocations.
+	 * 
+	 * @return the compiled metadata
+	 */
+	public OutlineMetadata getMetadata() {
+		return this.metadata;
+	}
+	
+	/**
+	 * Return whether we are in a single-command mode or not.
+	 * 
+	 * @return <code>true</code> if compiled in a single-command mode,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean isSingleCommandMode() {
+		return this.metadata.singleCommandMode;
+	}
+	
+}
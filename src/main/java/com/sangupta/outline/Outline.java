@@ -25,11 +25,11 @@ import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import com.sangupta.jerry.util.AssertUtils;
 import com.sangupta.outline.cmdfactory.OutlineCommandFactory;
 import com.sangupta.outline.cmdfactory.OutlineDefaultCommandFactory;
+import com.sangupta.outline.parser.OutlineTokens;
 
 /**
  * Entry class for building the outlines of command line tools.
@@ -44,6 +44,12 @@ public class Outline extends OutlineBase {
 	 */
     String helpKeyword = "help";
     
+    /**
+     * Whether <code>@path</code> arguments are expanded from response files -
+     * the default value is <code>false</code>
+     */
+    boolean responseFiles;
+    
     /**
      * The command factory to use to create instances of commands. The default
      * value is to use {@link OutlineDefaultCommandFactory} implementation.
@@ -56,15 +62,34 @@ public class Outline extends OutlineBase {
      */
     final Map<String, OutlineBase> groups = new HashMap<>();
     
+    /**
+     * The group of each command that has been added to a group, so that the
+     * group of a command is found without going over all groups
+     */
+    final Map<Class<?>, String> commandGroups = new HashMap<>();
+    
+    /**
+     * Type converters that apply to this outline only
+     */
+    final Map<Class<?>, OutlineTypeConverter<?>> converters = new HashMap<>();
+    
+    /**
+     * The compiled form that {@link #parse(String[])} and
+     * {@link #parseLine(CharSequence)} reuse, dropped whenever this outline or
+     * any of its groups is changed
+     */
+    private volatile CompiledOutline compiled;
+    
     /**
      * Register a type converter to convert the command line {@link String} based argument to a
-     * given type of argument.
+     * given type of argument. The converter applies to all outlines, including those already
+     * compiled, unless an outline has its own converter for the type.
      * 
      * @param classOfT
      * @param converter
      */
     public static <T> void registerTypeConverter(Class<T> classOfT, OutlineTypeConverter<T> converter) {
-        OutlineBinder.registerTypeConverter(classOfT, converter);
+        OutlineConverters.registerGlobal(classOfT, converter);
     }
     
     /**
@@ -94,6 +119,75 @@ public class Outline extends OutlineBase {
             }
             
         });
+    	
+    	// primitives and their wrappers
+    	OutlineBooleanConverter booleanConverter = new OutlineBooleanConverter() {
+    		
+    		@Override
+    		public Boolean convertFrom(Field field, Object instance, Object value) {
+    			return Boolean.parseBoolean(value.toString());
+    		}
+    		
+    		@Override
+    		public boolean convertToBoolean(OutlineTokens tokens, int index) {
+    			return tokens.parseBoolean(index);
+    		}
+    		
+    	};
+    	
+    	OutlineTypeConverter<Float> floatConverter = new OutlineTypeConverter<Float>() {
+    		
+    		@Override
+    		public Float convertFrom(Field field, Object instance, Object value) {
+    			return Float.parseFloat(value.toString());
+    		}
+    		
+    	};
+    	
+    	OutlineDoubleConverter doubleConverter = new OutlineDoubleConverter() {
+    		
+    		@Override
+    		public Double convertFrom(Field field, Object instance, Object value) {
+    			return Double.parseDouble(value.toString());
+    		}
+    		
+    		@Override
+    		public double convertToDouble(OutlineTokens tokens, int index) {
+    			return Double.parseDouble(tokens.get(index));
+    		}
+    		
+    	};
+    	
+    	OutlineTypeConverter<Character> charConverter = new OutlineTypeConverter<Character>() {
+    		
+    		@Override
+    		public Character convertFrom(Field field, Object instance, Object value) {
+    			String string = value.toString();
+    			if(string.length() != 1) {
+    				throw new IllegalArgumentException("Expected a single character but found: " + string);
+    			}
+    			
+    			return string.charAt(0);
+    		}
+    		
+    	};
+    	
+    	Outline.registerTypeConverter(boolean.class, booleanConverter);
+    	Outline.registerTypeConverter(Boolean.class, booleanConverter);
+    	Outline.registerTypeConverter(byte.class, OutlineIntegerConverter.BYTE);
+    	Outline.registerTypeConverter(Byte.class, OutlineIntegerConverter.BYTE);
+    	Outline.registerTypeConverter(short.class, OutlineIntegerConverter.SHORT);
+    	Outline.registerTypeConverter(Short.class, OutlineIntegerConverter.SHORT);
+    	Outline.registerTypeConverter(int.class, OutlineIntegerConverter.INTEGER);
+    	Outline.registerTypeConverter(Integer.class, OutlineIntegerConverter.INTEGER);
+    	Outline.registerTypeConverter(long.class, OutlineIntegerConverter.LONG);
+    	Outline.registerTypeConverter(Long.class, OutlineIntegerConverter.LONG);
+    	Outline.registerTypeConverter(float.class, floatConverter);
+    	Outline.registerTypeConverter(Float.class, floatConverter);
+    	Outline.registerTypeConverter(double.class, doubleConverter);
+    	Outline.registerTypeConverter(Double.class, doubleConverter);
+    	Outline.registerTypeConverter(char.class, charConverter);
+    	Outline.registerTypeConverter(Character.class, charConverter);
     }
     
     /**
@@ -117,19 +211,75 @@ public class Outline extends OutlineBase {
         return this;
     }
     
-    @SuppressWarnings("unchecked")
+    /**
+	 * Compile this {@link Outline} into an immutable {@link CompiledOutline}
+	 * that reads all command metadata only once, and can then be used to parse
+	 * any number of command lines, even from multiple threads concurrently.
+	 * 
+	 * Changes made to this {@link Outline} after compilation are not reflected
+	 * in the returned instance.
+	 * 
+	 * @return the compiled form of this {@link Outline}
+	 */
+    public CompiledOutline compile() {
+    	return new CompiledOutline(this);
+    }
+    
+    /**
+     * Return the compiled form of this outline, compiling it on first use and
+     * again after any change. Compiling also builds the converters of this
+     * outline, so that they are built only once across all parses.
+     * 
+     * @return the compiled form of this {@link Outline}
+     */
+    CompiledOutline compiled() {
+    	CompiledOutline compiled = this.compiled;
+    	if(compiled == null) {
+    		compiled = this.compile();
+    		this.compiled = compiled;
+    	}
+    	
+    	return compiled;
+    }
+    
+    @Override
+    void changed() {
+    	this.compiled = null;
+    }
+    
+    /**
+	 * Parse the given command line arguments. The outline is compiled on first
+	 * use, and the compiled form is reused until the outline is changed - use
+	 * {@link #compile()} to hold on to a {@link CompiledOutline} that can also
+	 * be shared across threads.
+	 * 
+	 * @param args
+	 *            the command line arguments
+	 * 
+	 * @return the command instance, or the help command
+	 */
 	public <T> T parse(String[] args) {
-        Object instance = OutlineParser.parse(this, args);
-        if(this.singleCommandMode) {
-        	return (T) this.defaultCommand.cast(instance);
-        }
-        
-        return (T) instance;
+        return this.compiled().parse(args);
+    }
+    
+    /**
+	 * Parse the given command line, as typed in a shell. The outline is
+	 * compiled on first use, and the compiled form is reused until the outline
+	 * is changed.
+	 * 
+	 * @param line
+	 *            the command line, without the program name
+	 * 
+	 * @return the command instance, or the help command
+	 */
+	public <T> T parseLine(CharSequence line) {
+        return this.compiled().parseLine(line);
     }
     
     @Override
     public Outline withDescription(String description) {
         this.description = description;
+        this.changed();
         return this;
     }
     
@@ -164,6 +314,47 @@ public class Outline extends OutlineBase {
      */
     public Outline withHelpKeyword(String word) {
         this.helpKeyword = word;
+        this.changed();
+        return this;
+    }
+    
+    /**
+     * Set whether arguments of the form <code>@path</code> are replaced by the
+     * arguments read from the response file at the given path, before the
+     * arguments are parsed. Response files may refer to other response files.
+     * 
+     * @param responseFiles
+     *            <code>true</code> to expand response files, <code>false</code>
+     *            otherwise
+     * 
+     * @return the same {@link Outline} instance
+     */
+    public Outline withResponseFiles(boolean responseFiles) {
+        this.responseFiles = responseFiles;
+        this.changed();
+        return this;
+    }
+    
+    /**
+     * Register a type converter that applies to this outline only, and takes
+     * precedence over the global converter for the same type. Converters must be
+     * registered before the outline is compiled.
+     * 
+     * @param classOfT
+     *            the type of the fields to convert values for
+     * 
+     * @param converter
+     *            the converter
+     * 
+     * @return the same {@link Outline} instance
+     */
+    public <T> Outline withTypeConverter(Class<T> classOfT, OutlineTypeConverter<T> converter) {
+        if(classOfT == null || converter == null) {
+            throw new IllegalArgumentException("Type and converter cannot be null");
+        }
+        
+        this.converters.put(classOfT, converter);
+        this.changed();
         return this;
     }
     
@@ -176,6 +367,7 @@ public class Outline extends OutlineBase {
      */
     public Outline withCommandFactory(OutlineCommandFactory commandFactory) {
         this.commandFactory = commandFactory;
+        this.changed();
         return this;
     }
  
@@ -210,14 +402,45 @@ public class Outline extends OutlineBase {
         }
         
         // create a new group
-        OutlineBase abstractOutline = new OutlineBase(name) { };
+        OutlineBase abstractOutline = new OutlineBase(name) {
+        	
+        	@Override
+        	void commandAdded(Class<?> command) {
+        		indexCommandGroup(command, this.name);
+        	}
+        	
+        	@Override
+        	void changed() {
+        		Outline.this.changed();
+        	}
+        	
+        };
+        
         this.groups.put(name, abstractOutline);
+        this.changed();
         return abstractOutline;
     }
 
+    /**
+     * Index the group of the given command, unless it has been added to another
+     * group before.
+     * 
+     * @param command
+     * @param group
+     */
+    void indexCommandGroup(Class<?> command, String group) {
+    	if(command != null && !this.commandGroups.containsKey(command)) {
+    		this.commandGroups.put(command, group);
+    	}
+    }
+
     /**
 	 * Get the name of the group to which the given command class belongs. Will
-	 * return <code>null</code> if the command does not belong to any group.
+	 * return <code>null</code> if the command does not belong to any group. A
+	 * command that has been added to more than one group always belongs to the
+	 * group it was first added to, rather than to whichever of its groups is
+	 * found first. Groups are indexed by command class as commands are added, so
+	 * that reading the metadata does not go over all groups for every command.
 	 * 
 	 * @param commandClass
 	 *            the command class to check
@@ -228,19 +451,11 @@ public class Outline extends OutlineBase {
 	 *             if the command class provided is <code>null</code>
 	 */
     public String getCommandGroup(Class<?> commandClass) {
-        if(this.groups.isEmpty()) {
-            return null;
-        }
-        
-        Set<String> keys = this.groups.keySet();
-        for(String key : keys) {
-            OutlineBase ao = this.groups.get(key);
-            if(ao.hasCommand(commandClass)) {
-                return key;
-            }
-        }
-        
-        return null;
+    	if(commandClass == null) {
+    		throw new IllegalArgumentException("Command class cannot be null");
+    	}
+    	
+        return this.commandGroups.get(commandClass);
     }
 
     /**
@@ -255,6 +470,7 @@ public class Outline extends OutlineBase {
 	 */
 	public Outline withHelpOnIncorrectArguments(boolean helpOnIncorrectArguments) {
 		this.helpOnIncorrectArguments = helpOnIncorrectArguments;
+		this.changed();
 		return this;
 	}
 
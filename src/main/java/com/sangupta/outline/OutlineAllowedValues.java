@@ -0,0 +1,147 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.sangupta.outline.annotations.ValueMatch;
+import com.sangupta.outline.exceptions.OutlineInvalidConfigurationException;
+import com.sangupta.outline.model.OptionDescriptor;
+import com.sangupta.outline.model.OutlineFieldModel;
+import com.sangupta.outline.parser.OutlineLookupTable;
+import com.sangupta.outline.parser.OutlineTokens;
+
+/**
+ * The values an option or argument accepts: the <code>allowedValues</code> of
+ * the option, or else the constants of an <code>enum</code> field. The values
+ * are compiled once into an {@link OutlineLookupTable}, that ignores case or
+ * matches prefixes as asked for by the option, so that checking a value takes a
+ * single lookup straight over the token, and a value that is not accepted is
+ * found without throwing an exception.
+ * 
+ * @author sangupta
+ *
+ */
+final class OutlineAllowedValues {
+	
+	/**
+	 * The name used to report invalid values
+	 */
+	final String name;
+	
+	/**
+	 * The accepted values, used to report invalid values
+	 */
+	final String[] values;
+	
+	/**
+	 * Whether the tokens have to be replaced by the values found, either the
+	 * constants of the <code>enum</code> or the allowed values as spelled by
+	 * the option, rather than binding the tokens as given
+	 */
+	final boolean replacesTokens;
+	
+	/**
+	 * Maps every accepted value to the value to bind
+	 */
+	private final OutlineLookupTable<Object> table;
+	
+	private OutlineAllowedValues(String name, String[] values, boolean replacesTokens, OutlineLookupTable<Object> table) {
+		this.name = name;
+		this.values = values;
+		this.replacesTokens = replacesTokens;
+		this.table = table;
+	}
+	
+	/**
+	 * Compile the values accepted by the given field.
+	 * 
+	 * @param field
+	 *            the field to be bound
+	 * 
+	 * @param option
+	 *            the option of the field, <code>null</code> for an argument
+	 * 
+	 * @param enumType
+	 *            the <code>enum</code> the values are converted to by name,
+	 *            <code>null</code> if none
+	 * 
+	 * @return the accepted values, <code>null</code> if any value is accepted
+	 * 
+	 * @throws OutlineInvalidConfigurationException
+	 *             if an allowed value is not a constant of the <code>enum</code>
+	 */
+	static OutlineAllowedValues forField(OutlineFieldModel field, OptionDescriptor option, Class<?> enumType) {
+		final String[] allowedValues = option != null ? option.allowedValues : null;
+		final boolean allowed = allowedValues != null && allowedValues.length > 0;
+		if(!allowed && enumType == null) {
+			return null;
+		}
+		
+		final ValueMatch match = option != null ? option.valueMatch : ValueMatch.EXACT;
+		
+		Map<String, Object> map = new HashMap<>();
+		String[] values = null;
+		if(enumType != null) {
+			final Object[] constants = enumType.getEnumConstants();
+			values = new String[constants.length];
+			for(int index = 0; index < constants.length; index++) {
+				values[index] = ((Enum<?>) constants[index]).name();
+				map.put(values[index], constants[index]);
+			}
+		}
+		
+		if(allowed) {
+			Map<String, Object> allowedMap = new HashMap<>();
+			for(String value : allowedValues) {
+				Object bound = value;
+				if(enumType != null) {
+					bound = map.get(value);
+					if(bound == null) {
+						throw new OutlineInvalidConfigurationException(field.declaringClass.getName(), field.name, "Allowed value is not a constant of " + enumType.getName() + ": " + value);
+					}
+				}
+				
+				allowedMap.put(value, bound);
+			}
+			
+			map = allowedMap;
+			values = allowedValues;
+		}
+		
+		final OutlineLookupTable<Object> table = new OutlineLookupTable<>(map, match != ValueMatch.EXACT, match == ValueMatch.PREFIX);
+		return new OutlineAllowedValues(option != null ? option.name : field.name, values, enumType != null || match != ValueMatch.EXACT, table);
+	}
+	
+	/**
+	 * Look up the token at the given index.
+	 * 
+	 * @param tokens
+	 * @param index
+	 * @return the value to bind, <code>null</code> if the token is not accepted
+	 */
+	Object lookup(OutlineTokens tokens, int index) {
+		return tokens.lookup(index, this.table);
+	}
+
+}
@@ -76,6 +76,7 @@ public abstract class OutlineBase {
     
     public OutlineBase withDescription(String description) {
         this.description = description;
+        this.changed();
         return this;
     }
     
@@ -94,6 +95,8 @@ public abstract class OutlineBase {
         
         this.defaultCommand = defaultCommand;
         this.commands.add(defaultCommand);
+        this.commandAdded(defaultCommand);
+        this.changed();
         return this;
     }
     
@@ -107,6 +110,8 @@ public abstract class OutlineBase {
     	}
     	
     	this.commands.add(command);
+    	this.commandAdded(command);
+    	this.changed();
     	return this;
     }
     
@@ -121,11 +126,31 @@ public abstract class OutlineBase {
         
         for(Class<?> command : commands) {
             this.commands.add(command);
+            this.commandAdded(command);
         }
         
+        this.changed();
         return this;
     }
 
+    /**
+     * Invoked whenever a command is added, so that an {@link Outline} can index
+     * the commands of its groups.
+     * 
+     * @param command
+     */
+    void commandAdded(Class<?> command) {
+    	// nothing to index
+    }
+
+    /**
+     * Invoked whenever this outline is changed, so that an {@link Outline} can
+     * drop the compiled form it reuses for parsing.
+     */
+    void changed() {
+    	// nothing is cached
+    }
+
     /**
      * Check if we have a command for the given {@link Class}.
      * 
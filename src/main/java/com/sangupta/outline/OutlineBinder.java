@@ -21,25 +21,21 @@
  
 package com.sangupta.outline;
 
-import java.lang.reflect.Field;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.sangupta.jerry.ds.SimpleMultiMap;
-import com.sangupta.jerry.util.AssertUtils;
-import com.sangupta.jerry.util.ReflectionUtils;
-import com.sangupta.outline.annotations.Argument;
-import com.sangupta.outline.annotations.Arguments;
-import com.sangupta.outline.annotations.Option;
-import com.sangupta.outline.annotations.OptionType;
-import com.sangupta.outline.exceptions.OutlineRequiredOptionMissingException;
+import com.sangupta.outline.OutlineBindingPlan.Slot;
+import com.sangupta.outline.help.OutlineHelp;
+import com.sangupta.outline.parser.OutlineArrayTokens;
+import com.sangupta.outline.parser.OutlineDiagnostic;
+import com.sangupta.outline.parser.OutlineDelimitedArguments;
 import com.sangupta.outline.parser.OutlineParseResult;
-import com.sangupta.outline.util.OutlineUtil;
+import com.sangupta.outline.parser.OutlineTokens;
 
 /**
  * Bind functions that bind the command {@link Object} instance to the
@@ -52,123 +48,481 @@ class OutlineBinder {
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(OutlineBinder.class);
     
-    final static Map<Class<?>, OutlineTypeConverter<?>> converters = new HashMap<>();
-    
-    static <T> void registerTypeConverter(Class<T> classOfT, OutlineTypeConverter<T> converter) {
-        converters.put(classOfT, converter);
-    }
-
     /**
      * Bind the resultant properties that we have got to the object instance. So that
-     * the instance is ready-for-use.
+     * the instance is ready-for-use. Every required option or argument that is not
+     * given is recorded as a diagnostic in the result, and when the result is
+     * collecting diagnostics, so is every argument that no field takes.
      * 
+     * @param converters
+     * @param metadata
+     * @param clazz
      * @param instance
      * @param result
+     * @return <code>true</code> if all required options and arguments were given
      */
-    public static void bindInstanceToProperties(Class<?> clazz, Object instance, OutlineParseResult result) {
-        List<Field> fields = OutlineUtil.getAllFields(clazz);
-        bindAllOptions(fields, instance, result);
+    public static boolean bindInstanceToProperties(OutlineConverters converters, OutlineMetadata metadata, Class<?> clazz, Object instance, OutlineParseResult result) {
+        final OutlineBindingPlan plan = converters.plan(clazz);
+        final int[] optionIds = metadata.fieldOptionIds.get(result.command);
+        final int argumentCount = result.getArgumentCount();
         
-        int startOrder = bindAllArgumentsWithOrder(fields, instance, result);
+        // the first argument that has not been read via @Argument annotation
+        int startOrder = 0;
+        boolean complete = true;
+        boolean remaining = false;
         
-        bindRemainingArguments(fields, instance, result, startOrder);
+        for(Slot slot : plan.slots) {
+            switch(slot.kind) {
+                case OutlineBindingPlan.OPTION:
+                    final int id = optionIds[slot.field.index];
+                    final int count = result.getOptionValueCount(id);
+                    if(count == 0) {
+                        if(slot.required) {
+                            complete = missing(result, slot.option.name);
+                        }
+                        
+                        break;
+                    }
+                    
+                    final int first = result.firstOptionValue(id);
+                    if(slot.mapConverter != null) {
+                        bindMapToField(slot, instance, result, first, count);
+                        break;
+                    }
+                    
+                    if(slot.allowed != null && bindAllowedValues(slot, instance, result, result.getTokens(), first, count, false)) {
+                        break;
+                    }
+                    
+                    if(slot.elementConverter != null) {
+                        bindArrayToField(slot, instance, result, result.getTokens(), first, count, false);
+                        break;
+                    }
+                    
+                    if(count == 1 && result.getValueOffset(first) == 0) {
+                        bindTokenToField(slot, instance, result, result.getTokens(), result.getValueTokenIndex(first));
+                    } else {
+                        bindValueToField(slot, instance, result, result.getOptionValues(id));
+                    }
+                    break;
+                    
+                case OutlineBindingPlan.ARGUMENT:
+                    if(slot.order >= argumentCount) {
+                        if(slot.required) {
+                            complete = missing(result, slot.field.name);
+                        }
+                        
+                        break;
+                    }
+                    
+                    startOrder = Math.max(startOrder, slot.order + 1);
+                    if(slot.allowed != null && bindAllowedValues(slot, instance, result, result.getTokens(), result.getArgumentIndex(slot.order), 1, true)) {
+                        break;
+                    }
+                    
+                    bindTokenToField(slot, instance, result, result.getTokens(), result.getArgumentIndex(slot.order));
+                    break;
+                    
+                case OutlineBindingPlan.REMAINING_ARGUMENTS:
+                    // bind all the remaining arguments that have not yet been set using
+                    // the @Argument annotation
+                    remaining = true;
+                    if(slot.required && startOrder >= argumentCount && !slot.stdin) {
+                        complete = missing(result, slot.field.name);
+                        break;
+                    }
+                    
+                    bindRemainingArguments(slot, instance, result, startOrder);
+                    break;
+                    
+                default:
+                    break;
+            }
+        }
+        
+        if(!remaining && result.isCollecting()) {
+            for(int order = startOrder; order < argumentCount; order++) {
+                final int index = result.getArgumentIndex(order);
+                result.addDiagnostic(new OutlineDiagnostic(OutlineDiagnostic.Kind.UNKNOWN_ARGUMENT, null, result.getTokens().get(index), index, null));
+            }
+        }
+        
+        return complete;
     }
-
+    
+    /**
+     * Record a required option or argument that is not given.
+     * 
+     * @param result
+     * @param name
+     * @return <code>false</code>, as the binding is not complete
+     */
+    private static boolean missing(OutlineParseResult result, String name) {
+        result.addDiagnostic(new OutlineDiagnostic(OutlineDiagnostic.Kind.MISSING_REQUIRED, name, null, -1, null));
+        return false;
+    }
+    
+    /**
+     * Record a value that the converter of the field failed to convert.
+     * 
+     * @param slot
+     * @param result
+     * @param value
+     * @param index
+     *            the index of the token holding the value, <code>-1</code> if
+     *            not known
+     * 
+     * @param e
+     *            the failure of the converter
+     */
+    private static void invalidValue(Slot slot, OutlineParseResult result, String value, int index, IllegalArgumentException e) {
+        LOGGER.debug("Unable to convert value for field: {}", slot.field.name, e);
+        result.addDiagnostic(new OutlineDiagnostic(OutlineDiagnostic.Kind.INVALID_VALUE, slot.option != null ? slot.option.name : slot.field.name, value, index, null, e.getMessage()));
+    }
+    
     /**
-     * Bind all the remaining arguments that havae not yet been set using <code>@Argument</code> annotation
-     * to any field that requires <code>@Arguments</code> annotation.
-     *  
-     * @param fields
+     * Bind the remaining arguments to the field. {@link Iterator} and
+     * {@link Iterable} fields receive the view over the parsed tokens itself, or
+     * the items streamed from the standard input, and thus never copy the
+     * arguments. The view is only valid until the parse context that produced it
+     * is reused. Numeric array fields are filled straight from the tokens.
+     * 
+     * @param slot
      * @param instance
      * @param result
      * @param startOrder
+     *            the position of the first remaining argument
      */
-    private static void bindRemainingArguments(List<Field> fields, Object instance, OutlineParseResult result, int startOrder) {
-        List<String> remaining;
-        if(startOrder > 0) {
-            remaining = result.arguments.subList(startOrder, result.arguments.size());
-        } else {
-            remaining = result.arguments;
-        }
-        
-        for(Field field : fields) {
-            Arguments arguments = field.getAnnotation(Arguments.class);
-            if(arguments == null) {
-                continue;
+    private static void bindRemainingArguments(Slot slot, Object instance, OutlineParseResult result, int startOrder) {
+        List<String> arguments = result.getArguments(startOrder);
+        Iterable<String> values = arguments;
+        if(arguments.isEmpty() && slot.stdin) {
+            values = new OutlineDelimitedArguments(System.in);
+        }
+        
+        if(slot.lazy) {
+            setValue(slot, instance, result, slot.field.type == Iterator.class ? values.iterator() : values);
+            return;
+        }
+        
+        if(values != arguments) {
+            List<String> list = new ArrayList<>();
+            for(String value : values) {
+                list.add(value);
             }
             
-            if(arguments.required()) {
-            	throw new OutlineRequiredOptionMissingException("Missing mandatory 'arguments' at the last.");
+            final OutlineTokens tokens = new OutlineArrayTokens(list.toArray(new String[list.size()]));
+            if(slot.allowed != null && bindAllowedValues(slot, instance, result, tokens, 0, list.size(), true)) {
+                return;
             }
-
-            bindValueToField(field, instance, remaining);
+            
+            if(slot.elementConverter != null) {
+                bindArrayToField(slot, instance, result, tokens, 0, list.size(), true);
+                return;
+            }
+            
+            arguments = list;
+        } else if(slot.allowed != null && !arguments.isEmpty() && bindAllowedValues(slot, instance, result, result.getTokens(), result.getArgumentIndex(startOrder), arguments.size(), true)) {
             return;
         }
+        
+        if(slot.elementConverter != null && !arguments.isEmpty()) {
+            bindArrayToField(slot, instance, result, result.getTokens(), result.getArgumentIndex(startOrder), arguments.size(), true);
+            return;
+        }
+        
+        bindValueToField(slot, instance, result, arguments);
     }
-
-    private static int bindAllArgumentsWithOrder(List<Field> fields, Object instance, OutlineParseResult result) {
-        int maxOrderRead = -1;
+    
+    /**
+     * Bind the option values to a map field. The map is created once with room
+     * for all values, and each <code>key=value</code> token, or the part of the
+     * token after the option name for <code>-Dkey=value</code>, is split straight
+     * into the map without collecting the values first.
+     * 
+     * @param slot
+     * @param instance
+     * @param result
+     * @param first
+     *            the cursor of the first option value
+     * 
+     * @param count
+     *            the number of values
+     */
+    private static void bindMapToField(Slot slot, Object instance, OutlineParseResult result, int first, int count) {
+        final OutlineCollectionConverter converter = slot.mapConverter;
+        final OutlineTokens tokens = result.getTokens();
+        final Map<Object, Object> map = converter.newMap(count);
         
-        for(Field field : fields) {
-            Argument argument = field.getAnnotation(Argument.class);
-            if(argument == null) {
-                continue;
+        int cursor = first;
+        try {
+            for(; cursor >= 0; cursor = result.nextOptionValue(cursor)) {
+                converter.putEntry(map, instance, tokens.get(result.getValueTokenIndex(cursor)), result.getValueOffset(cursor));
             }
-            
-            int order = argument.order();
-            if(order >= result.arguments.size()) {
-                if(argument.required()) {
-                    throw new OutlineRequiredOptionMissingException("missing mandatory argument param");
-                }
-                
-                continue;
+        } catch(IllegalArgumentException e) {
+            invalidValue(slot, result, result.getValue(cursor), result.getValueTokenIndex(cursor), e);
+            return;
+        }
+        
+        setValue(slot, instance, result, map);
+    }
+    
+    /**
+     * Check the given tokens against the values the field accepts, recording a
+     * diagnostic in the result for every token that is not accepted. The field
+     * is not bound if any token is not accepted. Tokens that need to be replaced
+     * by the value found, such as the constants of an <code>enum</code>, are bound
+     * right away; other tokens are left to be bound as usual.
+     * 
+     * @param slot
+     * @param instance
+     * @param result
+     *            the result to record diagnostics in
+     * 
+     * @param tokens
+     * @param first
+     *            the cursor of the first option value, or the index of the
+     *            first token
+     * 
+     * @param count
+     *            the number of values
+     * 
+     * @param consecutive
+     *            whether the values are the tokens from the given index
+     *            onwards, rather than option values
+     * 
+     * @return <code>true</code> if the field has been dealt with,
+     *         <code>false</code> if the tokens are to be bound as usual
+     */
+    private static boolean bindAllowedValues(Slot slot, Object instance, OutlineParseResult result, OutlineTokens tokens, int first, int count, boolean consecutive) {
+        final OutlineAllowedValues allowed = slot.allowed;
+        final List<Object> values = allowed.replacesTokens ? new ArrayList<>(count) : null;
+        boolean valid = true;
+        
+        int cursor = first;
+        for(int index = 0; index < count; index++) {
+            final int token = consecutive ? cursor : result.getValueTokenIndex(cursor);
+            final Object value = allowed.lookup(tokens, token);
+            if(value == null) {
+                result.addDiagnostic(new OutlineDiagnostic(OutlineDiagnostic.Kind.INVALID_VALUE, allowed.name, tokens.get(token), tokens == result.getTokens() ? token : -1, allowed.values));
+                valid = false;
+            } else if(values != null) {
+                values.add(value);
             }
             
-            maxOrderRead = Math.max(maxOrderRead, order);
+            cursor = consecutive ? cursor + 1 : result.nextOptionValue(cursor);
+        }
+        
+        if(!valid) {
+            return true;
+        }
+        
+        if(values == null) {
+            return false;
+        }
+        
+        if(values.size() == 1 && !(slot.converter instanceof OutlineCollectionConverter) && !slot.field.type.isArray()) {
+            final Object value = values.get(0);
+            if(slot.field.type.isInstance(value)) {
+                setValue(slot, instance, result, value);
+            } else {
+                bindValueToField(slot, instance, result, value.toString());
+            }
             
-            bindValueToField(field, instance, result.arguments.get(order));
+            return true;
         }
         
-        return maxOrderRead + 1;
+        bindValueToField(slot, instance, result, values);
+        return true;
     }
-
-    private static void bindAllOptions(List<Field> fields, Object instance, OutlineParseResult result) {
-        for(Field field : fields) {
-            // check for @Option annotation
-            Option option = field.getAnnotation(Option.class);
-            if(option == null) {
-                continue;
-            }
-
-            String[] names = option.name();
-            OptionType type = option.type();
-            List<String> values = null;
-            switch(type) {
-                case COMMAND:
-                    values = getOptionValues(result.commandOptions, names);
-                    break;
+    
+    /**
+     * Bind the given tokens to an <code>int[]</code>, <code>long[]</code> or
+     * <code>double[]</code> field. Each token is converted straight into an
+     * array that is allocated once, and is checked against the constraint of
+     * the field, without boxing. The tokens are either the option values
+     * walked from the given cursor, or the tokens from the given index onwards.
+     * 
+     * @param slot
+     * @param instance
+     * @param result
+     *            the result to walk the option values of, and to record
+     *            constraint violations in
+     * @param tokens
+     * @param first
+     *            the cursor of the first option value, or the index of the
+     *            first token
+     * @param count
+     *            the number of values
+     * @param consecutive
+     *            whether the values are the tokens from the given index
+     *            onwards, rather than option values
+     */
+    private static void bindArrayToField(Slot slot, Object instance, OutlineParseResult result, OutlineTokens tokens, int first, int count, boolean consecutive) {
+        final Class<?> type = slot.field.type;
+        final OutlineValidator validator = slot.validator;
+        final boolean indexed = tokens == result.getTokens();
+        Object array;
+        boolean valid = true;
+        
+        int cursor = first;
+        int token = -1;
+        try {
+            if(type == int[].class) {
+                final OutlineIntConverter converter = (OutlineIntConverter) slot.elementConverter;
+                final int[] values = new int[count];
+                for(int index = 0; index < count; index++) {
+                    token = consecutive ? cursor : result.getValueTokenIndex(cursor);
+                    values[index] = converter.convertToInt(tokens, token);
+                    if(validator != null) {
+                        valid &= validator.validate(result, values[index], indexed ? token : -1);
+                    }
                     
-                case GLOBAL:
-                    values = getOptionValues(result.globalOptions, names);
-                    break;
+                    cursor = consecutive ? cursor + 1 : result.nextOptionValue(cursor);
+                }
+                
+                array = values;
+            } else if(type == long[].class) {
+                final OutlineLongConverter converter = (OutlineLongConverter) slot.elementConverter;
+                final long[] values = new long[count];
+                for(int index = 0; index < count; index++) {
+                    token = consecutive ? cursor : result.getValueTokenIndex(cursor);
+                    values[index] = converter.convertToLong(tokens, token);
+                    if(validator != null) {
+                        valid &= validator.validate(result, values[index], indexed ? token : -1);
+                    }
                     
-                case GROUP:
-                    values = getOptionValues(result.groupOptions, names);
-                    break;
+                    cursor = consecutive ? cursor + 1 : result.nextOptionValue(cursor);
+                }
+                
+                array = values;
+            } else {
+                final OutlineDoubleConverter converter = (OutlineDoubleConverter) slot.elementConverter;
+                final double[] values = new double[count];
+                for(int index = 0; index < count; index++) {
+                    token = consecutive ? cursor : result.getValueTokenIndex(cursor);
+                    values[index] = converter.convertToDouble(tokens, token);
+                    if(validator != null) {
+                        valid &= validator.validate(result, values[index], indexed ? token : -1);
+                    }
                     
-                default:
-                    break;
-            }
-            
-            if(option.required() && AssertUtils.isEmpty(values)) {
-                throw new OutlineRequiredOptionMissingException(option.name()[0]);
+                    cursor = consecutive ? cursor + 1 : result.nextOptionValue(cursor);
+                }
+                
+                array = values;
             }
-            
-            bindValueToField(field, instance, values);
+        } catch(IllegalArgumentException e) {
+            invalidValue(slot, result, tokens.get(token), indexed ? token : -1, e);
+            return;
+        }
+        
+        if(valid) {
+            setValue(slot, instance, null, array);
+        }
+    }
+    
+    /**
+     * Check if the given instance has any field in which the help command can be
+     * injected.
+     * 
+     * @param converters
+     * @param instance
+     * @return
+     */
+    static boolean acceptsHelp(OutlineConverters converters, Object instance) {
+        return converters.plan(instance.getClass()).helpSlots.length > 0;
+    }
+    
+    /**
+     * Inject the help command in all fields of the instance that are annotated
+     * with <code>@Inject</code> and are of the type {@link OutlineHelp}.
+     * 
+     * @param converters
+     * @param instance
+     * @param helpCommand
+     */
+    static void injectHelp(OutlineConverters converters, Object instance, OutlineHelp helpCommand) {
+        final OutlineBindingPlan plan = converters.plan(instance.getClass());
+        for(Slot slot : plan.helpSlots) {
+            setValue(slot, instance, null, helpCommand);
         }
     }
 
-    private static void bindValueToField(Field field, Object instance, Object value) {
+    /**
+     * Bind the single token at the given index to the field. Integral values are
+     * parsed straight from the tokens, without converting the token to a string.
+     * 
+     * @param slot
+     * @param instance
+     * @param result
+     * @param tokens
+     * @param index
+     */
+    private static void bindTokenToField(Slot slot, Object instance, OutlineParseResult result, OutlineTokens tokens, int index) {
+        if(slot.primitiveSetter != null) {
+            bindPrimitiveToField(slot, instance, result, tokens, index);
+            return;
+        }
+        
+        if(slot.integerConverter == null) {
+            bindValueToField(slot, instance, result, tokens.get(index));
+            return;
+        }
+        
+        Object value;
+        try {
+            value = slot.integerConverter.convertFrom(tokens, index);
+        } catch(IllegalArgumentException e) {
+            invalidValue(slot, result, tokens.get(index), index, e);
+            return;
+        }
+        
+        setValue(slot, instance, result, value);
+    }
+
+    /**
+     * Bind the single token at the given index to a primitive field, converting,
+     * checking and setting the value without boxing it.
+     * 
+     * @param slot
+     * @param instance
+     * @param result
+     * @param tokens
+     * @param index
+     */
+    private static void bindPrimitiveToField(Slot slot, Object instance, OutlineParseResult result, OutlineTokens tokens, int index) {
+        final Class<?> type = slot.field.type;
+        final OutlineValidator validator = slot.validator;
+        try {
+            if(type == int.class) {
+                final int value = ((OutlineIntConverter) slot.converter).convertToInt(tokens, index);
+                if(validator == null || validator.validate(result, value, index)) {
+                    slot.primitiveSetter.invokeExact(instance, value);
+                }
+            } else if(type == long.class) {
+                final long value = ((OutlineLongConverter) slot.converter).convertToLong(tokens, index);
+                if(validator == null || validator.validate(result, value, index)) {
+                    slot.primitiveSetter.invokeExact(instance, value);
+                }
+            } else if(type == double.class) {
+                final double value = ((OutlineDoubleConverter) slot.converter).convertToDouble(tokens, index);
+                if(validator == null || validator.validate(result, value, index)) {
+                    slot.primitiveSetter.invokeExact(instance, value);
+                }
+            } else {
+                final boolean value = ((OutlineBooleanConverter) slot.converter).convertToBoolean(tokens, index);
+                slot.primitiveSetter.invokeExact(instance, value);
+            }
+        } catch(IllegalArgumentException e) {
+            invalidValue(slot, result, tokens.get(index), index, e);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            LOGGER.warn("Unable to set field value", t);
+        }
+    }
+    
+    private static void bindValueToField(Slot slot, Object instance, OutlineParseResult result, Object value) {
         if(value instanceof List<?>) {
             List<?> values = (List<?>) value;
             
@@ -176,36 +530,55 @@ class OutlineBinder {
                 return;
             }
             
-            if(values.size() == 1) {
-                bindValueToField(field, instance, values.get(0));
+            if(values.size() == 1 && !(slot.converter instanceof OutlineCollectionConverter)) {
+                bindValueToField(slot, instance, result, values.get(0));
                 return;
             }
         }
         
-        Class<?> fieldClass = field.getType();
-        if(converters.containsKey(fieldClass)) {
-            value = converters.get(fieldClass).convertFrom(field, instance, value);
+        if(slot.converter != null) {
+            try {
+                value = slot.converter.convertFrom(slot.field.getField(), instance, value);
+            } catch(IllegalArgumentException e) {
+                invalidValue(slot, result, String.valueOf(value), -1, e);
+                return;
+            }
+        } else if(value instanceof List<?>) {
+            // the list is a view over the parsed tokens, that may be reused
+            value = new ArrayList<>((List<?>) value);
         }
         
-        try {
-            ReflectionUtils.bindValue(field, instance, value);
-        } catch (IllegalArgumentException | IllegalAccessException e) {
-            LOGGER.warn("Unable to set field value via reflection", e);
-        }
+        setValue(slot, instance, result, value);
     }
-
-    private static List<String> getOptionValues(SimpleMultiMap<String, String> options, String[] names) {
-        List<String> values = new ArrayList<>();
+    
+    /**
+     * Set the value of the field, if it meets the constraint of the field.
+     * 
+     * @param slot
+     * @param instance
+     * @param result
+     *            the result to record constraint violations in,
+     *            <code>null</code> if the value has already been checked
+     * 
+     * @param value
+     */
+    private static void setValue(Slot slot, Object instance, OutlineParseResult result, Object value) {
+        if(value == null && slot.primitive) {
+            return;
+        }
         
-        for(String name : names) {
-            List<String> list = options.getValues(name);
-            if(list == null || list.isEmpty()) {
-                continue;
-            }
-            
-            values.addAll(list);
+        if(slot.validator != null && result != null && value != null && !slot.validator.validate(result, value)) {
+            return;
         }
         
-        return values;
+        try {
+            slot.setter.invokeExact(instance, value);
+        } catch (IllegalArgumentException | ClassCastException e) {
+            LOGGER.warn("Unable to set field value", e);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            LOGGER.warn("Unable to set field value", t);
+        }
     }
 }
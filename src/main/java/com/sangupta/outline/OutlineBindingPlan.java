@@ -0,0 +1,287 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.sangupta.outline.exceptions.OutlineInvalidConfigurationException;
+import com.sangupta.outline.model.OptionDescriptor;
+import com.sangupta.outline.model.OutlineCommandModel;
+import com.sangupta.outline.model.OutlineFieldModel;
+
+/**
+ * The binding plan of a command class: an ordered array of slots that need to be
+ * populated when binding an instance of the command, each with its converter and
+ * setter already resolved. Plans are computed once per command class and set of
+ * converters, and are then cached by {@link OutlineConverters}.
+ * 
+ * @author sangupta
+ *
+ */
+final class OutlineBindingPlan {
+	
+	/**
+	 * Slot populated from the values of an option
+	 */
+	static final int OPTION = 0;
+	
+	/**
+	 * Slot populated from an argument at a given position
+	 */
+	static final int ARGUMENT = 1;
+	
+	/**
+	 * Slot populated from all remaining arguments
+	 */
+	static final int REMAINING_ARGUMENTS = 2;
+	
+	/**
+	 * A single field that needs to be populated
+	 */
+	static final class Slot {
+		
+		final int kind;
+		
+		final OutlineFieldModel field;
+		
+		final OutlineTypeConverter<?> converter;
+		
+		/**
+		 * The converter if it can parse straight from the tokens, <code>null</code> otherwise
+		 */
+		final OutlineIntegerConverter<?> integerConverter;
+		
+		final MethodHandle setter;
+		
+		/**
+		 * The setter that takes the primitive value, if the converter converts
+		 * tokens to the primitive type of the field without boxing,
+		 * <code>null</code> otherwise
+		 */
+		final MethodHandle primitiveSetter;
+		
+		/**
+		 * The converter of the elements, if the field is an <code>int[]</code>,
+		 * <code>long[]</code> or <code>double[]</code> whose elements can be
+		 * converted without boxing, <code>null</code> otherwise
+		 */
+		final OutlineTypeConverter<?> elementConverter;
+		
+		/**
+		 * The values the field accepts, <code>null</code> if any value is
+		 * accepted
+		 */
+		final OutlineAllowedValues allowed;
+		
+		/**
+		 * The constraint on the values of the field, <code>null</code> if
+		 * there is none
+		 */
+		final OutlineValidator validator;
+		
+		/**
+		 * The converter if the field is a map, <code>null</code> otherwise
+		 */
+		final OutlineCollectionConverter mapConverter;
+		
+		final boolean primitive;
+		
+		final boolean required;
+		
+		final OptionDescriptor option;
+		
+		final int order;
+		
+		/**
+		 * Whether the remaining arguments are bound lazily, as an {@link Iterator}
+		 * or an {@link Iterable}
+		 */
+		final boolean lazy;
+		
+		/**
+		 * Whether the remaining arguments are read from the standard input when
+		 * none are given
+		 */
+		final boolean stdin;
+		
+		Slot(int kind, OutlineCommandModel model, OutlineConverters converters, OutlineFieldModel field, boolean required, OptionDescriptor option, int order) {
+			this.kind = kind;
+			this.field = field;
+			this.converter = converter(field, converters);
+			this.integerConverter = this.converter instanceof OutlineIntegerConverter ? (OutlineIntegerConverter<?>) this.converter : null;
+			this.setter = model.getSetter(field.index);
+			this.primitiveSetter = isUnboxed(field.type, this.converter) ? model.getPrimitiveSetter(field.index) : null;
+			
+			final Class<?> component = field.type.getComponentType();
+			final OutlineTypeConverter<?> elementConverter = component != null && component != boolean.class ? converters.get(component) : null;
+			this.elementConverter = isUnboxed(component, elementConverter) ? elementConverter : null;
+			this.mapConverter = this.converter instanceof OutlineCollectionConverter && ((OutlineCollectionConverter) this.converter).isMap() ? (OutlineCollectionConverter) this.converter : null;
+			this.primitive = field.type.isPrimitive();
+			this.required = required;
+			this.option = option;
+			this.order = order;
+			this.lazy = field.type == Iterator.class || field.type == Iterable.class;
+			this.stdin = kind == REMAINING_ARGUMENTS && field.arguments.stdin;
+			this.allowed = kind != -1 && !this.lazy ? OutlineAllowedValues.forField(field, option, enumType(field, this.converter, converters)) : null;
+			this.validator = kind != -1 && !this.lazy ? OutlineValidator.forField(field, option) : null;
+		}
+		
+	}
+	
+	/**
+	 * Return the converter for the given field. Collections and maps that have
+	 * no converter of their own get one that is composed from the converters of
+	 * their elements, as per the generic type of the field.
+	 * 
+	 * @param field
+	 * @param converters
+	 * @return the converter, <code>null</code> if there is none
+	 * 
+	 * @throws OutlineInvalidConfigurationException
+	 *             if the field is a collection or map that can neither be
+	 *             created, nor hold the values as given
+	 */
+	private static OutlineTypeConverter<?> converter(OutlineFieldModel field, OutlineConverters converters) {
+		final OutlineTypeConverter<?> converter = converters.get(field.type);
+		if(converter == null && (Collection.class.isAssignableFrom(field.type) || Map.class.isAssignableFrom(field.type))) {
+			final OutlineCollectionConverter collectionConverter = OutlineCollectionConverter.forField(field.getField(), converters);
+			if(collectionConverter == null && !field.type.isAssignableFrom(ArrayList.class)) {
+				// the values would be bound as a list that the field cannot hold
+				throw new OutlineInvalidConfigurationException(field.declaringClass.getName(), field.name, "Unsupported collection type, or elements without a converter: " + field.getField().getGenericType());
+			}
+			
+			return collectionConverter;
+		}
+		
+		return converter;
+	}
+	
+	/**
+	 * Return the <code>enum</code> the values of the given field are converted
+	 * to by name - the type of the field, or of its elements.
+	 * 
+	 * @param field
+	 * @param converter
+	 *            the converter of the field
+	 * 
+	 * @param converters
+	 * @return the <code>enum</code>, <code>null</code> if the values are not
+	 *         converted by the built-in <code>enum</code> converter
+	 */
+	private static Class<?> enumType(OutlineFieldModel field, OutlineTypeConverter<?> converter, OutlineConverters converters) {
+		Class<?> type = field.type;
+		if(converter instanceof OutlineCollectionConverter) {
+			type = ((OutlineCollectionConverter) converter).elementType;
+		}
+		
+		if(type == null || !type.isEnum() || !(converters.get(type) instanceof OutlineEnumConverter)) {
+			return null;
+		}
+		
+		return type;
+	}
+	
+	/**
+	 * Check if the given converter converts tokens to the given primitive type
+	 * without boxing.
+	 * 
+	 * @param type
+	 * @param converter
+	 * @return
+	 */
+	private static boolean isUnboxed(Class<?> type, OutlineTypeConverter<?> converter) {
+		return (type == int.class && converter instanceof OutlineIntConverter)
+				|| (type == long.class && converter instanceof OutlineLongConverter)
+				|| (type == double.class && converter instanceof OutlineDoubleConverter)
+				|| (type == boolean.class && converter instanceof OutlineBooleanConverter);
+	}
+	
+	/**
+	 * The model of the command class
+	 */
+	final OutlineCommandModel model;
+	
+	/**
+	 * All slots - first the options, then the arguments and at last the remaining
+	 * arguments
+	 */
+	final Slot[] slots;
+	
+	/**
+	 * The slots into which the help command is injected
+	 */
+	final Slot[] helpSlots;
+	
+	OutlineBindingPlan(OutlineCommandModel model, OutlineConverters converters) {
+		this.model = model;
+		
+		List<Slot> options = new ArrayList<>();
+		List<Slot> arguments = new ArrayList<>();
+		Slot remaining = null;
+		List<Slot> help = new ArrayList<>();
+		
+		for(OutlineFieldModel field : model.fields) {
+			if(field.option != null) {
+				options.add(new Slot(OPTION, model, converters, field, field.option.required, field.option, 0));
+			}
+			
+			if(field.argument != null) {
+				arguments.add(new Slot(ARGUMENT, model, converters, field, field.argument.required, null, field.argument.order));
+			}
+			
+			if(field.arguments != null && remaining == null) {
+				// only the first field receives the remaining arguments
+				remaining = new Slot(REMAINING_ARGUMENTS, model, converters, field, field.arguments.required, null, 0);
+			}
+			
+			if(field.helpInjection) {
+				help.add(new Slot(-1, model, converters, field, false, null, 0));
+			}
+		}
+		
+		Collections.sort(arguments, new Comparator<Slot>() {
+			
+			@Override
+			public int compare(Slot o1, Slot o2) {
+				return Integer.compare(o1.order, o2.order);
+			}
+			
+		});
+		
+		List<Slot> slots = new ArrayList<>(options);
+		slots.addAll(arguments);
+		if(remaining != null) {
+			slots.add(remaining);
+		}
+		
+		this.slots = slots.toArray(new Slot[slots.size()]);
+		this.helpSlots = help.toArray(new Slot[help.size()]);
+	}
+
+}
@@ -0,0 +1,51 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline;
+
+import com.sangupta.outline.parser.OutlineTokens;
+
+/**
+ * A converter for <code>boolean</code> fields that converts a token straight to a
+ * <code>boolean</code>, without boxing it - see {@link OutlineIntConverter}.
+ * 
+ * @author sangupta
+ *
+ */
+public interface OutlineBooleanConverter extends OutlineTypeConverter<Boolean> {
+    
+    /**
+     * Convert the token at the given index.
+     * 
+     * @param tokens
+     *            the tokens to read from
+     * 
+     * @param index
+     *            the index of the token
+     * 
+     * @return the converted value
+     * 
+     * @throws IllegalArgumentException
+     *             if the token cannot be converted
+     */
+    public boolean convertToBoolean(OutlineTokens tokens, int index);
+
+}
@@ -0,0 +1,390 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.sangupta.outline.util.OutlineCompactMap;
+
+/**
+ * The converter for {@link Collection} and {@link Map} fields, such as
+ * <code>List&lt;Integer&gt;</code>, <code>Set&lt;MyEnum&gt;</code> or
+ * <code>Map&lt;String, Long&gt;</code>. The generic type of the field is
+ * resolved only once, when the binding plan of the command is computed, into
+ * the collection to create and the converters of its elements. Binding then
+ * allocates a collection of the right size and converts every value, without
+ * any further reflection.
+ * 
+ * Map entries are given as <code>key=value</code>, and are put in an
+ * {@link OutlineCompactMap} when the field is declared as a {@link Map}, or
+ * in the map the field is declared as. Elements of type
+ * {@link String} or {@link Object}, and those of raw collections, are kept as
+ * given.
+ * 
+ * @author sangupta
+ *
+ */
+final class OutlineCollectionConverter implements OutlineTypeConverter<Object> {
+	
+	private static final int LIST = 0;
+	
+	private static final int LINKED_LIST = 1;
+	
+	private static final int SET = 2;
+	
+	private static final int HASH_SET = 3;
+	
+	private static final int SORTED_SET = 4;
+	
+	private static final int ENUM_SET = 5;
+	
+	private static final int MAP = 6;
+	
+	private static final int LINKED_HASH_MAP = 7;
+	
+	private static final int HASH_MAP = 8;
+	
+	private static final int SORTED_MAP = 9;
+	
+	/**
+	 * The collection to create
+	 */
+	private final int kind;
+	
+	/**
+	 * The field being bound, passed on to the element converters
+	 */
+	private final Field field;
+	
+	/**
+	 * The type of the elements, <code>null</code> for a map
+	 */
+	final Class<?> elementType;
+	
+	/**
+	 * The element type of an {@link EnumSet}, <code>null</code> otherwise
+	 */
+	private final Class<?> enumType;
+	
+	/**
+	 * The converter of the elements, or of the keys of a map,
+	 * <code>null</code> to keep them as given
+	 */
+	private final OutlineTypeConverter<?> elementConverter;
+	
+	/**
+	 * The converter of the values of a map, <code>null</code> to keep them as
+	 * given
+	 */
+	private final OutlineTypeConverter<?> valueConverter;
+	
+	private OutlineCollectionConverter(int kind, Field field, Class<?> elementType, OutlineTypeConverter<?> elementConverter, OutlineTypeConverter<?> valueConverter) {
+		this.kind = kind;
+		this.field = field;
+		this.elementType = elementType;
+		this.enumType = kind == ENUM_SET ? elementType : null;
+		this.elementConverter = elementConverter;
+		this.valueConverter = valueConverter;
+	}
+	
+	/**
+	 * Resolve the converter for the given field.
+	 * 
+	 * @param field
+	 *            the field, whose type must be a {@link Collection} or a
+	 *            {@link Map}
+	 * 
+	 * @param converters
+	 *            the converters to convert the elements with
+	 * 
+	 * @return the converter, or <code>null</code> if the collection cannot be
+	 *         created, or its elements cannot be converted - the binding plan
+	 *         rejects such fields unless they can hold a {@link List} of the
+	 *         values as given
+	 */
+	static OutlineCollectionConverter forField(Field field, OutlineConverters converters) {
+		final Class<?> type = field.getType();
+		final Type genericType = field.getGenericType();
+		
+		if(Map.class.isAssignableFrom(type)) {
+			final int kind = mapKind(type);
+			final Class<?> keyType = typeArgument(genericType, 0);
+			final Class<?> valueType = typeArgument(genericType, 1);
+			if(kind < 0 || !isConvertible(keyType, converters) || !isConvertible(valueType, converters)) {
+				return null;
+			}
+			
+			return new OutlineCollectionConverter(kind, field, null, elementConverter(keyType, converters), elementConverter(valueType, converters));
+		}
+		
+		final Class<?> elementType = typeArgument(genericType, 0);
+		if(!isConvertible(elementType, converters)) {
+			return null;
+		}
+		
+		int kind = collectionKind(type);
+		if(elementType.isEnum() && (type == Set.class || type == EnumSet.class)) {
+			kind = ENUM_SET;
+		}
+		
+		if(kind < 0) {
+			return null;
+		}
+		
+		return new OutlineCollectionConverter(kind, field, elementType, elementConverter(elementType, converters), null);
+	}
+	
+	private static int collectionKind(Class<?> type) {
+		if(type == List.class || type == Collection.class || type == ArrayList.class) {
+			return LIST;
+		}
+		
+		if(type == LinkedList.class) {
+			return LINKED_LIST;
+		}
+		
+		if(type == Set.class || type == LinkedHashSet.class) {
+			return SET;
+		}
+		
+		if(type == HashSet.class) {
+			return HASH_SET;
+		}
+		
+		if(type == SortedSet.class || type == TreeSet.class || type == NavigableSet.class) {
+			return SORTED_SET;
+		}
+		
+		return -1;
+	}
+	
+	private static int mapKind(Class<?> type) {
+		if(type == Map.class) {
+			return MAP;
+		}
+		
+		if(type == LinkedHashMap.class) {
+			return LINKED_HASH_MAP;
+		}
+		
+		if(type == HashMap.class) {
+			return HASH_MAP;
+		}
+		
+		if(type == SortedMap.class || type == TreeMap.class || type == NavigableMap.class) {
+			return SORTED_MAP;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Return the class of the type argument at the given position, the upper
+	 * bound for a wildcard, and {@link Object} for a raw type.
+	 * 
+	 * @param type
+	 * @param position
+	 * @return the class, or <code>null</code> if it cannot be resolved
+	 */
+	private static Class<?> typeArgument(Type type, int position) {
+		if(!(type instanceof ParameterizedType)) {
+			return Object.class;
+		}
+		
+		Type argument = ((ParameterizedType) type).getActualTypeArguments()[position];
+		if(argument instanceof WildcardType) {
+			argument = ((WildcardType) argument).getUpperBounds()[0];
+		}
+		
+		if(argument instanceof ParameterizedType) {
+			argument = ((ParameterizedType) argument).getRawType();
+		}
+		
+		if(argument instanceof Class) {
+			return (Class<?>) argument;
+		}
+		
+		return null;
+	}
+	
+	private static boolean isConvertible(Class<?> type, OutlineConverters converters) {
+		return type != null && (isKept(type) || converters.get(type) != null);
+	}
+	
+	private static boolean isKept(Class<?> type) {
+		return type == String.class || type == Object.class || type == CharSequence.class;
+	}
+	
+	private static OutlineTypeConverter<?> elementConverter(Class<?> type, OutlineConverters converters) {
+		return isKept(type) ? null : converters.get(type);
+	}
+	
+	/**
+	 * Convert the given value, or {@link List} of values, to the collection or
+	 * map of the field.
+	 */
+	@Override
+	public Object convertFrom(Field field, Object instance, Object value) {
+		if(value == null) {
+			return null;
+		}
+		
+		final List<?> values = value instanceof List<?> ? (List<?>) value : Collections.singletonList(value);
+		final int size = values.size();
+		
+		if(this.kind >= MAP) {
+			final Map<Object, Object> map = this.newMap(size);
+			for(int index = 0; index < size; index++) {
+				this.putEntry(map, instance, values.get(index).toString(), 0);
+			}
+			
+			return map;
+		}
+		
+		final Collection<Object> collection = this.newCollection(size);
+		for(int index = 0; index < size; index++) {
+			collection.add(this.convert(this.elementConverter, instance, values.get(index)));
+		}
+		
+		return collection;
+	}
+	
+	/**
+	 * Check if this converter creates a map.
+	 * 
+	 * @return <code>true</code> for a map, <code>false</code> for a collection
+	 */
+	boolean isMap() {
+		return this.kind >= MAP;
+	}
+	
+	/**
+	 * Split the given <code>key=value</code> entry at the first
+	 * <code>=</code>, and put the converted key and value in the map.
+	 * 
+	 * @param map
+	 *            the map created by {@link #newMap(int)}
+	 * 
+	 * @param instance
+	 * @param token
+	 *            the token holding the entry
+	 * 
+	 * @param offset
+	 *            the index of the entry within the token
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the entry has no <code>=</code>, or cannot be converted
+	 */
+	void putEntry(Map<Object, Object> map, Object instance, String token, int offset) {
+		final int separator = token.indexOf('=', offset);
+		if(separator < 0) {
+			throw new IllegalArgumentException("Expected key=value but found: " + token.substring(offset));
+		}
+		
+		map.put(this.convert(this.elementConverter, instance, token.substring(offset, separator)), this.convert(this.valueConverter, instance, token.substring(separator + 1)));
+	}
+	
+	private Object convert(OutlineTypeConverter<?> converter, Object instance, Object value) {
+		if(converter == null) {
+			return value.toString();
+		}
+		
+		return converter.convertFrom(this.field, instance, value);
+	}
+	
+	/**
+	 * Hash based collections are sized so that they never rehash.
+	 * 
+	 * @param size
+	 * @return
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Collection<Object> newCollection(int size) {
+		switch(this.kind) {
+			case LIST:
+				return new ArrayList<>(size);
+			
+			case LINKED_LIST:
+				return new LinkedList<>();
+			
+			case SET:
+				return new LinkedHashSet<>(capacity(size));
+			
+			case HASH_SET:
+				return new HashSet<>(capacity(size));
+			
+			case SORTED_SET:
+				return new TreeSet<>();
+			
+			default:
+				return EnumSet.noneOf((Class) this.enumType);
+		}
+	}
+	
+	/**
+	 * Create the map of the field, sized for the given number of entries.
+	 * 
+	 * @param size
+	 * @return
+	 */
+	Map<Object, Object> newMap(int size) {
+		switch(this.kind) {
+			case MAP:
+				return new OutlineCompactMap<>(size);
+			
+			case LINKED_HASH_MAP:
+				return new LinkedHashMap<>(capacity(size));
+			
+			case HASH_MAP:
+				return new HashMap<>(capacity(size));
+			
+			default:
+				return new TreeMap<>();
+		}
+	}
+	
+	private static int capacity(int size) {
+		return size < 3 ? size + 1 : (int) (size / 0.75f) + 1;
+	}
+	
+}
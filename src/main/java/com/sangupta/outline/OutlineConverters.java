@@ -0,0 +1,196 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.sangupta.outline.model.OutlineCommandModel;
+
+/**
+ * An immutable set of {@link OutlineTypeConverter}s, falling back to a parent
+ * set for the types it has no converter for. Converters and binding plans are
+ * looked up lock-free via {@link ClassValue}s that are computed once per type.
+ * 
+ * The global converters, registered via
+ * {@link Outline#registerTypeConverter(Class, OutlineTypeConverter)}, are
+ * replaced by a new copy on every registration. Converters registered on a
+ * single {@link Outline} are frozen when the outline is compiled, and fall back
+ * to the global converters. Enum types that have no converter are converted
+ * by the names of their constants.
+ * 
+ * @author sangupta
+ *
+ */
+final class OutlineConverters {
+	
+	/**
+	 * Marks the types that have no converter, as a {@link ClassValue} cannot
+	 * hold <code>null</code> reliably
+	 */
+	private static final OutlineTypeConverter<Object> NONE = new OutlineTypeConverter<Object>() {
+		
+		@Override
+		public Object convertFrom(Field field, Object instance, Object value) {
+			throw new UnsupportedOperationException();
+		}
+		
+	};
+	
+	/**
+	 * Guards the replacement of the global converters
+	 */
+	private static final Object LOCK = new Object();
+	
+	/**
+	 * The current global converters
+	 */
+	private static volatile OutlineConverters global = new OutlineConverters(Collections.<Class<?>, OutlineTypeConverter<?>> emptyMap(), null);
+	
+	/**
+	 * The converters to fall back to, <code>null</code> for the global converters
+	 */
+	final OutlineConverters parent;
+	
+	/**
+	 * The converters of this set, never modified
+	 */
+	private final Map<Class<?>, OutlineTypeConverter<?>> converters;
+	
+	private final ClassValue<OutlineTypeConverter<?>> lookup = new ClassValue<OutlineTypeConverter<?>>() {
+		
+		@Override
+		protected OutlineTypeConverter<?> computeValue(Class<?> type) {
+			OutlineTypeConverter<?> converter = converters.get(type);
+			if(converter == null && parent != null) {
+				converter = parent.get(type);
+			}
+			
+			if(converter == null && type.isEnum()) {
+				converter = new OutlineEnumConverter(type);
+			}
+			
+			return converter != null ? converter : NONE;
+		}
+		
+	};
+	
+	/**
+	 * Binding plans are computed only once per command class
+	 */
+	private final ClassValue<OutlineBindingPlan> plans = new ClassValue<OutlineBindingPlan>() {
+		
+		@Override
+		protected OutlineBindingPlan computeValue(Class<?> commandClass) {
+			return new OutlineBindingPlan(OutlineCommandModel.forClass(commandClass), OutlineConverters.this);
+		}
+		
+	};
+	
+	private OutlineConverters(Map<Class<?>, OutlineTypeConverter<?>> converters, OutlineConverters parent) {
+		this.converters = converters;
+		this.parent = parent;
+	}
+	
+	/**
+	 * Return the current global converters.
+	 * 
+	 * @return the global converters
+	 */
+	static OutlineConverters global() {
+		return global;
+	}
+	
+	/**
+	 * Register a global converter. Outlines compiled earlier see the converter
+	 * as well, unless they have their own converter for the same type.
+	 * 
+	 * @param classOfT
+	 * @param converter
+	 */
+	static <T> void registerGlobal(Class<T> classOfT, OutlineTypeConverter<T> converter) {
+		if(classOfT == null || converter == null) {
+			throw new IllegalArgumentException("Type and converter cannot be null");
+		}
+		
+		synchronized(LOCK) {
+			Map<Class<?>, OutlineTypeConverter<?>> converters = new HashMap<>(global.converters);
+			converters.put(classOfT, converter);
+			global = new OutlineConverters(converters, null);
+		}
+	}
+	
+	/**
+	 * Return the converters to use for the given per-outline converters: the
+	 * global converters themselves if there are none, or a frozen copy that
+	 * falls back to the current global converters.
+	 * 
+	 * @param converters
+	 *            the per-outline converters
+	 * 
+	 * @return the converters to use
+	 */
+	static OutlineConverters of(Map<Class<?>, OutlineTypeConverter<?>> converters) {
+		final OutlineConverters global = OutlineConverters.global;
+		if(converters.isEmpty()) {
+			return global;
+		}
+		
+		return new OutlineConverters(new HashMap<>(converters), global);
+	}
+	
+	/**
+	 * Return the converter for the given type.
+	 * 
+	 * @param type
+	 * @return the converter, <code>null</code> if there is none
+	 */
+	OutlineTypeConverter<?> get(Class<?> type) {
+		OutlineTypeConverter<?> converter = this.lookup.get(type);
+		return converter != NONE ? converter : null;
+	}
+	
+	/**
+	 * Return the binding plan for the given command class, using these
+	 * converters.
+	 * 
+	 * @param commandClass
+	 * @return the binding plan
+	 */
+	OutlineBindingPlan plan(Class<?> commandClass) {
+		return this.plans.get(commandClass);
+	}
+	
+	/**
+	 * Check if these converters have been derived from the current global
+	 * converters.
+	 * 
+	 * @return <code>true</code> if no global converter has been registered since
+	 */
+	boolean isCurrent() {
+		final OutlineConverters global = OutlineConverters.global;
+		return this == global || this.parent == global;
+	}
+	
+}
@@ -0,0 +1,54 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline;
+
+import java.lang.reflect.Field;
+
+/**
+ * The converter for <code>enum</code> types that have no converter of their
+ * own, converting a value to the constant of the same name. Options and
+ * arguments of such types are checked against the names of the constants, and
+ * are bound to the constants found, before they reach this converter.
+ * 
+ * @author sangupta
+ *
+ */
+final class OutlineEnumConverter implements OutlineTypeConverter<Object> {
+	
+	private final Class<?> type;
+	
+	OutlineEnumConverter(Class<?> type) {
+		this.type = type;
+	}
+	
+	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Object convertFrom(Field field, Object instance, Object value) {
+		if(this.type.isInstance(value)) {
+			// already looked up by the values the field accepts
+			return value;
+		}
+		
+		return Enum.valueOf((Class) this.type, value.toString());
+	}
+
+}
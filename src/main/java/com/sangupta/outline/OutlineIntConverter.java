@@ -0,0 +1,55 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline;
+
+import com.sangupta.outline.parser.OutlineTokens;
+
+/**
+ * A converter for <code>int</code> fields that converts a token straight to a
+ * <code>int</code>, without boxing it. When registered for <code>int.class</code>,
+ * the value is written to the field with a setter that takes an <code>int</code>,
+ * and binding the field creates no garbage. The boxed
+ * {@link #convertFrom(java.lang.reflect.Field, Object, Object)} is still used
+ * for values that do not come from a single token.
+ * 
+ * @author sangupta
+ *
+ */
+public interface OutlineIntConverter extends OutlineTypeConverter<Integer> {
+    
+    /**
+     * Convert the token at the given index.
+     * 
+     * @param tokens
+     *            the tokens to read from
+     * 
+     * @param index
+     *            the index of the token
+     * 
+     * @return the converted value
+     * 
+     * @throws IllegalArgumentException
+     *             if the token cannot be converted
+     */
+    public int convertToInt(OutlineTokens tokens, int index);
+
+}
@@ -0,0 +1,155 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+ 
+package com.sangupta.outline;
+
+import java.lang.reflect.Field;
+
+import com.sangupta.outline.parser.OutlineTokens;
+
+/**
+ * The built-in converter for <code>byte</code>, <code>short</code>,
+ * <code>int</code>, <code>long</code> and their wrappers. Apart from converting
+ * a {@link String}, it can parse a value straight from the
+ * {@link OutlineTokens} it was read from, so that tokens that are not backed by
+ * {@link String}s need not be decoded first.
+ * 
+ * @author sangupta
+ *
+ * @param <T>
+ *            the wrapper type that is returned
+ */
+class OutlineIntegerConverter<T extends Number> implements OutlineTypeConverter<T> {
+	
+	static final OutlineIntegerConverter<Byte> BYTE = new OutlineIntegerConverter<>(Byte.class, Byte.MIN_VALUE, Byte.MAX_VALUE);
+	
+	static final OutlineIntegerConverter<Short> SHORT = new OutlineIntegerConverter<>(Short.class, Short.MIN_VALUE, Short.MAX_VALUE);
+	
+	static final IntConverter INTEGER = new IntConverter();
+	
+	static final LongConverter LONG = new LongConverter();
+	
+	/**
+	 * The <code>int</code> converter, that also binds <code>int</code> fields
+	 * without boxing
+	 */
+	static final class IntConverter extends OutlineIntegerConverter<Integer> implements OutlineIntConverter {
+		
+		private IntConverter() {
+			super(Integer.class, Integer.MIN_VALUE, Integer.MAX_VALUE);
+		}
+		
+		@Override
+		public int convertToInt(OutlineTokens tokens, int index) {
+			return (int) this.parse(tokens, index);
+		}
+		
+	}
+	
+	/**
+	 * The <code>long</code> converter, that also binds <code>long</code> fields
+	 * without boxing
+	 */
+	static final class LongConverter extends OutlineIntegerConverter<Long> implements OutlineLongConverter {
+		
+		private LongConverter() {
+			super(Long.class, Long.MIN_VALUE, Long.MAX_VALUE);
+		}
+		
+		@Override
+		public long convertToLong(OutlineTokens tokens, int index) {
+			return this.parse(tokens, index);
+		}
+		
+	}
+	
+	private final Class<T> type;
+	
+	private final long min;
+	
+	private final long max;
+	
+	private OutlineIntegerConverter(Class<T> type, long min, long max) {
+		this.type = type;
+		this.min = min;
+		this.max = max;
+	}
+	
+	@Override
+	public T convertFrom(Field field, Object instance, Object value) {
+		return this.box(this.checkRange(Long.parseLong(value.toString()), value));
+	}
+	
+	/**
+	 * Convert the token at the given index.
+	 * 
+	 * @param tokens
+	 *            the tokens to read from
+	 * 
+	 * @param index
+	 *            the index of the token
+	 * 
+	 * @return the converted value
+	 * 
+	 * @throws NumberFormatException
+	 *             if the token is not a valid number, or is out of range
+	 */
+	public T convertFrom(OutlineTokens tokens, int index) {
+		return this.box(this.parse(tokens, index));
+	}
+	
+	/**
+	 * Parse the token at the given index, checking it is within range.
+	 * 
+	 * @param tokens
+	 * @param index
+	 * @return the parsed value
+	 */
+	final long parse(OutlineTokens tokens, int index) {
+		return this.checkRange(tokens.parseLong(index), null);
+	}
+	
+	private long checkRange(long value, Object source) {
+		if(value < this.min || value > this.max) {
+			throw new NumberFormatException("Value out of range. Value:\"" + (source != null ? source : value) + "\"");
+		}
+		
+		return value;
+	}
+	
+	private T box(long value) {
+		if(this.type == Integer.class) {
+			return this.type.cast(Integer.valueOf((int) value));
+		}
+		
+		if(this.type == Long.class) {
+			return this.type.cast(Long.valueOf(value));
+		}
+		
+		if(this.type == Short.class) {
+			return this.type.cast(Short.valueOf((short) value));
+		}
+		
+		return this.type.cast(Byte.valueOf((byte) value));
+	}
+
+}
@@ -22,13 +22,19 @@
 package com.sangupta.outline;
 
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 import com.sangupta.jerry.ds.SimpleMultiMap;
-import com.sangupta.outline.annotations.Command;
-import com.sangupta.outline.annotations.Option;
+import com.sangupta.outline.model.ArgumentDescriptor;
+import com.sangupta.outline.model.CommandDescriptor;
+import com.sangupta.outline.model.OptionDescriptor;
+import com.sangupta.outline.parser.OutlineLookupTable;
 
 public class OutlineMetadata {
+	
+	private static final OptionDescriptor[] NO_OPTIONS = new OptionDescriptor[0];
     
     public final boolean singleCommandMode;
     
@@ -39,12 +45,17 @@ public class OutlineMetadata {
     public final boolean helpOnIncorrectArguments;
     
     public final String helpKeyword;
+    
+    /**
+     * Whether <code>@path</code> arguments are expanded from response files
+     */
+    public final boolean responseFiles;
 
     /**
      * Mapping between all applicable global options - their name and actual
-     * {@link Option} instance
+     * {@link OptionDescriptor} instance
      */
-    public final Map<String, Option> globalOptions = new HashMap<>();
+    public final Map<String, OptionDescriptor> globalOptions = new HashMap<>();
     
     /**
 	 * Mapping between each command name and the corresponding {@link Class}
@@ -56,37 +67,92 @@ public class OutlineMetadata {
      * Mapping between each command and all its arguments that are applicable.
      * 
      */
-    public final SimpleMultiMap<String, Object> commandArguments = new SimpleMultiMap<>();
+    public final SimpleMultiMap<String, ArgumentDescriptor> commandArguments = new SimpleMultiMap<>();
     
     /**
-     * Mapping between each command name and the {@link Command} object
+     * Mapping between each command name and the {@link CommandDescriptor} object
      */
-    public final Map<String, Command> commandNames = new HashMap<>();
+    public final Map<String, CommandDescriptor> commandNames = new HashMap<>();
     
     /**
-	 * Mapping between the group name and all the {@link Command} objects for
+	 * Mapping between the group name and all the {@link CommandDescriptor} objects for
 	 * all commands that fall under that group
 	 */
-    public final SimpleMultiMap<String, Command> commandGroups = new SimpleMultiMap<>();
+    public final SimpleMultiMap<String, CommandDescriptor> commandGroups = new SimpleMultiMap<>();
     
     /**
-	 * Mapping between the group name and all the {@link Option}s that are
+	 * Mapping between the group name and all the {@link OptionDescriptor}s that are
 	 * applicable to that group
 	 */
-    public final Map<String, Map<String, Option>> groupOptions = new HashMap<>();
+    public final Map<String, Map<String, OptionDescriptor>> groupOptions = new HashMap<>();
     
     /**
-     * Mapping between the command name and all {@link Option}s that are applicable to
+     * Mapping between the command name and all {@link OptionDescriptor}s that are applicable to
      * the command.
      */
-    public final Map<String, Map<String, Option>> commandOptions = new HashMap<>();
+    public final Map<String, Map<String, OptionDescriptor>> commandOptions = new HashMap<>();
     
     /**
-     * Mapping between the option annotation and the class type for the field its put on.
-     * This way we know that option applies to boolean, or to int, or to double and so on.
-     * 
+     * The number of option ids that have been assigned. Option ids are unique within
+     * this metadata and range from <code>0</code> to <code>optionCount - 1</code>.
+     */
+    int optionCount;
+    
+    /**
+     * All registered options indexed by their id
+     */
+    private OptionDescriptor[] optionsById = new OptionDescriptor[0];
+    
+    /**
+     * Mapping between each command name and the option id of each field of the
+     * command class, indexed by field index. Fields that are not options have an
+     * id of <code>-1</code>.
+     */
+    final Map<String, int[]> fieldOptionIds = new HashMap<>();
+    
+    /**
+     * Lookup table for all global options, built once all commands have been read
+     */
+    public OutlineLookupTable<OptionDescriptor> globalOptionTable = OutlineLookupTable.empty();
+    
+    /**
+     * Lookup table for all command names, built once all commands have been read
+     */
+    public OutlineLookupTable<CommandDescriptor> commandTable = OutlineLookupTable.empty();
+    
+    /**
+     * Lookup table for all group names that resolves to the group name itself,
+     * built once all commands have been read
+     */
+    public OutlineLookupTable<String> groupTable = OutlineLookupTable.empty();
+    
+    /**
+     * Lookup tables for options of each group, keyed by group name
+     */
+    public final Map<String, OutlineLookupTable<OptionDescriptor>> groupOptionTables = new HashMap<>();
+    
+    /**
+     * Lookup tables for options of each command, keyed by command name
+     */
+    public final Map<String, OutlineLookupTable<OptionDescriptor>> commandOptionTables = new HashMap<>();
+    
+    /**
+     * The global options whose values may be attached to their name, as in
+     * <code>-Dkey=value</code> - those placed on {@link Map} fields
+     */
+    public OptionDescriptor[] globalAttachedOptions = NO_OPTIONS;
+    
+    /**
+     * The group options whose values may be attached to their name, keyed by
+     * group name
+     */
+    public final Map<String, OptionDescriptor[]> groupAttachedOptions = new HashMap<>();
+    
+    /**
+     * The command options whose values may be attached to their name, keyed by
+     * command name
      */
-    public final Map<Option, Class<?>> optionFieldType = new HashMap<>();
+    public final Map<String, OptionDescriptor[]> commandAttachedOptions = new HashMap<>();
     
     OutlineMetadata(Outline outline) {
         this.name = outline.name;
@@ -94,6 +160,116 @@ public class OutlineMetadata {
         this.singleCommandMode = outline.singleCommandMode;
         this.helpOnIncorrectArguments = outline.isHelpOnIncorrectArguments();
         this.helpKeyword = outline.helpKeyword;
+        this.responseFiles = outline.responseFiles;
+    }
+
+    /**
+	 * Register the given option in the given map. Options with the same canonical
+	 * name within the same map share the same id. All names of the option are
+	 * mapped to the registered descriptor.
+	 * 
+	 * @param map
+	 *            the map to register the option in
+	 * 
+	 * @param option
+	 *            the option to register
+	 * 
+	 * @return the registered descriptor that has an id assigned
+	 */
+    OptionDescriptor registerOption(Map<String, OptionDescriptor> map, OptionDescriptor option) {
+    	OptionDescriptor existing = map.get(option.name);
+    	
+    	int id;
+    	if(existing != null && existing.name.equals(option.name)) {
+    		id = existing.id;
+    	} else {
+    		id = this.optionCount++;
+    	}
+    	
+    	OptionDescriptor registered = option.withId(id);
+    	for(String name : option.names) {
+    		map.put(name, registered);
+    	}
+    	
+    	return registered;
+    }
+    
+    /**
+     * Build the lookup tables used when parsing arguments. Must be invoked once
+     * all commands have been read.
+     * 
+     */
+    void buildLookupTables() {
+    	this.optionsById = new OptionDescriptor[this.optionCount];
+    	indexOptions(this.globalOptions);
+    	for(Map<String, OptionDescriptor> options : this.groupOptions.values()) {
+    		indexOptions(options);
+    	}
+    	for(Map<String, OptionDescriptor> options : this.commandOptions.values()) {
+    		indexOptions(options);
+    	}
+    	
+    	this.globalOptionTable = new OutlineLookupTable<>(this.globalOptions);
+    	this.globalAttachedOptions = attachedOptions(this.globalOptions);
+    	this.commandTable = new OutlineLookupTable<>(this.commandNames);
+    	
+    	Map<String, String> groups = new HashMap<>();
+    	for(String group : this.commandGroups.keySet()) {
+    		groups.put(group, group);
+    	}
+    	this.groupTable = new OutlineLookupTable<>(groups);
+    	
+    	for(Map.Entry<String, Map<String, OptionDescriptor>> entry : this.groupOptions.entrySet()) {
+    		this.groupOptionTables.put(entry.getKey(), new OutlineLookupTable<>(entry.getValue()));
+    		this.groupAttachedOptions.put(entry.getKey(), attachedOptions(entry.getValue()));
+    	}
+    	
+    	for(Map.Entry<String, Map<String, OptionDescriptor>> entry : this.commandOptions.entrySet()) {
+    		this.commandOptionTables.put(entry.getKey(), new OutlineLookupTable<>(entry.getValue()));
+    		this.commandAttachedOptions.put(entry.getKey(), attachedOptions(entry.getValue()));
+    	}
+    }
+    
+    private static OptionDescriptor[] attachedOptions(Map<String, OptionDescriptor> options) {
+    	Set<OptionDescriptor> attached = new LinkedHashSet<>();
+    	for(OptionDescriptor option : options.values()) {
+    		if(option.fieldType != null && Map.class.isAssignableFrom(option.fieldType)) {
+    			attached.add(option);
+    		}
+    	}
+    	
+    	if(attached.isEmpty()) {
+    		return NO_OPTIONS;
+    	}
+    	
+    	return attached.toArray(new OptionDescriptor[attached.size()]);
+    }
+    
+    private void indexOptions(Map<String, OptionDescriptor> options) {
+    	for(OptionDescriptor option : options.values()) {
+    		this.optionsById[option.id] = option;
+    	}
+    }
+    
+    /**
+     * Return the option with the given id.
+     * 
+     * @param id
+     *            the option id
+     * 
+     * @return the option descriptor
+     */
+    public OptionDescriptor getOption(int id) {
+    	return this.optionsById[id];
+    }
+    
+    /**
+     * Return the number of option ids that have been assigned.
+     * 
+     * @return the number of option ids
+     */
+    public int getOptionCount() {
+    	return this.optionCount;
     }
 
     /**
@@ -1,6 +1,5 @@
 package com.sangupta.outline;
 
-import java.lang.reflect.Field;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -12,13 +11,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.sangupta.jerry.util.AssertUtils;
-import com.sangupta.outline.annotations.Argument;
-import com.sangupta.outline.annotations.Arguments;
-import com.sangupta.outline.annotations.Command;
-import com.sangupta.outline.annotations.Option;
 import com.sangupta.outline.annotations.OptionType;
 import com.sangupta.outline.exceptions.OutlineInvalidConfigurationException;
-import com.sangupta.outline.util.OutlineUtil;
+import com.sangupta.outline.model.ArgumentDescriptor;
+import com.sangupta.outline.model.CommandDescriptor;
+import com.sangupta.outline.model.OptionDescriptor;
+import com.sangupta.outline.model.OutlineCommandModel;
+import com.sangupta.outline.model.OutlineFieldModel;
 
 /**
  * Functions that read all the metadata from classes via annotations and otherwise
@@ -34,38 +33,19 @@ public class OutlineMetadataReader {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(OutlineMetadataReader.class);
 
-    public static final Comparator<Object> ARGUMENTS_SORTER = new Comparator<Object>() {
+    public static final Comparator<ArgumentDescriptor> ARGUMENTS_SORTER = new Comparator<ArgumentDescriptor>() {
 		
 		@Override
-		public int compare(Object o1, Object o2) {
-			if(!isValidType(o1) || !isValidType(o2)) {
-				throw new IllegalArgumentException("The collection should only have Argument/Arguments");
-			}
-			
-			if(o1 instanceof Arguments) {
+		public int compare(ArgumentDescriptor a1, ArgumentDescriptor a2) {
+			if(a1.remaining) {
 				return 1;
 			}
 			
-			if(o2 instanceof Arguments) {
+			if(a2.remaining) {
 				return -1;
 			}
 			
-			Argument a1 = (Argument) o1;
-			Argument a2 = (Argument) o2;
-			
-			return Integer.compare(a1.order(), a2.order()); 
-		}
-		
-		private boolean isValidType(Object obj) {
-			if(obj instanceof Argument) {
-				return true;
-			}
-			
-			if(obj instanceof Arguments) {
-				return true;
-			}
-			
-			return false;
+			return Integer.compare(a1.order, a2.order); 
 		}
 		
 	};
@@ -89,6 +69,9 @@ public class OutlineMetadataReader {
         // sort arguments
         sortCommandArguments(metadata);
         
+        // build the lookup tables used by the parser
+        metadata.buildLookupTables();
+        
         return metadata;
     }
 
@@ -96,7 +79,7 @@ public class OutlineMetadataReader {
 		if(!metadata.commandArguments.isEmpty()) {
             Set<String> keys = metadata.commandArguments.keySet();
             for(String key : keys) {
-            	List<Object> arguments = metadata.commandArguments.getValues(key);
+            	List<ArgumentDescriptor> arguments = metadata.commandArguments.getValues(key);
             	Collections.sort(arguments, ARGUMENTS_SORTER);
             }
         	
@@ -104,13 +87,14 @@ public class OutlineMetadataReader {
 	}
 
 	private static void readCommandData(Class<?> commandClass, Outline outline, OutlineMetadata metadata) {
-		Command command = commandClass.getAnnotation(Command.class);
+		OutlineCommandModel model = OutlineCommandModel.forClass(commandClass);
+		CommandDescriptor command = model.command;
         if(command == null) {
             LOGGER.warn("Command class {} does not have a @Command annotation, skipping loading command.", commandClass.getName());
             return;
         }
         
-        final String commandName = command.name();
+        final String commandName = command.name;
         
         if(AssertUtils.isEmpty(commandName)) {
             LOGGER.warn("Command does not have a valid name");
@@ -123,11 +107,11 @@ public class OutlineMetadataReader {
         // the command group, if any
         String group = outline.getCommandGroup(commandClass);
         if(group != null) {
-            if(AssertUtils.isNotEmpty(command.group())) {
+            if(AssertUtils.isNotEmpty(command.group)) {
                 LOGGER.warn("Command specifies a group and has also been added via API, the API one will supersede");
             }
         } else {
-            group = command.group();
+            group = command.group;
         }
         
         if(group != null && !group.trim().isEmpty()) {
@@ -135,48 +119,49 @@ public class OutlineMetadataReader {
             metadata.commandGroups.put(group, command);
         }
         
-        readFieldData(commandClass, metadata, commandName, group);
+        readFieldData(model, metadata, commandName, group);
 	}
 	
-	private static void readFieldData(Class<?> commandClass, OutlineMetadata metadata, final String commandName, String group) {
-		// read options from within the commandClass
-        List<Field> fields = OutlineUtil.getAllFields(commandClass);
-        if(fields.isEmpty()) {
+	private static void readFieldData(OutlineCommandModel model, OutlineMetadata metadata, final String commandName, String group) {
+		// read options from within the command model
+        if(model.fields.length == 0) {
             // there are no fields in command
             // let's move on
             return;
         }
         
         // we do have fields available - let's check each one
-        for(Field field : fields) {
-            readFieldData(metadata, commandName, group, field);
+        int[] optionIds = new int[model.fields.length];
+        for(OutlineFieldModel field : model.fields) {
+            OptionDescriptor option = readFieldData(metadata, commandName, group, field);
+            optionIds[field.index] = option != null ? option.id : -1;
         }
+        
+        metadata.fieldOptionIds.put(commandName, optionIds);
 	}
 
-	private static OptionType readFieldData(OutlineMetadata metadata, final String commandName, String group, Field field) {
+	private static OptionDescriptor readFieldData(OutlineMetadata metadata, final String commandName, String group, OutlineFieldModel field) {
 		// check if command accepts arguments or not
-		Argument argument = field.getAnnotation(Argument.class);
+		ArgumentDescriptor argument = field.argument;
 		if(argument != null) {
 			metadata.commandArguments.put(commandName, argument);
 		}
 		
-		Arguments arguments = field.getAnnotation(Arguments.class);
+		ArgumentDescriptor arguments = field.arguments;
 		if(arguments != null) {
 			metadata.commandArguments.put(commandName, arguments);
 		}
 		
 		// check if field is annotated with @Option annotation
-		Option option = field.getAnnotation(Option.class);
+		OptionDescriptor option = field.option;
 		if(option == null) {
 		    return null;
 		}
 		
-		// add field type so that information can be displayed in help text
-		metadata.optionFieldType.put(option, field.getType());
-		
 		// the field is an argument - read it
-		OptionType type = option.type();
-		Map<String, Option> map;
+		OptionDescriptor registered;
+		OptionType type = option.type;
+		Map<String, OptionDescriptor> map;
 		switch(type) {
 		    case COMMAND:
 		        map = metadata.commandOptions.get(commandName);
@@ -185,20 +170,16 @@ public class OutlineMetadataReader {
 		            metadata.commandOptions.put(commandName, map);
 		        }
 		        
-		        for(String name : option.name()) {
-		            map.put(name, option);
-		        }
+		        registered = metadata.registerOption(map, option);
 		        break;
 		    
 		    case GLOBAL:
-		        for(String name : option.name()) {
-		            metadata.globalOptions.put(name, option);
-		        }
+		        registered = metadata.registerOption(metadata.globalOptions, option);
 		        break;
 		    
 		    case GROUP:
 		    	if(metadata.singleCommandMode) {
-		    		throw new OutlineInvalidConfigurationException(commandName, field.getName(), "Group option specified in single-command mode");
+		    		throw new OutlineInvalidConfigurationException(commandName, field.name, "Group option specified in single-command mode");
 		    	}
 		    	
 		        if(group == null) {
@@ -211,15 +192,13 @@ public class OutlineMetadataReader {
 		            metadata.groupOptions.put(group, map);
 		        }
 		        
-		        for(String name : option.name()) {
-		            map.put(name, option);
-		        }
+		        registered = metadata.registerOption(map, option);
 		        break;
 		    
 		    default:
 		        throw new IllegalStateException("Unkown option type detected: " + type.toString());
 		}
 		
-		return type;
+		return registered;
 	}
 }
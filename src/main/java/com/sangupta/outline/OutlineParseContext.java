@@ -0,0 +1,304 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+ 
+package com.sangupta.outline;
+
+import java.nio.ByteBuffer;
+
+import com.sangupta.outline.help.OutlineHelp;
+import com.sangupta.outline.parser.OutlineArrayTokens;
+import com.sangupta.outline.parser.OutlineByteBufferTokens;
+import com.sangupta.outline.parser.OutlineCommandLineTokens;
+import com.sangupta.outline.parser.OutlineParseResult;
+import com.sangupta.outline.parser.OutlineResponseFileTokens;
+import com.sangupta.outline.parser.OutlineTokens;
+
+/**
+ * A reusable context to parse command lines against a {@link CompiledOutline}.
+ * The context holds the {@link OutlineParseResult} and the {@link OutlineHelp}
+ * that are filled in place on every parse, so that parsing command lines in a
+ * loop does not allocate anything apart from the command instance itself.
+ * 
+ * A context is NOT thread-safe: use one context per thread, for example via a
+ * {@link ThreadLocal}. The {@link OutlineHelp} returned by, or injected during,
+ * a parse reflects the last parse that was done with the context.
+ * 
+ * @author sangupta
+ *
+ */
+public final class OutlineParseContext {
+	
+	private static final String[] NO_ARGS = new String[0];
+	
+	private static final ByteBuffer NO_BYTES = ByteBuffer.allocate(0);
+	
+	/**
+	 * The outline this context parses against
+	 */
+	final CompiledOutline outline;
+	
+	/**
+	 * The result that is filled in on every parse
+	 */
+	final OutlineParseResult result;
+	
+	/**
+	 * The help command, created when first needed
+	 */
+	private OutlineHelp help;
+	
+	/**
+	 * Tokens over the arguments array, reused across parses
+	 */
+	private OutlineArrayTokens arrayTokens;
+	
+	/**
+	 * Tokens of a command line, reused across parses
+	 */
+	private OutlineCommandLineTokens lineTokens;
+	
+	/**
+	 * Tokens of a UTF-8 encoded command line, reused across parses
+	 */
+	private OutlineByteBufferTokens byteTokens;
+	
+	/**
+	 * Tokens with response files expanded, reused across parses
+	 */
+	private OutlineResponseFileTokens responseFileTokens;
+	
+	OutlineParseContext(CompiledOutline outline) {
+		this.outline = outline;
+		this.result = new OutlineParseResult(outline.metadata);
+	}
+	
+	/**
+	 * Parse the given command line arguments reusing this context, and return the
+	 * command instance that was requested, bound to all its option and argument
+	 * values.
+	 * 
+	 * @param args
+	 *            the command line arguments
+	 * 
+	 * @return the command instance, or the help command
+	 */
+	public <T> T parse(String[] args) {
+		return this.outline.parse(this, args);
+	}
+	
+	/**
+	 * Parse the given command line, as typed in a shell, reusing this context,
+	 * and return the command instance that was requested, bound to all its
+	 * option and argument values.
+	 * 
+	 * @param line
+	 *            the command line, without the program name
+	 * 
+	 * @return the command instance, or the help command
+	 */
+	public <T> T parseLine(CharSequence line) {
+		return this.outline.parseLine(this, line);
+	}
+	
+	/**
+	 * Parse the UTF-8 encoded command line between the position and the limit
+	 * of the given buffer reusing this context, and return the command instance
+	 * that was requested, bound to all its option and argument values.
+	 * 
+	 * @param bytes
+	 *            the buffer holding the command line
+	 * 
+	 * @return the command instance, or the help command
+	 */
+	public <T> T parse(ByteBuffer bytes) {
+		return this.outline.parse(this, bytes);
+	}
+	
+	/**
+	 * Parse the given command line arguments reusing this context, and return
+	 * the result that holds the command instance along with every problem found
+	 * with the arguments, instead of throwing at the first problem.
+	 * 
+	 * @param args
+	 *            the command line arguments
+	 * 
+	 * @return the result of this context
+	 */
+	public OutlineParseResult tryParse(String[] args) {
+		return this.outline.tryParse(this, args);
+	}
+	
+	/**
+	 * Parse the given command line, as typed in a shell, reusing this context,
+	 * and return the result that holds the command instance along with every
+	 * problem found with the command line, instead of throwing at the first
+	 * problem.
+	 * 
+	 * @param line
+	 *            the command line, without the program name
+	 * 
+	 * @return the result of this context
+	 */
+	public OutlineParseResult tryParseLine(CharSequence line) {
+		return this.outline.tryParseLine(this, line);
+	}
+	
+	/**
+	 * Parse the UTF-8 encoded command line between the position and the limit
+	 * of the given buffer reusing this context, and return the result that
+	 * holds the command instance along with every problem found with the
+	 * command line, instead of throwing at the first problem.
+	 * 
+	 * @param bytes
+	 *            the buffer holding the command line
+	 * 
+	 * @return the result of this context
+	 */
+	public OutlineParseResult tryParse(ByteBuffer bytes) {
+		return this.outline.tryParse(this, bytes);
+	}
+	
+	/**
+	 * Clear the result of the last parse, releasing the reference to the
+	 * arguments that were parsed.
+	 * 
+	 */
+	public void reset() {
+		this.result.reset(NO_ARGS);
+		
+		if(this.arrayTokens != null) {
+			this.arrayTokens.reset(NO_ARGS);
+		}
+		
+		if(this.lineTokens != null) {
+			this.lineTokens.reset("");
+		}
+		
+		if(this.byteTokens != null) {
+			this.byteTokens.reset(NO_BYTES);
+		}
+		
+		if(this.responseFileTokens != null) {
+			this.responseFileTokens.reset(this.arrayTokens(NO_ARGS));
+		}
+	}
+	
+	/**
+	 * Return the result of the last parse.
+	 * 
+	 * @return the parse result
+	 */
+	public OutlineParseResult getResult() {
+		return this.result;
+	}
+	
+	/**
+	 * Return the reusable tokens over the given arguments.
+	 * 
+	 * @param args
+	 *            the arguments
+	 * 
+	 * @return the tokens
+	 */
+	OutlineArrayTokens arrayTokens(String[] args) {
+		if(this.arrayTokens == null) {
+			this.arrayTokens = new OutlineArrayTokens(args);
+		} else {
+			this.arrayTokens.reset(args);
+		}
+		
+		return this.arrayTokens;
+	}
+	
+	/**
+	 * Return the reusable tokens of the given command line.
+	 * 
+	 * @param line
+	 *            the command line
+	 * 
+	 * @return the tokens
+	 */
+	OutlineCommandLineTokens lineTokens(CharSequence line) {
+		if(this.lineTokens == null) {
+			this.lineTokens = new OutlineCommandLineTokens(line);
+		} else {
+			this.lineTokens.reset(line);
+		}
+		
+		return this.lineTokens;
+	}
+	
+	/**
+	 * Return the reusable tokens of the given UTF-8 encoded command line.
+	 * 
+	 * @param bytes
+	 *            the buffer holding the command line
+	 * 
+	 * @return the tokens
+	 */
+	OutlineByteBufferTokens byteTokens(ByteBuffer bytes) {
+		if(this.byteTokens == null) {
+			this.byteTokens = new OutlineByteBufferTokens(bytes);
+		} else {
+			this.byteTokens.reset(bytes);
+		}
+		
+		return this.byteTokens;
+	}
+	
+	/**
+	 * Return the help command that wraps the result of this context.
+	 * 
+	 * @return the help command
+	 */
+	OutlineHelp getHelp() {
+		if(this.help == null) {
+			this.help = new OutlineHelp(this.outline.metadata, this.result, this.outline.helpCache);
+		}
+		
+		return this.help;
+	}
+	
+	/**
+	 * Return the given tokens with all response files expanded, or the given
+	 * tokens themselves if they do not refer to any response file.
+	 * 
+	 * @param tokens
+	 *            the tokens to expand
+	 * 
+	 * @return the expanded tokens
+	 */
+	OutlineTokens responseFileTokens(OutlineTokens tokens) {
+		if(!OutlineResponseFileTokens.hasResponseFiles(tokens)) {
+			return tokens;
+		}
+		
+		if(this.responseFileTokens == null) {
+			this.responseFileTokens = new OutlineResponseFileTokens(tokens);
+		} else {
+			this.responseFileTokens.reset(tokens);
+		}
+		
+		return this.responseFileTokens;
+	}
+
+}
@@ -21,22 +21,19 @@
  
 package com.sangupta.outline;
 
-import java.lang.reflect.Field;
-import java.util.List;
-
-import javax.inject.Inject;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.sangupta.jerry.util.AssertUtils;
-import com.sangupta.jerry.util.ReflectionUtils;
 import com.sangupta.outline.annotations.Command;
+import com.sangupta.outline.exceptions.OutlineException;
+import com.sangupta.outline.exceptions.OutlineInvalidArgumentException;
 import com.sangupta.outline.exceptions.OutlineRequiredOptionMissingException;
 import com.sangupta.outline.help.OutlineHelp;
 import com.sangupta.outline.parser.OutlineArgumentParser;
+import com.sangupta.outline.parser.OutlineArrayTokens;
+import com.sangupta.outline.parser.OutlineDiagnostic;
 import com.sangupta.outline.parser.OutlineParseResult;
-import com.sangupta.outline.util.OutlineUtil;
+import com.sangupta.outline.parser.OutlineTokens;
 
 /**
  * Parse the {@link Outline} instance along with the provided {@link String} array
@@ -62,13 +59,64 @@ public class OutlineParser {
      * @return
      */
     public static Object parse(Outline outline, String[] args) {
-        // read outline to fetch a list of all options
-        OutlineMetadata metadata = OutlineMetadataReader.getMetadata(outline);
+        return parse(outline.compiled(), args);
+    }
+    
+    /**
+     * Parse the command line arguments against the given {@link CompiledOutline} object
+     * and return the {@link Command} instance that the user had requested execution for.
+     * 
+     * @param outline
+     * @param args
+     * @return
+     */
+    public static Object parse(CompiledOutline outline, String[] args) {
+        return parse(outline, new OutlineArrayTokens(args), new OutlineParseContext(outline), false);
+    }
+    
+    /**
+     * Parse the command line tokens against the given {@link CompiledOutline} object
+     * reusing the given {@link OutlineParseContext}, and return the {@link Command} instance
+     * that the user had requested execution for. The instance is also set in the result
+     * of the context.
+     * 
+     * When collecting, every problem found with the tokens is recorded as a diagnostic in
+     * the result of the context, and nothing is thrown for a malformed command line.
+     * Otherwise the first problem is thrown as an {@link OutlineException}, unless help
+     * is to be shown on incorrect arguments.
+     * 
+     * @param outline
+     * @param args
+     * @param context
+     * @param collect
+     *            whether to collect all problems as diagnostics
+     * 
+     * @return the command instance, or the help command
+     */
+    static Object parse(CompiledOutline outline, OutlineTokens args, OutlineParseContext context, boolean collect) {
+        // the metadata has already been read when compiling the outline
+        final OutlineMetadata metadata = outline.metadata;
+        final OutlineParseResult result = context.result;
+        result.setCollecting(collect);
+        result.reset(args);
         
-        if(args.length == 0) {
-        	if(outline.helpOnIncorrectArguments) {
+        if(metadata.responseFiles) {
+        	try {
+        		args = context.responseFileTokens(args);
+        	} catch(OutlineInvalidArgumentException e) {
+        		if(!collect) {
+        			throw e;
+        		}
+        		
+        		result.addDiagnostic(new OutlineDiagnostic(OutlineDiagnostic.Kind.INVALID_ARGUMENT, null, e.argument, e.positionIndex, null));
+        		return null;
+        	}
+        }
+        
+        if(args.size() == 0) {
+        	if(metadata.helpOnIncorrectArguments) {
         		// we need help
-        		args = new String[] { outline.helpKeyword };
+        		args = new OutlineArrayTokens(new String[] { metadata.helpKeyword });
         	} else {
 	            if(outline.defaultCommand == null) {
 	            	LOGGER.debug("No arguments specified, no default command, return null");
@@ -76,20 +124,25 @@ public class OutlineParser {
 	            }
 	            
 	            LOGGER.debug("No arguments specified, return default command: {}", outline.defaultCommand);
-	            return outline.commandFactory.createInstance(outline.defaultCommand);
+	            return done(result, outline.commandFactory.createInstance(outline.defaultCommand));
         	}
         }
         
         // start reading the options and making sure that we know where the command break-point is
-        OutlineParseResult result = OutlineArgumentParser.parse(args, metadata);
+        OutlineArgumentParser.parse(args, metadata, result);
         
         if(!result.helpRequested && result.command == null) {
-            throw new RuntimeException("command not specified");
+        	if(!collect) {
+        		throw new OutlineRequiredOptionMissingException("command");
+        	}
+        	
+        	if(!result.hasDiagnostics()) {
+        		result.addDiagnostic(new OutlineDiagnostic(OutlineDiagnostic.Kind.MISSING_REQUIRED, "command", null, -1, null));
+        	}
+        	
+        	return null;
         }
         
-        // create the help command
-    	final OutlineHelp helpCommand = new OutlineHelp(metadata, result);
-    	
     	// if help has been requested, return the help command or the instance with help injected
         if(result.helpRequested) {
         	if(metadata.singleCommandMode) {
@@ -99,13 +152,13 @@ public class OutlineParser {
         		Object instance = outline.commandFactory.createInstance(instanceClass);
         		
         		// inject the help options in this object
-        		injectHelpOptionsIfAvailable(instance, helpCommand);
+        		injectHelpOptionsIfAvailable(outline, instance, context.getHelp());
         		
         		// return the prepared instance
-        		return instance;
+        		return done(result, instance);
         	}
         	
-            return helpCommand; 
+            return done(result, context.getHelp());
         }
         
         // get the command class we need to work with
@@ -113,22 +166,56 @@ public class OutlineParser {
         Object instance = outline.commandFactory.createInstance(inferredCommand);
         
         // inject the help options in this object
-		injectHelpOptionsIfAvailable(instance, helpCommand);
+		injectHelpOptionsIfAvailable(instance, context);
         
-        // bind the object to its available properties
-		try {
-			OutlineBinder.bindInstanceToProperties(inferredCommand, instance, result);
-		} catch(OutlineRequiredOptionMissingException e) {
-			if(!outline.helpOnIncorrectArguments) {
-				throw e;
+        // bind the object to its available properties - values that cannot be
+        // converted or break a constraint are recorded even when not collecting
+		final boolean complete = OutlineBinder.bindInstanceToProperties(outline.converters(), metadata, inferredCommand, instance, result);
+		if(!complete || (!collect && result.hasDiagnostics())) {
+			if(metadata.helpOnIncorrectArguments) {
+				result.helpRequested = true;
+				return done(result, context.getHelp());
 			}
 			
-			result.helpRequested = true;
-			return helpCommand;
+			if(!collect) {
+				throw failure(result);
+			}
 		}
         
         // return the instance
-        return instance;
+        return done(result, instance);
+    }
+    
+    /**
+     * Set the instance the arguments were bound to in the result.
+     * 
+     * @param result
+     * @param instance
+     * @return the instance
+     */
+    private static Object done(OutlineParseResult result, Object instance) {
+    	result.setInstance(instance);
+    	return instance;
+    }
+    
+    /**
+     * Return the exception to throw for the first diagnostic recorded in the
+     * result: an {@link OutlineRequiredOptionMissingException} for a required
+     * option or argument that is missing, and an
+     * {@link OutlineInvalidArgumentException} for any other problem.
+     * 
+     * @param result
+     *            the result, which must hold at least one diagnostic
+     * 
+     * @return the exception to throw
+     */
+    private static OutlineException failure(OutlineParseResult result) {
+    	final OutlineDiagnostic diagnostic = result.getDiagnostics().get(0);
+    	if(diagnostic.kind == OutlineDiagnostic.Kind.MISSING_REQUIRED) {
+    		return new OutlineRequiredOptionMissingException(diagnostic.name);
+    	}
+    	
+    	return new OutlineInvalidArgumentException(diagnostic.value != null ? diagnostic.value : diagnostic.name, diagnostic.index);
     }
 
     /**
@@ -136,35 +223,36 @@ public class OutlineParser {
      * annotated with <code>@Inject</code> of the same type is present. Does nothing if either
      * of instance or helpCommand value is <code>null</code>.
      * 
+     * @param outline the outline the instance belongs to
+     * 
      * @param instance the instance in which to inject
      * 
      * @param helpCommand the value to inject
      */
-    private static void injectHelpOptionsIfAvailable(Object instance, OutlineHelp helpCommand) {
-		List<Field> fields = OutlineUtil.getAllFields(instance.getClass());
-		if(AssertUtils.isEmpty(fields)) {
-			return;
-		}
-		
-		for(Field field : fields) {
-			Inject inject = field.getAnnotation(Inject.class);
-			if(inject == null) {
-				continue;
-			}
-			
-			// injection is enabled
-			// let's check field type
-			if(!OutlineHelp.class.isAssignableFrom(field.getType())) {
-				continue;
-			}
-			
-			try {
-				ReflectionUtils.bindValue(field, instance, helpCommand);
-			} catch (IllegalArgumentException | IllegalAccessException e) {
-				LOGGER.warn("Unable to inject values", e);
-				return;
-			}
-		}
+    private static void injectHelpOptionsIfAvailable(CompiledOutline outline, Object instance, OutlineHelp helpCommand) {
+    	if(instance == null || helpCommand == null) {
+    		return;
+    	}
+    	
+		OutlineBinder.injectHelp(outline.converters(), instance, helpCommand);
 	}
+    
+    /**
+     * Inject the help command of the given {@link OutlineParseContext} in the given
+     * object instance, creating the help command only if the instance has a field to
+     * inject it in.
+     * 
+     * @param instance the instance in which to inject
+     * 
+     * @param context the context that holds the help command
+     */
+    private static void injectHelpOptionsIfAvailable(Object instance, OutlineParseContext context) {
+    	final OutlineConverters converters = context.outline.converters();
+    	if(instance == null || !OutlineBinder.acceptsHelp(converters, instance)) {
+    		return;
+    	}
+    	
+    	OutlineBinder.injectHelp(converters, instance, context.getHelp());
+    }
 
 }
@@ -0,0 +1,355 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.sangupta.outline.exceptions.OutlineInvalidConfigurationException;
+import com.sangupta.outline.model.ConstraintDescriptor;
+import com.sangupta.outline.model.OptionDescriptor;
+import com.sangupta.outline.model.OutlineFieldModel;
+import com.sangupta.outline.parser.OutlineDiagnostic;
+import com.sangupta.outline.parser.OutlineParseResult;
+
+/**
+ * The <code>@Constraint</code> of a field, compiled once when the binding plan
+ * of the command is computed: the bounds are parsed into <code>long</code> and
+ * <code>double</code> values, and the pattern into a {@link Pattern}. Checking a
+ * value thus neither parses nor compiles anything, and primitive values are
+ * checked without boxing.
+ * 
+ * Numeric values are checked against the bounds, and all other values, as
+ * text, against the pattern and the maximum length. Every element of a
+ * collection or an array, and every value of a map, is checked on its own.
+ * 
+ * @author sangupta
+ *
+ */
+final class OutlineValidator {
+	
+	/**
+	 * The name used to report violations
+	 */
+	final String name;
+	
+	private final String min;
+	
+	private final String max;
+	
+	/**
+	 * The bounds for integral values, rounded inwards
+	 */
+	private final long minLong;
+	
+	private final long maxLong;
+	
+	/**
+	 * The bounds for floating point values
+	 */
+	private final double minDouble;
+	
+	private final double maxDouble;
+	
+	/**
+	 * The pattern text values must match, <code>null</code> for any value
+	 */
+	private final Pattern pattern;
+	
+	private final int maxLength;
+	
+	private OutlineValidator(String name, String min, String max, BigDecimal minValue, BigDecimal maxValue, Pattern pattern, int maxLength) {
+		this.name = name;
+		this.min = min;
+		this.max = max;
+		this.minLong = minValue != null ? toLong(minValue.setScale(0, RoundingMode.CEILING)) : Long.MIN_VALUE;
+		this.maxLong = maxValue != null ? toLong(maxValue.setScale(0, RoundingMode.FLOOR)) : Long.MAX_VALUE;
+		this.minDouble = minValue != null ? minValue.doubleValue() : Double.NEGATIVE_INFINITY;
+		this.maxDouble = maxValue != null ? maxValue.doubleValue() : Double.POSITIVE_INFINITY;
+		this.pattern = pattern;
+		this.maxLength = maxLength;
+	}
+	
+	/**
+	 * Compile the constraint of the given field.
+	 * 
+	 * @param field
+	 *            the field to be bound
+	 * 
+	 * @param option
+	 *            the option of the field, <code>null</code> for an argument
+	 * 
+	 * @return the validator, <code>null</code> if the field has no constraint
+	 * 
+	 * @throws OutlineInvalidConfigurationException
+	 *             if a bound is not a number, or the pattern is not a valid
+	 *             regular expression
+	 */
+	static OutlineValidator forField(OutlineFieldModel field, OptionDescriptor option) {
+		final ConstraintDescriptor constraint = field.constraint;
+		if(constraint == null) {
+			return null;
+		}
+		
+		final BigDecimal min = bound(field, constraint.min);
+		final BigDecimal max = bound(field, constraint.max);
+		if(min != null && max != null && min.compareTo(max) > 0) {
+			throw new OutlineInvalidConfigurationException(field.declaringClass.getName(), field.name, "Minimum is greater than maximum: " + constraint.min + " > " + constraint.max);
+		}
+		
+		Pattern pattern = null;
+		if(!constraint.pattern.isEmpty()) {
+			try {
+				pattern = Pattern.compile(constraint.pattern);
+			} catch(PatternSyntaxException e) {
+				throw new OutlineInvalidConfigurationException(field.declaringClass.getName(), field.name, "Invalid pattern: " + e.getMessage());
+			}
+		}
+		
+		return new OutlineValidator(option != null ? option.name : field.name, constraint.min, constraint.max, min, max, pattern, constraint.maxLength);
+	}
+	
+	private static BigDecimal bound(OutlineFieldModel field, String bound) {
+		if(bound.isEmpty()) {
+			return null;
+		}
+		
+		try {
+			return new BigDecimal(bound.trim());
+		} catch(NumberFormatException e) {
+			throw new OutlineInvalidConfigurationException(field.declaringClass.getName(), field.name, "Bound is not a number: " + bound);
+		}
+	}
+	
+	private static long toLong(BigDecimal value) {
+		if(value.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) <= 0) {
+			return Long.MIN_VALUE;
+		}
+		
+		if(value.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) >= 0) {
+			return Long.MAX_VALUE;
+		}
+		
+		return value.longValue();
+	}
+	
+	/**
+	 * Check an integral value against the bounds.
+	 * 
+	 * @param value
+	 * @return the violation, <code>null</code> if the value is accepted
+	 */
+	String check(long value) {
+		if(value < this.minLong) {
+			return "must be at least " + this.min;
+		}
+		
+		if(value > this.maxLong) {
+			return "must be at most " + this.max;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Check a floating point value against the bounds. <code>NaN</code> is
+	 * within no bounds, and is rejected whenever a bound is set.
+	 * 
+	 * @param value
+	 * @return the violation, <code>null</code> if the value is accepted
+	 */
+	String check(double value) {
+		if(Double.isNaN(value) && (this.minDouble != Double.NEGATIVE_INFINITY || this.maxDouble != Double.POSITIVE_INFINITY)) {
+			return "must be a number";
+		}
+		
+		if(value < this.minDouble) {
+			return "must be at least " + this.min;
+		}
+		
+		if(value > this.maxDouble) {
+			return "must be at most " + this.max;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Check a single value: a {@link Number} against the bounds, and anything
+	 * else as text against the pattern and the maximum length.
+	 * 
+	 * @param value
+	 * @return the violation, <code>null</code> if the value is accepted
+	 */
+	String check(Object value) {
+		if(value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return this.check(((Number) value).longValue());
+		}
+		
+		if(value instanceof Number) {
+			return this.check(((Number) value).doubleValue());
+		}
+		
+		if(this.pattern == null && this.maxLength < 0) {
+			return null;
+		}
+		
+		final CharSequence text = value instanceof CharSequence ? (CharSequence) value : String.valueOf(value);
+		if(this.maxLength >= 0 && text.length() > this.maxLength) {
+			return "must be at most " + this.maxLength + " characters long";
+		}
+		
+		if(this.pattern != null && !this.pattern.matcher(text).matches()) {
+			return "must match " + this.pattern.pattern();
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Check an integral value, recording a diagnostic in the result if it is
+	 * not accepted.
+	 * 
+	 * @param result
+	 * @param value
+	 * @param index
+	 *            the index of the token the value was read from, <code>-1</code>
+	 *            if not known
+	 * 
+	 * @return <code>true</code> if the value is accepted
+	 */
+	boolean validate(OutlineParseResult result, long value, int index) {
+		final String violation = this.check(value);
+		if(violation == null) {
+			return true;
+		}
+		
+		this.report(result, String.valueOf(value), index, violation);
+		return false;
+	}
+	
+	/**
+	 * Check a floating point value, recording a diagnostic in the result if it
+	 * is not accepted.
+	 * 
+	 * @param result
+	 * @param value
+	 * @param index
+	 *            the index of the token the value was read from, <code>-1</code>
+	 *            if not known
+	 * 
+	 * @return <code>true</code> if the value is accepted
+	 */
+	boolean validate(OutlineParseResult result, double value, int index) {
+		final String violation = this.check(value);
+		if(violation == null) {
+			return true;
+		}
+		
+		this.report(result, String.valueOf(value), index, violation);
+		return false;
+	}
+	
+	/**
+	 * Check the converted value of a field, or each of its elements, recording
+	 * a diagnostic in the result for every element that is not accepted.
+	 * 
+	 * @param result
+	 * @param value
+	 * @return <code>true</code> if all elements are accepted
+	 */
+	boolean validate(OutlineParseResult result, Object value) {
+		if(value instanceof Collection<?>) {
+			boolean valid = true;
+			for(Object element : (Collection<?>) value) {
+				valid &= this.validateElement(result, element);
+			}
+			
+			return valid;
+		}
+		
+		if(value instanceof Map<?, ?>) {
+			return this.validate(result, ((Map<?, ?>) value).values());
+		}
+		
+		if(value instanceof Object[]) {
+			boolean valid = true;
+			for(Object element : (Object[]) value) {
+				valid &= this.validateElement(result, element);
+			}
+			
+			return valid;
+		}
+		
+		if(value instanceof int[]) {
+			boolean valid = true;
+			for(int element : (int[]) value) {
+				valid &= this.validate(result, element, -1);
+			}
+			
+			return valid;
+		}
+		
+		if(value instanceof long[]) {
+			boolean valid = true;
+			for(long element : (long[]) value) {
+				valid &= this.validate(result, element, -1);
+			}
+			
+			return valid;
+		}
+		
+		if(value instanceof double[]) {
+			boolean valid = true;
+			for(double element : (double[]) value) {
+				valid &= this.validate(result, element, -1);
+			}
+			
+			return valid;
+		}
+		
+		return this.validateElement(result, value);
+	}
+	
+	private boolean validateElement(OutlineParseResult result, Object value) {
+		if(value == null) {
+			return true;
+		}
+		
+		final String violation = this.check(value);
+		if(violation == null) {
+			return true;
+		}
+		
+		this.report(result, String.valueOf(value), -1, violation);
+		return false;
+	}
+	
+	private void report(OutlineParseResult result, String value, int index, String violation) {
+		result.addDiagnostic(new OutlineDiagnostic(OutlineDiagnostic.Kind.CONSTRAINT_VIOLATION, this.name, value, index, null, violation));
+	}
+	
+}
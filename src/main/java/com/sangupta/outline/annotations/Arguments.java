@@ -51,5 +51,12 @@ public @interface Arguments {
      * Whether this arguments are required.
      */
     boolean required() default false;
+    
+    /**
+     * Whether the arguments are read from the standard input when none are
+     * given on the command line. The standard input is read as a list of
+     * NUL-delimited UTF-8 items, the same as <code>xargs -0</code> does.
+     */
+    boolean stdin() default false;
 
 }
@@ -0,0 +1,70 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Constrains the values of a field annotated with <code>@Option</code>,
+ * <code>@Argument</code> or <code>@Arguments</code>. Every value, or every
+ * element of a collection or array, is checked as it is bound. A value that
+ * does not meet the constraint is reported as a diagnostic of the parse result,
+ * and the field is not bound.
+ * 
+ * The bounds and the pattern are compiled once, when the binding plan of the
+ * command is computed.
+ * 
+ * @author sangupta
+ *
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+@Documented
+public @interface Constraint {
+    
+    /**
+     * The smallest numeric value accepted, inclusive. Empty for no bound.
+     */
+    String min() default "";
+    
+    /**
+     * The largest numeric value accepted, inclusive. Empty for no bound.
+     */
+    String max() default "";
+    
+    /**
+     * The regular expression that the whole of every non-numeric value must
+     * match. Empty for any value.
+     */
+    String pattern() default "";
+    
+    /**
+     * The maximum number of characters of a non-numeric value, <code>-1</code>
+     * for no limit.
+     */
+    int maxLength() default -1;
+    
+}
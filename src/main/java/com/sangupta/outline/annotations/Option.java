@@ -75,6 +75,16 @@ public @interface Option {
      */
     boolean hidden() default false;
 
+    /**
+     * The only values this option accepts. Any other value is reported as
+     * invalid, and is not bound. Options on <code>enum</code> fields accept
+     * the names of the constants if no values are given.
+     */
     String[] allowedValues() default {};
+    
+    /**
+     * How values are matched against the allowed values.
+     */
+    ValueMatch valueMatch() default ValueMatch.EXACT;
 
 }
@@ -0,0 +1,49 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.annotations;
+
+/**
+ * How the value of an option is matched against its allowed values, or against
+ * the constants of an <code>enum</code> field.
+ * 
+ * @author sangupta
+ *
+ */
+public enum ValueMatch {
+    
+    /**
+     * The value must be one of the allowed values
+     */
+    EXACT,
+    
+    /**
+     * The value must be one of the allowed values, ignoring case
+     */
+    IGNORE_CASE,
+    
+    /**
+     * The value must be one of the allowed values ignoring case, or the
+     * beginning of exactly one of them
+     */
+    PREFIX
+
+}
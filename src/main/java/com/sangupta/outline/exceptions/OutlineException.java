@@ -21,11 +21,37 @@
  
 package com.sangupta.outline.exceptions;
 
+/**
+ * Base of all exceptions thrown by outline. The exceptions that report a
+ * problem with the command line carry all their details in fields and do not
+ * capture a stack trace, as malformed command lines may be common and the
+ * trace would only point into the parser. Exceptions that report a problem
+ * with the code, such as {@link OutlineInvalidConfigurationException}, keep
+ * their stack trace.
+ * 
+ * @author sangupta
+ *
+ */
 public abstract class OutlineException extends RuntimeException {
 
 	/**
 	 * Generated via Eclipse
 	 */
 	private static final long serialVersionUID = 6790325480061754543L;
+	
+	protected OutlineException() {
+		super();
+	}
+	
+	/**
+	 * Create an exception that does not capture a stack trace, which costs far
+	 * more than creating the exception itself.
+	 * 
+	 * @param message
+	 * @param cause
+	 */
+	protected OutlineException(String message, Throwable cause) {
+		super(message, cause, false, false);
+	}
 
 }
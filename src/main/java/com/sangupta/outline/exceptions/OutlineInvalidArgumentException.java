@@ -33,6 +33,12 @@ public class OutlineInvalidArgumentException extends OutlineException {
 	public final int positionIndex;
 	
 	public OutlineInvalidArgumentException(String argument, int positionIndex) {
+		this(argument, positionIndex, null);
+	}
+	
+	public OutlineInvalidArgumentException(String argument, int positionIndex, Throwable cause) {
+		super("Invalid argument at position " + positionIndex + ": " + argument, cause);
+		
 		this.argument = argument;
 		this.positionIndex = positionIndex;
 	}
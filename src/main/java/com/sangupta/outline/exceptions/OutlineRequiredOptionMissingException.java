@@ -33,11 +33,24 @@ public class OutlineRequiredOptionMissingException extends OutlineException {
 	public final String argument;
 	
 	public OutlineRequiredOptionMissingException(String argument) {
+		super(message(argument), null);
+		
+		this.argument = argument;
+	}
+	
+	/**
+	 * Check the argument before the superclass is constructed, and build the
+	 * message for it.
+	 * 
+	 * @param argument
+	 * @return the message of the exception
+	 */
+	private static String message(String argument) {
 		if(AssertUtils.isEmpty(argument)) {
 			throw new IllegalArgumentException("Argument that is invalid cannot be null/empty");
 		}
 		
-		this.argument = argument;
+		return "Missing required option or argument: " + argument;
 	}
 
 }
@@ -0,0 +1,149 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.help;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An {@link Appendable} that encodes the text appended to it as UTF-8 into a
+ * fixed buffer, and writes the buffer to a {@link WritableByteChannel} whenever
+ * it fills up or is flushed. No copy of the whole text is ever held.
+ * 
+ * Each appended sequence is encoded on its own, and thus must not split a
+ * surrogate pair. Instances are not thread-safe.
+ * 
+ * @author sangupta
+ *
+ */
+final class OutlineChannelWriter implements Appendable, Flushable {
+	
+	private final WritableByteChannel channel;
+	
+	private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+	
+	private final ByteBuffer buffer = ByteBuffer.allocate(8192);
+	
+	OutlineChannelWriter(WritableByteChannel channel) {
+		this.channel = channel;
+	}
+	
+	@Override
+	public Appendable append(CharSequence csq) throws IOException {
+		final CharBuffer chars = CharBuffer.wrap(csq != null ? csq : "null");
+		this.encoder.reset();
+		while(true) {
+			final CoderResult result = this.encoder.encode(chars, this.buffer, true);
+			if(result.isOverflow()) {
+				this.drain();
+				continue;
+			}
+			
+			if(result.isUnderflow()) {
+				break;
+			}
+			
+			result.throwException();
+		}
+		
+		while(this.encoder.flush(this.buffer).isOverflow()) {
+			this.drain();
+		}
+		
+		return this;
+	}
+	
+	@Override
+	public Appendable append(CharSequence csq, int start, int end) throws IOException {
+		return this.append((csq != null ? csq : "null").subSequence(start, end));
+	}
+	
+	@Override
+	public Appendable append(char c) throws IOException {
+		return this.append(String.valueOf(c));
+	}
+	
+	/**
+	 * Write all encoded bytes to the channel.
+	 */
+	@Override
+	public void flush() throws IOException {
+		this.drain();
+	}
+	
+	private void drain() throws IOException {
+		this.buffer.flip();
+		writeFully(this.channel, this.buffer);
+		this.buffer.clear();
+	}
+	
+	/**
+	 * Write all remaining bytes of the given buffer to the channel, which may
+	 * take more than one write for a non-blocking channel or a socket. When a
+	 * non-blocking {@link SelectableChannel} takes no bytes, this waits on a
+	 * {@link Selector} until it becomes writable again, rather than spinning.
+	 * Any other channel must block, or take some bytes on every write.
+	 * 
+	 * @param channel
+	 * @param buffer
+	 * @throws IOException
+	 */
+	static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+		Selector selector = null;
+		try {
+			while(buffer.hasRemaining()) {
+				if(channel.write(buffer) > 0 || !(channel instanceof SelectableChannel)) {
+					continue;
+				}
+				
+				final SelectableChannel selectable = (SelectableChannel) channel;
+				if(selectable.isBlocking()) {
+					continue;
+				}
+				
+				if(selector == null) {
+					selector = selectable.provider().openSelector();
+					selectable.register(selector, SelectionKey.OP_WRITE);
+				}
+				
+				selector.select();
+				selector.selectedKeys().clear();
+			}
+		} finally {
+			if(selector != null) {
+				// also deregisters the channel
+				selector.close();
+			}
+		}
+	}
+	
+}
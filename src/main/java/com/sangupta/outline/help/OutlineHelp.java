@@ -21,14 +21,22 @@
  
 package com.sangupta.outline.help;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 
 import com.sangupta.outline.Outline;
 import com.sangupta.outline.OutlineMetadata;
 import com.sangupta.outline.parser.OutlineParseResult;
 
 /**
- * Represents HELP for the Outline based commands.
+ * Represents HELP for the Outline based commands. Instances are lightweight
+ * handles over the parse result: nothing is rendered until the help text is
+ * asked for, and with an {@link OutlineHelpCache} the text is rendered only once
+ * for each group and command. Help that is not cached is streamed section by
+ * section when written to a stream, an {@link Appendable} or a channel.
  * 
  * @author sangupta
  *
@@ -46,6 +54,11 @@ public class OutlineHelp {
      */
     protected final OutlineParseResult result;
     
+    /**
+     * The cache of rendered help, <code>null</code> to render on every request
+     */
+    private final OutlineHelpCache cache;
+    
 	/**
 	 * Convenience constructor.
 	 * 
@@ -53,8 +66,23 @@ public class OutlineHelp {
 	 * @param result
 	 */
     public OutlineHelp(OutlineMetadata metadata, OutlineParseResult result) {
+        this(metadata, result, null);
+    }
+    
+	/**
+	 * Create the help over the given result, reusing help rendered earlier via
+	 * the given cache.
+	 * 
+	 * @param metadata
+	 * @param result
+	 * @param cache
+	 *            the cache of the outline, <code>null</code> to render on every
+	 *            request
+	 */
+    public OutlineHelp(OutlineMetadata metadata, OutlineParseResult result, OutlineHelpCache cache) {
         this.meta = metadata;
         this.result = result;
+        this.cache = cache;
     }
 
     /**
@@ -81,10 +109,102 @@ public class OutlineHelp {
     	return false;
     }
     
+    /**
+     * Return the help text for the group and command that help was asked for.
+     * 
+     * @return the help text
+     */
     public String getHelp() {
+    	final OutlineHelpCache.Rendered rendered = this.cache != null ? this.cache.get(this.result) : null;
+    	if(rendered != null) {
+    		return rendered.text;
+    	}
+    	
     	return new OutlineHelpBuilder(meta, result).getHelpText();
     }
+    
+    /**
+     * Return the UTF-8 encoded help text, as a read-only buffer that is shared
+     * with every other request for the same help when it is cached.
+     * 
+     * @return the encoded help text
+     */
+    public ByteBuffer getHelpBytes() {
+    	final OutlineHelpCache.Rendered rendered = this.cache != null ? this.cache.get(this.result) : null;
+    	if(rendered != null) {
+    		return ByteBuffer.wrap(rendered.bytes).asReadOnlyBuffer();
+    	}
+    	
+    	return ByteBuffer.wrap(this.getHelp().getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    }
 
+    /**
+     * Write the help text to the given {@link Appendable}. Cached help is
+     * appended at once, otherwise the help is appended page by page as it is
+     * rendered.
+     * 
+     * @param out
+     *            the {@link Appendable} to write to
+     * 
+     * @param paging
+     *            how often to append while rendering
+     * 
+     * @throws IllegalStateException
+     *             wrapping any {@link IOException} thrown while appending
+     */
+    public void writeHelp(Appendable out, OutlineHelpPaging paging) {
+    	if(out == null) {
+    		throw new IllegalArgumentException("Appendable cannot be null");
+    	}
+    	
+    	final OutlineHelpCache.Rendered rendered = this.cache != null ? this.cache.get(this.result) : null;
+    	if(rendered == null) {
+    		new OutlineHelpBuilder(meta, result).writeHelp(out, paging);
+    		return;
+    	}
+    	
+    	try {
+    		out.append(rendered.text);
+    	} catch(IOException e) {
+    		throw new IllegalStateException("Unable to write help", e);
+    	}
+    }
+    
+    /**
+     * Write the UTF-8 encoded help text to the given channel. Cached help is
+     * written straight from its encoded bytes, otherwise each section is
+     * encoded into a fixed buffer and written as soon as it is rendered. The
+     * channel is not closed.
+     * 
+     * @param channel
+     *            the channel to write to
+     * 
+     * @throws IOException
+     *             if the channel cannot be written to
+     */
+    public void writeHelp(WritableByteChannel channel) throws IOException {
+    	if(channel == null) {
+    		throw new IllegalArgumentException("Channel cannot be null");
+    	}
+    	
+    	final OutlineHelpCache.Rendered rendered = this.cache != null ? this.cache.get(this.result) : null;
+    	if(rendered != null) {
+    		OutlineChannelWriter.writeFully(channel, ByteBuffer.wrap(rendered.bytes));
+    		return;
+    	}
+    	
+    	final OutlineChannelWriter writer = new OutlineChannelWriter(channel);
+    	try {
+    		new OutlineHelpBuilder(meta, result).writeHelp(writer, OutlineHelpPaging.SECTION);
+    	} catch(IllegalStateException e) {
+    		if(e.getCause() instanceof IOException) {
+    			throw (IOException) e.getCause();
+    		}
+    		
+    		throw e;
+    	}
+    }
+    
     /**
      * Show the help on console: <code>System.out</code>, even if it has not been requested.
      * 
@@ -95,7 +215,7 @@ public class OutlineHelp {
     
     /**
      * Write the help text on the given {@link PrintStream} instance, even if it has
-     * not been requested.
+     * not been requested. Help that is not cached is printed section by section.
      * 
      * @param stream
      */
@@ -104,7 +224,8 @@ public class OutlineHelp {
     		throw new IllegalArgumentException("PrintStream cannot be null");
     	}
     	
-    	stream.println(new OutlineHelpBuilder(meta, result).getHelpText());
+    	this.writeHelp(stream, OutlineHelpPaging.SECTION);
+    	stream.println();
     }
 
 	/**
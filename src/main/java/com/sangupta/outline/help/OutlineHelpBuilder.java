@@ -21,6 +21,8 @@
  
 package com.sangupta.outline.help;
 
+import java.io.Flushable;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -31,13 +33,20 @@ import com.sangupta.jerry.io.IndentedStringWriter;
 import com.sangupta.jerry.util.AssertUtils;
 import com.sangupta.outline.Outline;
 import com.sangupta.outline.OutlineMetadata;
-import com.sangupta.outline.annotations.Argument;
-import com.sangupta.outline.annotations.Arguments;
-import com.sangupta.outline.annotations.Command;
-import com.sangupta.outline.annotations.Option;
+import com.sangupta.outline.model.ArgumentDescriptor;
+import com.sangupta.outline.model.CommandDescriptor;
+import com.sangupta.outline.model.OptionDescriptor;
 import com.sangupta.outline.parser.OutlineParseResult;
 import com.sangupta.outline.util.OutlineUtil;
 
+/**
+ * Renders the help for the group and command of a parse result, either into a
+ * single {@link IndentedStringWriter}, or page by page into an
+ * {@link Appendable} via {@link #writeHelp(Appendable, OutlineHelpPaging)}.
+ * 
+ * @author sangupta
+ *
+ */
 public class OutlineHelpBuilder {
 	
 	/**
@@ -56,6 +65,17 @@ public class OutlineHelpBuilder {
      */
     protected final boolean hasArguments;
     
+    /**
+     * Where pages are appended to while writing help, <code>null</code> when
+     * rendering into a single writer
+     */
+    private Appendable out;
+    
+    /**
+     * How often pages are appended to {@link #out}
+     */
+    private OutlineHelpPaging paging = OutlineHelpPaging.NONE;
+    
     /**
      * Construct an instance of {@link OutlineHelpBuilder}.
      * 
@@ -78,13 +98,78 @@ public class OutlineHelpBuilder {
         return writer.toString();
     }
     
+    /**
+     * Write the help text for whatever has been requested to the given
+     * {@link Appendable}, handing it over page by page as it is rendered. The
+     * text written is the same as that of {@link #getHelpText()}.
+     * 
+     * @param out
+     *            the {@link Appendable} to write to
+     * 
+     * @param paging
+     *            how often to append to it
+     * 
+     * @throws IllegalStateException
+     *             wrapping any {@link IOException} thrown while appending
+     */
+    public void writeHelp(Appendable out, OutlineHelpPaging paging) {
+    	if(out == null) {
+    		throw new IllegalArgumentException("Appendable cannot be null");
+    	}
+    	
+    	if(paging == null) {
+    		throw new IllegalArgumentException("Paging cannot be null");
+    	}
+    	
+    	this.out = out;
+    	this.paging = paging;
+    	try {
+    		this.appendPage(this.getHelpLines());
+    	} finally {
+    		this.out = null;
+    		this.paging = OutlineHelpPaging.NONE;
+    	}
+    }
+    
+    /**
+     * Hand the given writer over as a page if pages of the given size are
+     * written. Pages are only taken at the start of a line.
+     * 
+     * @param writer
+     *            the writer holding the page
+     * 
+     * @param size
+     *            the size of the page that is complete
+     * 
+     * @return the writer to continue rendering with
+     */
+    private IndentedStringWriter page(IndentedStringWriter writer, OutlineHelpPaging size) {
+    	if(this.out == null || this.paging.compareTo(size) < 0) {
+    		return writer;
+    	}
+    	
+    	this.appendPage(writer);
+    	return new IndentedStringWriter();
+    }
+    
+    private void appendPage(IndentedStringWriter writer) {
+    	try {
+    		this.out.append(writer.toString());
+    		if(this.out instanceof Flushable) {
+    			((Flushable) this.out).flush();
+    		}
+    	} catch(IOException e) {
+    		throw new IllegalStateException("Unable to write help", e);
+    	}
+    }
+    
     /**
      * Create the help lines for the given command.
      * 
      * @return
      */
     public IndentedStringWriter getHelpLines() {
-    	final IndentedStringWriter writer = new IndentedStringWriter();
+    	IndentedStringWriter writer = new IndentedStringWriter();
     	
     	final String command = this.result.command;
     	final String group = this.result.group;
@@ -95,12 +180,15 @@ public class OutlineHelpBuilder {
         writer.writeLine("Usage:");
         getUsageLine(writer, command, group);
         writer.newLine();
+        writer = page(writer, OutlineHelpPaging.SECTION);
 
-        getOptionsSection(writer, command, group);
+        writer = getOptionsSection(writer, command, group);
         writer.newLine();
+        writer = page(writer, OutlineHelpPaging.SECTION);
 
-        getCommandsSection(writer, command, group);
+        writer = getCommandsSection(writer, command, group);
         writer.newLine();
+        writer = page(writer, OutlineHelpPaging.SECTION);
         
         getArgumentsSection(writer, command, group);
         
@@ -112,44 +200,47 @@ public class OutlineHelpBuilder {
      * 
      * @param command
      * @param group
-     * @return
+     * @return the writer to continue with
      */
-    private void getCommandsSection(final IndentedStringWriter writer, final String command, final String group) {
+    private IndentedStringWriter getCommandsSection(IndentedStringWriter writer, final String command, final String group) {
     	if(this.meta.singleCommandMode) {
     		// not applicable for single command mode
-    		return;
+    		return writer;
     	}
     	
     	if(AssertUtils.isNotEmpty(command)) {
-    		return;
+    		return writer;
     	}
 
     	writer.writeLine("Available commands:");
     	
-    	Collection<Command> commands;
+    	Collection<CommandDescriptor> commands;
     	if(AssertUtils.isEmpty(group)) {
     		commands = this.meta.commandNames.values();
     	} else {
     		commands = this.meta.commandGroups.getValues(group);
     	}
     	
-        Set<Command> commandSet = new HashSet<>(commands);
-        for(Command item : commandSet) {
+        Set<CommandDescriptor> commandSet = new HashSet<>(commands);
+        for(CommandDescriptor item : commandSet) {
         	if(item == null) {
     			// this happens because of the help keyword
         		continue;
         	}
         	
-        	if(item.hidden()) {
+        	if(item.hidden) {
         		// command is hidden
         		continue;
         	}
         	
         	writer.setIndentLevel(1);
-            writer.write(item.name());
+            writer.write(item.name);
             writer.setIndentLevel(1);
-            writer.writeLine(item.description());
+            writer.writeLine(item.description);
+            writer = page(writer, OutlineHelpPaging.COMMAND);
         }
+        
+        return writer;
 	}
 
 	/**
@@ -162,7 +253,7 @@ public class OutlineHelpBuilder {
     		return;
     	}
     	
-		List<Object> arguments = this.meta.commandArguments.getValues(command);
+		List<ArgumentDescriptor> arguments = this.meta.commandArguments.getValues(command);
 		if(AssertUtils.isEmpty(arguments)) {
 			return;
 		}
@@ -170,37 +261,31 @@ public class OutlineHelpBuilder {
     	writer.writeLine("Available arguments:");
     	
 		int count = 1;
-		for(Object obj : arguments) {
+		for(ArgumentDescriptor arg : arguments) {
 			writer.newLine();
 			
 			// iterate over them
-			if(obj instanceof Argument) {
-				Argument arg = (Argument) obj;
-				
+			if(!arg.remaining) {
 				writer.setIndentLevel(1);
-				writer.writeLine("<" + nonEmpty(arg.title(), "arg" + count++) + ">");
+				writer.writeLine("<" + nonEmpty(arg.title, "arg" + count++) + ">");
 				writer.setIndentLevel(2);
-				writer.write(arg.description());
+				writer.write(arg.description);
 				
-				if(!arg.description().endsWith(".")) {
+				if(!arg.description.endsWith(".")) {
 					writer.write('.');
 				}
 				writer.newLine();
 				
-				if(arg.required()) {
+				if(arg.required) {
 					writer.writeLine("Required.");
 				}
-			}
-			
-			if(obj instanceof Arguments) {
-				Arguments args = (Arguments) obj;
-
+			} else {
 				writer.setIndentLevel(1);
-				writer.writeLine("<" + nonEmpty(args.title(), "arguments") + ">");
+				writer.writeLine("<" + nonEmpty(arg.title, "arguments") + ">");
 				writer.setIndentLevel(2);
-				writer.write(args.description());
+				writer.write(arg.description);
 				
-				if(!args.description().endsWith(".")) {
+				if(!arg.description.endsWith(".")) {
 					writer.write('.');
 				}
 				
@@ -229,17 +314,17 @@ public class OutlineHelpBuilder {
 	/**
      * Create the help lines for applicable options.
      * 
-     * @return
+     * @return the writer to continue with
      */
-    private void getOptionsSection(final IndentedStringWriter writer, final String command, final String group) {
+    private IndentedStringWriter getOptionsSection(IndentedStringWriter writer, final String command, final String group) {
         if(this.meta.globalOptions.isEmpty() && this.meta.commandOptions.isEmpty()) {
-        	return;
+        	return writer;
         }
         
         writer.writeLine("Available options:");
         
         // add all global options
-        buildOptionsSectionForData(writer, this.meta.globalOptions);
+        writer = buildOptionsSectionForData(writer, this.meta.globalOptions);
         
         // build for group options - only if needed
         if(!this.meta.commandGroups.isEmpty()) {
@@ -248,7 +333,7 @@ public class OutlineHelpBuilder {
         
         // add all command options
         if(this.meta.singleCommandMode || AssertUtils.isNotEmpty(command)) {
-    		buildOptionsSectionForData(writer, this.meta.commandOptions.values().iterator().next());
+    		writer = buildOptionsSectionForData(writer, this.meta.commandOptions.values().iterator().next());
         }
         
         // lastly we add the separator too
@@ -260,50 +345,55 @@ public class OutlineHelpBuilder {
 	        writer.write("This option can be used to separate command-line options from the list of argument, (useful when arguments might be mistaken for command-line options).");
 	        writer.setIndentLevel(0);
         }
+        
+        return writer;
     }
 
     /**
      * Build the options list.
      * 
      * @param options
-     * @return
+     * @return the writer to continue with
      */
-    private void buildOptionsSectionForData(final IndentedStringWriter writer, final Map<String, Option> optionMap) {
+    private IndentedStringWriter buildOptionsSectionForData(IndentedStringWriter writer, final Map<String, OptionDescriptor> optionMap) {
         if(AssertUtils.isEmpty(optionMap)) {
-        	return;
+        	return writer;
         }
 
-        Collection<Option> optionsCollection = optionMap.values();
+        Collection<OptionDescriptor> optionsCollection = optionMap.values();
         
-        Set<Option> options = new HashSet<>(optionsCollection);
-        for(Option option : options) {
+        Set<OptionDescriptor> options = new HashSet<>(optionsCollection);
+        for(OptionDescriptor option : options) {
         	writer.newLine();
+        	writer = page(writer, OutlineHelpPaging.COMMAND);
         	
         	// check for hidden
-        	if(option.hidden()) {
+        	if(option.hidden) {
         		// skip hidden options
         		continue;
         	}
         	
-            String[] names = option.name();
+            String[] names = option.names;
             writer.setIndentLevel(1);
             writer.writeLine(OutlineUtil.join(names, ", "));
             writer.setIndentLevel(2);
             getOptionHelp(writer, option);
             writer.setIndentLevel(0);
         }
+        
+        return writer;
     }
     
-    private void getOptionHelp(IndentedStringWriter writer, Option option) {
-    	boolean descriptionAvailable = AssertUtils.isNotEmpty(option.description());
+    private void getOptionHelp(IndentedStringWriter writer, OptionDescriptor option) {
+    	boolean descriptionAvailable = AssertUtils.isNotEmpty(option.description);
     	if(descriptionAvailable) {
-	    	writer.write(option.description());
-	    	if(!option.description().endsWith(".")) {
+	    	writer.write(option.description);
+	    	if(!option.description.endsWith(".")) {
 	    		writer.write(".");
 	    	}
     	}
     	
-    	boolean hasOptionDetails = option.required() || option.arity() > 0 || AssertUtils.isNotEmpty(option.allowedValues());
+    	boolean hasOptionDetails = option.required || option.arity > 0 || AssertUtils.isNotEmpty(option.allowedValues);
     	if(!hasOptionDetails) {
     		return;
     	}
@@ -313,20 +403,19 @@ public class OutlineHelpBuilder {
 	    	writer.newLine();
     	}
     	
-    	if(option.required()) {
+    	if(option.required) {
     		writer.write("Required. ");
     	}
     	
-    	if(option.arity() > 0) {
-	        Class<?> optionClass = this.meta.optionFieldType.get(option);
+    	if(option.arity > 0) {
 	        writer.write("Expects argument of type: ");
-	        writer.write(optionClass.getSimpleName());
+	        writer.write(option.fieldType.getSimpleName());
 	        writer.write(". ");
     	}
     	
-    	if(AssertUtils.isNotEmpty(option.allowedValues())) {
+    	if(AssertUtils.isNotEmpty(option.allowedValues)) {
     		writer.write("Allowed values: ");
-    		writer.write(OutlineUtil.join(option.allowedValues(), ", "));
+    		writer.write(OutlineUtil.join(option.allowedValues, ", "));
     	}
     }
 
@@ -345,7 +434,7 @@ public class OutlineHelpBuilder {
     	// all global options must be shown here
 		// global
 		if(AssertUtils.isNotEmpty(this.meta.globalOptions)) {
-			Set<Option> options = new HashSet<>(this.meta.globalOptions.values());
+			Set<OptionDescriptor> options = new HashSet<>(this.meta.globalOptions.values());
     		buildOptionsSectionInUsage(writer, options);
     	}
 		
@@ -362,18 +451,18 @@ public class OutlineHelpBuilder {
     	
 		// group
 		if(AssertUtils.isNotEmpty(group)) {
-			Map<String, Option> map = this.meta.groupOptions.get(group);
+			Map<String, OptionDescriptor> map = this.meta.groupOptions.get(group);
 			if(AssertUtils.isNotEmpty(map)) {
-				Set<Option> options = new HashSet<>(map.values());
+				Set<OptionDescriptor> options = new HashSet<>(map.values());
 				buildOptionsSectionInUsage(writer, options);
 			}
 		}
 		
 		// command options
 		if(AssertUtils.isNotEmpty(command)) {
-			Map<String, Option> map = this.meta.commandOptions.get(command);
+			Map<String, OptionDescriptor> map = this.meta.commandOptions.get(command);
 			if(AssertUtils.isNotEmpty(map)) {
-				Set<Option> options = new HashSet<>(map.values());
+				Set<OptionDescriptor> options = new HashSet<>(map.values());
 				buildOptionsSectionInUsage(writer, options);
 			}
 		}
@@ -398,7 +487,7 @@ public class OutlineHelpBuilder {
 			return;
 		}
 		
-		List<Object> arguments = this.meta.commandArguments.getValues(command);
+		List<ArgumentDescriptor> arguments = this.meta.commandArguments.getValues(command);
 		
 		if(AssertUtils.isEmpty(arguments)) {
 			if(!this.meta.singleCommandMode && AssertUtils.isEmpty(command)) {
@@ -413,35 +502,29 @@ public class OutlineHelpBuilder {
 		
 		// output the actual arguments
 		int count = 1;
-		for(Object obj : arguments) {
+		for(ArgumentDescriptor arg : arguments) {
 			// iterate over them
-			if(obj instanceof Argument) {
-				Argument arg = (Argument) obj;
-
+			if(!arg.remaining) {
 				writer.write(' ');
-				writer.writeNonBreaking("<", nonEmpty(arg.title(), "arg" + count++), ">");
-			}
-			
-			if(obj instanceof Arguments) {
-				Arguments args = (Arguments) obj;
-
+				writer.writeNonBreaking("<", nonEmpty(arg.title, "arg" + count++), ">");
+			} else {
 				writer.write(' ');
-				writer.writeNonBreaking("<", nonEmpty(args.title(), "arguments"), ">");
+				writer.writeNonBreaking("<", nonEmpty(arg.title, "arguments"), ">");
 			}
 		}
 	}
 
-	private void buildOptionsSectionInUsage(IndentedStringWriter writer, Set<Option> options) {
+	private void buildOptionsSectionInUsage(IndentedStringWriter writer, Set<OptionDescriptor> options) {
 		boolean first = true;
 		
 		// show one for each of the param
-		for(Option option : options) {
-			if(option.hidden()) {
+		for(OptionDescriptor option : options) {
+			if(option.hidden) {
 				// skip hidden option
 				continue;
 			}
 			
-			String[] names = option.name();
+			String[] names = option.names;
 			writer.write(" [");
 			
 			first = true;
@@ -462,8 +545,8 @@ public class OutlineHelpBuilder {
 				writer.write(')');
 			}
 
-			for(int index = 0; index < option.arity(); index++) {
-				if(option.arity() == 1) {
+			for(int index = 0; index < option.arity; index++) {
+				if(option.arity == 1) {
 					writer.write(" <option-arg>");
 				} else {
 					writer.writeNonBreaking(" <option-arg", String.valueOf(index + 1), ">");
@@ -0,0 +1,127 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.help;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.sangupta.outline.OutlineMetadata;
+import com.sangupta.outline.parser.OutlineParseResult;
+
+/**
+ * The help texts of a compiled outline, rendered once for each group and
+ * command that help is asked for, and then reused for every later request.
+ * The help keyword is fixed for an outline, and thus needs no part in the key.
+ * Help is cached only for the groups and commands that exist, so that asking
+ * for help on arbitrary names cannot grow the cache.
+ * 
+ * Instances are safe to be shared across threads.
+ * 
+ * @author sangupta
+ *
+ */
+public final class OutlineHelpCache {
+	
+	/**
+	 * Stands for no group or no command in the keys of the cache
+	 */
+	private static final String NONE = "";
+	
+	/**
+	 * A help text along with its UTF-8 encoding
+	 */
+	static final class Rendered {
+		
+		final String text;
+		
+		final byte[] bytes;
+		
+		Rendered(String text) {
+			this.text = text;
+			this.bytes = text.getBytes(StandardCharsets.UTF_8);
+		}
+		
+	}
+	
+	private final OutlineMetadata metadata;
+	
+	/**
+	 * The rendered help, by group and then by command
+	 */
+	private final ConcurrentMap<String, ConcurrentMap<String, Rendered>> rendered = new ConcurrentHashMap<>();
+	
+	public OutlineHelpCache(OutlineMetadata metadata) {
+		if(metadata == null) {
+			throw new IllegalArgumentException("Metadata cannot be null");
+		}
+		
+		this.metadata = metadata;
+	}
+	
+	/**
+	 * Return the help for the group and command of the given result, rendering
+	 * it on first use.
+	 * 
+	 * @param result
+	 * @return the rendered help, <code>null</code> if the group or command does
+	 *         not exist and the help is not cached
+	 */
+	Rendered get(OutlineParseResult result) {
+		final String group = result.group;
+		final String command = result.command;
+		if(!this.isKnown(group, command)) {
+			return null;
+		}
+		
+		final String groupKey = group != null ? group : NONE;
+		ConcurrentMap<String, Rendered> commands = this.rendered.get(groupKey);
+		if(commands == null) {
+			commands = new ConcurrentHashMap<>();
+			ConcurrentMap<String, Rendered> existing = this.rendered.putIfAbsent(groupKey, commands);
+			if(existing != null) {
+				commands = existing;
+			}
+		}
+		
+		final String commandKey = command != null ? command : NONE;
+		Rendered help = commands.get(commandKey);
+		if(help == null) {
+			help = new Rendered(new OutlineHelpBuilder(this.metadata, result).getHelpText());
+			Rendered existing = commands.putIfAbsent(commandKey, help);
+			if(existing != null) {
+				help = existing;
+			}
+		}
+		
+		return help;
+	}
+	
+	private boolean isKnown(String group, String command) {
+		if(group != null && !this.metadata.commandGroups.containsKey(group)) {
+			return false;
+		}
+		
+		return command == null || this.metadata.commandNames.containsKey(command);
+	}
+	
+}
@@ -0,0 +1,50 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.help;
+
+/**
+ * How often help that is written to an {@link Appendable} is handed over while
+ * it is rendered. Each page is appended as soon as it is complete, and the
+ * {@link Appendable} is flushed after it when it is {@link java.io.Flushable},
+ * so that long listings start showing before the whole help is rendered.
+ * 
+ * @author sangupta
+ *
+ */
+public enum OutlineHelpPaging {
+	
+	/**
+	 * Render the whole help before appending it
+	 */
+	NONE,
+	
+	/**
+	 * Append each section: the usage, options, commands and arguments
+	 */
+	SECTION,
+	
+	/**
+	 * Append each command and option listed, as well as each section
+	 */
+	COMMAND
+	
+}
@@ -0,0 +1,107 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.model;
+
+import com.sangupta.outline.annotations.Argument;
+import com.sangupta.outline.annotations.Arguments;
+
+/**
+ * Plain snapshot of an <code>@Argument</code> or an <code>@Arguments</code>
+ * annotation along with the type of the field it is placed on.
+ * 
+ * @author sangupta
+ *
+ */
+public final class ArgumentDescriptor {
+	
+	/**
+	 * The position of the argument, <code>-1</code> for the remaining
+	 * arguments
+	 */
+	public final int order;
+	
+	/**
+	 * Whether this describes all the remaining arguments via
+	 * <code>@Arguments</code>
+	 */
+	public final boolean remaining;
+	
+	/**
+	 * Title for the argument - by which it will show up in help
+	 */
+	public final String title;
+	
+	/**
+	 * A description of the argument
+	 */
+	public final String description;
+	
+	/**
+	 * Argument usage for help
+	 */
+	public final String usage;
+	
+	/**
+	 * Whether the argument is required
+	 */
+	public final boolean required;
+	
+	/**
+	 * Whether the remaining arguments are read from the standard input when
+	 * none are given
+	 */
+	public final boolean stdin;
+	
+	/**
+	 * The type of the field the argument is placed on
+	 */
+	public final Class<?> fieldType;
+	
+	public ArgumentDescriptor(int order, boolean remaining, String title, String description, String usage, boolean required, boolean stdin, Class<?> fieldType) {
+		this.order = order;
+		this.remaining = remaining;
+		this.title = title;
+		this.description = description;
+		this.usage = usage;
+		this.required = required;
+		this.stdin = stdin;
+		this.fieldType = fieldType;
+	}
+	
+	public ArgumentDescriptor(Argument argument, Class<?> fieldType) {
+		this(argument.order(), false, argument.title(), argument.description(), "", argument.required(), false, fieldType);
+	}
+	
+	public ArgumentDescriptor(Arguments arguments, Class<?> fieldType) {
+		this(-1, true, arguments.title(), arguments.description(), arguments.usage(), arguments.required(), arguments.stdin(), fieldType);
+	}
+	
+	@Override
+	public String toString() {
+		if(this.remaining) {
+			return "Arguments[" + this.title + "]";
+		}
+		
+		return "Argument[" + this.order + "]";
+	}
+
+}
@@ -0,0 +1,70 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.model;
+
+import com.sangupta.outline.annotations.Command;
+
+/**
+ * Plain snapshot of a <code>@Command</code> annotation.
+ * 
+ * @author sangupta
+ *
+ */
+public final class CommandDescriptor {
+	
+	/**
+	 * Name of the command
+	 */
+	public final String name;
+	
+	/**
+	 * Description of the command
+	 */
+	public final String description;
+	
+	/**
+	 * The command group to which this command belongs
+	 */
+	public final String group;
+	
+	/**
+	 * Whether the command is hidden in help
+	 */
+	public final boolean hidden;
+	
+	public CommandDescriptor(String name, String description, String group, boolean hidden) {
+		this.name = name;
+		this.description = description;
+		this.group = group;
+		this.hidden = hidden;
+	}
+	
+	public CommandDescriptor(Command command) {
+		this(command.name(), command.description(), command.group(), command.hidden());
+	}
+	
+	@Override
+	public String toString() {
+		return "Command[" + this.name + "]";
+	}
+
+}
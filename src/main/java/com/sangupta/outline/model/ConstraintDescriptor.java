@@ -0,0 +1,71 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.model;
+
+import com.sangupta.outline.annotations.Constraint;
+
+/**
+ * Plain snapshot of a <code>@Constraint</code> annotation.
+ * 
+ * @author sangupta
+ *
+ */
+public final class ConstraintDescriptor {
+	
+	/**
+	 * The smallest numeric value accepted, empty for no bound
+	 */
+	public final String min;
+	
+	/**
+	 * The largest numeric value accepted, empty for no bound
+	 */
+	public final String max;
+	
+	/**
+	 * The regular expression non-numeric values must match, empty for any
+	 * value
+	 */
+	public final String pattern;
+	
+	/**
+	 * The maximum length of non-numeric values, <code>-1</code> for no limit
+	 */
+	public final int maxLength;
+	
+	public ConstraintDescriptor(String min, String max, String pattern, int maxLength) {
+		this.min = min;
+		this.max = max;
+		this.pattern = pattern;
+		this.maxLength = maxLength;
+	}
+	
+	public ConstraintDescriptor(Constraint constraint) {
+		this(constraint.min(), constraint.max(), constraint.pattern(), constraint.maxLength());
+	}
+	
+	@Override
+	public String toString() {
+		return "Constraint[min=" + this.min + ", max=" + this.max + ", pattern=" + this.pattern + ", maxLength=" + this.maxLength + "]";
+	}
+	
+}
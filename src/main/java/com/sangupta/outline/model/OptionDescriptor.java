@@ -0,0 +1,152 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.model;
+
+import com.sangupta.outline.annotations.Option;
+import com.sangupta.outline.annotations.OptionType;
+import com.sangupta.outline.annotations.ValueMatch;
+
+/**
+ * Plain snapshot of an <code>@Option</code> annotation along with the type of
+ * the field it is placed on. Used in place of the annotation everywhere after
+ * the command model has been read, so that no annotation proxies are called,
+ * and no arrays are cloned, when parsing or binding.
+ * 
+ * The arrays held by this descriptor must not be modified.
+ * 
+ * @author sangupta
+ *
+ */
+public final class OptionDescriptor {
+	
+	/**
+	 * The id of this option within a compiled outline, <code>-1</code> if the
+	 * option has not been registered
+	 */
+	public final int id;
+	
+	/**
+	 * Is this a command, group or global option
+	 */
+	public final OptionType type;
+	
+	/**
+	 * The canonical name of the option - the first of all names
+	 */
+	public final String name;
+	
+	/**
+	 * All names of the option
+	 */
+	public final String[] names;
+	
+	/**
+	 * Name use to identify the option value in documentation and error messages
+	 */
+	public final String title;
+	
+	/**
+	 * A description of this option
+	 */
+	public final String description;
+	
+	/**
+	 * Whether to show type information in help text or not
+	 */
+	public final boolean showTypeInfo;
+	
+	/**
+	 * Whether this option is required
+	 */
+	public final boolean required;
+	
+	/**
+	 * How many parameter values this option will consume
+	 */
+	public final int arity;
+	
+	/**
+	 * Whether this option is hidden in help
+	 */
+	public final boolean hidden;
+	
+	/**
+	 * The allowed values for this option
+	 */
+	public final String[] allowedValues;
+	
+	/**
+	 * How values are matched against the allowed values
+	 */
+	public final ValueMatch valueMatch;
+	
+	/**
+	 * The type of the field the option is placed on
+	 */
+	public final Class<?> fieldType;
+	
+	public OptionDescriptor(OptionType type, String title, String[] names, String description, boolean showTypeInfo, boolean required, int arity, boolean hidden, String[] allowedValues, ValueMatch valueMatch, Class<?> fieldType) {
+		this(-1, type, title, names, description, showTypeInfo, required, arity, hidden, allowedValues, valueMatch, fieldType);
+	}
+	
+	public OptionDescriptor(Option option, Class<?> fieldType) {
+		this(-1, option.type(), option.title(), option.name(), option.description(), option.showTypeInfo(), option.required(), option.arity(), option.hidden(), option.allowedValues(), option.valueMatch(), fieldType);
+	}
+	
+	private OptionDescriptor(int id, OptionType type, String title, String[] names, String description, boolean showTypeInfo, boolean required, int arity, boolean hidden, String[] allowedValues, ValueMatch valueMatch, Class<?> fieldType) {
+		if(names == null || names.length == 0) {
+			throw new IllegalArgumentException("Option must have at least one name");
+		}
+		
+		this.id = id;
+		this.type = type;
+		this.title = title;
+		this.names = names;
+		this.name = names[0];
+		this.description = description;
+		this.showTypeInfo = showTypeInfo;
+		this.required = required;
+		this.arity = arity;
+		this.hidden = hidden;
+		this.allowedValues = allowedValues;
+		this.valueMatch = valueMatch;
+		this.fieldType = fieldType;
+	}
+	
+	/**
+	 * Return a copy of this descriptor with the given id.
+	 * 
+	 * @param id
+	 *            the id to use
+	 * 
+	 * @return the new descriptor
+	 */
+	public OptionDescriptor withId(int id) {
+		return new OptionDescriptor(id, this.type, this.title, this.names, this.description, this.showTypeInfo, this.required, this.arity, this.hidden, this.allowedValues, this.valueMatch, this.fieldType);
+	}
+	
+	@Override
+	public String toString() {
+		return "Option[" + this.name + "]";
+	}
+
+}
@@ -0,0 +1,325 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.model;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Describes a command class - its <code>@Command</code> details, all the fields that
+ * need to be populated when binding, and the way to set values in them.
+ * 
+ * The <code>outline-processor</code> annotation processor generates a subclass
+ * for every <code>@Command</code> class at compile time, named as the binary
+ * name of the command class suffixed with {@link #GENERATED_SUFFIX}. Such a
+ * model reads no annotations and uses no reflection. When no generated model
+ * is available on the classpath, the model is read using reflection.
+ * 
+ * @author sangupta
+ *
+ */
+public abstract class OutlineCommandModel {
+	
+	/**
+	 * My private logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(OutlineCommandModel.class);
+	
+	/**
+	 * The suffix added to the binary name of the command class to obtain the
+	 * name of the generated model class
+	 */
+	public static final String GENERATED_SUFFIX = "$$OutlineModel";
+	
+	/**
+	 * Handle to the {@link #setValue(int, Object, Object)} method
+	 */
+	private static final MethodHandle SET_VALUE;
+	
+	/**
+	 * Handles to the primitive setters, in the order of {@link #PRIMITIVE_TYPES}
+	 */
+	private static final MethodHandle[] SET_PRIMITIVE;
+	
+	/**
+	 * The primitive field types that have a setter that does not box the value
+	 */
+	private static final Class<?>[] PRIMITIVE_TYPES = { int.class, long.class, double.class, boolean.class };
+	
+	/**
+	 * Models are read only once per command class
+	 */
+	private static final ClassValue<OutlineCommandModel> MODELS = new ClassValue<OutlineCommandModel>() {
+		
+		@Override
+		protected OutlineCommandModel computeValue(Class<?> commandClass) {
+			OutlineCommandModel model = loadGeneratedModel(commandClass);
+			if(model != null) {
+				return model;
+			}
+			
+			return new OutlineReflectiveCommandModel(commandClass);
+		}
+		
+	};
+	
+	static {
+		try {
+			SET_VALUE = MethodHandles.lookup().findVirtual(OutlineCommandModel.class, "setValue", MethodType.methodType(void.class, int.class, Object.class, Object.class));
+			
+			final String[] names = { "setInt", "setLong", "setDouble", "setBoolean" };
+			SET_PRIMITIVE = new MethodHandle[names.length];
+			for(int index = 0; index < names.length; index++) {
+				SET_PRIMITIVE[index] = MethodHandles.lookup().findVirtual(OutlineCommandModel.class, names[index], MethodType.methodType(void.class, int.class, Object.class, PRIMITIVE_TYPES[index]));
+			}
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+	
+	/**
+	 * The command class that this model describes
+	 */
+	public final Class<?> commandClass;
+	
+	/**
+	 * The <code>@Command</code> details, <code>null</code> if the class is not
+	 * annotated
+	 */
+	public final CommandDescriptor command;
+	
+	/**
+	 * All fields of the command class, including the inherited ones, that need
+	 * to be populated
+	 */
+	public final OutlineFieldModel[] fields;
+	
+	protected OutlineCommandModel(Class<?> commandClass, CommandDescriptor command, OutlineFieldModel[] fields) {
+		this.commandClass = commandClass;
+		this.command = command;
+		this.fields = fields;
+	}
+	
+	/**
+	 * Set the value of the field at the given index in the given instance. The
+	 * value must already be converted to the type of the field.
+	 * 
+	 * @param index
+	 *            the index of the field in {@link #fields}
+	 * 
+	 * @param instance
+	 *            the command instance
+	 * 
+	 * @param value
+	 *            the value to set
+	 * 
+	 * @throws IllegalAccessException
+	 *             if the field cannot be accessed
+	 */
+	public abstract void setValue(int index, Object instance, Object value) throws IllegalAccessException;
+	
+	/**
+	 * Set the value of the <code>int</code> field at the given index in the
+	 * given instance. Generated models override this method to set the field
+	 * without boxing the value.
+	 * 
+	 * @param index
+	 *            the index of the field in {@link #fields}
+	 * 
+	 * @param instance
+	 *            the command instance
+	 * 
+	 * @param value
+	 *            the value to set
+	 * 
+	 * @throws IllegalAccessException
+	 *             if the field cannot be accessed
+	 */
+	public void setInt(int index, Object instance, int value) throws IllegalAccessException {
+		this.setValue(index, instance, value);
+	}
+	
+	/**
+	 * Set the value of the <code>long</code> field at the given index, see
+	 * {@link #setInt(int, Object, int)}.
+	 * 
+	 * @param index
+	 * @param instance
+	 * @param value
+	 * @throws IllegalAccessException
+	 */
+	public void setLong(int index, Object instance, long value) throws IllegalAccessException {
+		this.setValue(index, instance, value);
+	}
+	
+	/**
+	 * Set the value of the <code>double</code> field at the given index, see
+	 * {@link #setInt(int, Object, int)}.
+	 * 
+	 * @param index
+	 * @param instance
+	 * @param value
+	 * @throws IllegalAccessException
+	 */
+	public void setDouble(int index, Object instance, double value) throws IllegalAccessException {
+		this.setValue(index, instance, value);
+	}
+	
+	/**
+	 * Set the value of the <code>boolean</code> field at the given index, see
+	 * {@link #setInt(int, Object, int)}.
+	 * 
+	 * @param index
+	 * @param instance
+	 * @param value
+	 * @throws IllegalAccessException
+	 */
+	public void setBoolean(int index, Object instance, boolean value) throws IllegalAccessException {
+		this.setValue(index, instance, value);
+	}
+	
+	/**
+	 * Return a setter for the field at the given index, of the type
+	 * <code>(Object instance, Object value)void</code>. The value must already
+	 * be converted to the type of the field.
+	 * 
+	 * @param index
+	 *            the index of the field in {@link #fields}
+	 * 
+	 * @return the setter handle
+	 */
+	public MethodHandle getSetter(int index) {
+		return MethodHandles.insertArguments(SET_VALUE.bindTo(this), 0, index);
+	}
+	
+	/**
+	 * Return a setter for the <code>int</code>, <code>long</code>,
+	 * <code>double</code> or <code>boolean</code> field at the given index, of
+	 * the type <code>(Object instance, int value)void</code> and so on, that
+	 * does not box the value.
+	 * 
+	 * @param index
+	 *            the index of the field in {@link #fields}
+	 * 
+	 * @return the setter handle, <code>null</code> if the field is of any other
+	 *         type
+	 */
+	public MethodHandle getPrimitiveSetter(int index) {
+		final int kind = primitiveKind(this.fields[index].type);
+		if(kind < 0) {
+			return null;
+		}
+		
+		return MethodHandles.insertArguments(SET_PRIMITIVE[kind].bindTo(this), 0, index);
+	}
+	
+	/**
+	 * Return the position of the given type in the primitive types that have a
+	 * setter that does not box the value.
+	 * 
+	 * @param type
+	 * @return the position, <code>-1</code> if the type has no such setter
+	 */
+	static int primitiveKind(Class<?> type) {
+		for(int index = 0; index < PRIMITIVE_TYPES.length; index++) {
+			if(PRIMITIVE_TYPES[index] == type) {
+				return index;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Return whether this model was generated at compile time.
+	 * 
+	 * @return <code>true</code> if generated, <code>false</code> if read using
+	 *         reflection
+	 */
+	public boolean isGenerated() {
+		return true;
+	}
+	
+	/**
+	 * Return the model for the given command class. The generated model is used
+	 * if present on the classpath, otherwise the model is read using reflection.
+	 * The model is read only once per command class, and is then cached.
+	 * 
+	 * @param commandClass
+	 *            the command class
+	 * 
+	 * @return the model for the command class
+	 */
+	public static OutlineCommandModel forClass(Class<?> commandClass) {
+		if(commandClass == null) {
+			throw new IllegalArgumentException("Command class cannot be null");
+		}
+		
+		return MODELS.get(commandClass);
+	}
+	
+	/**
+	 * Load the generated model for the given command class, if available.
+	 * 
+	 * @param commandClass
+	 *            the command class
+	 * 
+	 * @return the generated model, or <code>null</code> if not available
+	 */
+	private static OutlineCommandModel loadGeneratedModel(Class<?> commandClass) {
+		final String name = commandClass.getName() + GENERATED_SUFFIX;
+		
+		Class<?> modelClass;
+		try {
+			modelClass = Class.forName(name, true, commandClass.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+		
+		if(!OutlineCommandModel.class.isAssignableFrom(modelClass)) {
+			LOGGER.warn("Class {} is not an outline command model, falling back to reflection", name);
+			return null;
+		}
+		
+		OutlineCommandModel model;
+		try {
+			model = (OutlineCommandModel) modelClass.newInstance();
+		} catch (InstantiationException | IllegalAccessException e) {
+			LOGGER.warn("Unable to create generated model {}, falling back to reflection", name, e);
+			return null;
+		}
+		
+		if(model.commandClass != commandClass) {
+			LOGGER.warn("Generated model {} does not describe the command class, falling back to reflection", name);
+			return null;
+		}
+		
+		LOGGER.debug("Using generated model for command class: {}", commandClass.getName());
+		return model;
+	}
+	
+}
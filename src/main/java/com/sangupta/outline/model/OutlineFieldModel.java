@@ -0,0 +1,130 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.model;
+
+import java.lang.reflect.Field;
+
+/**
+ * Describes a single field of a command class that is either annotated with
+ * one of <code>@Option</code>, <code>@Argument</code> or
+ * <code>@Arguments</code>, or is an <code>@Inject</code>ed field that accepts
+ * the help command.
+ * 
+ * @author sangupta
+ *
+ */
+public final class OutlineFieldModel {
+	
+	/**
+	 * The index of this field within its {@link OutlineCommandModel}
+	 */
+	public final int index;
+	
+	/**
+	 * The class that declares this field
+	 */
+	public final Class<?> declaringClass;
+	
+	/**
+	 * The name of the field
+	 */
+	public final String name;
+	
+	/**
+	 * The type of the field
+	 */
+	public final Class<?> type;
+	
+	/**
+	 * The <code>@Option</code> details of the field, if any
+	 */
+	public final OptionDescriptor option;
+	
+	/**
+	 * The <code>@Argument</code> details of the field, if any
+	 */
+	public final ArgumentDescriptor argument;
+	
+	/**
+	 * The <code>@Arguments</code> details of the field, if any
+	 */
+	public final ArgumentDescriptor arguments;
+	
+	/**
+	 * Whether the help command needs to be injected in this field
+	 */
+	public final boolean helpInjection;
+	
+	/**
+	 * The <code>@Constraint</code> details of the field, if any
+	 */
+	public final ConstraintDescriptor constraint;
+	
+	/**
+	 * The reflected {@link Field}, resolved only when needed
+	 */
+	private volatile Field field;
+	
+	public OutlineFieldModel(int index, Class<?> declaringClass, String name, Class<?> type, OptionDescriptor option, ArgumentDescriptor argument, ArgumentDescriptor arguments, boolean helpInjection) {
+		this(index, declaringClass, name, type, option, argument, arguments, helpInjection, null);
+	}
+	
+	public OutlineFieldModel(int index, Class<?> declaringClass, String name, Class<?> type, OptionDescriptor option, ArgumentDescriptor argument, ArgumentDescriptor arguments, boolean helpInjection, ConstraintDescriptor constraint) {
+		this.index = index;
+		this.declaringClass = declaringClass;
+		this.name = name;
+		this.type = type;
+		this.option = option;
+		this.argument = argument;
+		this.arguments = arguments;
+		this.helpInjection = helpInjection;
+		this.constraint = constraint;
+	}
+	
+	OutlineFieldModel(int index, Field field, OptionDescriptor option, ArgumentDescriptor argument, ArgumentDescriptor arguments, boolean helpInjection, ConstraintDescriptor constraint) {
+		this(index, field.getDeclaringClass(), field.getName(), field.getType(), option, argument, arguments, helpInjection, constraint);
+		this.field = field;
+	}
+	
+	/**
+	 * Return the reflected {@link Field} for this field. For generated models
+	 * this is resolved lazily on first use, and is then cached.
+	 * 
+	 * @return the {@link Field} instance
+	 */
+	public Field getField() {
+		Field field = this.field;
+		if(field != null) {
+			return field;
+		}
+		
+		try {
+			field = this.declaringClass.getDeclaredField(this.name);
+		} catch (NoSuchFieldException e) {
+			throw new IllegalStateException("Field " + this.name + " not found in class " + this.declaringClass.getName(), e);
+		}
+		
+		this.field = field;
+		return field;
+	}
+
+}
@@ -0,0 +1,211 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.model;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import com.sangupta.outline.annotations.Argument;
+import com.sangupta.outline.annotations.Arguments;
+import com.sangupta.outline.annotations.Command;
+import com.sangupta.outline.annotations.Constraint;
+import com.sangupta.outline.annotations.Option;
+import com.sangupta.outline.help.OutlineHelp;
+import com.sangupta.outline.util.OutlineUtil;
+
+/**
+ * {@link OutlineCommandModel} that is read from the annotations on the command
+ * class using reflection.
+ * 
+ * @author sangupta
+ *
+ */
+class OutlineReflectiveCommandModel extends OutlineCommandModel {
+	
+	/**
+	 * The generic setter type
+	 */
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	
+	/**
+	 * Handle to {@link Field#set(Object, Object)} used when a field cannot be
+	 * unreflected
+	 */
+	private static final MethodHandle FIELD_SET;
+	
+	static {
+		try {
+			FIELD_SET = MethodHandles.lookup().findVirtual(Field.class, "set", SETTER_TYPE);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+	
+	/**
+	 * Setters for each field, indexed same as the fields, created on first use
+	 * as only the commands that are bound need them
+	 */
+	private final MethodHandle[] setters;
+	
+	OutlineReflectiveCommandModel(Class<?> commandClass) {
+		super(commandClass, readCommand(commandClass), readFields(commandClass));
+		
+		this.setters = new MethodHandle[this.fields.length];
+	}
+	
+	@Override
+	public void setValue(int index, Object instance, Object value) throws IllegalAccessException {
+		try {
+			this.getSetter(index).invokeExact(instance, value);
+		} catch (RuntimeException | Error | IllegalAccessException e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new IllegalStateException("Unable to set field value", t);
+		}
+	}
+	
+	@Override
+	public MethodHandle getSetter(int index) {
+		MethodHandle setter = this.setters[index];
+		if(setter == null) {
+			// racing threads create equivalent setters
+			setter = createSetter(this.fields[index].getField());
+			this.setters[index] = setter;
+		}
+		
+		return setter;
+	}
+	
+	@Override
+	public MethodHandle getPrimitiveSetter(int index) {
+		final Field field = this.fields[index].getField();
+		if(primitiveKind(field.getType()) < 0) {
+			return null;
+		}
+		
+		MethodHandle setter;
+		try {
+			setter = MethodHandles.lookup().unreflectSetter(field);
+		} catch (IllegalAccessException e) {
+			// final fields - box and use the reflective setter
+			return super.getPrimitiveSetter(index);
+		}
+		
+		if(Modifier.isStatic(field.getModifiers())) {
+			setter = MethodHandles.dropArguments(setter, 0, Object.class);
+		}
+		
+		return setter.asType(MethodType.methodType(void.class, Object.class, field.getType()));
+	}
+	
+	@Override
+	public boolean isGenerated() {
+		return false;
+	}
+	
+	/**
+	 * Create a setter of the type <code>(Object, Object)void</code> for the
+	 * given field.
+	 * 
+	 * @param field
+	 *            the field
+	 * 
+	 * @return the setter handle
+	 */
+	private static MethodHandle createSetter(Field field) {
+		MethodHandle setter;
+		try {
+			setter = MethodHandles.lookup().unreflectSetter(field);
+		} catch (IllegalAccessException e) {
+			// final fields - use the reflective setter
+			return FIELD_SET.bindTo(field);
+		}
+		
+		if(Modifier.isStatic(field.getModifiers())) {
+			setter = MethodHandles.dropArguments(setter, 0, Object.class);
+		}
+		
+		return setter.asType(SETTER_TYPE);
+	}
+	
+	/**
+	 * Read the <code>@Command</code> details of the command class.
+	 * 
+	 * @param commandClass
+	 *            the command class
+	 * 
+	 * @return the command details, <code>null</code> if not annotated
+	 */
+	private static CommandDescriptor readCommand(Class<?> commandClass) {
+		Command command = commandClass.getAnnotation(Command.class);
+		if(command == null) {
+			return null;
+		}
+		
+		return new CommandDescriptor(command);
+	}
+	
+	/**
+	 * Read all fields of the command class that need to be populated.
+	 * 
+	 * @param commandClass
+	 *            the command class
+	 * 
+	 * @return the field models
+	 */
+	private static OutlineFieldModel[] readFields(Class<?> commandClass) {
+		List<Field> fields = OutlineUtil.getAllFields(commandClass);
+		List<OutlineFieldModel> models = new ArrayList<>();
+		
+		for(Field field : fields) {
+			Option option = field.getAnnotation(Option.class);
+			Argument argument = field.getAnnotation(Argument.class);
+			Arguments arguments = field.getAnnotation(Arguments.class);
+			boolean helpInjection = field.isAnnotationPresent(Inject.class) && OutlineHelp.class.isAssignableFrom(field.getType());
+			Constraint constraint = field.getAnnotation(Constraint.class);
+			
+			if(option == null && argument == null && arguments == null && !helpInjection) {
+				continue;
+			}
+			
+			field.setAccessible(true);
+			
+			final Class<?> type = field.getType();
+			models.add(new OutlineFieldModel(models.size(), field, 
+					option != null ? new OptionDescriptor(option, type) : null, 
+					argument != null ? new ArgumentDescriptor(argument, type) : null,
+					arguments != null ? new ArgumentDescriptor(arguments, type) : null,
+					helpInjection,
+					constraint != null ? new ConstraintDescriptor(constraint) : null));
+		}
+		
+		return models.toArray(new OutlineFieldModel[models.size()]);
+	}
+
+}
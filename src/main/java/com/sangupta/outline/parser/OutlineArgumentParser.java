@@ -21,201 +21,299 @@
  
 package com.sangupta.outline.parser;
 
-import java.util.Map;
-
-import com.sangupta.jerry.ds.SimpleMultiMap;
-import com.sangupta.jerry.ds.iterator.StringArrayIterator;
-import com.sangupta.jerry.util.AssertUtils;
 import com.sangupta.outline.OutlineMetadata;
-import com.sangupta.outline.annotations.Option;
 import com.sangupta.outline.exceptions.OutlineInvalidArgumentException;
+import com.sangupta.outline.model.CommandDescriptor;
+import com.sangupta.outline.model.OptionDescriptor;
 
 public class OutlineArgumentParser {
 
     public static OutlineParseResult parse(String[] args, OutlineMetadata metadata) {
-        StringArrayIterator iterator = new StringArrayIterator(args);
-        OutlineParseResult result = new OutlineParseResult();
+        return parse(new OutlineArrayTokens(args), metadata);
+    }
+    
+    public static OutlineParseResult parse(OutlineTokens args, OutlineMetadata metadata) {
+        OutlineParseResult result = new OutlineParseResult(metadata);
+        parse(args, metadata, result);
+        return result;
+    }
+    
+    /**
+	 * Parse the given arguments into the given result. The result is reset
+	 * before parsing, and no objects are allocated if the result has enough
+	 * capacity for the arguments. Unknown commands and missing option values
+	 * are thrown as {@link OutlineInvalidArgumentException}s, unless the result
+	 * is collecting diagnostics.
+	 * 
+	 * @param args
+	 *            the arguments to parse
+	 * 
+	 * @param metadata
+	 *            the metadata to parse against
+	 * 
+	 * @param result
+	 *            the result to fill in
+	 */
+    public static void parse(OutlineTokens args, OutlineMetadata metadata, OutlineParseResult result) {
+        result.reset(args);
         
         // first let's read the global options
-        readGlobalOptions(result, iterator, metadata);
+        int position = readGlobalOptions(result, args, 0, metadata);
 
         // read group and group options if applicable
-        readGroupAndGroupOptions(result, iterator, metadata);
+        position = readGroupAndGroupOptions(result, args, position, metadata);
         
         // read command name and command options if applicable
-        readCommandNameAndOptions(result, iterator, metadata);
+        position = readCommandNameAndOptions(result, args, position, metadata);
         
         // whatever is remaining is now the command arguments
-        readCommandArguments(result, iterator);
-        
-        return result;
-    }
-
-    /**
-     * Read all remaining values as command arguments
-     * 
-     * @param result
-     * @param iterator
-     */
-    private static void readCommandArguments(OutlineParseResult result, StringArrayIterator iterator) {
-        while(iterator.hasNext()) {
-            result.arguments.add(iterator.next());
-        }
+        result.setArgumentsStart(position);
     }
 
     /**
      * Read the command name and command options
      * 
      * @param result
-     * @param iterator
+     * @param args
+     * @param position
      * @param metadata
+     * @return the position of the first token that was not read
      */
-    private static void readCommandNameAndOptions(OutlineParseResult result, StringArrayIterator iterator, OutlineMetadata metadata) {
-        if(!iterator.hasNext()) {
-            return;
+    private static int readCommandNameAndOptions(OutlineParseResult result, OutlineTokens args, int position, OutlineMetadata metadata) {
+        if(position >= args.size()) {
+            return position;
         }
         
-        String name = iterator.peek();
-        if(!metadata.commandNames.containsKey(name)) {
+        CommandDescriptor command = args.lookup(position, metadata.commandTable);
+        if(command == null) {
         	// check if this is help required
-        	if(name.equals(metadata.helpKeyword)) {
-            	name = iterator.next();
+        	if(args.matches(position, metadata.helpKeyword)) {
+            	position++;
             	
         		result.helpRequested = true;
         		
         		// check if we have more values
-        		if(!iterator.hasNext()) {
-        			return;
+        		if(position >= args.size()) {
+        			return position;
+        		}
+        		String group = args.lookup(position, metadata.groupTable);
+        		if(group == null) {
+        			result.command = args.get(position++);
+        			return position;
         		}
-        		String commandOrGroup = iterator.next();
-        		if(metadata.commandGroups.containsKey(commandOrGroup)) {
-        			// this is group name
-        			result.group = commandOrGroup;
-        			
-        			// let's check if we also have a command name
-        			if(!iterator.hasNext()) {
-        				return;
-        			}
-        			
-        			result.command = iterator.next();
-        			return;
+        		
+        		// this is group name
+        		position++;
+        		result.group = group;
+        		
+        		// let's check if we also have a command name
+        		if(position >= args.size()) {
+        			return position;
         		}
         		
-        		result.command = commandOrGroup;
-        		return;
+        		result.command = args.get(position++);
+        		return position;
+        	}
+        	
+        	if(result.isCollecting()) {
+        		result.addDiagnostic(new OutlineDiagnostic(OutlineDiagnostic.Kind.UNKNOWN_COMMAND, null, args.get(position), position, null));
         	}
         	
         	if(metadata.helpOnIncorrectArguments) {
         		result.helpRequested = true;
-        		return;
+        		return position;
+        	}
+        	
+        	if(!result.isCollecting()) {
+        		throw new OutlineInvalidArgumentException(args.get(position), position);
         	}
         	
-            throw new OutlineInvalidArgumentException(iterator.peek(), iterator.getPosition());
+        	// nothing more can be read without a command
+        	return args.size();
         }
         
         // the command name
-        result.command = iterator.next();
+        position++;
+        result.command = command.name;
         
         // now that we have a command - let's see if there are any command options that need to be read
-        Map<String, Option> options = metadata.commandOptions.get(name);
-        if(AssertUtils.isEmpty(options)) {
-            return;
+        OutlineLookupTable<OptionDescriptor> options = metadata.commandOptionTables.get(command.name);
+        if(options == null) {
+            options = OutlineLookupTable.empty();
         }
         
-        while(iterator.hasNext()) {
-            String token = iterator.peek();
-            
-            if(token.equals("--")) {
+        final OptionDescriptor[] attached = metadata.commandAttachedOptions.get(command.name);
+        
+        while(position < args.size()) {
+            if(args.isSeparator(position)) {
             	// we have hit the separator
+            	position++;
             	break;
             }
             
-            if(!options.containsKey(token)) {
-                break;
+            OptionDescriptor option = args.lookup(position, options);
+            if(option == null) {
+                final int next = parseAttachedOption(args, position, attached, result);
+                if(next < 0) {
+                    break;
+                }
+                
+                position = next;
+                continue;
             }
             
             // we found the option
-            token = iterator.next();
-            parseOption(iterator, options.get(token), result.commandOptions);
+            position = parseOption(args, position + 1, option, result);
         }
+        
+        return position;
     }
 
     /**
      * Read the command name and optionally the sub-command name if applicable.
      * 
      * @param result
-     * @param iterator
+     * @param args
+     * @param position
      * @param metadata
+     * @return the position of the first token that was not read
      */
-    private static void readGroupAndGroupOptions(OutlineParseResult result, StringArrayIterator iterator, OutlineMetadata metadata) {
-        if(!iterator.hasNext()) {
-            return;
+    private static int readGroupAndGroupOptions(OutlineParseResult result, OutlineTokens args, int position, OutlineMetadata metadata) {
+        if(position >= args.size()) {
+            return position;
         }
         
-        String name = iterator.peek();
-        if(!metadata.commandGroups.containsKey(name)) {
-            return;
+        String name = args.lookup(position, metadata.groupTable);
+        if(name == null) {
+            return position;
         }
         
-        result.group = iterator.next();
+        position++;
+        result.group = name;
         
         // now that we have a group - let's see if there are any group options that need to be read
-        Map<String, Option> options = metadata.groupOptions.get(name);
-        if(AssertUtils.isEmpty(options)) {
-            return;
+        OutlineLookupTable<OptionDescriptor> options = metadata.groupOptionTables.get(name);
+        if(options == null || options.isEmpty()) {
+            return position;
         }
         
-        while(iterator.hasNext()) {
-            String token = iterator.peek();
-            
-            if(!options.containsKey(token)) {
-                return;
+        final OptionDescriptor[] attached = metadata.groupAttachedOptions.get(name);
+        while(position < args.size()) {
+            OptionDescriptor option = args.lookup(position, options);
+            if(option == null) {
+                final int next = parseAttachedOption(args, position, attached, result);
+                if(next < 0) {
+                    break;
+                }
+                
+                position = next;
+                continue;
             }
             
             // we found the option
-            token = iterator.next();
-            parseOption(iterator, options.get(token), result.groupOptions);
+            position = parseOption(args, position + 1, option, result);
         }
+        
+        return position;
     }
 
     /**
      * Read global options.
      * 
      * @param result
-     * @param iterator
+     * @param args
+     * @param position
      * @param metadata
+     * @return the position of the first token that was not read
      */
-    private static void readGlobalOptions(OutlineParseResult result, StringArrayIterator iterator, OutlineMetadata metadata) {
-        if(metadata.globalOptions.isEmpty()) {
-            return;
+    private static int readGlobalOptions(OutlineParseResult result, OutlineTokens args, int position, OutlineMetadata metadata) {
+        final OutlineLookupTable<OptionDescriptor> options = metadata.globalOptionTable;
+        if(options.isEmpty()) {
+            return position;
         }
         
-        while(iterator.hasNext()) {
-            String token = iterator.peek();
-            
-            if(!metadata.globalOptions.containsKey(token)) {
-                return;
+        while(position < args.size()) {
+            OptionDescriptor option = args.lookup(position, options);
+            if(option == null) {
+                final int next = parseAttachedOption(args, position, metadata.globalAttachedOptions, result);
+                if(next < 0) {
+                    break;
+                }
+                
+                position = next;
+                continue;
             }
             
             // we found the option
-            token = iterator.next();
-            parseOption(iterator, metadata.globalOptions.get(token), result.globalOptions);
+            position = parseOption(args, position + 1, option, result);
+        }
+        
+        return position;
+    }
+    
+    /**
+     * Read the value attached to the name of an option, as in
+     * <code>-Dkey=value</code>. Only options placed on {@link java.util.Map}
+     * fields take attached values, and the longest name that matches wins.
+     * 
+     * @param args
+     * @param position
+     * @param options
+     *            the options that take attached values, may be <code>null</code>
+     * 
+     * @param result
+     * @return the position after the token, <code>-1</code> if the token is not
+     *         an option with an attached value
+     */
+    private static int parseAttachedOption(OutlineTokens args, int position, OptionDescriptor[] options, OutlineParseResult result) {
+        if(options == null) {
+            return -1;
+        }
+        
+        OptionDescriptor found = null;
+        int length = 0;
+        for(OptionDescriptor option : options) {
+            for(String name : option.names) {
+                if(name.length() > length && args.startsWith(position, name)) {
+                    found = option;
+                    length = name.length();
+                }
+            }
+        }
+        
+        if(found == null) {
+            return -1;
         }
+        
+        result.addOptionValue(found, position, length);
+        return position + 1;
     }
 
     /**
      * Parse the values based on the given option.
      *  
-     * @param iterator
+     * @param args
+     * @param position
      * @param option
-     * @param globalOptions
+     * @param result
+     * @return the position of the first token after the option values
      */
-    private static void parseOption(StringArrayIterator iterator, Option option, SimpleMultiMap<String, String> optionStore) {
-        int tokensToRead = option.arity();
-        String name = option.name()[0];
+    private static int parseOption(OutlineTokens args, int position, OptionDescriptor option, OutlineParseResult result) {
+        final int tokensToRead = option.arity;
         for(int index = 0; index < tokensToRead; index++) {
-            optionStore.put(name, iterator.next());
+            if(position >= args.size()) {
+                if(!result.isCollecting()) {
+                    throw new OutlineInvalidArgumentException(option.name, position);
+                }
+                
+                result.addDiagnostic(new OutlineDiagnostic(OutlineDiagnostic.Kind.MISSING_VALUE, option.name, null, position, null));
+                return position;
+            }
+            
+            result.addOptionValue(option, position++);
         }
+        
+        return position;
     }
 
 }
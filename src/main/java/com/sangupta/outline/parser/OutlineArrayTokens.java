@@ -0,0 +1,70 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+ 
+package com.sangupta.outline.parser;
+
+/**
+ * {@link OutlineTokens} backed by a {@link String} array, as received in the
+ * <code>main</code> method. The array may be swapped via
+ * {@link #reset(String[])} so that the same instance can be reused.
+ * 
+ * @author sangupta
+ *
+ */
+public final class OutlineArrayTokens extends OutlineTokens {
+	
+	private String[] args;
+	
+	public OutlineArrayTokens(String[] args) {
+		this.reset(args);
+	}
+	
+	/**
+	 * Use the given arguments as the tokens.
+	 * 
+	 * @param args
+	 *            the arguments, must not be <code>null</code>
+	 */
+	public void reset(String[] args) {
+		if(args == null) {
+			throw new IllegalArgumentException("Arguments cannot be null");
+		}
+		
+		this.args = args;
+	}
+	
+	@Override
+	public int size() {
+		return this.args.length;
+	}
+	
+	@Override
+	public String get(int index) {
+		return this.args[index];
+	}
+	
+	@Override
+	public <T> T lookup(int index, OutlineLookupTable<T> table) {
+		return table.lookup(this.args[index]);
+	}
+	
+}
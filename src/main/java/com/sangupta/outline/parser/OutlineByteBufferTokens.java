@@ -0,0 +1,203 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+ 
+package com.sangupta.outline.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.sangupta.outline.exceptions.OutlineInvalidArgumentException;
+
+/**
+ * {@link OutlineTokens} read from a single UTF-8 encoded command line in a
+ * {@link ByteBuffer}, as received over a socket or from a memory-mapped file.
+ * The bytes between the position and the limit of the buffer are split into
+ * tokens with the same quoting rules as {@link OutlineCommandLineTokens}, and
+ * the position and limit of the buffer are left untouched.
+ * 
+ * Option, command and group names are matched by walking the compiled lookup
+ * tables over the bytes themselves, and integral values are parsed straight
+ * from the bytes. A token is decoded to a {@link String} only when
+ * {@link #get(int)} is invoked. Tokens without any quotes or escapes are kept
+ * as ranges over the buffer; only the other tokens are decoded into a shared
+ * byte buffer.
+ * 
+ * The buffer must not be modified while the tokens are in use. Instances may
+ * be reused via {@link #reset(ByteBuffer)}, and are not thread-safe.
+ * 
+ * @author sangupta
+ *
+ */
+public final class OutlineByteBufferTokens extends OutlineShellTokens {
+	
+	/**
+	 * The buffer that was tokenized
+	 */
+	private ByteBuffer bytes;
+	
+	/**
+	 * The unescaped bytes of all tokens that had quotes or escapes
+	 */
+	private byte[] decoded = new byte[64];
+	
+	/**
+	 * A view over {@link #decoded}
+	 */
+	private ByteBuffer decodedView = ByteBuffer.wrap(this.decoded);
+	
+	/**
+	 * The number of bytes used in {@link #decoded}
+	 */
+	private int decodedLength;
+	
+	/**
+	 * Tokenize the UTF-8 command line between the position and the limit of the
+	 * given buffer.
+	 * 
+	 * @param bytes
+	 *            the buffer holding the command line
+	 * 
+	 * @throws OutlineInvalidArgumentException
+	 *             if the line has an unterminated quote
+	 */
+	public OutlineByteBufferTokens(ByteBuffer bytes) {
+		this.reset(bytes);
+	}
+	
+	/**
+	 * Tokenize the UTF-8 command line between the position and the limit of the
+	 * given buffer, replacing the current tokens. Multi-byte UTF-8 sequences
+	 * never contain ASCII bytes, so the line is split and unquoted without
+	 * decoding it.
+	 * 
+	 * @param bytes
+	 *            the buffer holding the command line
+	 * 
+	 * @throws OutlineInvalidArgumentException
+	 *             if the line has an unterminated quote
+	 */
+	public void reset(ByteBuffer bytes) {
+		if(bytes == null) {
+			throw new IllegalArgumentException("Buffer cannot be null");
+		}
+		
+		this.bytes = bytes;
+		this.decodedLength = 0;
+		this.scan(bytes.position(), bytes.limit());
+	}
+	
+	@Override
+	int unit(int index) {
+		return this.bytes.get(index);
+	}
+	
+	@Override
+	int decodedUnit(int index) {
+		return this.decoded[index];
+	}
+	
+	@Override
+	int decodedLength() {
+		return this.decodedLength;
+	}
+	
+	@Override
+	void appendDecoded(int unit) {
+		this.ensureDecodedCapacity(1);
+		this.decoded[this.decodedLength++] = (byte) unit;
+	}
+	
+	@Override
+	void appendDecoded(int start, int end) {
+		this.ensureDecodedCapacity(end - start);
+		for(int index = start; index < end; index++) {
+			this.decoded[this.decodedLength++] = this.bytes.get(index);
+		}
+	}
+	
+	@Override
+	String substring(int start, int end) {
+		return decode(this.bytes, start, end);
+	}
+	
+	private void ensureDecodedCapacity(int extra) {
+		if(this.decodedLength + extra <= this.decoded.length) {
+			return;
+		}
+		
+		byte[] decoded = new byte[Math.max(this.decodedLength + extra, this.decoded.length * 2)];
+		System.arraycopy(this.decoded, 0, decoded, 0, this.decodedLength);
+		this.decoded = decoded;
+		this.decodedView = ByteBuffer.wrap(decoded);
+	}
+	
+	/**
+	 * Decode the given range of UTF-8 bytes to a {@link String}.
+	 * 
+	 * @param bytes
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	private static String decode(ByteBuffer bytes, int start, int end) {
+		if(bytes.hasArray()) {
+			return new String(bytes.array(), bytes.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+		}
+		
+		byte[] array = new byte[end - start];
+		for(int index = start; index < end; index++) {
+			array[index - start] = bytes.get(index);
+		}
+		
+		return new String(array, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Return the bytes the token at the given index lives in.
+	 * 
+	 * @param index
+	 * @return
+	 */
+	private ByteBuffer source(int index) {
+		return this.isQuoted(index) ? this.decodedView : this.bytes;
+	}
+	
+	@Override
+	public String get(int index) {
+		return decode(this.source(index), this.start(index), this.end(index));
+	}
+	
+	@Override
+	public <T> T lookup(int index, OutlineLookupTable<T> table) {
+		return table.lookup(this.source(index), this.start(index), this.end(index));
+	}
+	
+	@Override
+	public boolean matches(int index, String value) {
+		if(value == null) {
+			return false;
+		}
+		
+		return value.equals(this.get(index));
+	}
+
+}
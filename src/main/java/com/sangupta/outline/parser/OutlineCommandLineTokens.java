@@ -0,0 +1,167 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+ 
+package com.sangupta.outline.parser;
+
+import com.sangupta.outline.exceptions.OutlineInvalidArgumentException;
+
+/**
+ * {@link OutlineTokens} read from a single command line, as typed in a shell.
+ * The line is scanned once, splitting tokens on unquoted whitespace and
+ * following the POSIX shell rules for quoting:
+ * 
+ * <ul>
+ * <li>a backslash outside quotes preserves the next character, and a
+ * backslash followed by a newline continues the line</li>
+ * <li>characters within single quotes are taken literally</li>
+ * <li>within double quotes a backslash only escapes <code>$</code>,
+ * <code>`</code>, <code>"</code>, <code>\</code> and a newline</li>
+ * <li>an unquoted <code>--</code> marks the end of options</li>
+ * </ul>
+ * 
+ * No shell expansion of any kind is performed. Tokens without any quotes or
+ * escapes are kept as ranges over the original line; only the other tokens are
+ * decoded into a shared buffer. A token becomes a {@link String} only when
+ * {@link #get(int)} is invoked.
+ * 
+ * The line must not be modified while the tokens are in use. Instances may
+ * be reused via {@link #reset(CharSequence)}, and are not thread-safe.
+ * 
+ * @author sangupta
+ *
+ */
+public final class OutlineCommandLineTokens extends OutlineShellTokens {
+	
+	/**
+	 * The line that was tokenized
+	 */
+	private CharSequence line;
+	
+	/**
+	 * The decoded characters of all tokens that had quotes or escapes
+	 */
+	private final StringBuilder decoded = new StringBuilder();
+	
+	/**
+	 * Tokenize the given command line.
+	 * 
+	 * @param line
+	 *            the command line
+	 * 
+	 * @throws OutlineInvalidArgumentException
+	 *             if the line has an unterminated quote
+	 */
+	public OutlineCommandLineTokens(CharSequence line) {
+		this.reset(line);
+	}
+	
+	/**
+	 * Tokenize the given command line, replacing the current tokens.
+	 * 
+	 * @param line
+	 *            the command line
+	 * 
+	 * @throws OutlineInvalidArgumentException
+	 *             if the line has an unterminated quote
+	 */
+	public void reset(CharSequence line) {
+		if(line == null) {
+			throw new IllegalArgumentException("Command line cannot be null");
+		}
+		
+		this.line = line;
+		this.decoded.setLength(0);
+		this.scan(0, line.length());
+	}
+	
+	@Override
+	int unit(int index) {
+		return this.line.charAt(index);
+	}
+	
+	@Override
+	int decodedUnit(int index) {
+		return this.decoded.charAt(index);
+	}
+	
+	@Override
+	int decodedLength() {
+		return this.decoded.length();
+	}
+	
+	@Override
+	void appendDecoded(int unit) {
+		this.decoded.append((char) unit);
+	}
+	
+	@Override
+	void appendDecoded(int start, int end) {
+		this.decoded.append(this.line, start, end);
+	}
+	
+	@Override
+	String substring(int start, int end) {
+		return this.line.subSequence(start, end).toString();
+	}
+	
+	/**
+	 * Return the characters the token at the given index lives in.
+	 * 
+	 * @param index
+	 * @return
+	 */
+	private CharSequence source(int index) {
+		return this.isQuoted(index) ? this.decoded : this.line;
+	}
+	
+	@Override
+	public String get(int index) {
+		return this.source(index).subSequence(this.start(index), this.end(index)).toString();
+	}
+	
+	@Override
+	public <T> T lookup(int index, OutlineLookupTable<T> table) {
+		return table.lookup(this.source(index), this.start(index), this.end(index));
+	}
+	
+	@Override
+	public boolean matches(int index, String value) {
+		if(value == null) {
+			return false;
+		}
+		
+		final CharSequence source = this.source(index);
+		final int start = this.start(index);
+		if(this.end(index) - start != value.length()) {
+			return false;
+		}
+		
+		for(int offset = 0; offset < value.length(); offset++) {
+			if(source.charAt(start + offset) != value.charAt(offset)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+
+}
@@ -0,0 +1,197 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Arguments streamed from an {@link InputStream} as a list of UTF-8 encoded
+ * items separated by a delimiter byte, the same as <code>xargs -0</code>
+ * reads NUL-delimited file names. Only a fixed read buffer and the bytes of the
+ * current item are held in memory, no matter how many items the stream has.
+ * 
+ * The stream can be read only once, and thus the instance can be iterated
+ * only once. The stream is closed when the last item has been read. Any
+ * {@link IOException} is rethrown as an {@link IllegalStateException}.
+ * 
+ * @author sangupta
+ *
+ */
+public final class OutlineDelimitedArguments implements Iterable<String> {
+	
+	/**
+	 * The delimiter used by <code>find -print0</code> and <code>xargs -0</code>
+	 */
+	public static final byte NUL = 0;
+	
+	private final InputStream stream;
+	
+	private final byte delimiter;
+	
+	private boolean iterated;
+	
+	public OutlineDelimitedArguments(InputStream stream) {
+		this(stream, NUL);
+	}
+	
+	public OutlineDelimitedArguments(InputStream stream, byte delimiter) {
+		if(stream == null) {
+			throw new IllegalArgumentException("Input stream cannot be null");
+		}
+		
+		this.stream = stream;
+		this.delimiter = delimiter;
+	}
+	
+	@Override
+	public Iterator<String> iterator() {
+		if(this.iterated) {
+			throw new IllegalStateException("Delimited arguments can be iterated only once");
+		}
+		
+		this.iterated = true;
+		return new DelimitedIterator();
+	}
+	
+	/**
+	 * Reads one item ahead of the caller, so that {@link #hasNext()} knows if
+	 * there is another item.
+	 */
+	private final class DelimitedIterator implements Iterator<String> {
+		
+		private final byte[] buffer = new byte[8192];
+		
+		private int position;
+		
+		private int limit;
+		
+		private boolean eof;
+		
+		/**
+		 * The bytes of the current item, when it spans more than one read
+		 */
+		private byte[] item = new byte[64];
+		
+		private String next;
+		
+		@Override
+		public boolean hasNext() {
+			if(this.next == null && !this.eof) {
+				this.next = this.readItem();
+			}
+			
+			return this.next != null;
+		}
+		
+		@Override
+		public String next() {
+			if(!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			
+			String value = this.next;
+			this.next = null;
+			return value;
+		}
+		
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+		
+		/**
+		 * Read the next item from the stream, or <code>null</code> when no item
+		 * remains. A trailing delimiter does not produce an empty item.
+		 * 
+		 * @return
+		 */
+		private String readItem() {
+			int length = 0;
+			while(true) {
+				if(this.position == this.limit && !this.fill()) {
+					if(length == 0) {
+						return null;
+					}
+					
+					return new String(this.item, 0, length, StandardCharsets.UTF_8);
+				}
+				
+				final byte[] buffer = this.buffer;
+				final int start = this.position;
+				int index = start;
+				while(index < this.limit && buffer[index] != delimiter) {
+					index++;
+				}
+				
+				this.position = index;
+				if(index < this.limit) {
+					// skip the delimiter
+					this.position++;
+					if(length == 0) {
+						return new String(buffer, start, index - start, StandardCharsets.UTF_8);
+					}
+				}
+				
+				// the item continues in the next read
+				final int count = index - start;
+				if(length + count > this.item.length) {
+					this.item = Arrays.copyOf(this.item, Math.max(this.item.length << 1, length + count));
+				}
+				
+				System.arraycopy(buffer, start, this.item, length, count);
+				length += count;
+				
+				if(this.position > index) {
+					return new String(this.item, 0, length, StandardCharsets.UTF_8);
+				}
+			}
+		}
+		
+		private boolean fill() {
+			try {
+				int read;
+				do {
+					read = stream.read(this.buffer);
+				} while(read == 0);
+				
+				if(read < 0) {
+					this.eof = true;
+					stream.close();
+					return false;
+				}
+				
+				this.position = 0;
+				this.limit = read;
+				return true;
+			} catch(IOException e) {
+				throw new IllegalStateException("Unable to read arguments from stream", e);
+			}
+		}
+		
+	}
+	
+}
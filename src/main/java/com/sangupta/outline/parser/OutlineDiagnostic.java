@@ -0,0 +1,158 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.parser;
+
+import java.util.Arrays;
+
+/**
+ * A problem found with the command line while parsing or binding it, recorded
+ * in the {@link OutlineParseResult} instead of being thrown, so that the
+ * caller can report it in any way it likes. Invalid values are always recorded,
+ * and fail a parse that is not collecting once the command has been bound; all
+ * other problems are recorded instead of being thrown only when the result is
+ * collecting diagnostics, see {@link OutlineParseResult#isCollecting()}.
+ * 
+ * @author sangupta
+ *
+ */
+public final class OutlineDiagnostic {
+	
+	/**
+	 * The kind of problem found
+	 */
+	public static enum Kind {
+		
+		/**
+		 * A value that is not one of the values the option or argument accepts
+		 */
+		INVALID_VALUE,
+		
+		/**
+		 * A value that does not meet the <code>@Constraint</code> of the option
+		 * or argument
+		 */
+		CONSTRAINT_VIOLATION,
+		
+		/**
+		 * A required option, argument or command that is not given
+		 */
+		MISSING_REQUIRED,
+		
+		/**
+		 * An option that is not followed by as many values as its arity
+		 */
+		MISSING_VALUE,
+		
+		/**
+		 * A token where a command was expected that is not a known command
+		 */
+		UNKNOWN_COMMAND,
+		
+		/**
+		 * An argument that no field of the command takes
+		 */
+		UNKNOWN_ARGUMENT,
+		
+		/**
+		 * A token that cannot be read, such as one with an unterminated quote or
+		 * a response file that cannot be read
+		 */
+		INVALID_ARGUMENT
+		
+	}
+	
+	public final Kind kind;
+	
+	/**
+	 * The name of the option, or of the field for an argument, if any
+	 */
+	public final String name;
+	
+	/**
+	 * The value that is in error, if any
+	 */
+	public final String value;
+	
+	/**
+	 * The index of the token in error, <code>-1</code> if none
+	 */
+	public final int index;
+	
+	/**
+	 * The values that would have been accepted, if known
+	 */
+	public final String[] allowedValues;
+	
+	/**
+	 * What is wrong with the value, if more than it not being accepted
+	 */
+	public final String message;
+	
+	public OutlineDiagnostic(Kind kind, String name, String value, int index, String[] allowedValues) {
+		this(kind, name, value, index, allowedValues, null);
+	}
+	
+	public OutlineDiagnostic(Kind kind, String name, String value, int index, String[] allowedValues, String message) {
+		this.kind = kind;
+		this.name = name;
+		this.value = value;
+		this.index = index;
+		this.allowedValues = allowedValues;
+		this.message = message;
+	}
+	
+	@Override
+	public String toString() {
+		switch(this.kind) {
+			case MISSING_REQUIRED:
+				return "Missing required " + this.name;
+			
+			case MISSING_VALUE:
+				return "Missing value for " + this.name;
+			
+			case UNKNOWN_COMMAND:
+				return "Unknown command '" + this.value + "'";
+			
+			case UNKNOWN_ARGUMENT:
+				return "Unexpected argument '" + this.value + "'";
+			
+			case INVALID_ARGUMENT:
+				return "Invalid argument '" + this.value + "'";
+			
+			default:
+				break;
+		}
+		
+		StringBuilder builder = new StringBuilder();
+		builder.append("Invalid value '").append(this.value).append("' for ").append(this.name);
+		if(this.message != null) {
+			builder.append(": ").append(this.message);
+		}
+		
+		if(this.allowedValues != null && this.allowedValues.length > 0) {
+			builder.append(", allowed values are: ").append(Arrays.toString(this.allowedValues));
+		}
+		
+		return builder.toString();
+	}
+
+}
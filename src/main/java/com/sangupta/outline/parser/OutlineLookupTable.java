@@ -0,0 +1,468 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+ 
+package com.sangupta.outline.parser;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable character trie that maps tokens to values. The table is built
+ * once from a {@link Map} and is then used to resolve a token in a single pass
+ * over its characters - no hash code is computed, and a miss is usually
+ * detected on the first few characters, or even before reading any character
+ * when the token length is out of range.
+ * 
+ * The trie is stored in flat arrays: the outgoing edges of each node are
+ * stored contiguously and sorted by character, so that each step is a binary
+ * search over a small range of a <code>char[]</code>.
+ * 
+ * A table may ignore the case of the tokens, and may match any prefix of a
+ * token that is unique within the table. Both are decided when the table is
+ * built, so that a lookup still takes a single pass.
+ * 
+ * Instances are safe to be shared across threads.
+ * 
+ * @author sangupta
+ *
+ * @param <T>
+ *            the type of value stored against each token
+ */
+public final class OutlineLookupTable<T> {
+	
+	/**
+	 * An empty table that never matches any token
+	 */
+	private static final OutlineLookupTable<Object> EMPTY = new OutlineLookupTable<>(null);
+	
+	/**
+	 * For node <code>i</code> the edges are stored at indices
+	 * <code>firstEdge[i]</code> (inclusive) to <code>firstEdge[i + 1]</code>
+	 * (exclusive) in {@link #edgeChars} and {@link #edgeTargets}
+	 */
+	private final int[] firstEdge;
+	
+	/**
+	 * The character on each edge
+	 */
+	private final char[] edgeChars;
+	
+	/**
+	 * The node each edge leads to
+	 */
+	private final int[] edgeTargets;
+	
+	/**
+	 * The value stored at each node, <code>null</code> if no token ends at the
+	 * node
+	 */
+	private final Object[] values;
+	
+	/**
+	 * The values that can be reached from each node, if there is exactly one,
+	 * <code>null</code> otherwise; <code>null</code> unless prefixes match
+	 */
+	private final Object[] prefixValues;
+	
+	/**
+	 * Whether the case of the characters is ignored
+	 */
+	private final boolean ignoreCase;
+	
+	/**
+	 * The length of the shortest token that can match
+	 */
+	private final int minLength;
+	
+	/**
+	 * The length of the longest token in the table
+	 */
+	private final int maxLength;
+	
+	/**
+	 * The number of tokens in the table
+	 */
+	private final int size;
+	
+	/**
+	 * Build a new table from the given map. Entries with a <code>null</code>
+	 * key or value are ignored.
+	 * 
+	 * @param map
+	 *            the map to build the table from, may be <code>null</code>
+	 */
+	public OutlineLookupTable(Map<String, ? extends T> map) {
+		this(map, false, false);
+	}
+	
+	/**
+	 * Build a new table from the given map. Entries with a <code>null</code>
+	 * key or value are ignored.
+	 * 
+	 * @param map
+	 *            the map to build the table from, may be <code>null</code>
+	 * 
+	 * @param ignoreCase
+	 *            whether tokens match keys that differ only in case; keys
+	 *            that are then equal are stored only once
+	 * 
+	 * @param prefix
+	 *            whether a token that matches no key also matches the only
+	 *            key it is a prefix of, if there is exactly one
+	 */
+	public OutlineLookupTable(Map<String, ? extends T> map, boolean ignoreCase, boolean prefix) {
+		this.ignoreCase = ignoreCase;
+		
+		Node root = new Node();
+		int nodes = 1;
+		int min = Integer.MAX_VALUE;
+		int max = 0;
+		int count = 0;
+		
+		if(map != null) {
+			for(Map.Entry<String, ? extends T> entry : map.entrySet()) {
+				String key = entry.getKey();
+				if(key == null || entry.getValue() == null) {
+					continue;
+				}
+				
+				Node node = root;
+				for(int index = 0; index < key.length(); index++) {
+					Character c = ignoreCase ? Character.toLowerCase(key.charAt(index)) : key.charAt(index);
+					Node child = node.children.get(c);
+					if(child == null) {
+						child = new Node();
+						node.children.put(c, child);
+						nodes++;
+					}
+					
+					node = child;
+				}
+				
+				node.value = entry.getValue();
+				min = Math.min(min, key.length());
+				max = Math.max(max, key.length());
+				count++;
+			}
+		}
+		
+		// flatten the tree breadth-first so that the edges of each node are contiguous
+		this.firstEdge = new int[nodes + 1];
+		this.edgeChars = new char[nodes - 1];
+		this.edgeTargets = new int[nodes - 1];
+		this.values = new Object[nodes];
+		
+		List<Node> queue = new ArrayList<>(nodes);
+		queue.add(root);
+		int edge = 0;
+		for(int index = 0; index < queue.size(); index++) {
+			Node node = queue.get(index);
+			this.values[index] = node.value;
+			this.firstEdge[index] = edge;
+			
+			for(Map.Entry<Character, Node> child : node.children.entrySet()) {
+				this.edgeChars[edge] = child.getKey();
+				this.edgeTargets[edge] = queue.size();
+				queue.add(child.getValue());
+				edge++;
+			}
+		}
+		this.firstEdge[nodes] = edge;
+		
+		this.prefixValues = prefix ? this.prefixValues(nodes) : null;
+		this.minLength = count == 0 || prefix ? 1 : min;
+		this.maxLength = count == 0 ? 0 : max;
+		this.size = count;
+	}
+	
+	/**
+	 * Find the value that can be reached from each node if there is only one.
+	 * Children are always stored after their parent, and thus the nodes are
+	 * visited bottom-up in reverse order.
+	 * 
+	 * @param nodes
+	 *            the number of nodes
+	 * 
+	 * @return the unique value of each node
+	 */
+	private Object[] prefixValues(int nodes) {
+		Object[] prefixValues = new Object[nodes];
+		int[] counts = new int[nodes];
+		for(int node = nodes - 1; node >= 0; node--) {
+			if(this.values[node] != null) {
+				counts[node] = 1;
+				prefixValues[node] = this.values[node];
+			}
+			
+			for(int edge = this.firstEdge[node]; edge < this.firstEdge[node + 1]; edge++) {
+				final int child = this.edgeTargets[edge];
+				counts[node] += counts[child];
+				prefixValues[node] = prefixValues[child];
+			}
+			
+			if(counts[node] != 1) {
+				prefixValues[node] = null;
+			}
+		}
+		
+		return prefixValues;
+	}
+	
+	/**
+	 * Return an empty table.
+	 * 
+	 * @return the shared empty table
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> OutlineLookupTable<T> empty() {
+		return (OutlineLookupTable<T>) EMPTY;
+	}
+	
+	/**
+	 * Find the value stored against the given token.
+	 * 
+	 * @param token
+	 *            the token to look up, may be <code>null</code>
+	 * 
+	 * @return the value if found, <code>null</code> otherwise
+	 */
+	public T lookup(CharSequence token) {
+		if(token == null) {
+			return null;
+		}
+		
+		return this.lookup(token, 0, token.length());
+	}
+	
+	/**
+	 * Find the value stored against the characters of the given sequence
+	 * between <code>start</code> (inclusive) and <code>end</code> (exclusive).
+	 * 
+	 * @param sequence
+	 *            the sequence to read the token from
+	 * 
+	 * @param start
+	 *            the index of the first character of the token
+	 * 
+	 * @param end
+	 *            the index after the last character of the token
+	 * 
+	 * @return the value if found, <code>null</code> otherwise
+	 */
+	@SuppressWarnings("unchecked")
+	public T lookup(CharSequence sequence, int start, int end) {
+		final int length = end - start;
+		if(length < this.minLength || length > this.maxLength) {
+			return null;
+		}
+		
+		int node = 0;
+		for(int index = start; index < end; index++) {
+			node = this.next(node, sequence.charAt(index));
+			if(node < 0) {
+				return null;
+			}
+		}
+		
+		return (T) this.value(node);
+	}
+	
+	/**
+	 * Find the value stored against the UTF-8 encoded token in the given buffer
+	 * between <code>start</code> (inclusive) and <code>end</code> (exclusive).
+	 * The bytes are decoded while walking the table, and the position and limit
+	 * of the buffer are not changed. A malformed UTF-8 sequence never matches,
+	 * including overlong forms and encoded surrogates, which are decoded as
+	 * replacement characters elsewhere.
+	 * 
+	 * @param bytes
+	 *            the buffer to read the token from
+	 * 
+	 * @param start
+	 *            the index of the first byte of the token
+	 * 
+	 * @param end
+	 *            the index after the last byte of the token
+	 * 
+	 * @return the value if found, <code>null</code> otherwise
+	 */
+	@SuppressWarnings("unchecked")
+	public T lookup(ByteBuffer bytes, int start, int end) {
+		// each char takes between one and three bytes
+		final int length = end - start;
+		if(length < this.minLength || (length + 2) / 3 > this.maxLength) {
+			return null;
+		}
+		
+		int node = 0;
+		int index = start;
+		while(index < end) {
+			int b = bytes.get(index++);
+			if(b >= 0) {
+				node = this.next(node, (char) b);
+			} else {
+				// a multi-byte sequence, that must use the shortest form
+				int extra;
+				int codePoint;
+				int minCodePoint;
+				if((b & 0xE0) == 0xC0) {
+					extra = 1;
+					codePoint = b & 0x1F;
+					minCodePoint = 0x80;
+				} else if((b & 0xF0) == 0xE0) {
+					extra = 2;
+					codePoint = b & 0x0F;
+					minCodePoint = 0x800;
+				} else if((b & 0xF8) == 0xF0) {
+					extra = 3;
+					codePoint = b & 0x07;
+					minCodePoint = Character.MIN_SUPPLEMENTARY_CODE_POINT;
+				} else {
+					return null;
+				}
+				
+				if(index + extra > end) {
+					return null;
+				}
+				
+				for(int count = 0; count < extra; count++) {
+					int next = bytes.get(index++);
+					if((next & 0xC0) != 0x80) {
+						return null;
+					}
+					
+					codePoint = (codePoint << 6) | (next & 0x3F);
+				}
+				
+				if(codePoint < minCodePoint || codePoint > Character.MAX_CODE_POINT) {
+					return null;
+				}
+				
+				if(codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+					return null;
+				}
+				
+				if(codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+					node = this.next(node, (char) codePoint);
+				} else {
+					node = this.next(node, Character.highSurrogate(codePoint));
+					if(node >= 0) {
+						node = this.next(node, Character.lowSurrogate(codePoint));
+					}
+				}
+			}
+			
+			if(node < 0) {
+				return null;
+			}
+		}
+		
+		return (T) this.value(node);
+	}
+	
+	/**
+	 * Return the value of the token that ends at the given node.
+	 * 
+	 * @param node
+	 * @return the value, <code>null</code> if none
+	 */
+	private Object value(int node) {
+		final Object value = this.values[node];
+		if(value != null || this.prefixValues == null) {
+			return value;
+		}
+		
+		return this.prefixValues[node];
+	}
+	
+	/**
+	 * Follow the edge with the given character from the given node.
+	 * 
+	 * @param node
+	 *            the node to start from
+	 * 
+	 * @param c
+	 *            the character on the edge
+	 * 
+	 * @return the node the edge leads to, or <code>-1</code> if there is no
+	 *         such edge
+	 */
+	private int next(int node, char c) {
+		if(this.ignoreCase) {
+			c = Character.toLowerCase(c);
+		}
+		
+		int edge = Arrays.binarySearch(this.edgeChars, this.firstEdge[node], this.firstEdge[node + 1], c);
+		if(edge < 0) {
+			return -1;
+		}
+		
+		return this.edgeTargets[edge];
+	}
+	
+	/**
+	 * Check if the given token is present in this table.
+	 * 
+	 * @param token
+	 *            the token to look for
+	 * 
+	 * @return <code>true</code> if present, <code>false</code> otherwise
+	 */
+	public boolean contains(CharSequence token) {
+		return this.lookup(token) != null;
+	}
+	
+	/**
+	 * Return the number of tokens in this table.
+	 * 
+	 * @return the number of tokens
+	 */
+	public int size() {
+		return this.size;
+	}
+	
+	/**
+	 * Check if the table is empty.
+	 * 
+	 * @return <code>true</code> if there are no tokens in this table
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+	
+	/**
+	 * A node in the trie that is used while building the table
+	 * 
+	 */
+	private static final class Node {
+		
+		final Map<Character, Node> children = new TreeMap<>();
+		
+		Object value;
+		
+	}
+
+}
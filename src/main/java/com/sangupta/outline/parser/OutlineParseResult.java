@@ -21,25 +21,676 @@
  
 package com.sangupta.outline.parser;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import com.sangupta.jerry.ds.SimpleMultiMap;
+import com.sangupta.outline.OutlineMetadata;
+import com.sangupta.outline.annotations.OptionType;
+import com.sangupta.outline.model.OptionDescriptor;
 
+/**
+ * The result of parsing the command line arguments. Option values and
+ * arguments are not copied: each value is stored as the index of the token in
+ * the original arguments array, and option values are slotted by the id of the
+ * option they belong to.
+ * 
+ * A result may be reused across parse invocations via {@link #reset(OutlineTokens)},
+ * in which case no objects are allocated as long as the new arguments are no
+ * longer than any seen before.
+ * 
+ * @author sangupta
+ *
+ */
 public class OutlineParseResult {
     
+	private static final OutlineTokens NO_ARGS = new OutlineArrayTokens(new String[0]);
+	
     public String group;
     
     public String command;
     
     public boolean helpRequested;
     
-    public final SimpleMultiMap<String, String> globalOptions = new SimpleMultiMap<>();
+    /**
+     * The metadata against which the arguments are parsed
+     */
+    private final OutlineMetadata metadata;
+    
+    /**
+     * The original command line arguments
+     */
+    private OutlineTokens args = NO_ARGS;
+    
+    /**
+	 * Open-addressed table of the option ids that have values, each stored as
+	 * <code>id + 1</code> so that <code>0</code> marks an empty slot. The table
+	 * is sized from the number of arguments rather than the number of options,
+	 * as only a handful of options are present in any one command line.
+	 */
+    private int[] slotIds;
+    
+    /**
+     * The number of values for the option in each slot
+     */
+    private int[] slotCounts;
+    
+    /**
+     * The first value for the option in each slot, an index into {@link #valueArgs}
+     */
+    private int[] slotFirst;
+    
+    /**
+     * The last value for the option in each slot, an index into {@link #valueArgs}
+     */
+    private int[] slotLast;
+    
+    /**
+     * The index in {@link #args} of each value that has been read
+     */
+    private int[] valueArgs;
+    
+    /**
+     * The number of characters to skip in the token of each value that has
+     * been read, for values that are attached to the option name as in
+     * <code>-Dkey=value</code>
+     */
+    private int[] valueOffsets;
+    
+    /**
+     * The next value of the same option for each value that has been read,
+     * <code>-1</code> if none
+     */
+    private int[] nextValue;
+    
+    /**
+     * The number of values read so far
+     */
+    private int values;
+    
+    /**
+     * The index in {@link #args} from where the command arguments start
+     */
+    private int argumentsStart;
+    
+    /**
+     * The problems found with the arguments, created when the first one is found
+     */
+    private List<OutlineDiagnostic> diagnostics;
+    
+    /**
+     * Whether problems are recorded as diagnostics rather than thrown, kept
+     * across resets
+     */
+    private boolean collecting;
+    
+    /**
+     * The command instance, or help command, the arguments were bound to
+     */
+    private Object instance;
+    
+    public OutlineParseResult(OutlineMetadata metadata) {
+    	this.metadata = metadata;
+    	this.allocate(8);
+    }
+    
+    public OutlineParseResult(OutlineMetadata metadata, String[] args) {
+    	this(metadata);
+    	this.reset(args);
+    }
+    
+    /**
+	 * Clear this result so that it can be filled in for the given arguments.
+	 * 
+	 * @param args
+	 *            the arguments that will be parsed, must not be
+	 *            <code>null</code>
+	 */
+    public void reset(String[] args) {
+    	this.reset(new OutlineArrayTokens(args));
+    }
+    
+    /**
+	 * Clear this result so that it can be filled in for the given arguments.
+	 * 
+	 * @param args
+	 *            the arguments that will be parsed, must not be
+	 *            <code>null</code>
+	 */
+    public void reset(OutlineTokens args) {
+    	final int size = args.size();
+    	if(size > this.valueArgs.length) {
+    		this.allocate(Math.max(size, this.valueArgs.length * 2));
+    	} else if(this.values > 0) {
+    		Arrays.fill(this.slotIds, 0);
+    	}
+    	
+    	this.group = null;
+    	this.command = null;
+    	this.helpRequested = false;
+    	this.args = args;
+    	this.values = 0;
+    	this.argumentsStart = size;
+    	this.instance = null;
+    	
+    	if(this.diagnostics != null) {
+    		this.diagnostics.clear();
+    	}
+    }
+    
+    private void allocate(int capacity) {
+    	// keep the table at most half full
+    	int slots = Integer.highestOneBit(Math.max(capacity, 4) * 2 - 1) << 1;
+    	
+    	this.slotIds = new int[slots];
+    	this.slotCounts = new int[slots];
+    	this.slotFirst = new int[slots];
+    	this.slotLast = new int[slots];
+    	
+    	this.valueArgs = new int[capacity];
+    	this.valueOffsets = new int[capacity];
+    	this.nextValue = new int[capacity];
+    }
+    
+    /**
+     * Return the slot for the given option id - either the one holding the id,
+     * or the empty one where it would be stored.
+     * 
+     * @param id
+     * @return
+     */
+    private int slot(int id) {
+    	final int[] slotIds = this.slotIds;
+    	final int mask = slotIds.length - 1;
+    	
+    	int slot = (id * 0x9E3779B9) >>> 16 & mask;
+    	while(slotIds[slot] != 0 && slotIds[slot] != id + 1) {
+    		slot = (slot + 1) & mask;
+    	}
+    	
+    	return slot;
+    }
+    
+    /**
+     * Record the token at the given index as a value of the given option.
+     * 
+     * @param option
+     *            the option the value belongs to
+     * 
+     * @param index
+     *            the index of the value in the arguments
+     */
+    void addOptionValue(OptionDescriptor option, int index) {
+    	this.addOptionValue(option, index, 0);
+    }
+    
+    /**
+     * Record the token at the given index, less its first characters, as a
+     * value of the given option.
+     * 
+     * @param option
+     *            the option the value belongs to
+     * 
+     * @param index
+     *            the index of the value in the arguments
+     * 
+     * @param offset
+     *            the number of characters to skip in the token
+     */
+    void addOptionValue(OptionDescriptor option, int index, int offset) {
+    	final int slot = this.slot(option.id);
+    	final int value = this.values++;
+    	
+    	this.valueArgs[value] = index;
+    	this.valueOffsets[value] = offset;
+    	this.nextValue[value] = -1;
+    	
+    	if(this.slotIds[slot] == 0) {
+    		this.slotIds[slot] = option.id + 1;
+    		this.slotCounts[slot] = 0;
+    		this.slotFirst[slot] = value;
+    	} else {
+    		this.nextValue[this.slotLast[slot]] = value;
+    	}
+    	
+    	this.slotLast[slot] = value;
+    	this.slotCounts[slot]++;
+    }
+    
+    /**
+     * Mark all tokens from the given index onwards as command arguments.
+     * 
+     * @param index
+     *            the index of the first argument
+     */
+    void setArgumentsStart(int index) {
+    	this.argumentsStart = index;
+    }
+    
+    /**
+     * Return the number of values read for the option with the given id.
+     * 
+     * @param id
+     *            the option id
+     * 
+     * @return the number of values
+     */
+    public int getOptionValueCount(int id) {
+    	final int slot = this.slot(id);
+    	if(this.slotIds[slot] == 0) {
+    		return 0;
+    	}
+    	
+    	return this.slotCounts[slot];
+    }
+    
+    /**
+     * Return the value at the given position for the option with the given id.
+     * 
+     * @param id
+     *            the option id
+     * 
+     * @param position
+     *            the position of the value, starting at <code>0</code>
+     * 
+     * @return the value
+     */
+    public String getOptionValue(int id, int position) {
+    	return this.getValue(this.cursor(id, position));
+    }
+    
+    /**
+     * Return the index in {@link #getTokens()} of the value at the given
+     * position for the option with the given id.
+     * 
+     * @param id
+     *            the option id
+     * 
+     * @param position
+     *            the position of the value, starting at <code>0</code>
+     * 
+     * @return the index of the token holding the value
+     */
+    public int getOptionValueIndex(int id, int position) {
+    	return this.valueArgs[this.cursor(id, position)];
+    }
+    
+    private int cursor(int id, int position) {
+    	final int slot = this.slot(id);
+    	final int count = this.slotIds[slot] == 0 ? 0 : this.slotCounts[slot];
+    	if(position < 0 || position >= count) {
+    		throw new IndexOutOfBoundsException("Position: " + position + ", values: " + count);
+    	}
+    	
+    	int value = this.slotFirst[slot];
+    	for(int index = 0; index < position; index++) {
+    		value = this.nextValue[value];
+    	}
+    	
+    	return value;
+    }
+    
+    /**
+     * Return a cursor to the first value of the option with the given id. The
+     * values are walked in order via {@link #nextOptionValue(int)}, which unlike
+     * {@link #getOptionValueIndex(int, int)} takes constant time per value:
+     * 
+     * <pre>
+     * for(int cursor = result.firstOptionValue(id); cursor &gt;= 0; cursor = result.nextOptionValue(cursor)) {
+     *     int index = result.getValueTokenIndex(cursor);
+     * }
+     * </pre>
+     * 
+     * @param id
+     *            the option id
+     * 
+     * @return the cursor, <code>-1</code> if the option has no values
+     */
+    public int firstOptionValue(int id) {
+    	final int slot = this.slot(id);
+    	if(this.slotIds[slot] == 0) {
+    		return -1;
+    	}
+    	
+    	return this.slotFirst[slot];
+    }
+    
+    /**
+     * Return the cursor to the value after the one at the given cursor.
+     * 
+     * @param cursor
+     *            the cursor of a value
+     * 
+     * @return the cursor of the next value, <code>-1</code> if there is none
+     */
+    public int nextOptionValue(int cursor) {
+    	return this.nextValue[cursor];
+    }
+    
+    /**
+     * Return the index in {@link #getTokens()} of the value at the given cursor.
+     * 
+     * @param cursor
+     *            the cursor of a value
+     * 
+     * @return the index of the token holding the value
+     */
+    public int getValueTokenIndex(int cursor) {
+    	return this.valueArgs[cursor];
+    }
+    
+    /**
+     * Return the number of characters to skip in the token of the value at the
+     * given cursor. This is non-zero only for values that are attached to the
+     * name of the option, such as the <code>key=value</code> of
+     * <code>-Dkey=value</code>.
+     * 
+     * @param cursor
+     *            the cursor of a value
+     * 
+     * @return the offset of the value within its token
+     */
+    public int getValueOffset(int cursor) {
+    	return this.valueOffsets[cursor];
+    }
+    
+    /**
+     * Return the value at the given cursor.
+     * 
+     * @param cursor
+     *            the cursor of a value
+     * 
+     * @return the value
+     */
+    public String getValue(int cursor) {
+    	final String token = this.args.get(this.valueArgs[cursor]);
+    	final int offset = this.valueOffsets[cursor];
+    	return offset == 0 ? token : token.substring(offset);
+    }
+    
+    /**
+     * Return all values for the option with the given id. The returned list is
+     * a read-only view over the original arguments.
+     * 
+     * @param id
+     *            the option id
+     * 
+     * @return the values, never <code>null</code>
+     */
+    public List<String> getOptionValues(final int id) {
+    	final int count = this.getOptionValueCount(id);
+    	if(count == 0) {
+    		return Collections.emptyList();
+    	}
+    	
+    	return new AbstractList<String>() {
+			
+			@Override
+			public String get(int index) {
+				return getOptionValue(id, index);
+			}
+
+			@Override
+			public int size() {
+				return count;
+			}
+			
+			@Override
+			public Iterator<String> iterator() {
+				// walk the values in order, as get(int) walks from the first value
+				return new Iterator<String>() {
+					
+					private int cursor = firstOptionValue(id);
+					
+					@Override
+					public boolean hasNext() {
+						return this.cursor >= 0;
+					}
+					
+					@Override
+					public String next() {
+						if(this.cursor < 0) {
+							throw new NoSuchElementException();
+						}
+						
+						String value = getValue(this.cursor);
+						this.cursor = nextValue[this.cursor];
+						return value;
+					}
+					
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+					
+				};
+			}
+			
+		};
+    }
+    
+    /**
+     * Return the number of command arguments.
+     * 
+     * @return the number of arguments
+     */
+    public int getArgumentCount() {
+    	return this.args.size() - this.argumentsStart;
+    }
+    
+    /**
+     * Return the command argument at the given position.
+     * 
+     * @param position
+     *            the position of the argument, starting at <code>0</code>
+     * 
+     * @return the argument
+     */
+    public String getArgument(int position) {
+    	return this.args.get(this.getArgumentIndex(position));
+    }
+    
+    /**
+     * Return the index in {@link #getTokens()} of the command argument at the
+     * given position.
+     * 
+     * @param position
+     *            the position of the argument, starting at <code>0</code>
+     * 
+     * @return the index of the token holding the argument
+     */
+    public int getArgumentIndex(int position) {
+    	if(position < 0 || position >= this.getArgumentCount()) {
+    		throw new IndexOutOfBoundsException("Position: " + position + ", arguments: " + this.getArgumentCount());
+    	}
+    	
+    	return this.argumentsStart + position;
+    }
+    
+    /**
+     * Return the tokens that were parsed.
+     * 
+     * @return the tokens
+     */
+    public OutlineTokens getTokens() {
+    	return this.args;
+    }
+    
+    /**
+     * Return the command arguments starting at the given position. The returned
+     * list is a read-only view over the original arguments.
+     * 
+     * @param position
+     *            the position of the first argument to return
+     * 
+     * @return the arguments, never <code>null</code>
+     */
+    public List<String> getArguments(int position) {
+    	final OutlineTokens args = this.args;
+    	final int start = Math.min(this.argumentsStart + position, args.size());
+    	final int count = args.size() - start;
+    	if(count == 0) {
+    		return Collections.emptyList();
+    	}
+    	
+    	return new AbstractList<String>() {
+    		
+    		@Override
+    		public String get(int index) {
+    			if(index < 0 || index >= count) {
+    				throw new IndexOutOfBoundsException("Index: " + index + ", size: " + count);
+    			}
+    			
+    			return args.get(start + index);
+    		}
+    		
+    		@Override
+    		public int size() {
+    			return count;
+    		}
+    		
+		};
+    }
+    
+    /**
+     * Return all command arguments.
+     * 
+     * @return the arguments, never <code>null</code>
+     */
+    public List<String> getArguments() {
+    	return this.getArguments(0);
+    }
+    
+    /**
+     * Record a problem found with the arguments.
+     * 
+     * @param diagnostic
+     *            the problem found
+     */
+    public void addDiagnostic(OutlineDiagnostic diagnostic) {
+    	if(this.diagnostics == null) {
+    		this.diagnostics = new ArrayList<>();
+    	}
+    	
+    	this.diagnostics.add(diagnostic);
+    }
+    
+    /**
+     * Return all problems found with the arguments.
+     * 
+     * @return the problems found, never <code>null</code>
+     */
+    public List<OutlineDiagnostic> getDiagnostics() {
+    	if(this.diagnostics == null) {
+    		return Collections.emptyList();
+    	}
+    	
+    	return Collections.unmodifiableList(this.diagnostics);
+    }
+    
+    /**
+     * Check if any problem was found with the arguments.
+     * 
+     * @return <code>true</code> if there is at least one problem
+     */
+    public boolean hasDiagnostics() {
+    	return this.diagnostics != null && !this.diagnostics.isEmpty();
+    }
+    
+    /**
+     * Check if problems with the arguments are recorded as diagnostics, so
+     * that all of them are found in a single pass, rather than the first one
+     * being thrown as an exception.
+     * 
+     * @return <code>true</code> if collecting diagnostics
+     */
+    public boolean isCollecting() {
+    	return this.collecting;
+    }
+    
+    /**
+     * Set whether problems with the arguments are recorded as diagnostics
+     * rather than thrown. The setting is kept when this result is reset.
+     * 
+     * @param collecting
+     */
+    public void setCollecting(boolean collecting) {
+    	this.collecting = collecting;
+    }
+    
+    /**
+     * Return the command instance, or the help command, that the arguments
+     * were bound to.
+     * 
+     * @return the instance, <code>null</code> if none
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getInstance() {
+    	return (T) this.instance;
+    }
+    
+    /**
+     * Set the command instance the arguments were bound to.
+     * 
+     * @param instance
+     */
+    public void setInstance(Object instance) {
+    	this.instance = instance;
+    }
+    
+    /**
+     * Return the values of all global options that were read, keyed by option
+     * name. The map is built on every call.
+     * 
+     * @return the global option values
+     */
+    public SimpleMultiMap<String, String> getGlobalOptions() {
+    	return this.getOptions(OptionType.GLOBAL);
+    }
     
-    public final SimpleMultiMap<String, String> groupOptions = new SimpleMultiMap<>();
+    /**
+     * Return the values of all group options that were read, keyed by option
+     * name. The map is built on every call.
+     * 
+     * @return the group option values
+     */
+    public SimpleMultiMap<String, String> getGroupOptions() {
+    	return this.getOptions(OptionType.GROUP);
+    }
     
-    public final SimpleMultiMap<String, String> commandOptions = new SimpleMultiMap<>();
+    /**
+     * Return the values of all command options that were read, keyed by option
+     * name. The map is built on every call.
+     * 
+     * @return the command option values
+     */
+    public SimpleMultiMap<String, String> getCommandOptions() {
+    	return this.getOptions(OptionType.COMMAND);
+    }
     
-    public final List<String> arguments = new ArrayList<>();
+    private SimpleMultiMap<String, String> getOptions(OptionType type) {
+    	SimpleMultiMap<String, String> map = new SimpleMultiMap<>();
+    	for(int slot = 0; slot < this.slotIds.length; slot++) {
+    		if(this.slotIds[slot] == 0) {
+    			continue;
+    		}
+    		
+    		OptionDescriptor option = this.metadata.getOption(this.slotIds[slot] - 1);
+    		if(option.type != type) {
+    			continue;
+    		}
+    		
+    		for(int value = this.slotFirst[slot]; value != -1; value = this.nextValue[value]) {
+    			map.put(option.name, this.getValue(value));
+    		}
+    	}
+    	
+    	return map;
+    }
 
 }
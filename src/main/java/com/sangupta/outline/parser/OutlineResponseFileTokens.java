@@ -0,0 +1,324 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sangupta.outline.exceptions.OutlineInvalidArgumentException;
+
+/**
+ * {@link OutlineTokens} where every <code>@path</code> token is replaced by the
+ * tokens read from the response file at the given path, the same as
+ * <code>javac</code> and <code>gcc</code> do. Response files are split with the
+ * same quoting rules as {@link OutlineCommandLineTokens}, and may refer to other
+ * response files in turn. Relative paths are resolved against the working
+ * directory.
+ * 
+ * Response files are memory-mapped and tokenized in place by an
+ * {@link OutlineByteBufferTokens}, so that a response file with millions of
+ * entries is kept as ranges over the mapped file rather than as
+ * {@link String}s on the heap. The tokens are kept as a list of segments, each a
+ * range of the original tokens or of the tokens of a response file.
+ * 
+ * The files must not be modified while the tokens are in use. Instances may be
+ * reused via {@link #reset(OutlineTokens)}, and are not thread-safe.
+ * 
+ * @author sangupta
+ *
+ */
+public final class OutlineResponseFileTokens extends OutlineTokens {
+	
+	/**
+	 * The maximum depth to which response files may refer to other response
+	 * files
+	 */
+	public static final int MAX_DEPTH = 16;
+	
+	/**
+	 * The tokens each segment is read from
+	 */
+	private OutlineTokens[] sources = new OutlineTokens[4];
+	
+	/**
+	 * The index of the first token of each segment within its source
+	 */
+	private int[] sourceStarts = new int[4];
+	
+	/**
+	 * The index of the first token of each segment within these tokens
+	 */
+	private int[] offsets = new int[4];
+	
+	/**
+	 * The number of segments
+	 */
+	private int segments;
+	
+	/**
+	 * The segment of the last token that was read, as tokens are mostly read in
+	 * order
+	 */
+	private int lastSegment;
+	
+	/**
+	 * The number of tokens
+	 */
+	private int size;
+	
+	/**
+	 * The response files that are being expanded, to detect cycles
+	 */
+	private final List<Path> expanding = new ArrayList<>();
+	
+	/**
+	 * Expand all response files referred to by the given tokens.
+	 * 
+	 * @param tokens
+	 *            the tokens to expand
+	 * 
+	 * @throws OutlineInvalidArgumentException
+	 *             if a response file cannot be read, refers to itself, or is
+	 *             nested too deep
+	 */
+	public OutlineResponseFileTokens(OutlineTokens tokens) {
+		this.reset(tokens);
+	}
+	
+	/**
+	 * Expand all response files referred to by the given tokens, replacing the
+	 * current tokens.
+	 * 
+	 * @param tokens
+	 *            the tokens to expand
+	 * 
+	 * @throws OutlineInvalidArgumentException
+	 *             if a response file cannot be read, refers to itself, or is
+	 *             nested too deep
+	 */
+	public void reset(OutlineTokens tokens) {
+		if(tokens == null) {
+			throw new IllegalArgumentException("Tokens cannot be null");
+		}
+		
+		for(int index = 0; index < this.segments; index++) {
+			this.sources[index] = null;
+		}
+		
+		this.segments = 0;
+		this.lastSegment = 0;
+		this.size = 0;
+		this.expanding.clear();
+		
+		this.expand(tokens);
+	}
+	
+	/**
+	 * Check if any of the given tokens refers to a response file.
+	 * 
+	 * @param tokens
+	 *            the tokens to check
+	 * 
+	 * @return <code>true</code> if at least one token refers to a response file
+	 */
+	public static boolean hasResponseFiles(OutlineTokens tokens) {
+		final int size = tokens.size();
+		for(int index = 0; index < size; index++) {
+			if(tokens.isResponseFile(index)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private void expand(OutlineTokens tokens) {
+		final int size = tokens.size();
+		int start = 0;
+		for(int index = 0; index < size; index++) {
+			if(!tokens.isResponseFile(index)) {
+				continue;
+			}
+			
+			this.addSegment(tokens, start, index);
+			this.expandFile(tokens, index);
+			start = index + 1;
+		}
+		
+		this.addSegment(tokens, start, size);
+	}
+	
+	private void expandFile(OutlineTokens tokens, int index) {
+		final String token = tokens.get(index);
+		
+		Path path;
+		try {
+			path = Paths.get(token.substring(1)).toAbsolutePath().normalize();
+		} catch(RuntimeException e) {
+			throw invalid(token, e);
+		}
+		
+		if(this.expanding.size() >= MAX_DEPTH || this.expanding.contains(path)) {
+			throw invalid(token, null);
+		}
+		
+		ByteBuffer bytes;
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final long length = channel.size();
+			if(length > Integer.MAX_VALUE) {
+				throw invalid(token, null);
+			}
+			
+			if(length == 0) {
+				return;
+			}
+			
+			// the mapping stays valid after the channel is closed
+			bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+		} catch(IOException e) {
+			throw invalid(token, e);
+		}
+		
+		this.expanding.add(path);
+		this.expand(new OutlineByteBufferTokens(bytes));
+		this.expanding.remove(this.expanding.size() - 1);
+	}
+	
+	private OutlineInvalidArgumentException invalid(String token, Exception cause) {
+		return new OutlineInvalidArgumentException(token, this.size, cause);
+	}
+	
+	private void addSegment(OutlineTokens tokens, int start, int end) {
+		if(start == end) {
+			return;
+		}
+		
+		if(this.segments == this.sources.length) {
+			int capacity = this.segments * 2;
+			
+			OutlineTokens[] sources = new OutlineTokens[capacity];
+			int[] sourceStarts = new int[capacity];
+			int[] offsets = new int[capacity];
+			System.arraycopy(this.sources, 0, sources, 0, this.segments);
+			System.arraycopy(this.sourceStarts, 0, sourceStarts, 0, this.segments);
+			System.arraycopy(this.offsets, 0, offsets, 0, this.segments);
+			
+			this.sources = sources;
+			this.sourceStarts = sourceStarts;
+			this.offsets = offsets;
+		}
+		
+		this.sources[this.segments] = tokens;
+		this.sourceStarts[this.segments] = start;
+		this.offsets[this.segments] = this.size;
+		this.segments++;
+		this.size += end - start;
+	}
+	
+	/**
+	 * Return the segment the token at the given index lives in.
+	 * 
+	 * @param index
+	 * @return
+	 */
+	private int segment(int index) {
+		if(index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", tokens: " + this.size);
+		}
+		
+		int segment = this.lastSegment;
+		if(index >= this.offsets[segment] && (segment + 1 == this.segments || index < this.offsets[segment + 1])) {
+			return segment;
+		}
+		
+		// binary search for the last segment that starts at or before the index
+		int low = 0;
+		int high = this.segments - 1;
+		while(low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if(this.offsets[middle] <= index) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		
+		this.lastSegment = low;
+		return low;
+	}
+	
+	@Override
+	public int size() {
+		return this.size;
+	}
+	
+	@Override
+	public String get(int index) {
+		final int segment = this.segment(index);
+		return this.sources[segment].get(this.sourceStarts[segment] + index - this.offsets[segment]);
+	}
+	
+	@Override
+	public <T> T lookup(int index, OutlineLookupTable<T> table) {
+		final int segment = this.segment(index);
+		return this.sources[segment].lookup(this.sourceStarts[segment] + index - this.offsets[segment], table);
+	}
+	
+	@Override
+	public long parseLong(int index) {
+		final int segment = this.segment(index);
+		return this.sources[segment].parseLong(this.sourceStarts[segment] + index - this.offsets[segment]);
+	}
+	
+	@Override
+	public boolean isSeparator(int index) {
+		final int segment = this.segment(index);
+		return this.sources[segment].isSeparator(this.sourceStarts[segment] + index - this.offsets[segment]);
+	}
+	
+	@Override
+	public boolean matches(int index, String value) {
+		final int segment = this.segment(index);
+		return this.sources[segment].matches(this.sourceStarts[segment] + index - this.offsets[segment], value);
+	}
+	
+	@Override
+	public boolean startsWith(int index, String prefix) {
+		final int segment = this.segment(index);
+		return this.sources[segment].startsWith(this.sourceStarts[segment] + index - this.offsets[segment], prefix);
+	}
+	
+	/**
+	 * All response files have already been expanded.
+	 */
+	@Override
+	public boolean isResponseFile(int index) {
+		return false;
+	}
+	
+}
@@ -0,0 +1,453 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+ 
+package com.sangupta.outline.parser;
+
+import com.sangupta.outline.exceptions.OutlineInvalidArgumentException;
+
+/**
+ * {@link OutlineTokens} split from a single command line with the quoting
+ * rules of a POSIX shell, as described in {@link OutlineCommandLineTokens}.
+ * The line is scanned once as a sequence of code units - the characters of a
+ * {@link CharSequence}, or the bytes of a UTF-8 encoded buffer. Quoting only
+ * involves ASCII characters, which are a single code unit in both, so that
+ * the same scanner serves either kind of line without decoding it.
+ * 
+ * Tokens without any quotes or escapes are kept as ranges over the line; the
+ * other tokens are unescaped into a decoded buffer that is owned by the
+ * subclass. The checks that only involve ASCII characters, such as
+ * {@link #isSeparator(int)} or {@link #parseLong(int)}, are done here on the
+ * code units in place.
+ * 
+ * @author sangupta
+ *
+ */
+abstract class OutlineShellTokens extends OutlineTokens {
+	
+	/**
+	 * The start of each token, in the line or in the decoded buffer
+	 */
+	private int[] starts = new int[8];
+	
+	/**
+	 * The end of each token, in the line or in the decoded buffer
+	 */
+	private int[] ends = new int[8];
+	
+	/**
+	 * Whether each token had quotes or escapes, and thus lives in the decoded
+	 * buffer
+	 */
+	private boolean[] quoted = new boolean[8];
+	
+	/**
+	 * The number of tokens
+	 */
+	private int size;
+	
+	/**
+	 * Return the code unit of the line at the given index.
+	 * 
+	 * @param index
+	 * @return the character or byte
+	 */
+	abstract int unit(int index);
+	
+	/**
+	 * Return the code unit of the decoded buffer at the given index.
+	 * 
+	 * @param index
+	 * @return the character or byte
+	 */
+	abstract int decodedUnit(int index);
+	
+	/**
+	 * Return the number of code units in the decoded buffer.
+	 * 
+	 * @return
+	 */
+	abstract int decodedLength();
+	
+	/**
+	 * Append the given code unit to the decoded buffer.
+	 * 
+	 * @param unit
+	 */
+	abstract void appendDecoded(int unit);
+	
+	/**
+	 * Append the given range of the line to the decoded buffer.
+	 * 
+	 * @param start
+	 * @param end
+	 */
+	abstract void appendDecoded(int start, int end);
+	
+	/**
+	 * Return the given range of the line as a {@link String}.
+	 * 
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	abstract String substring(int start, int end);
+	
+	/**
+	 * Split the line between the given indices into tokens, replacing the
+	 * current tokens. The decoded buffer must have been cleared.
+	 * 
+	 * @param start
+	 *            the index of the first code unit of the line
+	 * 
+	 * @param end
+	 *            the index after the last code unit of the line
+	 * 
+	 * @throws OutlineInvalidArgumentException
+	 *             if the line has an unterminated quote
+	 */
+	final void scan(final int start, final int end) {
+		this.size = 0;
+		
+		int index = start;
+		while(index < end) {
+			int c = this.unit(index);
+			if(isWhitespace(c)) {
+				index++;
+				continue;
+			}
+			
+			if(c == '\\' && index + 1 < end && this.unit(index + 1) == '\n') {
+				// line continuation between tokens
+				index += 2;
+				continue;
+			}
+			
+			index = this.readToken(index, end);
+		}
+	}
+	
+	/**
+	 * Read a single token starting at the given index.
+	 * 
+	 * @param start
+	 * @param end
+	 * @return the index after the token
+	 */
+	private int readToken(final int start, final int end) {
+		// the token is kept as a range over the line until the first quote or escape
+		boolean quoted = false;
+		int decodedStart = -1;
+		
+		int index = start;
+		while(index < end) {
+			int c = this.unit(index);
+			if(isWhitespace(c)) {
+				break;
+			}
+			
+			if(c != '\\' && c != '\'' && c != '"') {
+				if(quoted) {
+					this.appendDecoded(c);
+				}
+				
+				index++;
+				continue;
+			}
+			
+			if(!quoted) {
+				quoted = true;
+				decodedStart = this.decodedLength();
+				this.appendDecoded(start, index);
+			}
+			
+			switch(c) {
+				case '\\':
+					index++;
+					if(index == end) {
+						// a trailing backslash is kept as is
+						this.appendDecoded('\\');
+					} else if(this.unit(index) != '\n') {
+						this.appendDecoded(this.unit(index));
+						index++;
+					} else {
+						// line continuation
+						index++;
+					}
+					break;
+					
+				case '\'':
+					int close = this.indexOf('\'', index + 1, end);
+					if(close < 0) {
+						throw new OutlineInvalidArgumentException(this.substring(index, end), this.size);
+					}
+					
+					this.appendDecoded(index + 1, close);
+					index = close + 1;
+					break;
+					
+				default:
+					index = this.readDoubleQuoted(index + 1, end);
+					break;
+			}
+		}
+		
+		if(quoted) {
+			this.add(decodedStart, this.decodedLength(), true);
+		} else {
+			this.add(start, index, false);
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * Read the code units within double quotes into the decoded buffer.
+	 * 
+	 * @param start
+	 *            the index after the opening quote
+	 * @param end
+	 * @return the index after the closing quote
+	 */
+	private int readDoubleQuoted(final int start, final int end) {
+		int index = start;
+		while(index < end) {
+			int c = this.unit(index);
+			if(c == '"') {
+				return index + 1;
+			}
+			
+			if(c == '\\' && index + 1 < end) {
+				int next = this.unit(index + 1);
+				switch(next) {
+					case '$':
+					case '`':
+					case '"':
+					case '\\':
+						this.appendDecoded(next);
+						index += 2;
+						continue;
+						
+					case '\n':
+						// line continuation
+						index += 2;
+						continue;
+						
+					default:
+						break;
+				}
+			}
+			
+			this.appendDecoded(c);
+			index++;
+		}
+		
+		throw new OutlineInvalidArgumentException(this.substring(start - 1, end), this.size);
+	}
+	
+	private void add(int start, int end, boolean quoted) {
+		if(this.size == this.starts.length) {
+			int capacity = this.size * 2;
+			
+			int[] starts = new int[capacity];
+			int[] ends = new int[capacity];
+			boolean[] flags = new boolean[capacity];
+			System.arraycopy(this.starts, 0, starts, 0, this.size);
+			System.arraycopy(this.ends, 0, ends, 0, this.size);
+			System.arraycopy(this.quoted, 0, flags, 0, this.size);
+			
+			this.starts = starts;
+			this.ends = ends;
+			this.quoted = flags;
+		}
+		
+		this.starts[this.size] = start;
+		this.ends[this.size] = end;
+		this.quoted[this.size] = quoted;
+		this.size++;
+	}
+	
+	private static boolean isWhitespace(int c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+	}
+	
+	private int indexOf(int c, int start, int end) {
+		for(int index = start; index < end; index++) {
+			if(this.unit(index) == c) {
+				return index;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Check if the token at the given index had quotes or escapes, and thus
+	 * lives in the decoded buffer.
+	 * 
+	 * @param index
+	 * @return
+	 * 
+	 * @throws IndexOutOfBoundsException
+	 *             if there is no token at the given index
+	 */
+	final boolean isQuoted(int index) {
+		if(index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", tokens: " + this.size);
+		}
+		
+		return this.quoted[index];
+	}
+	
+	/**
+	 * Return the start of the token at the given index, in the line or in the
+	 * decoded buffer as per {@link #isQuoted(int)}.
+	 * 
+	 * @param index
+	 * @return
+	 */
+	final int start(int index) {
+		return this.starts[index];
+	}
+	
+	/**
+	 * Return the end of the token at the given index, in the line or in the
+	 * decoded buffer as per {@link #isQuoted(int)}.
+	 * 
+	 * @param index
+	 * @return
+	 */
+	final int end(int index) {
+		return this.ends[index];
+	}
+	
+	/**
+	 * Return the code unit at the given index within the line or the decoded
+	 * buffer.
+	 * 
+	 * @param quoted
+	 *            whether to read from the decoded buffer
+	 * 
+	 * @param index
+	 * @return
+	 */
+	private int unit(boolean quoted, int index) {
+		return quoted ? this.decodedUnit(index) : this.unit(index);
+	}
+	
+	@Override
+	public int size() {
+		return this.size;
+	}
+	
+	@Override
+	public long parseLong(int index) {
+		final boolean quoted = this.isQuoted(index);
+		final int end = this.ends[index];
+		
+		int position = this.starts[index];
+		boolean negative = false;
+		if(position < end && (this.unit(quoted, position) == '-' || this.unit(quoted, position) == '+')) {
+			negative = this.unit(quoted, position) == '-';
+			position++;
+		}
+		
+		if(position == end) {
+			throw new NumberFormatException("For input string: \"" + this.get(index) + "\"");
+		}
+		
+		// accumulate negatively to cover Long.MIN_VALUE
+		final long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long value = 0;
+		for(; position < end; position++) {
+			int digit = this.unit(quoted, position) - '0';
+			if(digit < 0 || digit > 9) {
+				// let the JDK deal with non-ASCII digits and report errors
+				return Long.parseLong(this.get(index));
+			}
+			
+			if(value < limit / 10 || value * 10 < limit + digit) {
+				throw new NumberFormatException("For input string: \"" + this.get(index) + "\"");
+			}
+			
+			value = value * 10 - digit;
+		}
+		
+		return negative ? value : -value;
+	}
+	
+	@Override
+	public boolean parseBoolean(int index) {
+		final boolean quoted = this.isQuoted(index);
+		final int start = this.starts[index];
+		if(this.ends[index] - start != 4) {
+			return false;
+		}
+		
+		// setting the 0x20 bit lower-cases ASCII letters only
+		return (this.unit(quoted, start) | 0x20) == 't' && (this.unit(quoted, start + 1) | 0x20) == 'r'
+				&& (this.unit(quoted, start + 2) | 0x20) == 'u' && (this.unit(quoted, start + 3) | 0x20) == 'e';
+	}
+	
+	@Override
+	public boolean isSeparator(int index) {
+		if(this.isQuoted(index)) {
+			return false;
+		}
+		
+		final int start = this.starts[index];
+		return this.ends[index] - start == 2 && this.unit(start) == '-' && this.unit(start + 1) == '-';
+	}
+	
+	/**
+	 * ASCII prefixes are compared code unit by code unit, without converting
+	 * the token to a {@link String}.
+	 */
+	@Override
+	public boolean startsWith(int index, String prefix) {
+		final boolean quoted = this.isQuoted(index);
+		final int start = this.starts[index];
+		if(this.ends[index] - start <= prefix.length()) {
+			return false;
+		}
+		
+		for(int offset = 0; offset < prefix.length(); offset++) {
+			final char c = prefix.charAt(offset);
+			if(c >= 0x80) {
+				return super.startsWith(index, prefix);
+			}
+			
+			if(this.unit(quoted, start + offset) != c) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public boolean isResponseFile(int index) {
+		final boolean quoted = this.isQuoted(index);
+		final int start = this.starts[index];
+		return this.ends[index] - start > 1 && this.unit(quoted, start) == '@';
+	}
+
+}
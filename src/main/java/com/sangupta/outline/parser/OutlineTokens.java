@@ -0,0 +1,160 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+ 
+package com.sangupta.outline.parser;
+
+/**
+ * A sequence of command line tokens that is read by the
+ * {@link OutlineArgumentParser}. Tokens are looked up against the compiled
+ * lookup tables in place, and are turned into {@link String}s only when their
+ * value is needed - for example when bound to a field.
+ * 
+ * @author sangupta
+ *
+ */
+public abstract class OutlineTokens {
+	
+	/**
+	 * Return the number of tokens.
+	 * 
+	 * @return the number of tokens
+	 */
+	public abstract int size();
+	
+	/**
+	 * Return the token at the given index as a {@link String}.
+	 * 
+	 * @param index
+	 *            the index of the token
+	 * 
+	 * @return the token
+	 */
+	public abstract String get(int index);
+	
+	/**
+	 * Look up the token at the given index in the given table, without
+	 * converting the token to a {@link String}.
+	 * 
+	 * @param index
+	 *            the index of the token
+	 * 
+	 * @param table
+	 *            the table to look the token up in
+	 * 
+	 * @return the value from the table, <code>null</code> if the token is not
+	 *         present in the table
+	 */
+	public abstract <T> T lookup(int index, OutlineLookupTable<T> table);
+	
+	/**
+	 * Parse the token at the given index as a decimal <code>long</code>, with
+	 * the same rules as {@link Long#parseLong(String)}. Implementations may
+	 * parse the token in place, without converting it to a {@link String}.
+	 * 
+	 * @param index
+	 *            the index of the token
+	 * 
+	 * @return the parsed value
+	 * 
+	 * @throws NumberFormatException
+	 *             if the token is not a valid <code>long</code>
+	 */
+	public long parseLong(int index) {
+		return Long.parseLong(this.get(index));
+	}
+	
+	/**
+	 * Parse the token at the given index as a <code>boolean</code>, with the
+	 * same rules as {@link Boolean#parseBoolean(String)}. Implementations may
+	 * parse the token in place, without converting it to a {@link String}.
+	 * 
+	 * @param index
+	 *            the index of the token
+	 * 
+	 * @return <code>true</code> if the token equals <code>true</code>, ignoring
+	 *         case
+	 */
+	public boolean parseBoolean(int index) {
+		return Boolean.parseBoolean(this.get(index));
+	}
+	
+	/**
+	 * Check if the token at the given index is the <code>--</code> separator
+	 * that marks the end of options.
+	 * 
+	 * @param index
+	 *            the index of the token
+	 * 
+	 * @return <code>true</code> if the token is the separator
+	 */
+	public boolean isSeparator(int index) {
+		return "--".equals(this.get(index));
+	}
+	
+	/**
+	 * Check if the token at the given index equals the given value.
+	 * 
+	 * @param index
+	 *            the index of the token
+	 * 
+	 * @param value
+	 *            the value to compare with
+	 * 
+	 * @return <code>true</code> if the token equals the value
+	 */
+	public boolean matches(int index, String value) {
+		return value != null && value.equals(this.get(index));
+	}
+	
+	/**
+	 * Check if the token at the given index starts with the given prefix, and
+	 * is longer than it.
+	 * 
+	 * @param index
+	 *            the index of the token
+	 * 
+	 * @param prefix
+	 *            the prefix to look for
+	 * 
+	 * @return <code>true</code> if the token starts with the prefix and has
+	 *         more characters
+	 */
+	public boolean startsWith(int index, String prefix) {
+		final String token = this.get(index);
+		return token.length() > prefix.length() && token.startsWith(prefix);
+	}
+	
+	/**
+	 * Check if the token at the given index refers to a response file, that is
+	 * if it is an <code>@</code> followed by the path of the file.
+	 * 
+	 * @param index
+	 *            the index of the token
+	 * 
+	 * @return <code>true</code> if the token refers to a response file
+	 */
+	public boolean isResponseFile(int index) {
+		final String token = this.get(index);
+		return token.length() > 1 && token.charAt(0) == '@';
+	}
+
+}
@@ -0,0 +1,357 @@
+/**
+ *
+ * outline - command line argument parser
+ * Copyright (c) 2015-2016, Sandeep Gupta
+ * 
+ * http://sangupta.com/projects/outline
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+ 
+package com.sangupta.outline.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A {@link Map} that keeps its keys and values in two plain arrays in the order
+ * they were put, indexed by an open-addressed table of <code>int</code>s. No
+ * object is allocated per entry, and a map created with the expected number of
+ * entries never resizes - which makes it a good fit for the maps that are bound
+ * from repeated options such as <code>-Dkey=value</code>, whose size is known
+ * before the first entry is put.
+ * 
+ * Iteration follows the insertion order. Removing an entry takes time linear in
+ * the size of the map, as the map is not meant to be modified much once it is
+ * filled. <code>null</code> keys and values are permitted. The map is not
+ * thread-safe.
+ * 
+ * @author sangupta
+ *
+ * @param <K>
+ *            the type of keys
+ * 
+ * @param <V>
+ *            the type of values
+ */
+public final class OutlineCompactMap<K, V> extends AbstractMap<K, V> {
+	
+	/**
+	 * The keys, in the order they were put
+	 */
+	private Object[] keys;
+	
+	/**
+	 * The value of each key
+	 */
+	private Object[] values;
+	
+	/**
+	 * The index of each entry plus one, <code>0</code> for an empty slot. The
+	 * table is kept at most half full.
+	 */
+	private int[] table;
+	
+	private int size;
+	
+	/**
+	 * Incremented on every structural change, to fail fast in iterators
+	 */
+	private int modifications;
+	
+	private Set<Map.Entry<K, V>> entrySet;
+	
+	public OutlineCompactMap() {
+		this(8);
+	}
+	
+	/**
+	 * Create a map that holds the given number of entries without resizing.
+	 * 
+	 * @param expectedSize
+	 *            the number of entries expected
+	 */
+	public OutlineCompactMap(int expectedSize) {
+		if(expectedSize < 0) {
+			throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+		}
+		
+		final int capacity = Math.max(expectedSize, 2);
+		this.keys = new Object[capacity];
+		this.values = new Object[capacity];
+		this.table = new int[tableSize(capacity)];
+	}
+	
+	private static int tableSize(int capacity) {
+		return Integer.highestOneBit(capacity * 2 - 1) << 1;
+	}
+	
+	private static int hash(Object key) {
+		if(key == null) {
+			return 0;
+		}
+		
+		final int hash = key.hashCode() * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+	
+	/**
+	 * Return the slot that holds the given key, or the empty slot where it
+	 * would be stored.
+	 * 
+	 * @param key
+	 * @return
+	 */
+	private int slot(Object key) {
+		final int[] table = this.table;
+		final int mask = table.length - 1;
+		
+		int slot = hash(key) & mask;
+		while(table[slot] != 0 && !Objects.equals(this.keys[table[slot] - 1], key)) {
+			slot = (slot + 1) & mask;
+		}
+		
+		return slot;
+	}
+	
+	@Override
+	public int size() {
+		return this.size;
+	}
+	
+	@Override
+	public boolean containsKey(Object key) {
+		return this.table[this.slot(key)] != 0;
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		final int entry = this.table[this.slot(key)];
+		return entry == 0 ? null : (V) this.values[entry - 1];
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public V put(K key, V value) {
+		final int slot = this.slot(key);
+		final int entry = this.table[slot];
+		if(entry != 0) {
+			final V previous = (V) this.values[entry - 1];
+			this.values[entry - 1] = value;
+			return previous;
+		}
+		
+		if(this.size == this.keys.length) {
+			this.grow();
+			this.table[this.slot(key)] = this.size + 1;
+		} else {
+			this.table[slot] = this.size + 1;
+		}
+		
+		this.keys[this.size] = key;
+		this.values[this.size] = value;
+		this.size++;
+		this.modifications++;
+		return null;
+	}
+	
+	@Override
+	public V remove(Object key) {
+		final int entry = this.table[this.slot(key)];
+		if(entry == 0) {
+			return null;
+		}
+		
+		return this.removeEntry(entry - 1);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private V removeEntry(int index) {
+		final V previous = (V) this.values[index];
+		final int moved = this.size - index - 1;
+		System.arraycopy(this.keys, index + 1, this.keys, index, moved);
+		System.arraycopy(this.values, index + 1, this.values, index, moved);
+		
+		this.size--;
+		this.keys[this.size] = null;
+		this.values[this.size] = null;
+		this.modifications++;
+		
+		// the indices of all later entries have changed
+		this.rebuildTable(this.table.length);
+		return previous;
+	}
+	
+	@Override
+	public void clear() {
+		Arrays.fill(this.keys, 0, this.size, null);
+		Arrays.fill(this.values, 0, this.size, null);
+		Arrays.fill(this.table, 0);
+		this.size = 0;
+		this.modifications++;
+	}
+	
+	private void grow() {
+		final int capacity = this.keys.length * 2;
+		this.keys = Arrays.copyOf(this.keys, capacity);
+		this.values = Arrays.copyOf(this.values, capacity);
+		this.rebuildTable(tableSize(capacity));
+	}
+	
+	private void rebuildTable(int length) {
+		if(this.table.length == length) {
+			Arrays.fill(this.table, 0);
+		} else {
+			this.table = new int[length];
+		}
+		
+		for(int index = 0; index < this.size; index++) {
+			this.table[this.slot(this.keys[index])] = index + 1;
+		}
+	}
+	
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		if(this.entrySet == null) {
+			this.entrySet = new EntrySet();
+		}
+		
+		return this.entrySet;
+	}
+	
+	private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+		
+		@Override
+		public int size() {
+			return size;
+		}
+		
+		@Override
+		public void clear() {
+			OutlineCompactMap.this.clear();
+		}
+		
+		@Override
+		public Iterator<Map.Entry<K, V>> iterator() {
+			return new Iterator<Map.Entry<K, V>>() {
+				
+				private int next;
+				
+				private int last = -1;
+				
+				private int expectedModifications = modifications;
+				
+				@Override
+				public boolean hasNext() {
+					return this.next < size;
+				}
+				
+				@Override
+				public Map.Entry<K, V> next() {
+					if(this.expectedModifications != modifications) {
+						throw new ConcurrentModificationException();
+					}
+					
+					if(this.next >= size) {
+						throw new NoSuchElementException();
+					}
+					
+					this.last = this.next++;
+					return new Entry(this.last);
+				}
+				
+				@Override
+				public void remove() {
+					if(this.last < 0) {
+						throw new IllegalStateException();
+					}
+					
+					if(this.expectedModifications != modifications) {
+						throw new ConcurrentModificationException();
+					}
+					
+					removeEntry(this.last);
+					this.next = this.last;
+					this.last = -1;
+					this.expectedModifications = modifications;
+				}
+				
+			};
+		}
+		
+	}
+	
+	/**
+	 * An entry that reads and writes through to the arrays of the map, created
+	 * only when iterating
+	 */
+	private final class Entry implements Map.Entry<K, V> {
+		
+		private final int index;
+		
+		Entry(int index) {
+			this.index = index;
+		}
+		
+		@Override
+		@SuppressWarnings("unchecked")
+		public K getKey() {
+			return (K) keys[this.index];
+		}
+		
+		@Override
+		@SuppressWarnings("unchecked")
+		public V getValue() {
+			return (V) values[this.index];
+		}
+		
+		@Override
+		@SuppressWarnings("unchecked")
+		public V setValue(V value) {
+			final V previous = (V) values[this.index];
+			values[this.index] = value;
+			return previous;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Map.Entry)) {
+				return false;
+			}
+			
+			Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+			return Objects.equals(this.getKey(), other.getKey()) && Objects.equals(this.getValue(), other.getValue());
+		}
+		
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(this.getKey()) ^ Objects.hashCode(this.getValue());
+		}
+		
+		@Override
+		public String toString() {
+			return this.getKey() + "=" + this.getValue();
+		}
+		
+	}
+	
+}
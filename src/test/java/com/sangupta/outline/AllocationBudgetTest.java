@@ -0,0 +1,160 @@
+package com.sangupta.outline;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sangupta.outline.annotations.Argument;
+import com.sangupta.outline.annotations.Arguments;
+import com.sangupta.outline.annotations.Command;
+import com.sangupta.outline.annotations.Option;
+import com.sangupta.outline.annotations.OptionType;
+
+/**
+ * Checks the bytes allocated per parse against a budget, for commands with
+ * options, with positional arguments and with variadic arguments. Parsing
+ * with a reused {@link OutlineParseContext} allocates little more than the
+ * command and its values, while {@link CompiledOutline#parse(String[])}
+ * allocates a new context as well.
+ * 
+ * Budgets are about twice what a 64-bit JVM allocates without compressed
+ * pointers, so that they hold on any JVM and before the parser is compiled,
+ * but still fail when a parse starts copying the arguments or boxing the
+ * values. Lower a budget when allocation goes down for good.
+ */
+public class AllocationBudgetTest {
+	
+	private static final int WARM_UP = 1000;
+	
+	private static final int PARSES = 5000;
+	
+	private static final String[] OPTIONS_LINE = { "-v", "2", "serve", "--host", "localhost", "--port", "8080", "--timeout", "30000", "--secure", "true" };
+	
+	private static final String[] ARGUMENTS_LINE = { "copy", "-n", "3", "source.txt", "target.txt" };
+	
+	private static final String[] VARIADIC_LINE = { "cat", "-n", "true", "one.txt", "two.txt", "three.txt", "four.txt", "five.txt", "six.txt", "seven.txt", "eight.txt" };
+	
+	private static final CompiledOutline OUTLINE = new Outline("tool").withCommands(ServeCommand.class, CopyCommand.class, CatCommand.class).withHelpOnIncorrectArguments(false).compile();
+	
+	public static abstract class GlobalCommand {
+		
+		@Option(name = "-v", type = OptionType.GLOBAL)
+		public int verbosity;
+		
+	}
+	
+	@Command(name = "serve")
+	public static class ServeCommand extends GlobalCommand {
+		
+		@Option(name = "--host")
+		public String host;
+		
+		@Option(name = "--port")
+		public int port;
+		
+		@Option(name = "--timeout")
+		public long timeout;
+		
+		@Option(name = "--secure")
+		public boolean secure;
+		
+	}
+	
+	@Command(name = "copy")
+	public static class CopyCommand extends GlobalCommand {
+		
+		@Option(name = "-n")
+		public int copies;
+		
+		@Argument(order = 0, required = true)
+		public String source;
+		
+		@Argument(order = 1, required = true)
+		public String target;
+		
+	}
+	
+	@Command(name = "cat")
+	public static class CatCommand extends GlobalCommand {
+		
+		@Option(name = "-n")
+		public boolean number;
+		
+		@Arguments
+		public List<String> files;
+		
+	}
+	
+	@BeforeClass
+	public static void warmUp() {
+		Assume.assumeTrue(OutlineAllocations.isSupported());
+		
+		OutlineParseContext context = OUTLINE.newParseContext();
+		for(int index = 0; index < WARM_UP; index++) {
+			context.parse(OPTIONS_LINE);
+			context.parse(ARGUMENTS_LINE);
+			context.parse(VARIADIC_LINE);
+			OUTLINE.parse(OPTIONS_LINE);
+		}
+	}
+	
+	@Test
+	public void testOptions() {
+		ServeCommand command = OUTLINE.parse(OPTIONS_LINE);
+		Assert.assertEquals(2, command.verbosity);
+		Assert.assertEquals("localhost", command.host);
+		Assert.assertEquals(8080, command.port);
+		Assert.assertEquals(30000, command.timeout);
+		Assert.assertTrue(command.secure);
+		
+		assertBudget("options", OPTIONS_LINE, 96, 3072);
+	}
+	
+	@Test
+	public void testArguments() {
+		CopyCommand command = OUTLINE.parse(ARGUMENTS_LINE);
+		Assert.assertEquals(3, command.copies);
+		Assert.assertEquals("source.txt", command.source);
+		Assert.assertEquals("target.txt", command.target);
+		
+		assertBudget("arguments", ARGUMENTS_LINE, 80, 1600);
+	}
+	
+	@Test
+	public void testVariadicArguments() {
+		CatCommand command = OUTLINE.parse(VARIADIC_LINE);
+		Assert.assertTrue(command.number);
+		Assert.assertEquals(8, command.files.size());
+		Assert.assertEquals("eight.txt", command.files.get(7));
+		
+		assertBudget("variadic arguments", VARIADIC_LINE, 400, 3584);
+	}
+	
+	/**
+	 * Assert the bytes allocated per parse, with a reused context and with a
+	 * new context for every parse.
+	 */
+	private static void assertBudget(String shape, String[] args, long contextBudget, long budget) {
+		final OutlineParseContext context = OUTLINE.newParseContext();
+		long start = OutlineAllocations.allocatedBytes();
+		for(int index = 0; index < PARSES; index++) {
+			context.parse(args);
+		}
+		
+		final long contextBytes = (OutlineAllocations.allocatedBytes() - start) / PARSES;
+		
+		start = OutlineAllocations.allocatedBytes();
+		for(int index = 0; index < PARSES; index++) {
+			OUTLINE.parse(args);
+		}
+		
+		final long bytes = (OutlineAllocations.allocatedBytes() - start) / PARSES;
+		
+		Assert.assertTrue("Parsing " + shape + " with a reused context allocates " + contextBytes + " bytes, over the budget of " + contextBudget, contextBytes <= contextBudget);
+		Assert.assertTrue("Parsing " + shape + " allocates " + bytes + " bytes, over the budget of " + budget, bytes <= budget);
+	}
+	
+}
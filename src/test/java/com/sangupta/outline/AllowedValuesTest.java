@@ -0,0 +1,154 @@
+package com.sangupta.outline;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sangupta.outline.annotations.Argument;
+import com.sangupta.outline.annotations.Arguments;
+import com.sangupta.outline.annotations.Command;
+import com.sangupta.outline.annotations.Option;
+import com.sangupta.outline.annotations.ValueMatch;
+import com.sangupta.outline.exceptions.OutlineInvalidArgumentException;
+import com.sangupta.outline.exceptions.OutlineInvalidConfigurationException;
+import com.sangupta.outline.help.OutlineHelp;
+import com.sangupta.outline.parser.OutlineDiagnostic;
+
+public class AllowedValuesTest {
+	
+	public static enum Color {
+		
+		RED, GREEN, BLUE, BLACK
+		
+	}
+	
+	@Command(name = "paint")
+	public static class PaintCommand {
+		
+		@Option(name = "-c")
+		public Color color;
+		
+		@Option(name = "-b", valueMatch = ValueMatch.PREFIX)
+		public Color background;
+		
+		@Option(name = "-f", allowedValues = { "png", "JPEG" }, valueMatch = ValueMatch.IGNORE_CASE)
+		public String format;
+		
+		@Option(name = "-s", allowedValues = { "small", "large" })
+		public List<String> sizes;
+		
+		@Option(name = "-p", allowedValues = { "RED", "BLUE" })
+		public Set<Color> palette;
+		
+		@Option(name = "-q", allowedValues = { "1", "2", "3" })
+		public int quality;
+		
+		@Argument(order = 0)
+		public Color border;
+		
+		@Arguments
+		public List<Color> layers;
+		
+	}
+	
+	@Command(name = "fill")
+	public static class FillCommand {
+		
+		@Option(name = "-c", allowedValues = { "PINK" })
+		public Color color;
+		
+	}
+	
+	@Test
+	public void testAllowedValues() {
+		CompiledOutline compiled = new Outline("draw").withCommand(PaintCommand.class).compile();
+		OutlineParseContext context = compiled.newParseContext();
+		
+		PaintCommand command = context.parseLine("paint -c GREEN -b bla -f jpeg -s small -s large -p RED -q 2 BLUE RED GREEN");
+		Assert.assertFalse(context.getResult().hasDiagnostics());
+		Assert.assertEquals(Color.GREEN, command.color);
+		Assert.assertEquals(Color.BLACK, command.background);
+		Assert.assertEquals("JPEG", command.format);
+		Assert.assertEquals(Arrays.asList("small", "large"), command.sizes);
+		Assert.assertEquals(EnumSet.of(Color.RED), command.palette);
+		Assert.assertEquals(2, command.quality);
+		Assert.assertEquals(Color.BLUE, command.border);
+		Assert.assertEquals(Arrays.asList(Color.RED, Color.GREEN), command.layers);
+	}
+	
+	@Test
+	public void testInvalidValues() {
+		CompiledOutline compiled = new Outline("draw").withCommand(PaintCommand.class).compile();
+		OutlineParseContext context = compiled.newParseContext();
+		
+		// invalid values are reported without an exception, and the fields are left as is
+		PaintCommand command = context.tryParseLine("paint -c green -b bl -f gif -s small -s huge -p GREEN -q 5 BLUE RED PINK").getInstance();
+		Assert.assertNull(command.color);
+		Assert.assertNull(command.background);
+		Assert.assertNull(command.format);
+		Assert.assertNull(command.sizes);
+		Assert.assertNull(command.palette);
+		Assert.assertEquals(0, command.quality);
+		Assert.assertEquals(Color.BLUE, command.border);
+		Assert.assertNull(command.layers);
+		
+		List<OutlineDiagnostic> diagnostics = context.getResult().getDiagnostics();
+		Assert.assertEquals(7, diagnostics.size());
+		
+		OutlineDiagnostic diagnostic = diagnostics.get(0);
+		Assert.assertEquals(OutlineDiagnostic.Kind.INVALID_VALUE, diagnostic.kind);
+		Assert.assertEquals("-c", diagnostic.name);
+		Assert.assertEquals("green", diagnostic.value);
+		Assert.assertEquals(2, diagnostic.index);
+		Assert.assertArrayEquals(new String[] { "RED", "GREEN", "BLUE", "BLACK" }, diagnostic.allowedValues);
+		
+		Assert.assertEquals("huge", diagnostics.get(3).value);
+		Assert.assertEquals("layers", diagnostics.get(6).name);
+		Assert.assertEquals("PINK", diagnostics.get(6).value);
+		
+		// the diagnostics are cleared on the next parse
+		context.parseLine("paint -c RED");
+		Assert.assertFalse(context.getResult().hasDiagnostics());
+	}
+	
+	@Test
+	public void testParseFailsOnInvalidValue() {
+		// help is shown for a value that is not allowed
+		Object help = new Outline("draw").withCommand(PaintCommand.class).parse(new String[] { "paint", "-f", "gif" });
+		Assert.assertTrue(help instanceof OutlineHelp);
+		
+		CompiledOutline compiled = new Outline("draw").withCommand(PaintCommand.class).withHelpOnIncorrectArguments(false).compile();
+		try {
+			compiled.parseLine("paint -f gif");
+			Assert.fail("Value that is not allowed must be thrown");
+		} catch(OutlineInvalidArgumentException e) {
+			Assert.assertEquals("gif", e.argument);
+			Assert.assertEquals(2, e.positionIndex);
+		}
+		
+		try {
+			compiled.parseLine("paint -c PINK");
+			Assert.fail("Name that is not a constant must be thrown");
+		} catch(OutlineInvalidArgumentException e) {
+			Assert.assertEquals("PINK", e.argument);
+		}
+		
+		try {
+			compiled.parseLine("paint BLUE RED PINK");
+			Assert.fail("Argument that is not a constant must be thrown");
+		} catch(OutlineInvalidArgumentException e) {
+			Assert.assertEquals("PINK", e.argument);
+			Assert.assertEquals(3, e.positionIndex);
+		}
+	}
+	
+	@Test(expected = OutlineInvalidConfigurationException.class)
+	public void testAllowedValueNotAConstant() {
+		new Outline("draw").withCommand(FillCommand.class).compile().parseLine("fill -c RED");
+	}
+	
+}
@@ -0,0 +1,151 @@
+package com.sangupta.outline;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sangupta.outline.annotations.Arguments;
+import com.sangupta.outline.annotations.Command;
+import com.sangupta.outline.annotations.Option;
+import com.sangupta.outline.exceptions.OutlineInvalidConfigurationException;
+
+public class CollectionBindingTest {
+	
+	public static enum Level {
+		
+		DEBUG, INFO, WARN;
+		
+	}
+	
+	@Command(name = "tail")
+	public static class TailCommand {
+		
+		@Option(name = "-p")
+		public List<Integer> ports;
+		
+		@Option(name = "-l")
+		public Set<Level> levels;
+		
+		@Option(name = "-q")
+		public Map<String, Long> quotas;
+		
+		@Option(name = "-t")
+		public SortedSet<String> tags;
+		
+		@Option(name = "-s")
+		public SortedMap<Integer, ? extends Long> sizes;
+		
+		@Option(name = "-h")
+		public List<String> hosts;
+		
+		@Option(name = "-r")
+		@SuppressWarnings("rawtypes")
+		public List raw;
+		
+		@Option(name = "-e")
+		public Level level;
+		
+		@Arguments
+		public Collection<Long> offsets;
+		
+	}
+	
+	@Command(name = "queue")
+	public static class QueueCommand {
+		
+		@Option(name = "-q")
+		public Deque<String> queue;
+		
+	}
+	
+	@Command(name = "cache")
+	public static class CacheCommand {
+		
+		@Option(name = "-c")
+		public ConcurrentMap<String, String> cache;
+		
+	}
+	
+	@Command(name = "watch")
+	public static class WatchCommand {
+		
+		@Option(name = "-w")
+		public Set<Thread> threads;
+		
+	}
+	
+	@Test
+	public void testGenericCollections() {
+		CompiledOutline compiled = new Outline("logs").withCommand(TailCommand.class).compile();
+		
+		TailCommand command = compiled.parseLine("tail -p 80 -p 443 -l WARN -l DEBUG -q alice=10 -q bob=20 -t b -t a -s 2=4 -h local -r x -e INFO 7 9");
+		Assert.assertEquals(Arrays.asList(80, 443), command.ports);
+		Assert.assertEquals(EnumSet.of(Level.DEBUG, Level.WARN), command.levels);
+		Assert.assertTrue(command.levels instanceof EnumSet);
+		
+		Map<String, Long> quotas = new LinkedHashMap<>();
+		quotas.put("alice", 10L);
+		quotas.put("bob", 20L);
+		Assert.assertEquals(quotas, command.quotas);
+		
+		Assert.assertEquals(new TreeSet<>(Arrays.asList("a", "b")), command.tags);
+		Assert.assertEquals(Long.valueOf(4), command.sizes.get(2));
+		Assert.assertEquals(Arrays.asList("local"), command.hosts);
+		Assert.assertEquals(Arrays.asList("x"), command.raw);
+		Assert.assertEquals(Level.INFO, command.level);
+		Assert.assertEquals(Arrays.asList(7L, 9L), command.offsets);
+	}
+	
+	@Test
+	public void testSingleValueCollections() {
+		CompiledOutline compiled = new Outline("logs").withCommand(TailCommand.class).compile();
+		
+		// a single value still makes a collection
+		TailCommand command = compiled.parse(new String[] { "tail", "-p", "8080", "-l", "INFO", "42" });
+		Assert.assertEquals(Arrays.asList(8080), command.ports);
+		Assert.assertEquals(EnumSet.of(Level.INFO), command.levels);
+		Assert.assertEquals(Arrays.asList(42L), command.offsets);
+		Assert.assertNull(command.hosts);
+	}
+	
+	@Test
+	public void testInvalidElements() {
+		CompiledOutline compiled = new Outline("logs").withCommand(TailCommand.class).compile();
+		
+		// values that do not convert leave the field as is
+		TailCommand command = compiled.newParseContext().tryParseLine("tail -p 80 -p x -l TRACE -q alice -e FATAL").getInstance();
+		Assert.assertNull(command.ports);
+		Assert.assertNull(command.levels);
+		Assert.assertNull(command.quotas);
+		Assert.assertNull(command.level);
+	}
+	
+	@Test
+	public void testUnsupportedCollections() {
+		assertRejected(QueueCommand.class, "queue -q a");
+		assertRejected(CacheCommand.class, "cache -c a=b");
+		assertRejected(WatchCommand.class, "watch -w main");
+	}
+	
+	private static void assertRejected(Class<?> commandClass, String line) {
+		try {
+			new Outline("tool").withCommand(commandClass).compile().newParseContext().parseLine(line);
+			Assert.fail("Field that cannot be bound must be rejected: " + commandClass.getSimpleName());
+		} catch(OutlineInvalidConfigurationException e) {
+			// expected
+		}
+	}
+	
+}
@@ -0,0 +1,178 @@
+package com.sangupta.outline;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sangupta.outline.OutlineTestSupport.AddCommand;
+import com.sangupta.outline.OutlineTestSupport.AllOptionCommand;
+import com.sangupta.outline.OutlineTestSupport.RemoteAddCommand;
+import com.sangupta.outline.help.OutlineHelp;
+
+/**
+ * Tests for parsing via a {@link CompiledOutline}.
+ * 
+ * @author sangupta
+ *
+ */
+public class CompiledOutlineTest {
+	
+	@Test
+	public void testReuse() {
+		CompiledOutline compiled = OutlineTestSupport.getOutline().compile();
+		
+		for(int index = 0; index < 3; index++) {
+			String[] args = ("-g1 op" + index + " remote -gr1 op4 remote-add -c1 op7 arg1 arg2").split(" ");
+			Object instance = compiled.parse(args);
+			
+			Assert.assertTrue(instance instanceof RemoteAddCommand);
+			RemoteAddCommand command = (RemoteAddCommand) instance;
+			Assert.assertEquals("op" + index, command.g1);
+			Assert.assertEquals("op4", command.gr1);
+			Assert.assertEquals("op7", command.c1);
+			Assert.assertEquals("arg1", command.a1);
+			Assert.assertEquals("arg2", command.a2);
+		}
+		
+		Object instance = compiled.parse(new String[] { "help" });
+		Assert.assertTrue(instance instanceof OutlineHelp);
+	}
+	
+	@Test
+	public void testUncompiledParseReusesCompiledForm() {
+		Outline outline = OutlineTestSupport.getOutline();
+		
+		Assert.assertTrue(outline.parse("remote remote-add arg1".split(" ")) instanceof RemoteAddCommand);
+		CompiledOutline compiled = outline.compiled();
+		Assert.assertTrue(outline.parseLine("remote remote-add arg1") instanceof RemoteAddCommand);
+		Assert.assertSame(compiled, outline.compiled());
+		
+		// changing the outline, or any of its groups, compiles it again
+		outline.withHelpKeyword("aide");
+		Assert.assertNotSame(compiled, outline.compiled());
+		Assert.assertTrue(outline.parse(new String[] { "aide" }) instanceof OutlineHelp);
+		
+		compiled = outline.compiled();
+		outline.withGroup("mygroup").withCommand(AddCommand.class);
+		Assert.assertNotSame(compiled, outline.compiled());
+		Assert.assertEquals(1, outline.compiled().getMetadata().commandGroups.getValues("mygroup").size());
+	}
+	
+	@Test
+	public void testParseLine() {
+		CompiledOutline compiled = OutlineTestSupport.getOutline().compile();
+		
+		RemoteAddCommand command = compiled.parseLine("-g1 'global one' remote remote-add -c1 \"op 7\" -- -file\\ name two three");
+		Assert.assertEquals("global one", command.g1);
+		Assert.assertEquals("op 7", command.c1);
+		Assert.assertEquals("-file name", command.a1);
+		Assert.assertEquals("two", command.a2);
+		Assert.assertArrayEquals(new String[] { "three" }, command.a3);
+	}
+	
+	@Test
+	public void testParseBytes() {
+		CompiledOutline compiled = OutlineTestSupport.getOutline().compile();
+		
+		ByteBuffer bytes = ByteBuffer.wrap("population-check -i 23 -l -123 -short 12 -b 30 -i2 46 -s 'hello w\u00f6rld' -d 2.5".getBytes(StandardCharsets.UTF_8));
+		AllOptionCommand command = compiled.parse(bytes);
+		Assert.assertEquals(23, command.integer);
+		Assert.assertEquals(-123, command.lng);
+		Assert.assertEquals(12, command.shrt);
+		Assert.assertEquals(30, command.bite);
+		Assert.assertEquals(Integer.valueOf(46), command.integer2);
+		Assert.assertEquals("hello w\u00f6rld", command.strng);
+		Assert.assertEquals(2.5, command.dbl, 0);
+		Assert.assertEquals(0, bytes.position());
+		
+		OutlineParseContext context = compiled.newParseContext();
+		bytes = ByteBuffer.allocateDirect(64);
+		bytes.put("-g1 op1 remote remote-add a1".getBytes(StandardCharsets.UTF_8)).flip();
+		RemoteAddCommand remote = context.parse(bytes);
+		Assert.assertEquals("op1", remote.g1);
+		Assert.assertEquals("a1", remote.a1);
+	}
+	
+	@Test
+	public void testParseContext() {
+		CompiledOutline compiled = OutlineTestSupport.getOutline().compile();
+		OutlineParseContext context = compiled.newParseContext();
+		
+		for(int index = 0; index < 3; index++) {
+			RemoteAddCommand command = context.parse(("-g1 op" + index + " remote remote-add arg" + index + " x y").split(" "));
+			Assert.assertEquals("op" + index, command.g1);
+			Assert.assertEquals("arg" + index, command.a1);
+			Assert.assertArrayEquals(new String[] { "y" }, command.a3);
+			
+			command = context.parseLine("remote remote-add -c1 'c " + index + "' line" + index);
+			Assert.assertNull(command.g1);
+			Assert.assertEquals("c " + index, command.c1);
+			Assert.assertEquals("line" + index, command.a1);
+		}
+		
+		Assert.assertTrue(context.parse(new String[] { "help" }) instanceof OutlineHelp);
+		Assert.assertTrue(context.getResult().helpRequested);
+		
+		context.reset();
+		Assert.assertFalse(context.getResult().helpRequested);
+		Assert.assertEquals(0, context.getResult().getArgumentCount());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseContextOfOtherOutline() {
+		OutlineParseContext context = OutlineTestSupport.getOutline().compile().newParseContext();
+		OutlineTestSupport.getOutline().compile().parse(context, new String[] { "add" });
+	}
+	
+	@Test
+	public void testChangesAfterCompile() {
+		Outline outline = new Outline("git").withCommands(AddCommand.class);
+		CompiledOutline compiled = outline.compile();
+		
+		outline.withCommand(RemoteAddCommand.class);
+		
+		// the compiled form does not know of the new command
+		Assert.assertTrue(compiled.parse("remote-add arg1".split(" ")) instanceof OutlineHelp);
+		
+		// a new compilation does
+		Assert.assertTrue(outline.compile().parse("remote-add arg1".split(" ")) instanceof RemoteAddCommand);
+	}
+	
+	@Test
+	public void testSingleCommandMode() {
+		CompiledOutline compiled = new Outline(PingCommandSupport.class).compile();
+		Assert.assertTrue(compiled.isSingleCommandMode());
+		
+		PingCommandSupport ping = compiled.parse(new String[] { "help" });
+		Assert.assertNotNull(ping);
+		Assert.assertTrue(ping.helpCommand.isHelpRequested());
+	}
+	
+	@Test
+	public void testResponseFiles() throws IOException {
+		File file = File.createTempFile("outline", ".args");
+		try {
+			Files.write(file.toPath(), "-c1 'op 7'\nfile1\nfile2 file3".getBytes(StandardCharsets.UTF_8));
+			String[] args = { "-g1", "op1", "remote", "remote-add", "@" + file.getAbsolutePath() };
+			
+			CompiledOutline compiled = OutlineTestSupport.getOutline().withResponseFiles(true).compile();
+			RemoteAddCommand command = compiled.parse(args);
+			Assert.assertEquals("op 7", command.c1);
+			Assert.assertEquals("file1", command.a1);
+			Assert.assertEquals("file2", command.a2);
+			Assert.assertArrayEquals(new String[] { "file3" }, command.a3);
+			
+			// not expanded unless enabled
+			command = OutlineTestSupport.getOutline().compile().parse(args);
+			Assert.assertEquals("@" + file.getAbsolutePath(), command.a1);
+		} finally {
+			file.delete();
+		}
+	}
+
+}
@@ -0,0 +1,206 @@
+package com.sangupta.outline;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sangupta.outline.annotations.Argument;
+import com.sangupta.outline.annotations.Arguments;
+import com.sangupta.outline.annotations.Command;
+import com.sangupta.outline.annotations.Constraint;
+import com.sangupta.outline.annotations.Option;
+import com.sangupta.outline.exceptions.OutlineInvalidArgumentException;
+import com.sangupta.outline.exceptions.OutlineInvalidConfigurationException;
+import com.sangupta.outline.help.OutlineHelp;
+import com.sangupta.outline.parser.OutlineDiagnostic;
+
+public class ConstraintTest {
+	
+	@Command(name = "serve")
+	public static class ServeCommand {
+		
+		@Option(name = "-p")
+		@Constraint(min = "1", max = "65535")
+		public int port = 8080;
+		
+		@Option(name = "-r")
+		@Constraint(min = "0.5", max = "1")
+		public double ratio;
+		
+		@Option(name = "-f")
+		@Constraint(min = "0", max = "1")
+		public double[] factors;
+		
+		@Option(name = "-t")
+		@Constraint(max = "3600")
+		public Long timeout;
+		
+		@Option(name = "-n")
+		@Constraint(pattern = "[a-z][a-z0-9-]*", maxLength = 8)
+		public String name;
+		
+		@Option(name = "-w")
+		@Constraint(min = "1", max = "10")
+		public int[] weights;
+		
+		@Argument(order = 0)
+		@Constraint(pattern = "https?://.+")
+		public String url;
+		
+		@Arguments
+		@Constraint(maxLength = 3)
+		public List<String> tags;
+		
+	}
+	
+	@Command(name = "broken")
+	public static class BrokenCommand {
+		
+		@Option(name = "-x")
+		@Constraint(min = "ten")
+		public int value;
+		
+	}
+	
+	@Command(name = "inverted")
+	public static class InvertedCommand {
+		
+		@Option(name = "-x")
+		@Constraint(min = "10", max = "1")
+		public int value;
+		
+	}
+	
+	@Test
+	public void testValidValues() {
+		CompiledOutline compiled = new Outline("tool").withCommand(ServeCommand.class).compile();
+		OutlineParseContext context = compiled.newParseContext();
+		
+		ServeCommand command = context.parseLine("serve -p 443 -r 0.75 -t 60 -n web-1 -w 1 -w 10 http://localhost abc de");
+		Assert.assertFalse(context.getResult().hasDiagnostics());
+		Assert.assertEquals(443, command.port);
+		Assert.assertEquals(0.75, command.ratio, 0);
+		Assert.assertEquals(Long.valueOf(60), command.timeout);
+		Assert.assertEquals("web-1", command.name);
+		Assert.assertArrayEquals(new int[] { 1, 10 }, command.weights);
+		Assert.assertEquals("http://localhost", command.url);
+		Assert.assertEquals(Arrays.asList("abc", "de"), command.tags);
+	}
+	
+	@Test
+	public void testViolations() {
+		CompiledOutline compiled = new Outline("tool").withCommand(ServeCommand.class).compile();
+		OutlineParseContext context = compiled.newParseContext();
+		
+		ServeCommand command = context.tryParseLine("serve -p 70000 -r 0.25 -t 7200 -n Web -w 0 -w 5 -w 11 ftp://host abcd").getInstance();
+		List<OutlineDiagnostic> diagnostics = context.getResult().getDiagnostics();
+		Assert.assertEquals(8, diagnostics.size());
+		
+		for(OutlineDiagnostic diagnostic : diagnostics) {
+			Assert.assertEquals(OutlineDiagnostic.Kind.CONSTRAINT_VIOLATION, diagnostic.kind);
+		}
+		
+		Assert.assertEquals("-p", diagnostics.get(0).name);
+		Assert.assertEquals("70000", diagnostics.get(0).value);
+		Assert.assertEquals(2, diagnostics.get(0).index);
+		Assert.assertEquals("must be at most 65535", diagnostics.get(0).message);
+		Assert.assertEquals("Invalid value '70000' for -p: must be at most 65535", diagnostics.get(0).toString());
+		
+		Assert.assertEquals("-r", diagnostics.get(1).name);
+		Assert.assertEquals("must be at least 0.5", diagnostics.get(1).message);
+		Assert.assertEquals("-t", diagnostics.get(2).name);
+		Assert.assertEquals("-n", diagnostics.get(3).name);
+		Assert.assertEquals("must match [a-z][a-z0-9-]*", diagnostics.get(3).message);
+		
+		Assert.assertEquals("-w", diagnostics.get(4).name);
+		Assert.assertEquals("0", diagnostics.get(4).value);
+		Assert.assertEquals(10, diagnostics.get(4).index);
+		Assert.assertEquals("11", diagnostics.get(5).value);
+		
+		Assert.assertEquals("url", diagnostics.get(6).name);
+		Assert.assertEquals("tags", diagnostics.get(7).name);
+		Assert.assertEquals("abcd", diagnostics.get(7).value);
+		Assert.assertEquals("must be at most 3 characters long", diagnostics.get(7).message);
+		
+		// fields with a violation are left as they were
+		Assert.assertEquals(8080, command.port);
+		Assert.assertEquals(0, command.ratio, 0);
+		Assert.assertNull(command.timeout);
+		Assert.assertNull(command.name);
+		Assert.assertNull(command.weights);
+		Assert.assertNull(command.url);
+		Assert.assertNull(command.tags);
+	}
+	
+	@Test
+	public void testNotANumber() {
+		CompiledOutline compiled = new Outline("tool").withCommand(ServeCommand.class).compile();
+		OutlineParseContext context = compiled.newParseContext();
+		
+		ServeCommand command = context.tryParseLine("serve -r NaN -f 0.5 -f NaN").getInstance();
+		List<OutlineDiagnostic> diagnostics = context.getResult().getDiagnostics();
+		Assert.assertEquals(2, diagnostics.size());
+		Assert.assertEquals("-r", diagnostics.get(0).name);
+		Assert.assertEquals("must be a number", diagnostics.get(0).message);
+		Assert.assertEquals("-f", diagnostics.get(1).name);
+		Assert.assertEquals("NaN", diagnostics.get(1).value);
+		Assert.assertEquals(0, command.ratio, 0);
+		Assert.assertNull(command.factors);
+		
+		Assert.assertTrue(compiled.parseLine("serve -r NaN") instanceof OutlineHelp);
+	}
+	
+	@Test
+	public void testParseFailsOnViolation() {
+		// help is shown for a violation, as for any other incorrect argument
+		Object help = new Outline("tool").withCommand(ServeCommand.class).parse(new String[] { "serve", "-p", "70000" });
+		Assert.assertTrue(help instanceof OutlineHelp);
+		
+		CompiledOutline compiled = new Outline("tool").withCommand(ServeCommand.class).withHelpOnIncorrectArguments(false).compile();
+		try {
+			compiled.parse(new String[] { "serve", "-p", "70000" });
+			Assert.fail("Constraint violation must be thrown");
+		} catch(OutlineInvalidArgumentException e) {
+			Assert.assertEquals("70000", e.argument);
+			Assert.assertEquals(2, e.positionIndex);
+			Assert.assertEquals(0, e.getStackTrace().length);
+		}
+		
+		try {
+			compiled.parseLine("serve -w 5 -w 11 http://localhost");
+			Assert.fail("Constraint violation in an array must be thrown");
+		} catch(OutlineInvalidArgumentException e) {
+			Assert.assertEquals("11", e.argument);
+		}
+		
+		try {
+			compiled.parseLine("serve ftp://host");
+			Assert.fail("Constraint violation of an argument must be thrown");
+		} catch(OutlineInvalidArgumentException e) {
+			Assert.assertEquals("ftp://host", e.argument);
+		}
+		
+		ServeCommand command = compiled.parseLine("serve -p 443");
+		Assert.assertEquals(443, command.port);
+	}
+	
+	@Test
+	public void testInvalidConstraints() {
+		try {
+			new Outline("tool").withCommand(BrokenCommand.class).compile().newParseContext().parseLine("broken -x 1");
+			Assert.fail("Bound that is not a number must be rejected");
+		} catch(OutlineInvalidConfigurationException e) {
+			// expected
+		}
+		
+		try {
+			new Outline("tool").withCommand(InvertedCommand.class).compile().newParseContext().parseLine("inverted -x 1");
+			Assert.fail("Minimum greater than maximum must be rejected");
+		} catch(OutlineInvalidConfigurationException e) {
+			// expected
+		}
+	}
+	
+}
@@ -113,6 +113,24 @@ public class GroupCommandTest {
 	    Assert.assertEquals("remote", result.group);
 	}
 	
+	@Test
+	public void testCommandGroup() {
+		Outline outline = OutlineTestSupport.getOutline();
+		Assert.assertEquals("mygroup", outline.getCommandGroup(OutlineTestSupport.GroupAddCommand.class));
+		Assert.assertNull(outline.getCommandGroup(RemoteAddCommand.class));
+		
+		// a command added to a second group stays in the first one
+		outline.withGroup("othergroup").withCommand(OutlineTestSupport.GroupAddCommand.class);
+		Assert.assertEquals("mygroup", outline.getCommandGroup(OutlineTestSupport.GroupAddCommand.class));
+		
+		try {
+			outline.getCommandGroup(null);
+			Assert.fail("Null command class must be rejected");
+		} catch(IllegalArgumentException e) {
+			// expected
+		}
+	}
+	
 	public static void main(String[] args) {
 		Outline outline = OutlineTestSupport.getOutline();
 		
@@ -0,0 +1,125 @@
+package com.sangupta.outline;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sangupta.outline.annotations.Argument;
+import com.sangupta.outline.annotations.Arguments;
+import com.sangupta.outline.annotations.Command;
+import com.sangupta.outline.annotations.Option;
+import com.sangupta.outline.parser.OutlineDelimitedArguments;
+
+public class LazyArgumentsTest {
+	
+	private static final CompiledOutline OUTLINE = new Outline("tool").withCommands(RemoveCommand.class, CatCommand.class, ListCommand.class).compile();
+	
+	@Command(name = "rm")
+	public static class RemoveCommand {
+		
+		@Option(name = "-f")
+		public boolean force;
+		
+		@Argument(order = 0)
+		public String first;
+		
+		@Arguments(stdin = true)
+		public Iterator<String> files;
+		
+	}
+	
+	@Command(name = "cat")
+	public static class CatCommand {
+		
+		@Arguments
+		public Iterable<String> files;
+		
+	}
+	
+	@Command(name = "ls")
+	public static class ListCommand {
+		
+		@Arguments(stdin = true)
+		public List<String> files;
+		
+	}
+	
+	@Test
+	public void testIteratorOverArguments() {
+		RemoveCommand command = OUTLINE.parse(new String[] { "rm", "-f", "true", "a", "b", "c" });
+		Assert.assertTrue(command.force);
+		Assert.assertEquals("a", command.first);
+		Assert.assertEquals(Arrays.asList("b", "c"), toList(command.files));
+	}
+	
+	@Test
+	public void testIterableOverArguments() {
+		CatCommand command = OUTLINE.parse(new String[] { "cat", "x", "y" });
+		Assert.assertEquals(Arrays.asList("x", "y"), toList(command.files.iterator()));
+		
+		// the arguments are not copied, and can be iterated again
+		Assert.assertEquals(Arrays.asList("x", "y"), toList(command.files.iterator()));
+	}
+	
+	@Test
+	public void testArgumentsFromStdin() {
+		InputStream stdin = System.in;
+		try {
+			System.setIn(new ByteArrayInputStream("one\0tw\u00f6\0\0three\0".getBytes(StandardCharsets.UTF_8)));
+			RemoveCommand command = OUTLINE.parse(new String[] { "rm", "-f", "true", "a" });
+			Assert.assertEquals("a", command.first);
+			Assert.assertEquals(Arrays.asList("one", "tw\u00f6", "", "three"), toList(command.files));
+			
+			System.setIn(new ByteArrayInputStream("one\0two".getBytes(StandardCharsets.UTF_8)));
+			ListCommand list = OUTLINE.parse(new String[] { "ls", });
+			Assert.assertEquals(Arrays.asList("one", "two"), list.files);
+			
+			// arguments on the command line take precedence
+			list = OUTLINE.parse(new String[] { "ls", "three", "four" });
+			Assert.assertEquals(Arrays.asList("three", "four"), list.files);
+		} finally {
+			System.setIn(stdin);
+		}
+	}
+	
+	@Test
+	public void testDelimitedArguments() {
+		// items spanning more than one read of the stream
+		StringBuilder builder = new StringBuilder();
+		List<String> expected = new ArrayList<>();
+		for(int index = 0; index < 2000; index++) {
+			String item = "/some/path/to/file-" + index;
+			expected.add(item);
+			builder.append(item).append('\n');
+		}
+		
+		OutlineDelimitedArguments arguments = new OutlineDelimitedArguments(new ByteArrayInputStream(builder.toString().getBytes(StandardCharsets.UTF_8)), (byte) '\n');
+		Assert.assertEquals(expected, toList(arguments.iterator()));
+		
+		try {
+			arguments.iterator();
+			Assert.assertTrue(false);
+		} catch(IllegalStateException e) {
+			Assert.assertTrue(true);
+		}
+		
+		Assert.assertFalse(new OutlineDelimitedArguments(new ByteArrayInputStream(new byte[0])).iterator().hasNext());
+	}
+	
+	private static List<String> toList(Iterator<String> iterator) {
+		List<String> list = new ArrayList<>();
+		while(iterator.hasNext()) {
+			list.add(iterator.next());
+		}
+		
+		return list;
+	}
+	
+}
@@ -0,0 +1,92 @@
+package com.sangupta.outline;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sangupta.outline.annotations.Command;
+import com.sangupta.outline.annotations.Option;
+import com.sangupta.outline.annotations.OptionType;
+import com.sangupta.outline.util.OutlineCompactMap;
+
+public class MapOptionTest {
+	
+	@Command(name = "run")
+	public static class RunCommand {
+		
+		@Option(name = { "-D", "--define" })
+		public Map<String, String> properties;
+		
+		@Option(name = "-Dlimit")
+		public int limit;
+		
+		@Option(name = "-L")
+		public Map<String, Integer> limits;
+		
+		@Option(name = "-e", type = OptionType.GLOBAL)
+		public Map<String, String> environment;
+		
+	}
+	
+	@Command(name = "props")
+	public static class PropertiesCommand {
+		
+		@Option(name = "-D")
+		public LinkedHashMap<String, String> properties;
+		
+		@Option(name = "-H")
+		public HashMap<String, Integer> headers;
+		
+	}
+	
+	@Test
+	public void testAttachedValues() {
+		CompiledOutline compiled = new Outline("service").withCommand(RunCommand.class).compile();
+		String line = "-eHOME=/root run -Dhost=localhost -D port=8080 --defineurl=http://a?b=c -Dlimit 5 -Lheap=512 -L stack=16";
+		
+		RunCommand command = compiled.parseLine(line);
+		assertRun(command);
+		
+		command = compiled.parse(line.split(" "));
+		assertRun(command);
+		
+		command = compiled.parse(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+		assertRun(command);
+	}
+	
+	@Test
+	public void testInvalidEntry() {
+		CompiledOutline compiled = new Outline("service").withCommand(RunCommand.class).compile();
+		
+		// entries that do not convert leave the field as is
+		RunCommand command = compiled.newParseContext().tryParseLine("run -Lheap=x -Dhost -Dport=1").getInstance();
+		Assert.assertNull(command.limits);
+		Assert.assertNull(command.properties);
+	}
+	
+	@Test
+	public void testDeclaredMapType() {
+		CompiledOutline compiled = new Outline("service").withCommand(PropertiesCommand.class).compile();
+		
+		PropertiesCommand command = compiled.parseLine("props -Dz=1 -Da=2 -Dm=3 -Hsize=4");
+		Assert.assertEquals(LinkedHashMap.class, command.properties.getClass());
+		Assert.assertEquals("{z=1, a=2, m=3}", command.properties.toString());
+		Assert.assertEquals(HashMap.class, command.headers.getClass());
+		Assert.assertEquals(Integer.valueOf(4), command.headers.get("size"));
+	}
+	
+	private static void assertRun(RunCommand command) {
+		Assert.assertTrue(command.properties instanceof OutlineCompactMap);
+		Assert.assertEquals("{host=localhost, port=8080, url=http://a?b=c}", command.properties.toString());
+		Assert.assertEquals(5, command.limit);
+		Assert.assertEquals(Integer.valueOf(512), command.limits.get("heap"));
+		Assert.assertEquals(Integer.valueOf(16), command.limits.get("stack"));
+		Assert.assertEquals("/root", command.environment.get("HOME"));
+	}
+	
+}
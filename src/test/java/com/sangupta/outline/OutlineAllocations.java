@@ -0,0 +1,42 @@
+package com.sangupta.outline;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the bytes allocated by the current thread, on JVMs that support it.
+ */
+public class OutlineAllocations {
+	
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+	
+	public static boolean isSupported() {
+		if(!(THREADS instanceof com.sun.management.ThreadMXBean)) {
+			return false;
+		}
+		
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+		if(!threads.isThreadAllocatedMemorySupported()) {
+			return false;
+		}
+		
+		if(!threads.isThreadAllocatedMemoryEnabled()) {
+			threads.setThreadAllocatedMemoryEnabled(true);
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Return the bytes allocated so far by the current thread, <code>0</code>
+	 * if this is not supported.
+	 */
+	public static long allocatedBytes() {
+		if(!isSupported()) {
+			return 0;
+		}
+		
+		return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	
+}
@@ -0,0 +1,201 @@
+package com.sangupta.outline;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sangupta.outline.annotations.Argument;
+import com.sangupta.outline.annotations.Command;
+import com.sangupta.outline.annotations.Option;
+
+public class OutlineConvertersTest {
+	
+	public static class Point {
+		
+		public final int x;
+		
+		public final int y;
+		
+		public Point(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+		
+	}
+	
+	public static class Label {
+		
+		public final String text;
+		
+		public Label(String text) {
+			this.text = text;
+		}
+		
+	}
+	
+	public static class Unused {
+		
+	}
+	
+	@Command(name = "move")
+	public static class MoveCommand {
+		
+		@Option(name = "--to")
+		public Point to;
+		
+		@Option(name = "--steps")
+		public int steps;
+		
+		@Argument(order = 0)
+		public Label label;
+		
+	}
+	
+	private static final OutlineTypeConverter<Point> POINT_CONVERTER = new OutlineTypeConverter<Point>() {
+		
+		@Override
+		public Point convertFrom(Field field, Object instance, Object value) {
+			String[] tokens = value.toString().split(",");
+			return new Point(Integer.parseInt(tokens[0]), Integer.parseInt(tokens[1]));
+		}
+		
+	};
+	
+	@Test
+	public void testOutlineConverters() {
+		CompiledOutline withPoints = new Outline("draw").withCommand(MoveCommand.class).withTypeConverter(Point.class, POINT_CONVERTER).compile();
+		CompiledOutline withoutPoints = new Outline("draw").withCommand(MoveCommand.class).compile();
+		
+		String[] args = { "move", "--to", "3,4", "--steps", "2" };
+		MoveCommand command = withPoints.parse(args);
+		Assert.assertEquals(3, command.to.x);
+		Assert.assertEquals(4, command.to.y);
+		Assert.assertEquals(2, command.steps);
+		
+		// the converter is scoped to the outline it was registered on
+		command = withoutPoints.parse(args);
+		Assert.assertNull(command.to);
+		Assert.assertEquals(2, command.steps);
+	}
+	
+	@Test
+	public void testUncompiledParseBuildsConvertersOnce() {
+		Outline outline = new Outline("draw").withCommand(MoveCommand.class).withTypeConverter(Point.class, POINT_CONVERTER);
+		
+		MoveCommand command = outline.parse(new String[] { "move", "--to", "1,2" });
+		Assert.assertEquals(1, command.to.x);
+		OutlineConverters converters = outline.compiled().converters();
+		
+		for(int index = 0; index < 10; index++) {
+			command = outline.parse(new String[] { "move", "--to", index + "," + (index + 1) });
+			Assert.assertEquals(index, command.to.x);
+			Assert.assertEquals(index + 1, command.to.y);
+			Assert.assertSame(converters, outline.compiled().converters());
+		}
+		
+		// registering another local converter builds them again
+		outline.withTypeConverter(Label.class, new OutlineTypeConverter<Label>() {
+			
+			@Override
+			public Label convertFrom(Field field, Object instance, Object value) {
+				return new Label("local " + value);
+			}
+			
+		});
+		
+		command = outline.parse(new String[] { "move", "name" });
+		Assert.assertEquals("local name", command.label.text);
+		Assert.assertNotSame(converters, outline.compiled().converters());
+	}
+	
+	@Test
+	public void testGlobalFallback() {
+		CompiledOutline compiled = new Outline("draw").withCommand(MoveCommand.class).withTypeConverter(Point.class, POINT_CONVERTER).compile();
+		
+		MoveCommand command = compiled.parse(new String[] { "move", "name" });
+		Assert.assertNull(command.label);
+		
+		// global converters registered later are picked up by compiled outlines
+		Outline.registerTypeConverter(Label.class, new OutlineTypeConverter<Label>() {
+			
+			@Override
+			public Label convertFrom(Field field, Object instance, Object value) {
+				return new Label(value.toString());
+			}
+			
+		});
+		
+		command = compiled.parse(new String[] { "move", "name" });
+		Assert.assertEquals("name", command.label.text);
+	}
+	
+	@Test
+	public void testConcurrentParsing() throws Exception {
+		final CompiledOutline compiled = new Outline("draw").withCommand(MoveCommand.class).withTypeConverter(Point.class, POINT_CONVERTER).compile();
+		
+		final int threads = 8;
+		final int iterations = 5000;
+		final CountDownLatch start = new CountDownLatch(1);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Integer>> futures = new ArrayList<>();
+			for(int thread = 0; thread < threads; thread++) {
+				final int id = thread;
+				futures.add(executor.submit(new Callable<Integer>() {
+					
+					@Override
+					public Integer call() throws Exception {
+						start.await();
+						
+						// half the threads share the context-free path, the others reuse a context
+						OutlineParseContext context = id % 2 == 0 ? null : compiled.newParseContext();
+						int parsed = 0;
+						for(int index = 0; index < iterations; index++) {
+							String[] args = { "move", "--to", id + "," + index, "--steps", String.valueOf(index) };
+							MoveCommand command = context == null ? compiled.<MoveCommand> parse(args) : context.<MoveCommand> parse(args);
+							if(command.to.x != id || command.to.y != index || command.steps != index) {
+								throw new AssertionError("Wrong values bound in thread " + id + " at iteration " + index);
+							}
+							
+							parsed++;
+						}
+						
+						return parsed;
+					}
+					
+				}));
+			}
+			
+			start.countDown();
+			
+			// registering global converters replaces them while the threads are binding
+			for(int index = 0; index < 100; index++) {
+				Outline.registerTypeConverter(Unused.class, new OutlineTypeConverter<Unused>() {
+					
+					@Override
+					public Unused convertFrom(Field field, Object instance, Object value) {
+						return new Unused();
+					}
+					
+				});
+			}
+			
+			for(Future<Integer> future : futures) {
+				Assert.assertEquals(Integer.valueOf(iterations), future.get(60, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+}
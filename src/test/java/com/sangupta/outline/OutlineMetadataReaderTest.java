@@ -0,0 +1,55 @@
+package com.sangupta.outline;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sangupta.outline.model.ArgumentDescriptor;
+import com.sangupta.outline.model.OptionDescriptor;
+
+/**
+ * Tests for {@link OutlineMetadataReader}.
+ * 
+ * @author sangupta
+ *
+ */
+public class OutlineMetadataReaderTest {
+	
+	@Test
+	public void testOptionDescriptors() {
+		OutlineMetadata metadata = OutlineTestSupport.getOutline().compile().getMetadata();
+		
+		// all names of an option share the same descriptor
+		OptionDescriptor g1 = metadata.globalOptions.get("-g1");
+		Assert.assertNotNull(g1);
+		Assert.assertSame(g1, metadata.globalOptions.get("--global1"));
+		Assert.assertEquals("-g1", g1.name);
+		Assert.assertEquals(1, g1.arity);
+		Assert.assertEquals(String.class, g1.fieldType);
+		
+		// ids are unique within the metadata
+		OptionDescriptor g2 = metadata.globalOptions.get("-g2");
+		OptionDescriptor c1 = metadata.commandOptions.get("remote-add").get("-c1");
+		OptionDescriptor gr1 = metadata.groupOptions.get("remote").get("-gr1");
+		Assert.assertNotEquals(g1.id, g2.id);
+		Assert.assertNotEquals(g1.id, c1.id);
+		Assert.assertNotEquals(c1.id, gr1.id);
+		
+		Assert.assertTrue(g1.id < metadata.getOptionCount());
+		Assert.assertTrue(g2.id < metadata.getOptionCount());
+		Assert.assertTrue(c1.id < metadata.getOptionCount());
+		Assert.assertTrue(gr1.id < metadata.getOptionCount());
+	}
+	
+	@Test
+	public void testArgumentsSorted() {
+		OutlineMetadata metadata = OutlineTestSupport.getOutline().compile().getMetadata();
+		
+		ArgumentDescriptor[] arguments = metadata.commandArguments.getValues("remote-add").toArray(new ArgumentDescriptor[0]);
+		Assert.assertEquals(3, arguments.length);
+		Assert.assertEquals(0, arguments[0].order);
+		Assert.assertEquals("file", arguments[0].title);
+		Assert.assertEquals(1, arguments[1].order);
+		Assert.assertTrue(arguments[2].remaining);
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.sangupta.outline;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sangupta.outline.help.OutlineHelp;
+import com.sangupta.outline.help.OutlineHelpBuilder;
+
+/**
+ * Checks that the cost of a tool grows no faster than the number of commands,
+ * by comparing a tool with {@link #SMALL} commands to one eight times as large.
+ * Groups hold two commands each, so that there are nearly as many groups as
+ * commands. Only what does not depend on the load of the machine is checked:
+ * the group index, and the bytes allocated to compile and to parse. Timings are
+ * compared in <code>OutlineScaleBenchmark</code> of the benchmarks module.
+ */
+public class OutlineScaleTest {
+
+	private static final int SMALL = 2500;
+
+	private static final int LARGE = 8 * SMALL;
+
+	private static final int OPTIONS = 4;
+
+	private static final int GROUP_SIZE = 2;
+
+	private static final int PARSES = 5000;
+
+	private static SyntheticCommands smallCommands;
+
+	private static SyntheticCommands largeCommands;
+
+	private static CompiledOutline smallOutline;
+
+	private static CompiledOutline largeOutline;
+
+	private static long smallBytes;
+
+	private static long largeBytes;
+
+	/**
+	 * Warm up, then compile the two tools that all tests share, measuring the
+	 * bytes allocated by the first compile of each.
+	 */
+	@BeforeClass
+	public static void compileTools() {
+		SyntheticCommands warmUp = SyntheticCommands.create(SMALL, OPTIONS, GROUP_SIZE);
+		parseBytes(warmUp, warmUp.outline.compile());
+
+		smallCommands = SyntheticCommands.create(SMALL, OPTIONS, GROUP_SIZE);
+		largeCommands = SyntheticCommands.create(LARGE, OPTIONS, GROUP_SIZE);
+
+		long start = OutlineAllocations.allocatedBytes();
+		smallOutline = smallCommands.outline.compile();
+		smallBytes = OutlineAllocations.allocatedBytes() - start;
+
+		start = OutlineAllocations.allocatedBytes();
+		largeOutline = largeCommands.outline.compile();
+		largeBytes = OutlineAllocations.allocatedBytes() - start;
+	}
+
+	@Test
+	public void testGroupsAreIndexed() {
+		OutlineMetadata metadata = largeOutline.getMetadata();
+
+		Assert.assertEquals(LARGE, metadata.commandNames.size());
+		Assert.assertEquals(LARGE / GROUP_SIZE, metadata.commandGroups.size());
+
+		// the group of every command is found in the index, without going over all groups
+		Assert.assertEquals(LARGE, largeCommands.outline.commandGroups.size());
+		for(int index = 0; index < LARGE; index++) {
+			Assert.assertEquals(largeCommands.groupOf(index), largeCommands.outline.commandGroups.get(largeCommands.commandClasses[index]));
+		}
+
+		for(int index = 0; index < LARGE; index += 997) {
+			Assert.assertEquals(largeCommands.groupOf(index), largeCommands.outline.getCommandGroup(largeCommands.commandClasses[index]));
+			Assert.assertEquals(GROUP_SIZE, metadata.commandGroups.getValues(largeCommands.groupOf(index)).size());
+		}
+
+		Assert.assertNull(largeCommands.outline.getCommandGroup(OutlineScaleTest.class));
+	}
+
+	@Test
+	public void testMemoryGrowsLinearly() {
+		Assume.assumeTrue(OutlineAllocations.isSupported());
+
+		final double small = smallBytes / (double) SMALL;
+		final double large = largeBytes / (double) LARGE;
+		Assert.assertTrue("Bytes per command grew from " + small + " to " + large, large < 2 * small);
+	}
+
+	@Test
+	public void testParseAllocationIsIndependentOfSize() {
+		Assume.assumeTrue(OutlineAllocations.isSupported());
+
+		final long small = parseBytes(smallCommands, smallOutline);
+		final long large = parseBytes(largeCommands, largeOutline);
+		Assert.assertTrue("Bytes per parse grew from " + small + " to " + large, large <= small + 16);
+	}
+
+	/**
+	 * Return the bytes allocated per parse of the command lines of the first,
+	 * middle and last commands.
+	 */
+	private static long parseBytes(SyntheticCommands commands, CompiledOutline compiled) {
+		final int commandCount = commands.commandClasses.length;
+		final String[][] lines = { commands.commandLine(0), commands.commandLine(commandCount / 2), commands.commandLine(commandCount - 1) };
+
+		final OutlineParseContext context = compiled.newParseContext();
+		final long start = OutlineAllocations.allocatedBytes();
+		for(int index = 0; index < PARSES; index++) {
+			Assert.assertNotNull(context.parse(lines[index % lines.length]));
+		}
+
+		return (OutlineAllocations.allocatedBytes() - start) / PARSES;
+	}
+
+	@Test
+	public void testCommandHelpIsIndependentOfSize() {
+		OutlineHelp help = largeOutline.newParseContext().parse(new String[] { "help", largeCommands.groupOf(LARGE - 1), SyntheticCommands.commandName(LARGE - 1) });
+		String text = new OutlineHelpBuilder(largeOutline.getMetadata(), help.getResult()).getHelpText();
+		Assert.assertTrue(text.contains(SyntheticCommands.commandName(LARGE - 1)));
+		Assert.assertFalse(text.contains(SyntheticCommands.commandName(0) + " "));
+		Assert.assertTrue(text.length() < 4096);
+	}
+	
+}
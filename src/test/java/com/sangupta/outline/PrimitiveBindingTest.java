@@ -0,0 +1,177 @@
+package com.sangupta.outline;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sangupta.outline.annotations.Argument;
+import com.sangupta.outline.annotations.Arguments;
+import com.sangupta.outline.annotations.Command;
+import com.sangupta.outline.annotations.Option;
+import com.sangupta.outline.exceptions.OutlineInvalidArgumentException;
+import com.sangupta.outline.help.OutlineHelp;
+import com.sangupta.outline.parser.OutlineTokens;
+
+public class PrimitiveBindingTest {
+	
+	@Command(name = "resize")
+	public static class ResizeCommand {
+		
+		@Option(name = "-w")
+		public int width;
+		
+		@Option(name = "-s")
+		public long size;
+		
+		@Option(name = "-r")
+		public double ratio;
+		
+		@Option(name = "-k")
+		public boolean keep;
+		
+		@Option(name = "-q")
+		public final int quality = 0;
+		
+		@Option(name = "-h")
+		public Integer height;
+		
+	}
+	
+	@Command(name = "purge")
+	public static class PurgeCommand {
+		
+		@Option(name = "-p")
+		public int[] partitions;
+		
+		@Option(name = "-w", arity = 2)
+		public double[] weights;
+		
+		@Argument(order = 0)
+		public String table;
+		
+		@Arguments
+		public long[] ids;
+		
+	}
+	
+	@Test
+	public void testPrimitiveArrays() {
+		CompiledOutline compiled = new Outline("db").withCommand(PurgeCommand.class).compile();
+		
+		StringBuilder line = new StringBuilder("purge -p 3 -w 0.5 1.5 -p -7 -p 11 users");
+		long[] ids = new long[5000];
+		for(int index = 0; index < ids.length; index++) {
+			ids[index] = 10000000000L + index;
+			line.append(' ').append(ids[index]);
+		}
+		
+		PurgeCommand command = compiled.parse(line.toString().split(" "));
+		Assert.assertArrayEquals(new int[] { 3, -7, 11 }, command.partitions);
+		Assert.assertArrayEquals(new double[] { 0.5, 1.5 }, command.weights, 0);
+		Assert.assertEquals("users", command.table);
+		Assert.assertArrayEquals(ids, command.ids);
+		
+		command = compiled.parseLine(line);
+		Assert.assertArrayEquals(new int[] { 3, -7, 11 }, command.partitions);
+		Assert.assertArrayEquals(ids, command.ids);
+		
+		// a single value still makes an array
+		command = compiled.parseLine("purge -p 4 users 12");
+		Assert.assertArrayEquals(new int[] { 4 }, command.partitions);
+		Assert.assertArrayEquals(new long[] { 12 }, command.ids);
+		
+		// an invalid value leaves the field as is
+		command = compiled.newParseContext().tryParseLine("purge -p 4 -p x users").getInstance();
+		Assert.assertNull(command.partitions);
+		Assert.assertNull(command.ids);
+	}
+	
+	@Test
+	public void testPrimitiveFields() throws Exception {
+		CompiledOutline compiled = new Outline("image").withCommand(ResizeCommand.class).compile();
+		String line = "resize -w 640 -s -9223372036854775808 -r 1.5 -k TRUE -q 90 -h 480";
+		
+		ResizeCommand command = compiled.parse(line.split(" "));
+		assertResized(command, true);
+		
+		command = compiled.parseLine(line);
+		assertResized(command, true);
+		
+		command = compiled.parse(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+		assertResized(command, true);
+		
+		command = compiled.parseLine(line.replace("TRUE", "yes"));
+		assertResized(command, false);
+	}
+	
+	@Test
+	public void testInvalidPrimitiveValue() {
+		CompiledOutline compiled = new Outline("image").withCommand(ResizeCommand.class).compile();
+		
+		// values that do not convert leave the field as is
+		ResizeCommand command = compiled.newParseContext().tryParseLine("resize -w 2147483648 -s 12 -r x").getInstance();
+		Assert.assertEquals(0, command.width);
+		Assert.assertEquals(12, command.size);
+		Assert.assertEquals(0, command.ratio, 0);
+	}
+	
+	@Test
+	public void testParseFailsOnInvalidPrimitiveValue() {
+		// help is shown for a value that does not convert
+		Object help = new Outline("image").withCommand(ResizeCommand.class).parse(new String[] { "resize", "-w", "abc" });
+		Assert.assertTrue(help instanceof OutlineHelp);
+		
+		CompiledOutline compiled = new Outline("image").withCommand(ResizeCommand.class).withHelpOnIncorrectArguments(false).compile();
+		try {
+			compiled.parse(new String[] { "resize", "-h", "480", "-w", "abc" });
+			Assert.fail("Value that does not convert must be thrown");
+		} catch(OutlineInvalidArgumentException e) {
+			Assert.assertEquals("abc", e.argument);
+			Assert.assertEquals(4, e.positionIndex);
+		}
+		
+		try {
+			compiled.parse(ByteBuffer.wrap("resize -s 9223372036854775808".getBytes(StandardCharsets.UTF_8)));
+			Assert.fail("Value that overflows must be thrown");
+		} catch(OutlineInvalidArgumentException e) {
+			Assert.assertEquals("9223372036854775808", e.argument);
+		}
+	}
+	
+	@Test
+	public void testCustomPrimitiveConverter() {
+		// sizes given in kilobytes
+		OutlineLongConverter kilobytes = new OutlineLongConverter() {
+			
+			@Override
+			public Long convertFrom(Field field, Object instance, Object value) {
+				return Long.parseLong(value.toString()) * 1024;
+			}
+			
+			@Override
+			public long convertToLong(OutlineTokens tokens, int index) {
+				return tokens.parseLong(index) * 1024;
+			}
+			
+		};
+		
+		CompiledOutline compiled = new Outline("image").withCommand(ResizeCommand.class).withTypeConverter(long.class, kilobytes).compile();
+		ResizeCommand command = compiled.parseLine("resize -s 3");
+		Assert.assertEquals(3072, command.size);
+	}
+	
+	private static void assertResized(ResizeCommand command, boolean keep) throws Exception {
+		Assert.assertEquals(640, command.width);
+		Assert.assertEquals(Long.MIN_VALUE, command.size);
+		Assert.assertEquals(1.5, command.ratio, 0);
+		Assert.assertEquals(keep, command.keep);
+		Assert.assertEquals(Integer.valueOf(480), command.height);
+		
+		// final fields are set reflectively, and cannot be read directly as the compiler inlines them
+		Assert.assertEquals(90, ResizeCommand.class.getField("quality").getInt(command));
+	}
+	
+}
@@ -0,0 +1,420 @@
+package com.sangupta.outline;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Generates large command line tools to test how outline scales, for both the
+ * unit tests and the benchmarks. Command classes are emitted straight as class
+ * files, which takes microseconds per command where compiling them would take
+ * minutes for tens of thousands of commands.
+ *
+ * Every command has a global <code>-v</code> option, the given number of
+ * options <code>-o0</code> or <code>--option0</code> and so on of type
+ * <code>String</code>, <code>int</code> and <code>long</code> in turn, a
+ * required <code>@Argument</code> and an <code>@Arguments</code>. Commands are
+ * put in groups via {@link Outline#withGroup(String)}.
+ */
+public class SyntheticCommands {
+	
+	/**
+	 * The number of commands in each group of a fixture
+	 */
+	public static final int GROUP_SIZE = 10;
+	
+	/**
+	 * Changed whenever the generated classes change, to not reuse stale class
+	 * files of a fixture
+	 */
+	private static final int VERSION = 2;
+	
+	public final Outline outline;
+	
+	public final Class<?>[] commandClasses;
+	
+	private final int options;
+	
+	private final int groupSize;
+	
+	private SyntheticCommands(Class<?>[] commandClasses, int options, int groupSize) {
+		this.commandClasses = commandClasses;
+		this.options = options;
+		this.groupSize = groupSize;
+		
+		this.outline = new Outline("synthetic").withDescription("a synthetic tool").withHelpKeyword("help").withCommands(commandClasses);
+		for(int start = 0; start < commandClasses.length; start += groupSize) {
+			this.outline.withGroup(groupName(start / groupSize)).withCommands(Arrays.copyOfRange(commandClasses, start, Math.min(start + groupSize, commandClasses.length)));
+		}
+	}
+	
+	/**
+	 * Generate a new tool. Every call defines new classes, so that nothing read
+	 * from the classes of an earlier tool is cached.
+	 *
+	 * @param commands
+	 *            the number of commands
+	 *
+	 * @param options
+	 *            the number of options of each command
+	 *
+	 * @param groupSize
+	 *            the number of commands in each group
+	 */
+	public static SyntheticCommands create(int commands, int options, int groupSize) {
+		final Loader loader = new Loader(SyntheticCommands.class.getClassLoader());
+		
+		Class<?>[] commandClasses = new Class<?>[commands];
+		for(int index = 0; index < commands; index++) {
+			commandClasses[index] = loader.define(className(index), commandClass(index, options));
+		}
+		
+		return new SyntheticCommands(commandClasses, options, groupSize);
+	}
+	
+	/**
+	 * Load the tool for a fixture named <code>COMMANDSxOPTIONS</code>, such as
+	 * <code>1000x100</code>, with {@link #GROUP_SIZE} commands per group. The
+	 * class files are written to the temporary directory on first use, and are
+	 * loaded from there as the classes of a real tool would be.
+	 *
+	 * @param fixture
+	 *            the name of the fixture
+	 */
+	public static SyntheticCommands forFixture(String fixture) {
+		final int separator = fixture.indexOf('x');
+		if(separator < 0) {
+			throw new IllegalArgumentException("Fixture must be of the form COMMANDSxOPTIONS: " + fixture);
+		}
+		
+		final int commands = Integer.parseInt(fixture.substring(0, separator));
+		final int options = Integer.parseInt(fixture.substring(separator + 1));
+		if(commands < 1 || options < 0) {
+			throw new IllegalArgumentException("Need at least one command and no negative options: " + fixture);
+		}
+		
+		final File directory = new File(System.getProperty("java.io.tmpdir"), "outline-synthetic-v" + VERSION + "-" + fixture);
+		try {
+			write(directory, commands, options);
+			
+			// the loader stays open for as long as the classes are used
+			@SuppressWarnings("resource")
+			URLClassLoader loader = new URLClassLoader(new URL[] { directory.toURI().toURL() }, SyntheticCommands.class.getClassLoader());
+			
+			Class<?>[] commandClasses = new Class<?>[commands];
+			for(int index = 0; index < commands; index++) {
+				commandClasses[index] = Class.forName(className(index), true, loader);
+			}
+			
+			return new SyntheticCommands(commandClasses, options, GROUP_SIZE);
+		} catch(IOException | ClassNotFoundException e) {
+			throw new IllegalStateException("Unable to create synthetic commands in " + directory, e);
+		}
+	}
+	
+	/**
+	 * Write the class files of all commands, unless an earlier run has.
+	 */
+	private static void write(File directory, int commands, int options) throws IOException {
+		final File last = classFile(directory, commands - 1);
+		if(last.exists()) {
+			return;
+		}
+		
+		final File parent = last.getParentFile();
+		if(!parent.isDirectory() && !parent.mkdirs()) {
+			throw new IOException("Unable to create directory: " + parent);
+		}
+		
+		// the last class is moved in place at the end, so that a partial write is never reused
+		for(int index = 0; index < commands; index++) {
+			final File file = classFile(directory, index);
+			final File temporary = new File(parent, file.getName() + ".tmp");
+			Files.write(temporary.toPath(), commandClass(index, options));
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+	
+	private static File classFile(File directory, int command) {
+		return new File(directory, className(command).replace('.', File.separatorChar) + ".class");
+	}
+	
+	private static String className(int command) {
+		return "synthetic.Command" + command;
+	}
+	
+	public static String commandName(int command) {
+		return "command" + command;
+	}
+	
+	public static String groupName(int group) {
+		return "group" + group;
+	}
+	
+	public String groupOf(int command) {
+		return groupName(command / this.groupSize);
+	}
+	
+	/**
+	 * Return a command line for the given command that sets up to ten of its
+	 * options and passes three arguments.
+	 */
+	public String[] commandLine(int command) {
+		final int count = Math.min(this.options, 10);
+		
+		String[] args = new String[4 + 2 * count + 3];
+		int index = 0;
+		args[index++] = "-v";
+		args[index++] = "2";
+		args[index++] = this.groupOf(command);
+		args[index++] = commandName(command);
+		for(int option = 0; option < count; option++) {
+			args[index++] = "--option" + option;
+			args[index++] = option % 3 == 0 ? "value" + option : String.valueOf(option * 1000);
+		}
+		
+		args[index++] = "first.txt";
+		args[index++] = "second.txt";
+		args[index++] = "third.txt";
+		return args;
+	}
+	
+	private static final class Loader extends ClassLoader {
+		
+		Loader(ClassLoader parent) {
+			super(parent);
+		}
+		
+		Class<?> define(String name, byte[] bytes) {
+			return this.defineClass(name, bytes, 0, bytes.length);
+		}
+		
+		/**
+		 * Fail fast for the generated models that outline looks for, instead of
+		 * searching the whole class path.
+		 */
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if(name.startsWith("synthetic.")) {
+				Class<?> loaded = this.findLoadedClass(name);
+				if(loaded == null) {
+					throw new ClassNotFoundException(name);
+				}
+				
+				return loaded;
+			}
+			
+			return super.loadClass(name, resolve);
+		}
+		
+	}
+	
+	private static byte[] commandClass(int command, int options) {
+		try {
+			return new ClassWriter().write(className(command).replace('.', '/'), commandName(command), command, options);
+		} catch(IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Writes a class file with public annotated fields and a public no-argument
+	 * constructor, in the format of Java 7.
+	 */
+	private static final class ClassWriter {
+		
+		private static final String OPTION = "Lcom/sangupta/outline/annotations/Option;";
+		
+		private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+		
+		private final DataOutputStream pool = new DataOutputStream(this.poolBytes);
+		
+		private final Map<String, Integer> constants = new HashMap<>();
+		
+		private int poolCount = 1;
+		
+		byte[] write(String internalName, String commandName, int command, int options) throws IOException {
+			final int thisClass = this.classRef(internalName);
+			final int objectClass = this.classRef("java/lang/Object");
+			final int objectInit = this.methodRef(objectClass, "<init>", "()V");
+			
+			ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+			DataOutputStream body = new DataOutputStream(bodyBytes);
+			body.writeShort(0x0021);
+			body.writeShort(thisClass);
+			body.writeShort(objectClass);
+			body.writeShort(0);
+			
+			// fields
+			body.writeShort(options + 3);
+			this.field(body, "verbosity", "I", this.annotation(OPTION, "name", new String[] { "-v", "--verbosity" }, "type", new EnumValue("Lcom/sangupta/outline/annotations/OptionType;", "GLOBAL"), "description", "the verbosity level"));
+			for(int option = 0; option < options; option++) {
+				final String descriptor = option % 3 == 0 ? "Ljava/lang/String;" : (option % 3 == 1 ? "I" : "J");
+				this.field(body, "option" + option, descriptor, this.annotation(OPTION, "name", new String[] { "-o" + option, "--option" + option }, "description", "synthetic option " + option));
+			}
+			
+			this.field(body, "file", "Ljava/lang/String;", this.annotation("Lcom/sangupta/outline/annotations/Argument;", "order", 0, "title", "file", "required", true, "description", "the first file"));
+			this.field(body, "files", "[Ljava/lang/String;", this.annotation("Lcom/sangupta/outline/annotations/Arguments;", "description", "all other files"));
+			
+			// the constructor calls the one of Object
+			body.writeShort(1);
+			body.writeShort(0x0001);
+			body.writeShort(this.utf8("<init>"));
+			body.writeShort(this.utf8("()V"));
+			body.writeShort(1);
+			body.writeShort(this.utf8("Code"));
+			body.writeInt(17);
+			body.writeShort(1);
+			body.writeShort(1);
+			body.writeInt(5);
+			body.writeByte(0x2a);
+			body.writeByte(0xb7);
+			body.writeShort(objectInit);
+			body.writeByte(0xb1);
+			body.writeShort(0);
+			body.writeShort(0);
+			
+			// the class is a command
+			body.writeShort(1);
+			this.annotations(body, this.annotation("Lcom/sangupta/outline/annotations/Command;", "name", commandName, "description", "synthetic command " + command));
+			
+			ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(classBytes);
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(51);
+			out.writeShort(this.poolCount);
+			this.poolBytes.writeTo(out);
+			bodyBytes.writeTo(out);
+			return classBytes.toByteArray();
+		}
+		
+		private void field(DataOutputStream body, String name, String descriptor, byte[] annotation) throws IOException {
+			body.writeShort(0x0001);
+			body.writeShort(this.utf8(name));
+			body.writeShort(this.utf8(descriptor));
+			body.writeShort(1);
+			this.annotations(body, annotation);
+		}
+		
+		private void annotations(DataOutputStream body, byte[] annotation) throws IOException {
+			body.writeShort(this.utf8("RuntimeVisibleAnnotations"));
+			body.writeInt(2 + annotation.length);
+			body.writeShort(1);
+			body.write(annotation);
+		}
+		
+		/**
+		 * Encode an annotation of the given type, with pairs of element names
+		 * and values.
+		 */
+		private byte[] annotation(String type, Object... elements) throws IOException {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeShort(this.utf8(type));
+			out.writeShort(elements.length / 2);
+			for(int index = 0; index < elements.length; index += 2) {
+				out.writeShort(this.utf8((String) elements[index]));
+				this.value(out, elements[index + 1]);
+			}
+			
+			return bytes.toByteArray();
+		}
+		
+		private void value(DataOutputStream out, Object value) throws IOException {
+			if(value instanceof String) {
+				out.writeByte('s');
+				out.writeShort(this.utf8((String) value));
+			} else if(value instanceof Integer) {
+				out.writeByte('I');
+				out.writeShort(this.integer((Integer) value));
+			} else if(value instanceof Boolean) {
+				out.writeByte('Z');
+				out.writeShort(this.integer((Boolean) value ? 1 : 0));
+			} else if(value instanceof EnumValue) {
+				out.writeByte('e');
+				out.writeShort(this.utf8(((EnumValue) value).type));
+				out.writeShort(this.utf8(((EnumValue) value).constant));
+			} else {
+				String[] values = (String[]) value;
+				out.writeByte('[');
+				out.writeShort(values.length);
+				for(String item : values) {
+					this.value(out, item);
+				}
+			}
+		}
+		
+		private int utf8(String value) throws IOException {
+			Integer index = this.constants.get(value);
+			if(index == null) {
+				this.pool.writeByte(1);
+				this.pool.writeUTF(value);
+				index = this.poolCount++;
+				this.constants.put(value, index);
+			}
+			
+			return index;
+		}
+		
+		private int integer(int value) throws IOException {
+			final String key = "\u0000I" + value;
+			Integer index = this.constants.get(key);
+			if(index == null) {
+				this.pool.writeByte(3);
+				this.pool.writeInt(value);
+				index = this.poolCount++;
+				this.constants.put(key, index);
+			}
+			
+			return index;
+		}
+		
+		private int classRef(String internalName) throws IOException {
+			final int name = this.utf8(internalName);
+			this.pool.writeByte(7);
+			this.pool.writeShort(name);
+			return this.poolCount++;
+		}
+		
+		private int methodRef(int owner, String name, String descriptor) throws IOException {
+			final int nameIndex = this.utf8(name);
+			final int descriptorIndex = this.utf8(descriptor);
+			this.pool.writeByte(12);
+			this.pool.writeShort(nameIndex);
+			this.pool.writeShort(descriptorIndex);
+			final int nameAndType = this.poolCount++;
+			
+			this.pool.writeByte(10);
+			this.pool.writeShort(owner);
+			this.pool.writeShort(nameAndType);
+			return this.poolCount++;
+		}
+		
+	}
+	
+	/**
+	 * An enum constant in an annotation
+	 */
+	private static final class EnumValue {
+		
+		final String type;
+		
+		final String constant;
+		
+		EnumValue(String type, String constant) {
+			this.type = type;
+			this.constant = constant;
+		}
+		
+	}
+	
+}
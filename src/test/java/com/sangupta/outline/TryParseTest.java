@@ -0,0 +1,219 @@
+package com.sangupta.outline;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sangupta.outline.annotations.Argument;
+import com.sangupta.outline.annotations.Arguments;
+import com.sangupta.outline.annotations.Command;
+import com.sangupta.outline.annotations.Constraint;
+import com.sangupta.outline.annotations.Option;
+import com.sangupta.outline.exceptions.OutlineInvalidArgumentException;
+import com.sangupta.outline.exceptions.OutlineInvalidConfigurationException;
+import com.sangupta.outline.exceptions.OutlineRequiredOptionMissingException;
+import com.sangupta.outline.parser.OutlineDiagnostic;
+import com.sangupta.outline.parser.OutlineParseResult;
+
+public class TryParseTest {
+	
+	@Command(name = "copy")
+	public static class CopyCommand {
+		
+		@Option(name = "-u", required = true)
+		public String user;
+		
+		@Option(name = "-n")
+		public int count;
+		
+		@Option(name = "-p", arity = 2)
+		public String[] pair;
+		
+		@Argument(order = 0, required = true)
+		public String source;
+		
+		@Argument(order = 1, required = true)
+		public String target;
+		
+	}
+	
+	@Command(name = "cat")
+	public static class CatCommand {
+		
+		@Arguments(required = true)
+		public List<String> files;
+		
+	}
+	
+	@Command(name = "limit")
+	public static class LimitCommand {
+		
+		@Option(name = "-n")
+		@Constraint(min = "10", max = "1")
+		public int count;
+		
+	}
+	
+	private static CompiledOutline compile() {
+		return new Outline("tool").withCommands(CopyCommand.class, CatCommand.class).withHelpOnIncorrectArguments(false).compile();
+	}
+	
+	private static OutlineDiagnostic.Kind[] kinds(OutlineParseResult result) {
+		List<OutlineDiagnostic> diagnostics = result.getDiagnostics();
+		OutlineDiagnostic.Kind[] kinds = new OutlineDiagnostic.Kind[diagnostics.size()];
+		for(int index = 0; index < kinds.length; index++) {
+			kinds[index] = diagnostics.get(index).kind;
+		}
+		
+		return kinds;
+	}
+	
+	@Test
+	public void testValid() {
+		OutlineParseContext context = compile().newParseContext();
+		
+		OutlineParseResult result = context.tryParseLine("copy -u root -n 3 a b");
+		Assert.assertFalse(result.hasDiagnostics());
+		
+		CopyCommand command = result.getInstance();
+		Assert.assertEquals("root", command.user);
+		Assert.assertEquals(3, command.count);
+		Assert.assertEquals("a", command.source);
+		Assert.assertEquals("b", command.target);
+	}
+	
+	@Test
+	public void testAllProblemsInOnePass() {
+		OutlineParseContext context = compile().newParseContext();
+		
+		OutlineParseResult result = context.tryParseLine("copy -n three a");
+		Assert.assertArrayEquals(new OutlineDiagnostic.Kind[] { OutlineDiagnostic.Kind.MISSING_REQUIRED, OutlineDiagnostic.Kind.INVALID_VALUE, OutlineDiagnostic.Kind.MISSING_REQUIRED }, kinds(result));
+		Assert.assertEquals("-u", result.getDiagnostics().get(0).name);
+		Assert.assertEquals("-n", result.getDiagnostics().get(1).name);
+		Assert.assertEquals("three", result.getDiagnostics().get(1).value);
+		Assert.assertEquals(2, result.getDiagnostics().get(1).index);
+		Assert.assertEquals("target", result.getDiagnostics().get(2).name);
+		Assert.assertEquals("Missing required -u", result.getDiagnostics().get(0).toString());
+		
+		// the valid values are still bound
+		CopyCommand command = result.getInstance();
+		Assert.assertEquals("a", command.source);
+		
+		result = context.tryParseLine("copy -u root a b c d -p x");
+		Assert.assertArrayEquals(new OutlineDiagnostic.Kind[] { OutlineDiagnostic.Kind.UNKNOWN_ARGUMENT, OutlineDiagnostic.Kind.UNKNOWN_ARGUMENT, OutlineDiagnostic.Kind.UNKNOWN_ARGUMENT, OutlineDiagnostic.Kind.UNKNOWN_ARGUMENT }, kinds(result));
+		Assert.assertEquals("c", result.getDiagnostics().get(0).value);
+		Assert.assertEquals(5, result.getDiagnostics().get(0).index);
+		
+		result = context.tryParseLine("copy -u root -p x");
+		Assert.assertEquals(OutlineDiagnostic.Kind.MISSING_VALUE, result.getDiagnostics().get(0).kind);
+		Assert.assertEquals("-p", result.getDiagnostics().get(0).name);
+	}
+	
+	@Test
+	public void testUnknownCommandAndMalformedLine() {
+		OutlineParseContext context = compile().newParseContext();
+		
+		OutlineParseResult result = context.tryParse(new String[] { "move", "a" });
+		Assert.assertArrayEquals(new OutlineDiagnostic.Kind[] { OutlineDiagnostic.Kind.UNKNOWN_COMMAND }, kinds(result));
+		Assert.assertEquals("Unknown command 'move'", result.getDiagnostics().get(0).toString());
+		Assert.assertNull(result.getInstance());
+		
+		result = context.tryParseLine("copy -u 'root");
+		Assert.assertArrayEquals(new OutlineDiagnostic.Kind[] { OutlineDiagnostic.Kind.INVALID_ARGUMENT }, kinds(result));
+		Assert.assertNull(result.getInstance());
+		
+		// the context is reusable after a failure
+		result = context.tryParseLine("cat x y");
+		Assert.assertFalse(result.hasDiagnostics());
+		Assert.assertEquals(Arrays.asList("x", "y"), ((CatCommand) result.getInstance()).files);
+	}
+	
+	@Test
+	public void testRequiredArguments() {
+		OutlineParseContext context = compile().newParseContext();
+		
+		// required remaining arguments are accepted when given
+		CatCommand command = context.parseLine("cat x");
+		Assert.assertEquals(Arrays.asList("x"), command.files);
+		
+		OutlineParseResult result = context.tryParseLine("cat");
+		Assert.assertArrayEquals(new OutlineDiagnostic.Kind[] { OutlineDiagnostic.Kind.MISSING_REQUIRED }, kinds(result));
+		Assert.assertEquals("files", result.getDiagnostics().get(0).name);
+	}
+	
+	@Test
+	public void testParseStillThrows() {
+		OutlineParseContext context = compile().newParseContext();
+		
+		try {
+			context.parseLine("copy a b");
+			Assert.fail("Missing required option must be thrown");
+		} catch(OutlineRequiredOptionMissingException e) {
+			Assert.assertEquals("-u", e.argument);
+			Assert.assertEquals(0, e.getStackTrace().length);
+		}
+		
+		try {
+			context.parseLine("move a");
+			Assert.fail("Unknown command must be thrown");
+		} catch(OutlineInvalidArgumentException e) {
+			Assert.assertEquals("move", e.argument);
+		}
+	}
+	
+	@Test
+	public void testMissingCommandThrows() {
+		Outline outline = new Outline("tool").withCommand(CatCommand.class).withHelpOnIncorrectArguments(false);
+		outline.withGroup("remote").withCommand(CatCommand.class);
+		
+		try {
+			outline.compile().parseLine("remote");
+			Assert.fail("Missing command must be thrown");
+		} catch(OutlineRequiredOptionMissingException e) {
+			Assert.assertEquals("command", e.argument);
+			Assert.assertEquals(0, e.getStackTrace().length);
+		}
+	}
+	
+	@Test
+	public void testConfigurationErrorsKeepStackTrace() {
+		try {
+			new Outline("tool").withCommand(LimitCommand.class).compile().parseLine("limit -n 5");
+			Assert.fail("Invalid constraint must be thrown");
+		} catch(OutlineInvalidConfigurationException e) {
+			Assert.assertEquals("count", e.field);
+			Assert.assertTrue(e.getStackTrace().length > 0);
+		}
+	}
+	
+	@Test
+	public void testContextOfOtherOutlineIsUntouched() {
+		OutlineParseContext context = compile().newParseContext();
+		CompiledOutline other = compile();
+		
+		OutlineParseResult result = context.tryParseLine("copy -u root -n 3 a b");
+		CopyCommand command = result.getInstance();
+		
+		try {
+			other.tryParseLine(context, "cat 'unterminated");
+			Assert.fail("Context of another outline must be rejected");
+		} catch(IllegalArgumentException e) {
+			// expected
+		}
+		
+		try {
+			other.tryParse(context, ByteBuffer.wrap("cat 'unterminated".getBytes(StandardCharsets.UTF_8)));
+			Assert.fail("Context of another outline must be rejected");
+		} catch(IllegalArgumentException e) {
+			// expected
+		}
+		
+		Assert.assertFalse(result.hasDiagnostics());
+		Assert.assertSame(command, result.getInstance());
+	}
+	
+}
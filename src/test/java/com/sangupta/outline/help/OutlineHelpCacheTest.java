@@ -0,0 +1,52 @@
+package com.sangupta.outline.help;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sangupta.outline.CompiledOutline;
+import com.sangupta.outline.OutlineParseContext;
+import com.sangupta.outline.OutlineTestSupport;
+
+public class OutlineHelpCacheTest {
+	
+	@Test
+	public void testHelpIsRenderedOnce() {
+		CompiledOutline compiled = OutlineTestSupport.getOutline().compile();
+		OutlineParseContext context = compiled.newParseContext();
+		
+		OutlineHelp help = context.parse(new String[] { "help", "remote", "remote-add" });
+		String text = help.getHelp();
+		Assert.assertEquals(new OutlineHelpBuilder(compiled.getMetadata(), help.getResult()).getHelpText(), text);
+		Assert.assertSame(text, help.getHelp());
+		
+		// other contexts share the rendered help
+		OutlineHelp other = compiled.newParseContext().parse(new String[] { "help", "remote", "remote-add" });
+		Assert.assertSame(text, other.getHelp());
+		
+		// a different command has its own help
+		help = context.parse(new String[] { "help", "reset" });
+		Assert.assertNotEquals(text, help.getHelp());
+		Assert.assertSame(help.getHelp(), help.getHelp());
+		
+		ByteBuffer bytes = help.getHelpBytes();
+		Assert.assertTrue(bytes.isReadOnly());
+		byte[] encoded = new byte[bytes.remaining()];
+		bytes.get(encoded);
+		Assert.assertEquals(help.getHelp(), new String(encoded, StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	public void testUnknownCommandIsNotCached() {
+		CompiledOutline compiled = OutlineTestSupport.getOutline().compile();
+		OutlineParseContext context = compiled.newParseContext();
+		
+		OutlineHelp help = context.parse(new String[] { "help", "sangupta" });
+		String text = help.getHelp();
+		Assert.assertEquals(new OutlineHelpBuilder(compiled.getMetadata(), help.getResult()).getHelpText(), text);
+		Assert.assertNotSame(text, help.getHelp());
+	}
+	
+}
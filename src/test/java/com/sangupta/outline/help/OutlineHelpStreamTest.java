@@ -0,0 +1,142 @@
+package com.sangupta.outline.help;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sangupta.outline.CompiledOutline;
+import com.sangupta.outline.OutlineTestSupport;
+
+public class OutlineHelpStreamTest {
+	
+	/**
+	 * Counts the pages appended to it
+	 */
+	private static final class PageCounter implements Appendable {
+		
+		final StringBuilder text = new StringBuilder();
+		
+		int pages;
+		
+		@Override
+		public Appendable append(CharSequence csq) {
+			this.pages++;
+			this.text.append(csq);
+			return this;
+		}
+		
+		@Override
+		public Appendable append(CharSequence csq, int start, int end) {
+			return this.append(csq.subSequence(start, end));
+		}
+		
+		@Override
+		public Appendable append(char c) {
+			return this.append(String.valueOf(c));
+		}
+		
+	}
+	
+	@Test
+	public void testPagesMatchHelpText() {
+		CompiledOutline compiled = OutlineTestSupport.getOutline().compile();
+		
+		for(String[] args : new String[][] { { "help" }, { "help", "remote" }, { "help", "remote", "remote-add" } }) {
+			OutlineHelp help = compiled.newParseContext().parse(args);
+			String text = new OutlineHelpBuilder(compiled.getMetadata(), help.getResult()).getHelpText();
+			
+			int previous = 0;
+			for(OutlineHelpPaging paging : OutlineHelpPaging.values()) {
+				PageCounter counter = new PageCounter();
+				new OutlineHelpBuilder(compiled.getMetadata(), help.getResult()).writeHelp(counter, paging);
+				Assert.assertEquals(text, counter.text.toString());
+				Assert.assertTrue(counter.pages > previous);
+				previous = counter.pages;
+			}
+			
+			Assert.assertEquals(1, pages(compiled, args, OutlineHelpPaging.NONE));
+			Assert.assertEquals(4, pages(compiled, args, OutlineHelpPaging.SECTION));
+		}
+		
+		// one page per command listed
+		Assert.assertTrue(pages(compiled, new String[] { "help" }, OutlineHelpPaging.COMMAND) > compiled.getMetadata().commandNames.size() / 2);
+	}
+	
+	private static int pages(CompiledOutline compiled, String[] args, OutlineHelpPaging paging) {
+		OutlineHelp help = compiled.newParseContext().parse(args);
+		PageCounter counter = new PageCounter();
+		new OutlineHelpBuilder(compiled.getMetadata(), help.getResult()).writeHelp(counter, paging);
+		return counter.pages;
+	}
+	
+	@Test
+	public void testWriteToChannel() throws IOException {
+		CompiledOutline compiled = OutlineTestSupport.getOutline().compile();
+		OutlineHelp help = compiled.newParseContext().parse(new String[] { "help", "reset" });
+		
+		// cached
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		help.writeHelp(Channels.newChannel(bytes));
+		Assert.assertEquals(help.getHelp(), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+		
+		// streamed
+		OutlineHelp uncached = new OutlineHelp(compiled.getMetadata(), help.getResult());
+		bytes.reset();
+		uncached.writeHelp(Channels.newChannel(bytes));
+		Assert.assertEquals(help.getHelp(), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+		
+		StringBuilder builder = new StringBuilder();
+		uncached.writeHelp(builder, OutlineHelpPaging.COMMAND);
+		Assert.assertEquals(help.getHelp(), builder.toString());
+	}
+	
+	@Test
+	public void testWriteToNonBlockingChannel() throws Exception {
+		final byte[] expected = new byte[1 << 20];
+		for(int index = 0; index < expected.length; index++) {
+			expected[index] = (byte) index;
+		}
+		
+		final Pipe pipe = Pipe.open();
+		pipe.sink().configureBlocking(false);
+		
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			// the reader starts late, so that the pipe fills up and the writer has to wait
+			Future<byte[]> read = executor.submit(new Callable<byte[]>() {
+				
+				@Override
+				public byte[] call() throws Exception {
+					Thread.sleep(100);
+					ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+					while(buffer.hasRemaining() && pipe.source().read(buffer) >= 0) {
+						// keep reading
+					}
+					
+					return buffer.array();
+				}
+				
+			});
+			
+			OutlineChannelWriter.writeFully(pipe.sink(), ByteBuffer.wrap(expected));
+			Assert.assertTrue(Arrays.equals(expected, read.get()));
+			Assert.assertFalse(pipe.sink().isRegistered());
+		} finally {
+			executor.shutdownNow();
+			pipe.sink().close();
+			pipe.source().close();
+		}
+	}
+	
+}
@@ -0,0 +1,149 @@
+package com.sangupta.outline.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sangupta.outline.exceptions.OutlineInvalidArgumentException;
+
+public class OutlineByteBufferTokensTest {
+	
+	@Test
+	public void testTokens() {
+		for(ByteBuffer bytes : buffers("  commit -m 'first commit' \"a \\\"b\\\"\" na\\ me -- '--' ")) {
+			int position = bytes.position();
+			OutlineByteBufferTokens tokens = new OutlineByteBufferTokens(bytes);
+			
+			Assert.assertEquals(position, bytes.position());
+			Assert.assertEquals(7, tokens.size());
+			Assert.assertEquals("commit", tokens.get(0));
+			Assert.assertEquals("-m", tokens.get(1));
+			Assert.assertEquals("first commit", tokens.get(2));
+			Assert.assertEquals("a \"b\"", tokens.get(3));
+			Assert.assertEquals("na me", tokens.get(4));
+			Assert.assertTrue(tokens.isSeparator(5));
+			Assert.assertFalse(tokens.isSeparator(6));
+			Assert.assertEquals("--", tokens.get(6));
+		}
+	}
+	
+	@Test
+	public void testUnicodeLookup() {
+		Map<String, String> map = new HashMap<>();
+		map.put("--na\u00efve", "naive");
+		map.put("--\u540d\u524d", "name");
+		map.put("--\ud83d\ude00", "smile");
+		OutlineLookupTable<String> table = new OutlineLookupTable<>(map);
+		
+		for(ByteBuffer bytes : buffers("--na\u00efve --\u540d\u524d '--\u540d\u524d' --\ud83d\ude00 --naive --\u540d")) {
+			OutlineByteBufferTokens tokens = new OutlineByteBufferTokens(bytes);
+			Assert.assertEquals("naive", tokens.lookup(0, table));
+			Assert.assertEquals("name", tokens.lookup(1, table));
+			Assert.assertEquals("name", tokens.lookup(2, table));
+			Assert.assertEquals("smile", tokens.lookup(3, table));
+			Assert.assertNull(tokens.lookup(4, table));
+			Assert.assertNull(tokens.lookup(5, table));
+			Assert.assertEquals("--\u540d\u524d", tokens.get(2));
+		}
+		
+		// malformed sequences never match
+		ByteBuffer bytes = ByteBuffer.wrap(new byte[] { '-', '-', 'n', 'a', (byte) 0xC3, 'v', 'e' });
+		Assert.assertNull(new OutlineByteBufferTokens(bytes).lookup(0, table));
+	}
+	
+	@Test
+	public void testParseLong() {
+		for(ByteBuffer bytes : buffers("0 42 -17 +5 9223372036854775807 -9223372036854775808 9223372036854775808 12a - '123'")) {
+			OutlineByteBufferTokens tokens = new OutlineByteBufferTokens(bytes);
+			Assert.assertEquals(0, tokens.parseLong(0));
+			Assert.assertEquals(42, tokens.parseLong(1));
+			Assert.assertEquals(-17, tokens.parseLong(2));
+			Assert.assertEquals(5, tokens.parseLong(3));
+			Assert.assertEquals(Long.MAX_VALUE, tokens.parseLong(4));
+			Assert.assertEquals(Long.MIN_VALUE, tokens.parseLong(5));
+			assertInvalidNumber(tokens, 6);
+			assertInvalidNumber(tokens, 7);
+			assertInvalidNumber(tokens, 8);
+			Assert.assertEquals(123, tokens.parseLong(9));
+		}
+	}
+	
+	@Test
+	public void testReset() {
+		OutlineByteBufferTokens tokens = new OutlineByteBufferTokens(ByteBuffer.wrap("a 'b c' d e f g h i j k l m n o p q r s t u v w x y z".getBytes(StandardCharsets.UTF_8)));
+		Assert.assertEquals(25, tokens.size());
+		
+		tokens.reset(ByteBuffer.wrap("x \"y\"".getBytes(StandardCharsets.UTF_8)));
+		Assert.assertEquals(2, tokens.size());
+		Assert.assertEquals("x", tokens.get(0));
+		Assert.assertEquals("y", tokens.get(1));
+	}
+	
+	@Test(expected = OutlineInvalidArgumentException.class)
+	public void testUnterminatedQuote() {
+		new OutlineByteBufferTokens(ByteBuffer.wrap("commit -m 'first".getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	@Test
+	public void testSameAsCommandLine() {
+		String[] lines = {
+			"a\tb\\\nc 'd e' \"f\\$g\\x\" h\\",
+			"-- \"--\" -\\- @file @ '@x' TRUE 'tRuE' true1",
+			"-D'key=v\u00e4l' --na\u00efve=1 \u540d\u524d -12 +7 '-3'",
+			"line\\\n  continued \\\n next \"quoted\\\nline\""
+		};
+		
+		for(String line : lines) {
+			OutlineCommandLineTokens expected = new OutlineCommandLineTokens(line);
+			for(ByteBuffer bytes : buffers(line)) {
+				OutlineByteBufferTokens tokens = new OutlineByteBufferTokens(bytes);
+				Assert.assertEquals(line, expected.size(), tokens.size());
+				
+				for(int index = 0; index < tokens.size(); index++) {
+					Assert.assertEquals(expected.get(index), tokens.get(index));
+					Assert.assertEquals(expected.isSeparator(index), tokens.isSeparator(index));
+					Assert.assertEquals(expected.parseBoolean(index), tokens.parseBoolean(index));
+					Assert.assertEquals(expected.isResponseFile(index), tokens.isResponseFile(index));
+					Assert.assertEquals(expected.startsWith(index, "-D"), tokens.startsWith(index, "-D"));
+					Assert.assertEquals(expected.startsWith(index, "--na\u00ef"), tokens.startsWith(index, "--na\u00ef"));
+					Assert.assertEquals(expected.matches(index, expected.get(index)), tokens.matches(index, expected.get(index)));
+				}
+			}
+		}
+	}
+	
+	private static void assertInvalidNumber(OutlineTokens tokens, int index) {
+		try {
+			tokens.parseLong(index);
+			Assert.fail("Expected NumberFormatException for: " + tokens.get(index));
+		} catch(NumberFormatException e) {
+			// expected
+		}
+	}
+	
+	/**
+	 * Return the line encoded in a heap buffer, a direct buffer, and a slice of a
+	 * larger buffer.
+	 * 
+	 * @param line
+	 * @return
+	 */
+	private static ByteBuffer[] buffers(String line) {
+		byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+		
+		ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+		direct.put(bytes).flip();
+		
+		ByteBuffer window = ByteBuffer.allocate(bytes.length + 10);
+		window.position(4);
+		window.put(bytes);
+		window.position(4).limit(4 + bytes.length);
+		
+		return new ByteBuffer[] { ByteBuffer.wrap(bytes), direct, window, window.slice() };
+	}
+
+}
@@ -0,0 +1,108 @@
+package com.sangupta.outline.parser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sangupta.outline.exceptions.OutlineInvalidArgumentException;
+
+public class OutlineCommandLineTokensTest {
+	
+	@Test
+	public void testSplit() {
+		assertTokens("");
+		assertTokens("   \t ");
+		assertTokens("add", "add");
+		assertTokens("  remote   add\t-v \n x ", "remote", "add", "-v", "x");
+	}
+	
+	@Test
+	public void testQuotes() {
+		assertTokens("commit -m 'first commit'", "commit", "-m", "first commit");
+		assertTokens("commit -m \"first commit\"", "commit", "-m", "first commit");
+		assertTokens("echo 'a \"b\" \\c'", "echo", "a \"b\" \\c");
+		assertTokens("echo \"a 'b' \\\"c\\\" \\$d \\e\"", "echo", "a 'b' \"c\" $d \\e");
+		assertTokens("--name='John Doe'x", "--name=John Doex");
+		assertTokens("a '' \"\" b", "a", "", "", "b");
+	}
+	
+	@Test
+	public void testEscapes() {
+		assertTokens("a\\ b c", "a b", "c");
+		assertTokens("a\\'b", "a'b");
+		assertTokens("a \\\n b", "a", "b");
+		assertTokens("a\\\nb", "ab");
+		assertTokens("a\\", "a\\");
+	}
+	
+	@Test
+	public void testSeparator() {
+		OutlineCommandLineTokens tokens = new OutlineCommandLineTokens("add -- '--' \\-- --x");
+		Assert.assertEquals(5, tokens.size());
+		Assert.assertFalse(tokens.isSeparator(0));
+		Assert.assertTrue(tokens.isSeparator(1));
+		Assert.assertFalse(tokens.isSeparator(2));
+		Assert.assertFalse(tokens.isSeparator(3));
+		Assert.assertFalse(tokens.isSeparator(4));
+		Assert.assertEquals("--", tokens.get(2));
+	}
+	
+	@Test
+	public void testLookup() {
+		Map<String, String> map = new HashMap<>();
+		map.put("--message", "message");
+		OutlineLookupTable<String> table = new OutlineLookupTable<>(map);
+		
+		OutlineCommandLineTokens tokens = new OutlineCommandLineTokens("commit --message \"--message\" --mess'age' --messages");
+		Assert.assertNull(tokens.lookup(0, table));
+		Assert.assertEquals("message", tokens.lookup(1, table));
+		Assert.assertEquals("message", tokens.lookup(2, table));
+		Assert.assertEquals("message", tokens.lookup(3, table));
+		Assert.assertNull(tokens.lookup(4, table));
+		
+		Assert.assertTrue(tokens.matches(0, "commit"));
+		Assert.assertTrue(tokens.matches(3, "--message"));
+		Assert.assertFalse(tokens.matches(0, "comm"));
+		Assert.assertFalse(tokens.matches(0, null));
+	}
+	
+	@Test
+	public void testReset() {
+		OutlineCommandLineTokens tokens = new OutlineCommandLineTokens("a 'b c' d e f g h i j k");
+		Assert.assertEquals(10, tokens.size());
+		
+		tokens.reset("x \"y\"");
+		Assert.assertEquals(2, tokens.size());
+		Assert.assertEquals("x", tokens.get(0));
+		Assert.assertEquals("y", tokens.get(1));
+	}
+	
+	@Test
+	public void testUnterminatedQuotes() {
+		try {
+			new OutlineCommandLineTokens("commit -m 'first");
+			Assert.fail("Expected exception for unterminated quote");
+		} catch(OutlineInvalidArgumentException e) {
+			Assert.assertEquals("'first", e.argument);
+			Assert.assertEquals(2, e.positionIndex);
+		}
+		
+		try {
+			new OutlineCommandLineTokens("commit -m \"first \\\"");
+			Assert.fail("Expected exception for unterminated quote");
+		} catch(OutlineInvalidArgumentException e) {
+			Assert.assertEquals(2, e.positionIndex);
+		}
+	}
+	
+	private static void assertTokens(String line, String... expected) {
+		OutlineCommandLineTokens tokens = new OutlineCommandLineTokens(line);
+		Assert.assertEquals(expected.length, tokens.size());
+		for(int index = 0; index < expected.length; index++) {
+			Assert.assertEquals(expected[index], tokens.get(index));
+		}
+	}
+
+}
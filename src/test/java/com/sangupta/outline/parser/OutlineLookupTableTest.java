@@ -0,0 +1,132 @@
+package com.sangupta.outline.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OutlineLookupTableTest {
+	
+	@Test
+	public void testLookup() {
+		Map<String, Integer> map = new HashMap<>();
+		map.put("-v", 1);
+		map.put("--verbose", 2);
+		map.put("--version", 3);
+		map.put("-V", 4);
+		map.put("add", 5);
+		
+		OutlineLookupTable<Integer> table = new OutlineLookupTable<>(map);
+		Assert.assertEquals(5, table.size());
+		Assert.assertFalse(table.isEmpty());
+		
+		for(Map.Entry<String, Integer> entry : map.entrySet()) {
+			Assert.assertEquals(entry.getValue(), table.lookup(entry.getKey()));
+		}
+		
+		// prefixes and extensions of keys do not match
+		Assert.assertNull(table.lookup("-"));
+		Assert.assertNull(table.lookup("--ver"));
+		Assert.assertNull(table.lookup("--verbosee"));
+		Assert.assertNull(table.lookup("ad"));
+		Assert.assertNull(table.lookup(""));
+		Assert.assertNull(table.lookup(null));
+		Assert.assertNull(table.lookup("a very long token that is out of range"));
+		
+		Assert.assertTrue(table.contains("add"));
+		Assert.assertFalse(table.contains("-x"));
+	}
+	
+	@Test
+	public void testLookupRange() {
+		Map<String, String> map = new HashMap<>();
+		map.put("remote", "remote");
+		
+		OutlineLookupTable<String> table = new OutlineLookupTable<>(map);
+		String line = "git remote add";
+		Assert.assertEquals("remote", table.lookup(line, 4, 10));
+		Assert.assertNull(table.lookup(line, 4, 9));
+		Assert.assertNull(table.lookup(line, 0, 3));
+		Assert.assertEquals("remote", table.lookup(new StringBuilder(line), 4, 10));
+	}
+	
+	@Test
+	public void testIgnoreCaseAndPrefix() {
+		Map<String, String> map = new HashMap<>();
+		map.put("info", "info");
+		map.put("in", "in");
+		map.put("Debug", "Debug");
+		map.put("warn", "warn");
+		
+		OutlineLookupTable<String> table = new OutlineLookupTable<>(map, true, false);
+		Assert.assertEquals("Debug", table.lookup("DEBUG"));
+		Assert.assertEquals("info", table.lookup("InFo"));
+		Assert.assertNull(table.lookup("deb"));
+		
+		table = new OutlineLookupTable<>(map, false, true);
+		Assert.assertEquals("Debug", table.lookup("D"));
+		Assert.assertNull(table.lookup("d"));
+		Assert.assertEquals("warn", table.lookup("wa"));
+		Assert.assertEquals("in", table.lookup("in"));
+		Assert.assertEquals("info", table.lookup("inf"));
+		Assert.assertNull(table.lookup("i"));
+		Assert.assertNull(table.lookup("warning"));
+		Assert.assertNull(table.lookup(""));
+		
+		table = new OutlineLookupTable<>(map, true, true);
+		Assert.assertEquals("Debug", table.lookup("de"));
+		Assert.assertEquals("warn", table.lookup(ByteBuffer.wrap("W".getBytes(StandardCharsets.UTF_8)), 0, 1));
+	}
+	
+	@Test
+	public void testMalformedBytes() {
+		Map<String, String> map = new HashMap<>();
+		map.put("-x", "dash");
+		map.put("\u20ac", "euro");
+		map.put("\ud83d\ude00", "smile");
+		map.put("\ud800", "surrogate");
+		
+		OutlineLookupTable<String> table = new OutlineLookupTable<>(map);
+		Assert.assertEquals("dash", lookup(table, 0x2D, 0x78));
+		Assert.assertEquals("euro", lookup(table, 0xE2, 0x82, 0xAC));
+		Assert.assertEquals("smile", lookup(table, 0xF0, 0x9F, 0x98, 0x80));
+		
+		// overlong forms
+		Assert.assertNull(lookup(table, 0xC0, 0xAD, 0x78));
+		Assert.assertNull(lookup(table, 0xE0, 0x80, 0xAD, 0x78));
+		Assert.assertNull(lookup(table, 0xF0, 0x82, 0x82, 0xAC));
+		
+		// encoded surrogates, alone or as a pair
+		Assert.assertNull(lookup(table, 0xED, 0xA0, 0x80));
+		Assert.assertNull(lookup(table, 0xED, 0xA0, 0xBD, 0xED, 0xB8, 0x80));
+		
+		// truncated sequences and stray continuation bytes
+		Assert.assertNull(lookup(table, 0xE2, 0x82));
+		Assert.assertNull(lookup(table, 0x82, 0xAC));
+	}
+	
+	private static String lookup(OutlineLookupTable<String> table, int... values) {
+		byte[] bytes = new byte[values.length];
+		for(int index = 0; index < values.length; index++) {
+			bytes[index] = (byte) values[index];
+		}
+		
+		return table.lookup(ByteBuffer.wrap(bytes), 0, bytes.length);
+	}
+	
+	@Test
+	public void testEmpty() {
+		OutlineLookupTable<String> table = OutlineLookupTable.empty();
+		Assert.assertTrue(table.isEmpty());
+		Assert.assertNull(table.lookup(""));
+		Assert.assertNull(table.lookup("-v"));
+		
+		table = new OutlineLookupTable<>(null);
+		Assert.assertTrue(table.isEmpty());
+		Assert.assertNull(table.lookup("-v"));
+	}
+
+}
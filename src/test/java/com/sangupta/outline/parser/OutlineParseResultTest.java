@@ -0,0 +1,68 @@
+package com.sangupta.outline.parser;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sangupta.outline.OutlineMetadata;
+import com.sangupta.outline.OutlineTestSupport;
+
+public class OutlineParseResultTest {
+	
+	@Test
+	public void testOptionValues() {
+		OutlineMetadata metadata = OutlineTestSupport.getOutline().compile().getMetadata();
+		
+		String[] args = "-g1 one --global1 two -g2 a b remote -gr1 x remote-add -c2 p q f1 f2 f3".split(" ");
+		OutlineParseResult result = OutlineArgumentParser.parse(args, metadata);
+		
+		Assert.assertEquals("remote", result.group);
+		Assert.assertEquals("remote-add", result.command);
+		
+		// both names of the option are slotted under the same id
+		int g1 = metadata.globalOptions.get("-g1").id;
+		Assert.assertEquals(2, result.getOptionValueCount(g1));
+		Assert.assertEquals("one", result.getOptionValue(g1, 0));
+		Assert.assertEquals("two", result.getOptionValue(g1, 1));
+		Assert.assertEquals(Arrays.asList("one", "two"), result.getOptionValues(g1));
+		
+		int g2 = metadata.globalOptions.get("-g2").id;
+		Assert.assertEquals(Arrays.asList("a", "b"), result.getOptionValues(g2));
+		
+		int gr1 = metadata.groupOptions.get("remote").get("-gr1").id;
+		Assert.assertEquals(Arrays.asList("x"), result.getOptionValues(gr1));
+		
+		int c1 = metadata.commandOptions.get("remote-add").get("-c1").id;
+		Assert.assertEquals(0, result.getOptionValueCount(c1));
+		Assert.assertTrue(result.getOptionValues(c1).isEmpty());
+		
+		// values are the original strings, not copies
+		int c2 = metadata.commandOptions.get("remote-add").get("-c2").id;
+		Assert.assertSame(args[12], result.getOptionValue(c2, 0));
+		Assert.assertSame(args[13], result.getOptionValue(c2, 1));
+		
+		// arguments
+		Assert.assertEquals(3, result.getArgumentCount());
+		Assert.assertEquals("f1", result.getArgument(0));
+		Assert.assertEquals(Arrays.asList("f1", "f2", "f3"), result.getArguments());
+		Assert.assertEquals(Arrays.asList("f3"), result.getArguments(2));
+		Assert.assertTrue(result.getArguments(5).isEmpty());
+		
+		// the name keyed views
+		Assert.assertEquals(Arrays.asList("one", "two"), result.getGlobalOptions().getValues("-g1"));
+		Assert.assertEquals(Arrays.asList("a", "b"), result.getGlobalOptions().getValues("-g2"));
+		Assert.assertEquals(Arrays.asList("x"), result.getGroupOptions().getValues("-gr1"));
+		Assert.assertEquals(Arrays.asList("p", "q"), result.getCommandOptions().getValues("-c2"));
+		Assert.assertNull(result.getCommandOptions().getValues("-g1"));
+	}
+	
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testMissingValue() {
+		OutlineMetadata metadata = OutlineTestSupport.getOutline().compile().getMetadata();
+		
+		OutlineParseResult result = OutlineArgumentParser.parse("add".split(" "), metadata);
+		result.getOptionValue(metadata.globalOptions.get("-g1").id, 0);
+	}
+
+}
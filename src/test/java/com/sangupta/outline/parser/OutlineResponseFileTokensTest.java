@@ -0,0 +1,94 @@
+package com.sangupta.outline.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sangupta.outline.exceptions.OutlineInvalidArgumentException;
+
+public class OutlineResponseFileTokensTest {
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void testExpand() throws IOException {
+		File inner = this.write("inner.txt", "'inner one' \"inner\\\"two\"\n");
+		File outer = this.write("outer.txt", "-x 12\n@" + inner.getAbsolutePath() + "\n--\nlast");
+		File empty = this.write("empty.txt", "");
+		
+		OutlineResponseFileTokens tokens = new OutlineResponseFileTokens(new OutlineArrayTokens(new String[] { "first", "@" + outer.getAbsolutePath(), "@" + empty.getAbsolutePath(), "@", "end" }));
+		Assert.assertEquals(9, tokens.size());
+		
+		String[] expected = { "first", "-x", "12", "inner one", "inner\"two", "--", "last", "@", "end" };
+		for(int index = 0; index < expected.length; index++) {
+			Assert.assertEquals(expected[index], tokens.get(index));
+		}
+		
+		Assert.assertEquals(12, tokens.parseLong(2));
+		Assert.assertTrue(tokens.isSeparator(5));
+		Assert.assertTrue(tokens.matches(3, "inner one"));
+		
+		// random access after sequential access
+		Assert.assertEquals("end", tokens.get(8));
+		Assert.assertEquals("first", tokens.get(0));
+		Assert.assertEquals("inner one", tokens.get(3));
+		
+		// reuse without any response file
+		tokens.reset(new OutlineArrayTokens(new String[] { "a" }));
+		Assert.assertEquals(1, tokens.size());
+		Assert.assertEquals("a", tokens.get(0));
+	}
+	
+	@Test
+	public void testLargeResponseFile() throws IOException {
+		StringBuilder builder = new StringBuilder();
+		for(int index = 0; index < 100000; index++) {
+			builder.append("/path/to/file-").append(index).append('\n');
+		}
+		
+		File file = this.write("large.txt", builder.toString());
+		OutlineResponseFileTokens tokens = new OutlineResponseFileTokens(new OutlineCommandLineTokens("cmd @" + file.getAbsolutePath()));
+		Assert.assertEquals(100001, tokens.size());
+		Assert.assertEquals("cmd", tokens.get(0));
+		Assert.assertEquals("/path/to/file-0", tokens.get(1));
+		Assert.assertEquals("/path/to/file-99999", tokens.get(100000));
+	}
+	
+	@Test
+	public void testInvalidResponseFiles() throws IOException {
+		File cycle = this.folder.newFile("cycle.txt");
+		Files.write(cycle.toPath(), ("a @" + cycle.getAbsolutePath()).getBytes(StandardCharsets.UTF_8));
+		
+		try {
+			new OutlineResponseFileTokens(new OutlineArrayTokens(new String[] { "@" + cycle.getAbsolutePath() }));
+			Assert.assertTrue(false);
+		} catch(OutlineInvalidArgumentException e) {
+			Assert.assertEquals("@" + cycle.getAbsolutePath(), e.argument);
+			Assert.assertEquals(1, e.positionIndex);
+		}
+		
+		String missing = "@" + new File(this.folder.getRoot(), "missing.txt").getAbsolutePath();
+		try {
+			new OutlineResponseFileTokens(new OutlineArrayTokens(new String[] { "x", missing }));
+			Assert.assertTrue(false);
+		} catch(OutlineInvalidArgumentException e) {
+			Assert.assertEquals(missing, e.argument);
+			Assert.assertEquals(1, e.positionIndex);
+			Assert.assertTrue(e.getCause() instanceof IOException);
+		}
+	}
+	
+	private File write(String name, String contents) throws IOException {
+		File file = this.folder.newFile(name);
+		Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+	
+}
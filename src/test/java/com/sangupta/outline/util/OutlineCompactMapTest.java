@@ -0,0 +1,85 @@
+package com.sangupta.outline.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OutlineCompactMapTest {
+	
+	@Test
+	public void testMap() {
+		Map<String, Integer> map = new OutlineCompactMap<>(2);
+		Assert.assertNull(map.put("b", 1));
+		Assert.assertNull(map.put("a", 2));
+		Assert.assertNull(map.put(null, 3));
+		Assert.assertEquals(Integer.valueOf(2), map.put("a", 4));
+		
+		Assert.assertEquals(3, map.size());
+		Assert.assertEquals(Integer.valueOf(4), map.get("a"));
+		Assert.assertEquals(Integer.valueOf(3), map.get(null));
+		Assert.assertTrue(map.containsKey(null));
+		Assert.assertFalse(map.containsKey("c"));
+		Assert.assertEquals("{b=1, a=4, null=3}", map.toString());
+		
+		Assert.assertEquals(Integer.valueOf(1), map.remove("b"));
+		Assert.assertNull(map.remove("b"));
+		Assert.assertEquals("{a=4, null=3}", map.toString());
+		Assert.assertEquals(Integer.valueOf(4), map.get("a"));
+		
+		for(Map.Entry<String, Integer> entry : map.entrySet()) {
+			entry.setValue(entry.getValue() * 10);
+		}
+		Assert.assertEquals(Integer.valueOf(40), map.get("a"));
+		
+		map.clear();
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertNull(map.get("a"));
+	}
+	
+	@Test
+	public void testAgainstLinkedHashMap() {
+		Map<Integer, Integer> expected = new LinkedHashMap<>();
+		Map<Integer, Integer> map = new OutlineCompactMap<>();
+		Random random = new Random(42);
+		
+		for(int round = 0; round < 20000; round++) {
+			Integer key = random.nextInt(500);
+			switch(random.nextInt(4)) {
+				case 0:
+					Assert.assertEquals(expected.remove(key), map.remove(key));
+					break;
+					
+				default:
+					Assert.assertEquals(expected.put(key, round), map.put(key, round));
+					break;
+			}
+		}
+		
+		Assert.assertEquals(expected, map);
+		Assert.assertEquals(expected.hashCode(), map.hashCode());
+		Assert.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+		
+		// removing while iterating
+		Iterator<Integer> iterator = map.keySet().iterator();
+		while(iterator.hasNext()) {
+			if(iterator.next() % 2 == 0) {
+				iterator.remove();
+			}
+		}
+		
+		Iterator<Integer> keys = expected.keySet().iterator();
+		while(keys.hasNext()) {
+			if(keys.next() % 2 == 0) {
+				keys.remove();
+			}
+		}
+		
+		Assert.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+	}
+	
+}